@@ -30,6 +30,14 @@ public class AndSpecification<T> extends AbstractSpecification<T> {
         return spec1.isSatisfiedBy(object) && spec2.isSatisfiedBy(object);
     }
 
+    public Specification<T> getSpec1() {
+        return spec1;
+    }
+
+    public Specification<T> getSpec2() {
+        return spec2;
+    }
+
     @Override
     public String describe() {
         return spec1.toString() + " AND " + spec2.toString();
@@ -28,6 +28,10 @@ public class NotSpecification<T> extends AbstractSpecification<T> {
         return !wrapped.isSatisfiedBy(object);
     }
 
+    public Specification<T> getWrapped() {
+        return wrapped;
+    }
+
     @Override
     public String describe() {
         return "NOT " + wrapped.toString();
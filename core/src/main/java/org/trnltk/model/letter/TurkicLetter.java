@@ -32,6 +32,15 @@ public class TurkicLetter {
     private final boolean inAscii;
     private final boolean foreign;
     private final char englishEquivalentChar;
+    private final int properties;
+
+    // bits of the packed properties, see getProperties()
+    public static final int VOWEL = 1;
+    public static final int FRONTAL = 1 << 1;
+    public static final int ROUNDED = 1 << 2;
+    public static final int VOICELESS = 1 << 3;
+    public static final int CONTINUANT = 1 << 4;
+    public static final int STOP = 1 << 5;
 
     public static final TurkicLetter UNDEFINED = new TurkicLetter((char) 0, -1);
 
@@ -125,6 +134,8 @@ public class TurkicLetter {
         this.inAscii = builder._inAscii;
         this.foreign = builder._foreign;
         this.englishEquivalentChar = builder._englishEquivalentChar;
+        this.properties = (vowel ? VOWEL : 0) | (frontal ? FRONTAL : 0) | (rounded ? ROUNDED : 0) |
+                (voiceless ? VOICELESS : 0) | (continuant ? CONTINUANT : 0) | (this.isStopConsonant() ? STOP : 0);
     }
 
     // only used for illegal letter.
@@ -139,6 +150,7 @@ public class TurkicLetter {
         inAscii = false;
         foreign = false;
         englishEquivalentChar = c;
+        properties = 0;
     }
 
     public char charValue() {
@@ -185,6 +197,17 @@ public class TurkicLetter {
         return voiceless && !continuant;
     }
 
+    /**
+     * Returns the properties of the letter packed into an int, so that several of them can be checked at once.
+     * <p/>
+     * Bits are {@link #VOWEL}, {@link #FRONTAL}, {@link #ROUNDED}, {@link #VOICELESS}, {@link #CONTINUANT} and {@link #STOP}.
+     *
+     * @return Packed properties
+     */
+    public int getProperties() {
+        return properties;
+    }
+
     @Override
     public String toString() {
         return String.valueOf(charValue + ":" + englishEquivalentChar);
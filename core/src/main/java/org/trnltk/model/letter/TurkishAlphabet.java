@@ -188,6 +188,22 @@ public class TurkishAlphabet {
         }
     }
 
+    // chars of Latin-1 and Latin Extended-A (which contain all Turkish specific and circumflexed letters) are looked up
+    // from the tables below. others, like '€', fall back to the computation
+    private static final int CHAR_TABLE_SIZE = 0x180;
+    private static final TurkishChar[] CHAR_TABLE = new TurkishChar[CHAR_TABLE_SIZE];
+    private static final int[] CHAR_PROPERTIES_TABLE = new int[CHAR_TABLE_SIZE];
+    private static final char[] LOWER_CASE_TABLE = new char[CHAR_TABLE_SIZE];
+
+    static {
+        for (char c = 0; c < CHAR_TABLE_SIZE; c++) {
+            final TurkishChar turkishChar = new TurkishChar(c, computeLetter(c));
+            CHAR_TABLE[c] = turkishChar;
+            CHAR_PROPERTIES_TABLE[c] = turkishChar.getLetter().getProperties();
+            LOWER_CASE_TABLE[c] = computeLowerCase(c);
+        }
+    }
+
     protected static final ImmutableMap<TurkicLetter, TurkicLetter> devoicingMap = new ImmutableMap.Builder<TurkicLetter, TurkicLetter>()
             .put(L_b, L_p)
             .put(L_c, L_cc)
@@ -265,15 +281,45 @@ public class TurkishAlphabet {
      * @throws IllegalArgumentException if input character is out of alphabet.
      */
     public static TurkicLetter getLetter(char c) {
-        if (c >= MAX_CHAR_VALUE || !VALID_CHAR_TABLE[c])
-            return TurkicLetter.builder(c, 9999).build();
+        if (c < CHAR_TABLE_SIZE)
+            return CHAR_TABLE[c].getLetter();
         else
-            return CHAR_TO_LETTER_LOOKUP[c];
+            return computeLetter(c);
     }
 
+    /**
+     * Returns the {@link TurkishChar} of character c. Instances are shared for the chars in Latin-1 and
+     * Latin Extended-A ranges.
+     *
+     * @param c input character
+     * @return TurkishChar of the character
+     */
     public static TurkishChar getChar(char c) {
-        final TurkicLetter letterForChar = getLetter(c);
-        return new TurkishChar(c, letterForChar);
+        if (c < CHAR_TABLE_SIZE)
+            return CHAR_TABLE[c];
+        else
+            return new TurkishChar(c, computeLetter(c));
+    }
+
+    /**
+     * Returns the properties of the letter of character c, packed into an int.
+     *
+     * @param c input character
+     * @return Packed properties
+     * @see TurkicLetter#getProperties()
+     */
+    public static int getProperties(char c) {
+        if (c < CHAR_TABLE_SIZE)
+            return CHAR_PROPERTIES_TABLE[c];
+        else
+            return computeLetter(c).getProperties();
+    }
+
+    private static TurkicLetter computeLetter(char c) {
+        if (c >= MAX_CHAR_VALUE || !VALID_CHAR_TABLE[c])
+            return TurkicLetter.builder(c, 9999).build();
+        else
+            return CHAR_TO_LETTER_LOOKUP[c];
     }
 
     /**
@@ -286,6 +332,30 @@ public class TurkishAlphabet {
         return c < MAX_CHAR_VALUE && VALID_CHAR_TABLE[c];
     }
 
+    /**
+     * Allocation-free version of lower casing a single char with Turkish locale.
+     * <p/>
+     * 'I' becomes 'ı' and 'İ' becomes 'i'; other chars are lower cased as usual.
+     *
+     * @param c Char to lower case
+     * @return Lower case char
+     */
+    public static char toLowerCase(char c) {
+        if (c < CHAR_TABLE_SIZE)
+            return LOWER_CASE_TABLE[c];
+        else
+            return computeLowerCase(c);
+    }
+
+    private static char computeLowerCase(char c) {
+        if (c == 'I')
+            return 'ı';
+        else if (c == 'İ')
+            return 'i';
+        else
+            return Character.toLowerCase(c);
+    }
+
     public static String capitalize(String str) {
         if (StringUtils.isEmpty(str))
             return str;
@@ -20,16 +20,31 @@ import com.google.common.base.Strings;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An immutable sequence of {@link TurkishChar}s.
+ * <p/>
+ * A sequence is a slice of a backing {@link TurkishChar} array: subsequences share the array of the sequence they're
+ * created from and appends write to the unused end of the array when no other sequence did it before. Thus, neither
+ * creates a copy in the common case. Underlying string is created only when it is asked for.
+ * <p/>
+ * Since a subsequence shares the whole backing array, a short subsequence of a long sequence keeps all of the array
+ * alive. Sequences which are kept for long, for example in caches, should be {@link TurkishSequence#compact()}ed
+ * first.
  */
 public class TurkishSequence {
-    private final String underlyingString;
-    private final TurkishChar[] chars;
-    private TurkishChar firstVowel;
-    private TurkishChar lastVowel;
-    private int count;
+    private static final int MIN_APPEND_CAPACITY = 16;
+
+    private final Backing backing;
+    private final int offset;
+    private final int count;
+    private final TurkishChar firstVowel;
+    private final TurkishChar lastVowel;
+    private volatile String underlyingString;
+    private volatile char[] lowerCaseChars;
+    // 0 until calculated, like the hash code of String; racy but safe since it is always calculated the same
+    private int hash;
 
     /**
      * Create a {@link TurkishSequence} instance from a string.
@@ -41,28 +56,35 @@ public class TurkishSequence {
      */
     public TurkishSequence(String underlyingString) {
         this.underlyingString = Strings.nullToEmpty(underlyingString);
-        this.count = underlyingString.length();
-        this.chars = new TurkishChar[this.count];
-        for (int i = 0; i < underlyingString.length(); i++) {
-            char c = underlyingString.charAt(i);
-            TurkishChar turkishChar = TurkishAlphabet.getChar(c);
-            this.chars[i] = turkishChar;
+        this.count = this.underlyingString.length();
+        this.offset = 0;
+        this.backing = new Backing(this.count);
+        TurkishChar firstVowel = null;
+        TurkishChar lastVowel = null;
+        for (int i = 0; i < this.count; i++) {
+            final TurkishChar turkishChar = TurkishAlphabet.getChar(this.underlyingString.charAt(i));
+            this.backing.chars[i] = turkishChar;
             if (turkishChar.getLetter().isVowel()) {
-                if (this.firstVowel == null)
-                    this.firstVowel = turkishChar;
-                this.lastVowel = turkishChar;
+                if (firstVowel == null)
+                    firstVowel = turkishChar;
+                lastVowel = turkishChar;
             }
         }
+        this.backing.used.set(this.count);
+        this.firstVowel = firstVowel;
+        this.lastVowel = lastVowel;
     }
 
     /**
-     * Deep-copy constructor. Copies the properties from argument and creates a new {@link TurkishSequence}.
+     * Copy constructor. Since sequences are immutable, the created sequence shares the chars of the argument.
      *
      * @param toClone Sequence to copy
      */
     @SuppressWarnings("UnusedDeclaration")
     public TurkishSequence(final TurkishSequence toClone) {
-        this(toClone, "");
+        this(toClone.backing, toClone.offset, toClone.count, toClone.firstVowel, toClone.lastVowel);
+        this.underlyingString = toClone.underlyingString;
+        this.hash = toClone.hash;
     }
 
     /**
@@ -71,46 +93,39 @@ public class TurkishSequence {
      * @param turkishChars Char array to convert to a {@link TurkishSequence}
      */
     public TurkishSequence(final TurkishChar[] turkishChars) {
-        StringBuilder underlyingStringBuilder = new StringBuilder();
-        this.count = turkishChars.length;
-        this.chars = new TurkishChar[this.count];
-        for (int i = 0; i < this.count; i++) {
-            TurkishChar turkishChar = turkishChars[i];
-            this.chars[i] = turkishChar;
-            if (turkishChar.getLetter().isVowel()) {
-                if (this.firstVowel == null)
-                    this.firstVowel = turkishChar;
-                this.lastVowel = turkishChar;
-            }
-
-            underlyingStringBuilder.append(turkishChar.getCharValue());
-        }
+        this(Backing.copyOf(turkishChars, 0, turkishChars.length, turkishChars.length), 0, turkishChars.length);
+    }
 
-        this.underlyingString = underlyingStringBuilder.toString();
+    private TurkishSequence(final Backing backing, final int offset, final int count) {
+        this(backing, offset, count, findFirstVowel(backing.chars, offset, count), findLastVowel(backing.chars, offset, count));
     }
 
-    private TurkishSequence(final TurkishSequence first, final String strSecond) {
-        // some notes here:
-        // - TurkishChar instances are immutable. Thus it is safe to reference the chars of param 'first'.
+    private TurkishSequence(final Backing backing, final int offset, final int count, final TurkishChar firstVowel, final TurkishChar lastVowel) {
+        this.backing = backing;
+        this.offset = offset;
+        this.count = count;
+        this.firstVowel = firstVowel;
+        this.lastVowel = lastVowel;
+    }
 
-        final String strFirst = first.underlyingString;
-        final TurkishChar[] charsFirst = first.chars;
-        this.underlyingString = strFirst + strSecond;
-        this.count = this.underlyingString.length();
-        this.firstVowel = first.firstVowel;
-        this.lastVowel = first.lastVowel;
-        this.chars = new TurkishChar[charsFirst.length + strSecond.length()];
-        System.arraycopy(charsFirst, 0, this.chars, 0, charsFirst.length);
-        for (int i = 0; i < strSecond.length(); i++) {
-            char charOfSecondStr = strSecond.charAt(i);
-            TurkishChar turkishCharOfSecondStr = TurkishAlphabet.getChar(charOfSecondStr);
-            this.chars[i + charsFirst.length] = turkishCharOfSecondStr;
-            if (turkishCharOfSecondStr.getLetter().isVowel()) {
-                if (this.firstVowel == null)
-                    this.firstVowel = turkishCharOfSecondStr;
-                this.lastVowel = turkishCharOfSecondStr;
+    /**
+     * Returns the chars of the underlying string, lower cased with Turkish locale. Calculated once, on first call.
+     * <p/>
+     * Returned array is shared, thus must not be modified.
+     *
+     * @return Lower cased chars
+     * @see TurkishAlphabet#toLowerCase(char)
+     */
+    public char[] getLowerCaseChars() {
+        char[] chars = this.lowerCaseChars;
+        if (chars == null) {
+            chars = new char[this.count];
+            for (int i = 0; i < this.count; i++) {
+                chars[i] = TurkishAlphabet.toLowerCase(this.backing.chars[this.offset + i].getCharValue());
             }
+            this.lowerCaseChars = chars;
         }
+        return chars;
     }
 
     /**
@@ -120,11 +135,14 @@ public class TurkishSequence {
      * @return New sequence
      */
     public TurkishSequence append(TurkishChar turkishChar) {
-        return new TurkishSequence(this, String.valueOf(turkishChar.getCharValue()));
+        return this.append(String.valueOf(turkishChar.getCharValue()));
     }
 
     /**
      * Appends the given string to current sequence and returns a new sequence. Current sequence will not be modified.
+     * <p/>
+     * If nothing is appended after this sequence in its backing array yet, chars are written there. Otherwise,
+     * chars are copied to a new backing array with some extra room for the following appends.
      *
      * @param str String to append
      * @return New sequence
@@ -132,8 +150,35 @@ public class TurkishSequence {
     public TurkishSequence append(String str) {
         if (StringUtils.isEmpty(str))
             return this;
-        else
-            return new TurkishSequence(this, str);
+
+        final int end = this.offset + this.count;
+        final int newCount = this.count + str.length();
+
+        final Backing newBacking;
+        final int newOffset;
+        if (end + str.length() <= this.backing.chars.length && this.backing.used.compareAndSet(end, end + str.length())) {
+            // region after this sequence is now claimed by the new sequence
+            newBacking = this.backing;
+            newOffset = this.offset;
+        } else {
+            newBacking = Backing.copyOf(this.backing.chars, this.offset, this.count, Math.max(MIN_APPEND_CAPACITY, newCount * 2));
+            newBacking.used.set(newCount);
+            newOffset = 0;
+        }
+
+        TurkishChar firstVowel = this.firstVowel;
+        TurkishChar lastVowel = this.lastVowel;
+        for (int i = 0; i < str.length(); i++) {
+            final TurkishChar turkishChar = TurkishAlphabet.getChar(str.charAt(i));
+            newBacking.chars[newOffset + this.count + i] = turkishChar;
+            if (turkishChar.getLetter().isVowel()) {
+                if (firstVowel == null)
+                    firstVowel = turkishChar;
+                lastVowel = turkishChar;
+            }
+        }
+
+        return new TurkishSequence(newBacking, newOffset, newCount, firstVowel, lastVowel);
     }
 
     /**
@@ -151,7 +196,7 @@ public class TurkishSequence {
     /**
      * Creates a subsequence starting at index {@code beginIndex} and ending at index {@code endIndex}.
      * <p/>
-     * Returned subsequence is not a view, but a full-copy.
+     * Returned subsequence is a view sharing the chars of this sequence; nothing is copied.
      *
      * @param beginIndex The begin index
      * @param endIndex   The end index
@@ -171,9 +216,26 @@ public class TurkishSequence {
         if (((beginIndex == 0) && (endIndex == this.count)))
             return this;
 
-        return new TurkishSequence(Arrays.copyOfRange(this.chars, beginIndex, endIndex));
+        return new TurkishSequence(this.backing, this.offset + beginIndex, endIndex - beginIndex);
     }
 
+    /**
+     * Returns a sequence with the same chars which doesn't share a longer backing array, so that the rest of the array
+     * can be garbage collected while the returned sequence is kept. Returns the sequence itself if it already spans
+     * its whole backing array.
+     *
+     * @return A sequence equal to this one
+     */
+    public TurkishSequence compact() {
+        if (this.count == this.backing.chars.length)
+            return this;
+
+        final TurkishSequence compacted = new TurkishSequence(Backing.copyOf(this.backing.chars, this.offset, this.count, this.count),
+                0, this.count, this.firstVowel, this.lastVowel);
+        compacted.underlyingString = this.underlyingString;
+        compacted.hash = this.hash;
+        return compacted;
+    }
 
     /**
      * If last letter of the sequence is voicable, then returns a new sequence with last letter voiced.
@@ -198,14 +260,22 @@ public class TurkishSequence {
      * @return Shallow clone of underlying chars
      */
     public TurkishChar[] getChars() {
-        return chars.clone();
+        return Arrays.copyOfRange(this.backing.chars, this.offset, this.offset + this.count);
     }
 
     /**
+     * Returns the underlying string of the sequence. Created on first call for the sequences which are not created
+     * from a string.
+     *
      * @return Underlying string of the sequence
      */
     public String getUnderlyingString() {
-        return underlyingString;
+        String str = this.underlyingString;
+        if (str == null) {
+            str = this.createString(0, this.count);
+            this.underlyingString = str;
+        }
+        return str;
     }
 
     /**
@@ -222,7 +292,7 @@ public class TurkishSequence {
      * @return true/false
      */
     public boolean startsWith(TurkishSequence str) {
-        return this.underlyingString.startsWith(str.getUnderlyingString());
+        return str.count <= this.count && this.regionMatches(0, str);
     }
 
     /**
@@ -236,7 +306,7 @@ public class TurkishSequence {
      */
     public String substring(int beginIndex) {
         //TODO: create a version which works with negatives!
-        return this.underlyingString.substring(beginIndex);
+        return this.substring(beginIndex, this.count);
     }
 
     /**
@@ -249,9 +319,21 @@ public class TurkishSequence {
      * @param endIndex The end index
      * @return Substring
      */
-    @SuppressWarnings("UnusedDeclaration")
     private String substring(int beginIndex, int endIndex) {
-        return this.underlyingString.substring(beginIndex, endIndex);
+        final String str = this.underlyingString;
+        if (str != null)
+            return str.substring(beginIndex, endIndex);
+
+        if (beginIndex < 0) {
+            throw new StringIndexOutOfBoundsException(beginIndex);
+        }
+        if (endIndex > this.count) {
+            throw new StringIndexOutOfBoundsException(endIndex);
+        }
+        if (beginIndex > endIndex) {
+            throw new StringIndexOutOfBoundsException(endIndex - beginIndex);
+        }
+        return this.createString(beginIndex, endIndex);
     }
 
     /**
@@ -262,7 +344,11 @@ public class TurkishSequence {
      * @return true/false
      */
     public boolean isBlank() {
-        return StringUtils.isBlank(this.underlyingString);
+        for (int i = this.offset; i < this.offset + this.count; i++) {
+            if (!Character.isWhitespace(this.backing.chars[i].getCharValue()))
+                return false;
+        }
+        return true;
     }
 
     public TurkishChar getLastChar() {
@@ -273,7 +359,9 @@ public class TurkishSequence {
     }
 
     public TurkishChar charAt(int index) {
-        return this.chars[index];
+        if (index < 0 || index >= this.count)
+            throw new ArrayIndexOutOfBoundsException(index);
+        return this.backing.chars[this.offset + index];
     }
 
     public TurkishChar getLastVowel() {
@@ -284,6 +372,40 @@ public class TurkishSequence {
         return this.firstVowel;
     }
 
+    private boolean regionMatches(int index, TurkishSequence other) {
+        final TurkishChar[] chars = this.backing.chars;
+        final TurkishChar[] otherChars = other.backing.chars;
+        for (int i = 0; i < other.count; i++) {
+            if (chars[this.offset + index + i].getCharValue() != otherChars[other.offset + i].getCharValue())
+                return false;
+        }
+        return true;
+    }
+
+    private String createString(int beginIndex, int endIndex) {
+        final char[] str = new char[endIndex - beginIndex];
+        for (int i = 0; i < str.length; i++) {
+            str[i] = this.backing.chars[this.offset + beginIndex + i].getCharValue();
+        }
+        return new String(str);
+    }
+
+    private static TurkishChar findFirstVowel(TurkishChar[] chars, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            if (chars[i].getLetter().isVowel())
+                return chars[i];
+        }
+        return null;
+    }
+
+    private static TurkishChar findLastVowel(TurkishChar[] chars, int offset, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            if (chars[i].getLetter().isVowel())
+                return chars[i];
+        }
+        return null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -291,18 +413,45 @@ public class TurkishSequence {
 
         TurkishSequence that = (TurkishSequence) o;
 
-        return count == that.count && underlyingString.equals(that.underlyingString);
+        return count == that.count && this.regionMatches(0, that);
     }
 
     @Override
     public int hashCode() {
-        return underlyingString.hashCode();
+        // same with the hash code of the underlying string
+        int result = this.hash;
+        if (result == 0) {
+            for (int i = this.offset; i < this.offset + this.count; i++) {
+                result = 31 * result + this.backing.chars[i].getCharValue();
+            }
+            this.hash = result;
+        }
+        return result;
     }
 
     @Override
     public String toString() {
         return "TurkishSequence{" +
-                "underlyingString='" + underlyingString + '\'' +
+                "underlyingString='" + this.getUnderlyingString() + '\'' +
                 '}';
     }
+
+    /**
+     * Backing array of the sequences, with the length of its part which is taken by a sequence.
+     */
+    private static final class Backing {
+        private final TurkishChar[] chars;
+        private final AtomicInteger used = new AtomicInteger();
+
+        private Backing(int capacity) {
+            this.chars = new TurkishChar[capacity];
+        }
+
+        private static Backing copyOf(TurkishChar[] chars, int offset, int count, int capacity) {
+            final Backing backing = new Backing(capacity);
+            System.arraycopy(chars, offset, backing.chars, 0, count);
+            backing.used.set(count);
+            return backing;
+        }
+    }
 }
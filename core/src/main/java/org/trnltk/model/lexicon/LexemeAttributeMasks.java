@@ -0,0 +1,57 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.model.lexicon;
+
+import java.util.Collection;
+
+/**
+ * Helper functions for representing {@link LexemeAttribute} sets as <code>long</code> bit masks.
+ * <p/>
+ * Bit <code>n</code> of a mask is set iff the attribute with ordinal <code>n</code> is in the set.
+ *
+ * @see PhoneticAttributeMasks
+ */
+public final class LexemeAttributeMasks {
+    public static final long EMPTY = 0L;
+
+    static {
+        if (LexemeAttribute.values().length > Long.SIZE)
+            throw new IllegalStateException("Lexeme attributes don't fit into a long mask : " + LexemeAttribute.values().length);
+    }
+
+    private LexemeAttributeMasks() {
+    }
+
+    public static long maskOf(LexemeAttribute lexemeAttribute) {
+        return 1L << lexemeAttribute.ordinal();
+    }
+
+    public static long toMask(Collection<LexemeAttribute> lexemeAttributes) {
+        long mask = EMPTY;
+        if (lexemeAttributes == null)
+            return mask;
+        for (LexemeAttribute lexemeAttribute : lexemeAttributes) {
+            mask |= 1L << lexemeAttribute.ordinal();
+        }
+        return mask;
+    }
+
+    public static boolean contains(long mask, LexemeAttribute lexemeAttribute) {
+        return (mask & (1L << lexemeAttribute.ordinal())) != 0;
+    }
+}
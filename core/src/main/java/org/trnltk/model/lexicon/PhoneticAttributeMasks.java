@@ -0,0 +1,99 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.model.lexicon;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Helper functions for representing {@link PhoneticAttribute} sets as <code>long</code> bit masks.
+ * <p/>
+ * Bit <code>n</code> of a mask is set iff the attribute with ordinal <code>n</code> is in the set.
+ * Thus, two sets are equal iff their masks are equal.
+ */
+public final class PhoneticAttributeMasks {
+    public static final long EMPTY = 0L;
+
+    private static final PhoneticAttribute[] ATTRIBUTES = PhoneticAttribute.values();
+
+    static {
+        if (ATTRIBUTES.length > Long.SIZE)
+            throw new IllegalStateException("Phonetic attributes don't fit into a long mask : " + ATTRIBUTES.length);
+    }
+
+    // there are only a few thousand possible masks, so immutable sets are cached for all of them.
+    // racy but safe : immutable sets are safely published and any two sets for the same mask are equal
+    private static final ImmutableSet<PhoneticAttribute>[] IMMUTABLE_SETS = createImmutableSetTable();
+
+    @SuppressWarnings("unchecked")
+    private static ImmutableSet<PhoneticAttribute>[] createImmutableSetTable() {
+        if (ATTRIBUTES.length > 16)
+            return null;
+        return (ImmutableSet<PhoneticAttribute>[]) new ImmutableSet<?>[1 << ATTRIBUTES.length];
+    }
+
+    private PhoneticAttributeMasks() {
+    }
+
+    public static long maskOf(PhoneticAttribute phoneticAttribute) {
+        return 1L << phoneticAttribute.ordinal();
+    }
+
+    public static long toMask(Set<PhoneticAttribute> phoneticAttributes) {
+        long mask = EMPTY;
+        for (PhoneticAttribute phoneticAttribute : phoneticAttributes) {
+            mask |= 1L << phoneticAttribute.ordinal();
+        }
+        return mask;
+    }
+
+    public static boolean contains(long mask, PhoneticAttribute phoneticAttribute) {
+        return (mask & (1L << phoneticAttribute.ordinal())) != 0;
+    }
+
+    public static EnumSet<PhoneticAttribute> toSet(long mask) {
+        final EnumSet<PhoneticAttribute> phoneticAttributes = EnumSet.noneOf(PhoneticAttribute.class);
+        for (PhoneticAttribute phoneticAttribute : ATTRIBUTES) {
+            if ((mask & (1L << phoneticAttribute.ordinal())) != 0)
+                phoneticAttributes.add(phoneticAttribute);
+        }
+        return phoneticAttributes;
+    }
+
+    /**
+     * Returns the immutable set for the mask. Sets are cached per mask, thus no set is created on the hot path.
+     *
+     * @param mask Mask of the phonetic attributes
+     * @return Immutable set of the attributes
+     */
+    public static ImmutableSet<PhoneticAttribute> toImmutableSet(long mask) {
+        if (IMMUTABLE_SETS == null)
+            return Sets.immutableEnumSet(toSet(mask));
+
+        final int index = (int) mask;
+        ImmutableSet<PhoneticAttribute> phoneticAttributes = IMMUTABLE_SETS[index];
+        if (phoneticAttributes == null) {
+            phoneticAttributes = Sets.immutableEnumSet(toSet(mask));
+            IMMUTABLE_SETS[index] = phoneticAttributes;
+        }
+        return phoneticAttributes;
+    }
+}
@@ -17,11 +17,12 @@
 package org.trnltk.model.morpheme;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.trnltk.common.specification.Specification;
 import org.trnltk.model.letter.TurkishSequence;
 import org.trnltk.model.lexicon.*;
 import org.trnltk.model.suffix.*;
@@ -48,37 +49,48 @@ import java.util.*;
  * <p/>
  * This class is optimized to save the state of most commonly used information e.g. last suffix or suffixes since last derivation;
  * thus it is heavy.
+ * <p/>
+ * Suffix transitions are kept in a persistent chain and suffixes/suffix groups since last derivation are kept as persistent
+ * bit sets. Thus a copy shares all of these with the original and adding a transition to the copy doesn't touch
+ * the original.
  */
 @SuppressWarnings("WeakerAccess")
 public class MorphemeContainer {
 
-    private final PhoneticsAnalyzer phoneticsAnalyzer = new PhoneticsAnalyzer();
+    /**
+     * Node id value which means the suffix form graph node of the container is not known.
+     *
+     * @see MorphemeContainer#getSuffixFormGraphNodeId()
+     */
+    public static final int UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID = -1;
+
+    private static final PhoneticsAnalyzer PHONETICS_ANALYZER = new PhoneticsAnalyzer();
 
     // final values
     private final Root root;
     private final SuffixGraphState rootState;
+    private final long rootPhoneticAttributesMask;
+    private final long rootLexemeAttributesMask;
 
     // things below are changed with suffixTransitions, but do have a value set in constructor
     private TurkishSequence surfaceSoFar;
     private String remainingSurface;
-    @SuppressWarnings("CanBeFinal")
-    private LinkedList<SuffixTransition> suffixTransitions;
     private SuffixGraphState lastState;
     private String wholeSurface;
     private ImmutableSet<PhoneticExpectation> phoneticExpectations;
     private ImmutableSet<LexemeAttribute> lexemeAttributes;
-    private ImmutableSet<PhoneticAttribute> phoneticAttributes;
+    private long phoneticAttributesMask;
 
     // things below are changed with suffixTransitions, but do not have a value set in constructor
-    private SuffixTransition lastSuffixTransition = null;
-    private SuffixTransition lastDerivationSuffixTransition = null;
+    // chain links and bit sets are immutable, so they're shared with the copies
+    private TransitionChain lastSuffixTransitionLink = null;
+    private TransitionChain lastDerivationSuffixTransitionLink = null;
     private SuffixTransition lastNonBlankSuffixTransition = null;
-    private Suffix lastDerivationSuffix = null;
     private SuffixTransition lastNonBlankDerivation = null;
-    private LinkedHashSet<SuffixTransition> transitionsSinceDerivationSuffix = new LinkedHashSet<SuffixTransition>();
-    private LinkedHashSet<SuffixTransition> transitionsFromDerivationSuffix = new LinkedHashSet<SuffixTransition>();
-    private LinkedHashSet<Suffix> suffixesSinceDerivationSuffix = new LinkedHashSet<Suffix>();
-    private LinkedHashSet<SuffixGroup> suffixGroupsSinceLastDerivationSuffix = new LinkedHashSet<SuffixGroup>();
+    private PersistentBitSet suffixesSinceDerivationSuffix = PersistentBitSet.EMPTY;
+    private PersistentBitSet suffixGroupsSinceLastDerivationSuffix = PersistentBitSet.EMPTY;
+    private boolean hasPhoneticsChangingTransition = false;
+    private int suffixFormGraphNodeId = UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID;
 
     public MorphemeContainer(Root root, SuffixGraphState rootState, String remainingSurface) {
         this.root = root;
@@ -86,51 +98,47 @@ public class MorphemeContainer {
 
         this.surfaceSoFar = root.getSequence();
         this.remainingSurface = remainingSurface;
-        this.suffixTransitions = new LinkedList<SuffixTransition>();
         this.lastState = this.rootState;
         this.wholeSurface = Strings.nullToEmpty(this.surfaceSoFar.getUnderlyingString()) + Strings.nullToEmpty(this.remainingSurface);
         this.phoneticExpectations = Sets.immutableEnumSet(root.getPhoneticExpectations());
         this.lexemeAttributes = Sets.immutableEnumSet(this.root.getLexeme().getAttributes());
-        this.phoneticAttributes = Sets.immutableEnumSet(this.root.getPhoneticAttributes());
+        this.rootPhoneticAttributesMask = PhoneticAttributeMasks.toMask(this.root.getPhoneticAttributes());
+        this.rootLexemeAttributesMask = LexemeAttributeMasks.toMask(this.root.getLexeme().getAttributes());
+        this.phoneticAttributesMask = this.rootPhoneticAttributesMask;
     }
 
     public MorphemeContainer(final MorphemeContainer toCopy) {
         this.root = toCopy.root;
         this.rootState = toCopy.rootState;
+        this.rootPhoneticAttributesMask = toCopy.rootPhoneticAttributesMask;
+        this.rootLexemeAttributesMask = toCopy.rootLexemeAttributesMask;
         this.surfaceSoFar = toCopy.surfaceSoFar;
         this.remainingSurface = toCopy.remainingSurface;
-        //noinspection unchecked
-        this.suffixTransitions = (LinkedList<SuffixTransition>) toCopy.suffixTransitions.clone();
         this.lastState = toCopy.lastState;
         this.wholeSurface = toCopy.wholeSurface;
         this.phoneticExpectations = toCopy.phoneticExpectations;
         this.lexemeAttributes = toCopy.lexemeAttributes;
-        this.phoneticAttributes = toCopy.phoneticAttributes;
+        this.phoneticAttributesMask = toCopy.phoneticAttributesMask;
 
-        this.lastSuffixTransition = toCopy.lastSuffixTransition;
-        this.lastDerivationSuffixTransition = toCopy.lastDerivationSuffixTransition;
+        this.lastSuffixTransitionLink = toCopy.lastSuffixTransitionLink;
+        this.lastDerivationSuffixTransitionLink = toCopy.lastDerivationSuffixTransitionLink;
         this.lastNonBlankSuffixTransition = toCopy.lastNonBlankSuffixTransition;
-        this.lastDerivationSuffix = toCopy.lastDerivationSuffix;
         this.lastNonBlankDerivation = toCopy.lastNonBlankDerivation;
-        //noinspection unchecked
-        this.transitionsSinceDerivationSuffix = (LinkedHashSet<SuffixTransition>) toCopy.transitionsSinceDerivationSuffix.clone();
-        //noinspection unchecked
-        this.transitionsFromDerivationSuffix = (LinkedHashSet<SuffixTransition>) toCopy.transitionsFromDerivationSuffix.clone();
-        //noinspection unchecked
-        this.suffixesSinceDerivationSuffix = (LinkedHashSet<Suffix>) toCopy.suffixesSinceDerivationSuffix.clone();
-        //noinspection unchecked
-        this.suffixGroupsSinceLastDerivationSuffix = (LinkedHashSet<SuffixGroup>) toCopy.suffixGroupsSinceLastDerivationSuffix.clone();
+        this.suffixesSinceDerivationSuffix = toCopy.suffixesSinceDerivationSuffix;
+        this.suffixGroupsSinceLastDerivationSuffix = toCopy.suffixGroupsSinceLastDerivationSuffix;
+        this.hasPhoneticsChangingTransition = toCopy.hasPhoneticsChangingTransition;
+        this.suffixFormGraphNodeId = toCopy.suffixFormGraphNodeId;
     }
 
     /**
-     * Deep clone the given {@code MorphemeContainer} and set remaining surface of the container according to the given whole surface.
+     * Clone the given {@code MorphemeContainer} and set remaining surface of the container according to the given whole surface.
      *
      * @param toCopy       source container
      * @param wholeSurface Whole surface to compute remaining surface
      */
     public MorphemeContainer(MorphemeContainer toCopy, TurkishSequence wholeSurface) {
         this(toCopy);
-        this.remainingSurface = wholeSurface.subsequence(toCopy.getSurfaceSoFar().getUnderlyingString().length()).getUnderlyingString();
+        this.remainingSurface = wholeSurface.substring(toCopy.getSurfaceSoFar().length());
     }
 
     /**
@@ -140,10 +148,38 @@ public class MorphemeContainer {
      * @param targetState           target suffix graph state to go with the transition
      */
     public void addTransition(SuffixFormApplication suffixFormApplication, SuffixGraphState targetState) {
-        final SuffixTransition newSuffixTransition = new SuffixTransition(this.lastState, suffixFormApplication, targetState);
-        this.suffixTransitions.add(newSuffixTransition);
+        this.addTransition(new SuffixTransition(this.lastState, suffixFormApplication, targetState));
+    }
+
+    /**
+     * Add a suffix transition and incrementally re-compute the states. Transition is referenced, not copied; thus
+     * shared transitions (e.g. the ones of the suffix form graph edges) can be used.
+     *
+     * @param newSuffixTransition Transition whose source state must be the last state of the container
+     */
+    public void addTransition(SuffixTransition newSuffixTransition) {
+        Validate.isTrue(newSuffixTransition.getSourceState().equals(this.lastState), "Transition doesn't start from the last state of the container");
+        this.lastSuffixTransitionLink = new TransitionChain(newSuffixTransition, this.lastSuffixTransitionLink);
 
         this.reinitialize(newSuffixTransition);
+        this.suffixFormGraphNodeId = UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID;
+    }
+
+    /**
+     * Same as {@link MorphemeContainer#addTransition(SuffixTransition)}, but also keeps the id of the suffix form graph
+     * node which the transition goes to. Id is kept only if the phonetic attributes of the container are the same
+     * with the ones of the node after the transition.
+     *
+     * @param newSuffixTransition    Transition whose source state must be the last state of the container
+     * @param targetNodeId           Id of the target node in the suffix form graph
+     * @param targetNodePhonAttrMask Phonetic attributes mask of the target node
+     */
+    public void addTransition(SuffixTransition newSuffixTransition, int targetNodeId, long targetNodePhonAttrMask) {
+        this.addTransition(newSuffixTransition);
+        // target node is computed with the phonetic attributes of the source node and the suffix form only;
+        // container's attributes are computed with the whole surface so far. they're the same for most of the cases
+        if (targetNodePhonAttrMask == this.phoneticAttributesMask)
+            this.suffixFormGraphNodeId = targetNodeId;
     }
 
     private void reinitialize(final SuffixTransition newSuffixTransition) {
@@ -155,10 +191,13 @@ public class MorphemeContainer {
         // recompute the things incrementally
 
         // update surface so far and remaining surface
-        this.surfaceSoFar = this.surfaceSoFar.append(suffixFormApplication.getActualSuffixForm());
+        final String actualSuffixForm = suffixFormApplication.getActualSuffixForm();
+        this.surfaceSoFar = this.surfaceSoFar.append(actualSuffixForm);
+        // whole surface doesn't change when the suffix form is taken from the remaining surface, which is the usual case
+        final boolean wholeSurfaceChanged = StringUtils.isBlank(this.remainingSurface) || !this.remainingSurface.startsWith(actualSuffixForm);
         this.remainingSurface = StringUtils.isBlank(this.remainingSurface) ?
                 StringUtils.EMPTY :
-                this.remainingSurface.substring(suffixFormApplication.getActualSuffixForm().length());
+                this.remainingSurface.substring(actualSuffixForm.length());
 
         // when there is a non-blank suffix form, then clear phoneticExpectations, since parser checked
         // them and decided that they're satisfied
@@ -167,37 +206,38 @@ public class MorphemeContainer {
 
         // update easy stuff
         this.lastState = newSuffixTransition.getTargetState();
-        this.lastSuffixTransition = newSuffixTransition;
-        this.wholeSurface = Strings.nullToEmpty(this.surfaceSoFar.getUnderlyingString()) + Strings.nullToEmpty(this.remainingSurface);
+        if (wholeSurfaceChanged)
+            this.wholeSurface = Strings.nullToEmpty(this.surfaceSoFar.getUnderlyingString()) + Strings.nullToEmpty(this.remainingSurface);
 
         if (newSuffixTransition.isDerivational()) {
             // update the things when new suffix is a derivational one
 
-            this.lastDerivationSuffixTransition = newSuffixTransition;
-            this.lastDerivationSuffix = suffixForm.getSuffix();
-            this.transitionsSinceDerivationSuffix = new LinkedHashSet<SuffixTransition>();
-            //noinspection unchecked
-            this.transitionsFromDerivationSuffix = new LinkedHashSet(Arrays.asList(newSuffixTransition));
-            this.suffixesSinceDerivationSuffix = new LinkedHashSet<Suffix>();
-            this.suffixGroupsSinceLastDerivationSuffix = new LinkedHashSet<SuffixGroup>();
+            this.lastDerivationSuffixTransitionLink = this.lastSuffixTransitionLink;
+            this.suffixesSinceDerivationSuffix = PersistentBitSet.EMPTY;
+            this.suffixGroupsSinceLastDerivationSuffix = PersistentBitSet.EMPTY;
 
             if (suffixFormApplication.getSuffixForm().getForm().isNotBlank())
                 this.lastNonBlankDerivation = newSuffixTransition;
 
         } else {
-            this.transitionsSinceDerivationSuffix.add(newSuffixTransition);
-            this.transitionsFromDerivationSuffix.add(newSuffixTransition);
-            this.suffixesSinceDerivationSuffix.add(suffixForm.getSuffix());
+            this.suffixesSinceDerivationSuffix = this.suffixesSinceDerivationSuffix.with(suffixForm.getSuffix().getIndex());
             if (suffixForm.getSuffix().getSuffixGroup() != null)
-                this.suffixGroupsSinceLastDerivationSuffix.add(suffixForm.getSuffix().getSuffixGroup());
+                this.suffixGroupsSinceLastDerivationSuffix = this.suffixGroupsSinceLastDerivationSuffix.with(suffixForm.getSuffix().getSuffixGroup().getIndex());
         }
 
         if (suffixFormApplication.getSuffixForm().getForm().isNotBlank())
             this.lastNonBlankSuffixTransition = newSuffixTransition;
 
+        // free transitions, zero transitions and transitions with empty suffix forms don't change the phonetic
+        // attributes of a string. the str " " would change the phonetics!
+        final Suffix suffix = suffixForm.getSuffix();
+        if (!(suffix instanceof FreeTransitionSuffix) && !(suffix instanceof ZeroTransitionSuffix) && !(suffix instanceof ConditionalFreeTransitionSuffix)
+                && StringUtils.isNotEmpty(suffixFormApplication.getActualSuffixForm()))
+            this.hasPhoneticsChangingTransition = true;
+
         // cannot do the following 2 incrementally
         this.lexemeAttributes = this.findLexemeAttributes();
-        this.phoneticAttributes = this.findPhoneticAttributes();
+        this.phoneticAttributesMask = this.findPhoneticAttributesMask();
     }
 
     /**
@@ -230,55 +270,135 @@ public class MorphemeContainer {
     /**
      * Get suffix transitions that are added since derivation suffix. Result <b>does not</b> include the last derivation suffix.
      * <p/>
+     * Set is built from the transitions, use {@link MorphemeContainer#hasSuffixFormSinceDerivationSuffix(int, String)}
+     * for checking a single suffix form.
+     * <p/>
      * Returned set is unmodifiable (JDK).
      *
      * @return set
      */
     public Set<SuffixTransition> getTransitionsSinceDerivationSuffix() {
-        // since Guava immutable collections are copying the items, using JDK unmodifiable collections for a better performance
-        return Collections.unmodifiableSet(this.transitionsSinceDerivationSuffix);
+        return Collections.unmodifiableSet(new LinkedHashSet<SuffixTransition>(this.collectTransitionsAfter(this.lastDerivationSuffixTransitionLink)));
     }
 
     /**
      * Get suffix transitions that are added from derivation suffix. Result <b>includes</b> the last derivation suffix.
      * <p/>
+     * Set is built from the transitions, use {@link MorphemeContainer#findTransitionFromDerivationSuffixNotSatisfiedBy(MorphemeContainer)}
+     * for checking the post derivative conditions.
+     * <p/>
      * Returned set is unmodifiable (JDK).
      *
      * @return set
      */
     public Set<SuffixTransition> getTransitionsFromDerivationSuffix() {
-        // since Guava immutable collections are copying the items, using JDK unmodifiable collections for a better performance
-        return Collections.unmodifiableSet(this.transitionsFromDerivationSuffix);
+        final LinkedList<SuffixTransition> transitions = this.collectTransitionsAfter(this.lastDerivationSuffixTransitionLink);
+        if (this.lastDerivationSuffixTransitionLink != null)
+            transitions.addFirst(this.lastDerivationSuffixTransitionLink.getTransition());
+        return Collections.unmodifiableSet(new LinkedHashSet<SuffixTransition>(transitions));
+    }
+
+    /**
+     * Finds a transition from derivation suffix whose suffix form has a post derivative condition that is not satisfied
+     * by the given container. Last derivation suffix is included. Transitions are walked back from the last one,
+     * without building a set.
+     *
+     * @param morphemeContainer Container to check the post derivative conditions against, usually a copy of this
+     *                          container with a new transition
+     * @return First transition found or null if all post derivative conditions are satisfied
+     */
+    public SuffixTransition findTransitionFromDerivationSuffixNotSatisfiedBy(MorphemeContainer morphemeContainer) {
+        final TransitionChain stopLink = this.lastDerivationSuffixTransitionLink == null ? null : this.lastDerivationSuffixTransitionLink.getPrevious();
+        for (TransitionChain link = this.lastSuffixTransitionLink; link != stopLink; link = link.getPrevious()) {
+            final Specification<MorphemeContainer> postDerivativeCondition = link.getTransition().getSuffixFormApplication().getSuffixForm().getPostDerivativeCondition();
+            if (postDerivativeCondition != null && !postDerivativeCondition.isSatisfiedBy(morphemeContainer))
+                return link.getTransition();
+        }
+        return null;
     }
 
     /**
      * Get suffixes since derivation suffix. Result <b>does not</b> include the last derivation suffix.
      * <p/>
-     * This could also be computed by using {@link org.trnltk.model.morpheme.MorphemeContainer#getTransitionsSinceDerivationSuffix()}
-     * but that is slow.
+     * Set is built from the transitions, use {@link MorphemeContainer#hasSuffixSinceDerivationSuffix(org.trnltk.model.suffix.Suffix)}
+     * for checking a single suffix.
      * <p/>
      * Returned set is unmodifiable (JDK).
      *
      * @return set
      */
     public Set<Suffix> getSuffixesSinceDerivationSuffix() {
-        // since Guava immutable collections are copying the items, using JDK unmodifiable collections for a better performance
-        return Collections.unmodifiableSet(this.suffixesSinceDerivationSuffix);
+        final LinkedHashSet<Suffix> suffixes = new LinkedHashSet<Suffix>();
+        for (SuffixTransition suffixTransition : this.collectTransitionsAfter(this.lastDerivationSuffixTransitionLink)) {
+            suffixes.add(suffixTransition.getSuffixFormApplication().getSuffixForm().getSuffix());
+        }
+        return Collections.unmodifiableSet(suffixes);
+    }
+
+    /**
+     * Checks if the suffix is applied since derivation suffix, without building a set.
+     *
+     * @return true if {@link MorphemeContainer#getSuffixesSinceDerivationSuffix()} contains the suffix
+     */
+    public boolean hasSuffixSinceDerivationSuffix(Suffix suffix) {
+        return this.suffixesSinceDerivationSuffix.contains(suffix.getIndex());
+    }
+
+    /**
+     * Index version of {@link MorphemeContainer#hasSuffixSinceDerivationSuffix(org.trnltk.model.suffix.Suffix)}.
+     *
+     * @param suffixIndex Index of the suffix, see {@link org.trnltk.model.suffix.Suffix#getIndex()}
+     */
+    public boolean hasSuffixSinceDerivationSuffix(int suffixIndex) {
+        return this.suffixesSinceDerivationSuffix.contains(suffixIndex);
+    }
+
+    /**
+     * Checks if the suffix is applied with the given suffix form since derivation suffix, without building a set.
+     *
+     * @param suffixIndex   Index of the suffix, see {@link org.trnltk.model.suffix.Suffix#getIndex()}
+     * @param suffixFormStr Suffix form string of the application, see {@link SuffixFormSequence#getSuffixFormStr()}
+     * @return true if {@link MorphemeContainer#getTransitionsSinceDerivationSuffix()} contains such a transition
+     */
+    public boolean hasSuffixFormSinceDerivationSuffix(int suffixIndex, String suffixFormStr) {
+        if (!this.suffixesSinceDerivationSuffix.contains(suffixIndex))
+            return false;
+
+        for (TransitionChain link = this.lastSuffixTransitionLink; link != this.lastDerivationSuffixTransitionLink; link = link.getPrevious()) {
+            final SuffixForm suffixForm = link.getTransition().getSuffixFormApplication().getSuffixForm();
+            if (suffixForm.getSuffix().getIndex() == suffixIndex && suffixForm.getForm().getSuffixFormStr().equals(suffixFormStr))
+                return true;
+        }
+        return false;
     }
 
     /**
      * Get suffix groups since derivation suffix. Result <b>does not</b> include the group of last derivation suffix.
      * <p/>
-     * This could also be computed by using {@link org.trnltk.model.morpheme.MorphemeContainer#getTransitionsSinceDerivationSuffix()}
-     * but that is slow.
+     * Set is built from the transitions, use {@link MorphemeContainer#hasSuffixGroupSinceLastDerivationSuffix(org.trnltk.model.suffix.SuffixGroup)}
+     * for checking a single group.
      * <p/>
      * Returned set is unmodifiable (JDK).
      *
      * @return set
      */
     public Set<SuffixGroup> getSuffixGroupsSinceLastDerivationSuffix() {
-        // since Guava immutable collections are copying the items, using JDK unmodifiable collections for a better performance
-        return Collections.unmodifiableSet(this.suffixGroupsSinceLastDerivationSuffix);
+        final LinkedHashSet<SuffixGroup> suffixGroups = new LinkedHashSet<SuffixGroup>();
+        for (SuffixTransition suffixTransition : this.collectTransitionsAfter(this.lastDerivationSuffixTransitionLink)) {
+            final SuffixGroup suffixGroup = suffixTransition.getSuffixFormApplication().getSuffixForm().getSuffix().getSuffixGroup();
+            if (suffixGroup != null)
+                suffixGroups.add(suffixGroup);
+        }
+        return Collections.unmodifiableSet(suffixGroups);
+    }
+
+    /**
+     * Checks if a suffix of the group is applied since derivation suffix, without building a set.
+     *
+     * @return true if {@link MorphemeContainer#getSuffixGroupsSinceLastDerivationSuffix()} contains the group
+     */
+    public boolean hasSuffixGroupSinceLastDerivationSuffix(SuffixGroup suffixGroup) {
+        return this.suffixGroupsSinceLastDerivationSuffix.contains(suffixGroup.getIndex());
     }
 
     /**
@@ -287,7 +407,7 @@ public class MorphemeContainer {
      * @return transition
      */
     public SuffixTransition getLastDerivationSuffixTransition() {
-        return this.lastDerivationSuffixTransition;
+        return this.lastDerivationSuffixTransitionLink == null ? null : this.lastDerivationSuffixTransitionLink.getTransition();
     }
 
     /**
@@ -297,6 +417,21 @@ public class MorphemeContainer {
         return this.root;
     }
 
+    /**
+     * @return Lexeme attributes of the root as a mask, see {@link LexemeAttributeMasks}
+     */
+    public long getRootLexemeAttributesMask() {
+        return this.rootLexemeAttributesMask;
+    }
+
+    /**
+     * @return true if a transition which can change the phonetic attributes of the surface is added; that is a
+     *         transition that is not free or zero and has a non-empty suffix form
+     */
+    public boolean hasPhoneticsChangingTransition() {
+        return this.hasPhoneticsChangingTransition;
+    }
+
     /**
      * @return Starting point in suffix graph
      */
@@ -312,7 +447,26 @@ public class MorphemeContainer {
      * @return set
      */
     public ImmutableSet<PhoneticAttribute> getPhoneticAttributes() {
-        return this.phoneticAttributes;
+        return PhoneticAttributeMasks.toImmutableSet(this.phoneticAttributesMask);
+    }
+
+    /**
+     * Get phonetic attributes for the container as a mask, see {@link PhoneticAttributeMasks}.
+     *
+     * @return mask
+     */
+    public long getPhoneticAttributesMask() {
+        return this.phoneticAttributesMask;
+    }
+
+    /**
+     * Get id of the node in the suffix form graph which the container is at, if it is known. Id is only a shortcut for
+     * the parser to skip finding the node by the last state and the phonetic attributes.
+     *
+     * @return Node id or {@link #UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID}
+     */
+    public int getSuffixFormGraphNodeId() {
+        return this.suffixFormGraphNodeId;
     }
 
     /**
@@ -347,14 +501,15 @@ public class MorphemeContainer {
      * @return true if container has a suffix transition added
      */
     public boolean hasTransitions() {
-        return CollectionUtils.isNotEmpty(this.suffixTransitions);
+        return this.lastSuffixTransitionLink != null;
     }
 
     /**
      * @return last derivation suffix
      */
     public Suffix getLastDerivationSuffix() {
-        return this.lastDerivationSuffix;
+        return this.lastDerivationSuffixTransitionLink == null ? null :
+                this.lastDerivationSuffixTransitionLink.getTransition().getSuffixFormApplication().getSuffixForm().getSuffix();
     }
 
     /**
@@ -368,17 +523,25 @@ public class MorphemeContainer {
      * @return last suffix transition
      */
     public SuffixTransition getLastSuffixTransition() {
-        return this.lastSuffixTransition;
+        return this.lastSuffixTransitionLink == null ? null : this.lastSuffixTransitionLink.getTransition();
     }
 
     /**
      * Get all suffix transitions applied to the container
      *
-     * @return Unmodifiable (JDK) list
+     * @return Immutable list, which is computed once and shared with the copies of the container
      */
     public List<SuffixTransition> getSuffixTransitions() {
-        // since Guava immutable collections are copying the items, using JDK unmodifiable collections for a better performance
-        return Collections.unmodifiableList(this.suffixTransitions);
+        return this.lastSuffixTransitionLink == null ? ImmutableList.<SuffixTransition>of() : this.lastSuffixTransitionLink.toList();
+    }
+
+    private LinkedList<SuffixTransition> collectTransitionsAfter(TransitionChain stopLink) {
+        // walk the chain back until the given link (exclusive)
+        final LinkedList<SuffixTransition> transitions = new LinkedList<SuffixTransition>();
+        for (TransitionChain link = this.lastSuffixTransitionLink; link != stopLink; link = link.getPrevious()) {
+            transitions.addFirst(link.getTransition());
+        }
+        return transitions;
     }
 
     private ImmutableSet<LexemeAttribute> findLexemeAttributes() {
@@ -390,7 +553,7 @@ public class MorphemeContainer {
         // ...... then voicing is not applicable. (e.g. yurut+uyor != yuruduyor)
         // ...... then return NoVoicing
 
-        if (CollectionUtils.isEmpty(this.suffixTransitions))
+        if (!this.hasTransitions())
             return Sets.immutableEnumSet(this.root.getLexeme().getAttributes());
 
         final SuffixTransition lastNonBlankSuffixTransition = this.getLastNonBlankSuffixTransition();
@@ -417,18 +580,18 @@ public class MorphemeContainer {
 
     }
 
-    private ImmutableSet<PhoneticAttribute> findPhoneticAttributes() {
+    private long findPhoneticAttributesMask() {
         // if there are no transitions or no non-blank transitions or only non-alphanumeric transitions
         // ...then use the phonetic attributes of the root (no need to calculate them using LexemeAttributes and root sequence)
         // otherwise, calculate the phonetic attributes from the sequence built so far and the lexeme attributes of the container
         if (this.hasTransitions()) {
             final String suffixSoFar = this.surfaceSoFar.substring(this.root.getSequence().length());
             if (StringUtils.isBlank(suffixSoFar) || !StringUtils.isAlphanumeric(suffixSoFar))
-                return Sets.immutableEnumSet(this.root.getPhoneticAttributes());
+                return this.rootPhoneticAttributesMask;
             else
-                return Sets.immutableEnumSet(phoneticsAnalyzer.calculatePhoneticAttributes(this.getSurfaceSoFar(), this.getLexemeAttributes()));
+                return PHONETICS_ANALYZER.calculatePhoneticAttributesMask(this.getSurfaceSoFar(), this.getLexemeAttributes());
         } else {
-            return Sets.immutableEnumSet(root.getPhoneticAttributes());
+            return this.rootPhoneticAttributesMask;
         }
     }
 
@@ -444,7 +607,7 @@ public class MorphemeContainer {
         else if (!remainingSurface.equals(that.remainingSurface)) return false;
         else if (!root.equals(that.root)) return false;
         else if (!surfaceSoFar.equals(that.surfaceSoFar)) return false;
-        else if (suffixTransitions != null ? !suffixTransitions.equals(that.suffixTransitions) : that.suffixTransitions != null) return false;
+        else if (!this.getSuffixTransitions().equals(that.getSuffixTransitions())) return false;
 
         return true;
     }
@@ -455,7 +618,7 @@ public class MorphemeContainer {
         result = 31 * result + rootState.hashCode();
         result = 31 * result + surfaceSoFar.hashCode();
         result = 31 * result + remainingSurface.hashCode();
-        result = 31 * result + (suffixTransitions != null ? suffixTransitions.hashCode() : 0);
+        result = 31 * result + this.getSuffixTransitions().hashCode();
         result = 31 * result + (phoneticExpectations != null ? phoneticExpectations.hashCode() : 0);
         return result;
     }
@@ -467,7 +630,7 @@ public class MorphemeContainer {
                 ", rootState=" + rootState +
                 ", surfaceSoFar='" + surfaceSoFar + '\'' +
                 ", remainingSurface='" + remainingSurface + '\'' +
-                ", suffixTransitions=" + suffixTransitions +
+                ", suffixTransitions=" + this.getSuffixTransitions() +
                 ", phoneticExpectations=" + phoneticExpectations +
                 '}';
     }
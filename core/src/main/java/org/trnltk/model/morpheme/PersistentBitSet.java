@@ -0,0 +1,49 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.model.morpheme;
+
+import java.util.Arrays;
+
+/**
+ * Immutable bit set. Adding an index returns a new set, or the same set if the index is already there.
+ * Thus, sets can be shared between {@link MorphemeContainer}s freely.
+ */
+final class PersistentBitSet {
+    static final PersistentBitSet EMPTY = new PersistentBitSet(new long[0]);
+
+    private final long[] words;
+
+    private PersistentBitSet(long[] words) {
+        this.words = words;
+    }
+
+    boolean contains(int index) {
+        final int wordIndex = index >>> 6;
+        return wordIndex < words.length && (words[wordIndex] & (1L << index)) != 0;
+    }
+
+    PersistentBitSet with(int index) {
+        if (this.contains(index))
+            return this;
+
+        final int wordIndex = index >>> 6;
+        final long[] newWords = Arrays.copyOf(words, Math.max(words.length, wordIndex + 1));
+        newWords[wordIndex] |= 1L << index;
+        return new PersistentBitSet(newWords);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.model.morpheme;
+
+import com.google.common.collect.ImmutableList;
+import org.trnltk.model.suffix.SuffixTransition;
+
+/**
+ * Immutable, singly linked (cons) list of {@link SuffixTransition}s where each link points to the previous transition.
+ * <p/>
+ * A {@link MorphemeContainer} and the containers derived from it share the common part of the chain;
+ * adding a transition only creates a new link.
+ */
+final class TransitionChain {
+    private final SuffixTransition transition;
+    private final TransitionChain previous;
+    private final int size;
+
+    // computed on demand. ImmutableList is safe to publish without synchronization
+    private ImmutableList<SuffixTransition> list;
+
+    TransitionChain(SuffixTransition transition, TransitionChain previous) {
+        this.transition = transition;
+        this.previous = previous;
+        this.size = previous == null ? 1 : previous.size + 1;
+    }
+
+    SuffixTransition getTransition() {
+        return transition;
+    }
+
+    TransitionChain getPrevious() {
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return Transitions from the first one to this one, in order
+     */
+    ImmutableList<SuffixTransition> toList() {
+        ImmutableList<SuffixTransition> result = this.list;
+        if (result == null) {
+            final SuffixTransition[] transitions = new SuffixTransition[size];
+            TransitionChain link = this;
+            for (int i = size - 1; i >= 0; i--) {
+                transitions[i] = link.transition;
+                link = link.previous;
+            }
+            result = ImmutableList.copyOf(transitions);
+            this.list = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.model.suffix;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns dense, stable integer indices to names.
+ * <p/>
+ * Since {@link Suffix} and {@link SuffixGroup} equality is name based, instances with the same name get the same index
+ * even if they belong to different suffix graph instances.
+ */
+final class NameIndex {
+    private final ConcurrentMap<String, Integer> indices = new ConcurrentHashMap<String, Integer>();
+
+    int indexOf(String name) {
+        final Integer index = indices.get(name);
+        if (index != null)
+            return index;
+
+        synchronized (this) {
+            final Integer existingIndex = indices.get(name);
+            if (existingIndex != null)
+                return existingIndex;
+
+            final int newIndex = indices.size();
+            indices.put(name, newIndex);
+            return newIndex;
+        }
+    }
+}
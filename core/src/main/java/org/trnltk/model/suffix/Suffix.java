@@ -29,11 +29,14 @@ import java.util.Set;
  * <i>t</i>, <i>It</i>, <i>dIr</i> ..
  */
 public class Suffix {
+    private static final NameIndex NAME_INDEX = new NameIndex();
+
     private final String name;
     private final Set<SuffixForm> suffixForms = new LinkedHashSet<SuffixForm>();    //use LinkedHashSet to keep insertion order
     private final SuffixGroup suffixGroup;
     private final String prettyName;
     private final boolean allowRepetition;
+    private final int index;
 
 
     /**
@@ -51,6 +54,7 @@ public class Suffix {
         this.suffixGroup = suffixGroup;
         this.prettyName = prettyName;
         this.allowRepetition = allowRepetition;
+        this.index = NAME_INDEX.indexOf(name);
     }
 
 
@@ -133,6 +137,13 @@ public class Suffix {
         return name;
     }
 
+    /**
+     * @return A small non-negative number which is same for all <code>Suffix</code>es with the same name. Suitable for bit sets.
+     */
+    public int getIndex() {
+        return index;
+    }
+
     /**
      * @return Added {@link SuffixForm}s of <code>Suffix</code>
      * @see Suffix#Suffix(String, SuffixGroup, String, boolean)
@@ -16,6 +16,7 @@
 
 package org.trnltk.model.suffix;
 
+import com.google.common.base.Function;
 import org.trnltk.common.specification.Specification;
 import org.trnltk.model.morpheme.MorphemeContainer;
 
@@ -41,6 +42,11 @@ public class SuffixForm {
     private final Specification<MorphemeContainer> postCondition;
     private final Specification<MorphemeContainer> postDerivativeCondition;
 
+    // compiled versions of the conditions, if compiled. originals are kept for equality
+    private Specification<MorphemeContainer> compiledPrecondition;
+    private Specification<MorphemeContainer> compiledPostCondition;
+    private Specification<MorphemeContainer> compiledPostDerivativeCondition;
+
     public SuffixForm(Suffix suffix, String form, Specification<MorphemeContainer> precondition,
                       Specification<MorphemeContainer> postCondition, Specification<MorphemeContainer> postDerivativeCondition) {
         this.suffix = suffix;
@@ -69,7 +75,7 @@ public class SuffixForm {
      * @see SuffixForm
      */
     public Specification<MorphemeContainer> getPostCondition() {
-        return postCondition;
+        return compiledPostCondition != null ? compiledPostCondition : postCondition;
     }
 
     /**
@@ -77,7 +83,7 @@ public class SuffixForm {
      * @see SuffixForm
      */
     public Specification<MorphemeContainer> getPrecondition() {
-        return precondition;
+        return compiledPrecondition != null ? compiledPrecondition : precondition;
     }
 
     /**
@@ -85,7 +91,24 @@ public class SuffixForm {
      * @see SuffixForm
      */
     public Specification<MorphemeContainer> getPostDerivativeCondition() {
-        return postDerivativeCondition;
+        return compiledPostDerivativeCondition != null ? compiledPostDerivativeCondition : postDerivativeCondition;
+    }
+
+    /**
+     * Compiles the conditions with the given compiler. Getters return the compiled conditions afterwards, whereas
+     * equality is still checked with the original conditions.
+     * <p/>
+     * Must be called before the suffix form is shared between threads, e.g. while the suffix graph is initialized.
+     *
+     * @param compiler Compiler which returns an equivalent specification; it is never called with null
+     */
+    public void compileConditions(Function<Specification<MorphemeContainer>, Specification<MorphemeContainer>> compiler) {
+        if (precondition != null)
+            this.compiledPrecondition = compiler.apply(precondition);
+        if (postCondition != null)
+            this.compiledPostCondition = compiler.apply(postCondition);
+        if (postDerivativeCondition != null)
+            this.compiledPostDerivativeCondition = compiler.apply(postDerivativeCondition);
     }
 
     @Override
@@ -26,11 +26,15 @@ import java.util.Set;
  * in graphical representation (e.g. suffixes from the same group are drawn with the same color).
  */
 public class SuffixGroup {
+    private static final NameIndex NAME_INDEX = new NameIndex();
+
     private final String name;
     private final Set<Suffix> suffixes = new LinkedHashSet<Suffix>();
+    private final int index;
 
     public SuffixGroup(String name) {
         this.name = name;
+        this.index = NAME_INDEX.indexOf(name);
     }
 
     /**
@@ -40,6 +44,13 @@ public class SuffixGroup {
         return name;
     }
 
+    /**
+     * @return A small non-negative number which is same for all groups with the same name. Suitable for bit sets.
+     */
+    public int getIndex() {
+        return index;
+    }
+
     /**
      * @return Suffixes that belong to this group
      */
@@ -21,9 +21,13 @@ import org.trnltk.model.morpheme.MorphemeContainer;
 import org.trnltk.morphology.contextless.parser.cache.MorphologicParserCache;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Uses a caching with compute-if-absent logic. Different cache algorithms could be injected (One level, Two level, LRU, Time-based, etc.)
+ * <p/>
+ * When multiple threads miss the cache for the same input at the same time, input is parsed only once; other threads
+ * wait for the result of the thread which started parsing it.
  */
 public class CachingMorphologicParser implements MorphologicParser {
 
@@ -31,6 +35,9 @@ public class CachingMorphologicParser implements MorphologicParser {
     private final MorphologicParserCache cache;
     private final boolean useLocalCache;
 
+    // parses that are in progress, to share the results with the threads that miss the cache for the same input
+    private final ConcurrentMap<String, FutureTask<List<MorphemeContainer>>> inFlightParses = new ConcurrentHashMap<String, FutureTask<List<MorphemeContainer>>>();
+
     /**
      * Create a new caching parser.
      *
@@ -47,77 +54,109 @@ public class CachingMorphologicParser implements MorphologicParser {
     }
 
     /**
-     * @see CachingMorphologicParser#parse(org.trnltk.model.letter.TurkishSequence)
-     * @deprecated Throws {@link UnsupportedOperationException}
+     * Parses the underlying strings of the given sequences.
+     *
+     * @see CachingMorphologicParser#parseAllStr(java.util.List)
      */
     @Override
     public List<List<MorphemeContainer>> parseAll(List<TurkishSequence> inputs) {
-        throw new UnsupportedOperationException();
+        final List<String> inputStrs = new ArrayList<String>(inputs.size());
+        for (TurkishSequence input : inputs) {
+            inputStrs.add(input.getUnderlyingString());
+        }
+        return this.parseAllStr(inputStrs);
     }
 
     @Override
     public List<List<MorphemeContainer>> parseAllStr(List<String> inputs) {
         final List<List<MorphemeContainer>> results = new ArrayList<List<MorphemeContainer>>(inputs.size());
 
-        final Map<String, List<MorphemeContainer>> newValuesMap = new HashMap<String, List<MorphemeContainer>>();
         if (useLocalCache) {
             // a method-local cache and values to update.
             // this is done to prevent blocking the cache (I mean the one which is field, not the local variable)
+            final Map<String, List<MorphemeContainer>> newValuesMap = new HashMap<String, List<MorphemeContainer>>();
 
             for (String input : inputs) {
                 final List<MorphemeContainer> locallyCachedValues = newValuesMap.get(input);
                 if (locallyCachedValues != null) {
                     results.add(locallyCachedValues);
                 } else {
-                    final List<MorphemeContainer> cachedResult = this.cache.get(input);
-                    if (cachedResult != null) {
-                        results.add(cachedResult);
-                    } else {
-                        List<MorphemeContainer> morphemeContainers = this.delegate.parseStr(input);
-                        morphemeContainers = morphemeContainers == null ? Collections.<MorphemeContainer>emptyList() : morphemeContainers;
-                        results.add(morphemeContainers);
-                        newValuesMap.put(input, morphemeContainers);
-                    }
+                    // values parsed here are put on the cache right away, so that other threads can use them
+                    final List<MorphemeContainer> morphemeContainers = this.parseStr(input);
+                    results.add(morphemeContainers);
+                    newValuesMap.put(input, morphemeContainers);
                 }
             }
         } else {
             for (String input : inputs) {
-                final List<MorphemeContainer> result = this.delegate.parseStr(input);
-                newValuesMap.put(input, result);
+                // values parsed here are put on the cache right away, same as above
+                results.add(this.parseStr(input));
             }
         }
 
-        cache.putAll(newValuesMap);
-
         return results;
     }
 
     @Override
     public List<MorphemeContainer> parseStr(String input) {
         final List<MorphemeContainer> cachedResult = this.cache.get(input);
-        if (cachedResult != null) {
+        if (cachedResult != null)
             return cachedResult;
-        } else {
-            final List<MorphemeContainer> morphemeContainers = this.delegate.parseStr(input);
+
+        final FutureTask<List<MorphemeContainer>> newParse = new FutureTask<List<MorphemeContainer>>(new ParseAndCacheTask(input));
+        final FutureTask<List<MorphemeContainer>> inFlightParse = this.inFlightParses.putIfAbsent(input, newParse);
+        if (inFlightParse != null)
+            return this.getResult(inFlightParse);
+
+        try {
+            newParse.run();
+        } finally {
+            // result is already on the cache, unless the cache is an offline one
+            this.inFlightParses.remove(input, newParse);
+        }
+        return this.getResult(newParse);
+    }
+
+    private List<MorphemeContainer> getResult(Future<List<MorphemeContainer>> parse) {
+        try {
+            return parse.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parse results of another thread", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException("Parse failed", e.getCause());
+        }
+    }
+
+    private class ParseAndCacheTask implements Callable<List<MorphemeContainer>> {
+        private final String input;
+
+        private ParseAndCacheTask(String input) {
+            this.input = input;
+        }
+
+        @Override
+        public List<MorphemeContainer> call() throws Exception {
+            List<MorphemeContainer> morphemeContainers = delegate.parseStr(input);
+            morphemeContainers = morphemeContainers == null ? Collections.<MorphemeContainer>emptyList() : morphemeContainers;
             cache.put(input, morphemeContainers);
-            return morphemeContainers == null ? Collections.<MorphemeContainer>emptyList() : morphemeContainers;
+            return morphemeContainers;
         }
     }
 
     /**
-     * Parsing a {@link TurkishSequence} is not supported since {@link MorphologicParserCache} is only using strings
+     * Parses the underlying string of the given sequence, since {@link MorphologicParserCache} is only using strings
      * as cache keys.
-     * <p/>
-     * This method could just convert the {@link TurkishSequence} to string and use it, but in this case client of this method
-     * wouldn't notice that he/she is doing an expensive operation (creating {@link TurkishSequence}s) without need.
-     * <p/>
-     * * = in case of caching
      *
-     * @deprecated Throws {@link UnsupportedOperationException}
+     * @see CachingMorphologicParser#parseStr(String)
      */
     @Override
     public List<MorphemeContainer> parse(TurkishSequence input) {
-        throw new UnsupportedOperationException();
+        return this.parseStr(input.getUnderlyingString());
     }
 
 }
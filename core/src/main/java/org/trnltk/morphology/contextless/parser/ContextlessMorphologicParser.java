@@ -17,7 +17,6 @@
 package org.trnltk.morphology.contextless.parser;
 
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.commons.collections.CollectionUtils;
@@ -28,6 +27,7 @@ import org.trnltk.model.letter.TurkishSequence;
 import org.trnltk.model.lexicon.Root;
 import org.trnltk.model.morpheme.MorphemeContainer;
 import org.trnltk.model.suffix.SuffixFormApplication;
+import org.trnltk.model.suffix.SuffixTransition;
 import org.trnltk.morphology.contextless.rootfinder.RootFinderChain;
 import org.trnltk.morphology.morphotactics.SuffixGraphState;
 import org.trnltk.morphology.morphotactics.SuffixGraphStateType;
@@ -41,6 +41,31 @@ import java.util.*;
 public class ContextlessMorphologicParser implements MorphologicParser {
     private final Logger logger = Logger.getLogger(ContextlessMorphologicParser.class);
 
+    /**
+     * Defines how the suffix form graph is traversed for the candidates.
+     * <p/>
+     * Both strategies find the same results, only the order of the results can differ.
+     */
+    public enum TraversalStrategy {
+        /**
+         * Traverses all candidates level by level, recursively.
+         */
+        BREADTH_FIRST,
+
+        /**
+         * Traverses candidates one by one with an explicit work stack which is reused per thread.
+         * Creates less garbage for long inputs with lots of derivations.
+         */
+        DEPTH_FIRST
+    }
+
+    private final ThreadLocal<MorphemeContainerStack> traversalStacks = new ThreadLocal<MorphemeContainerStack>() {
+        @Override
+        protected MorphemeContainerStack initialValue() {
+            return new MorphemeContainerStack();
+        }
+    };
+
     private final MandatoryTransitionApplier mandatoryTransitionApplier;
     private ContextlessMorphologicParserListener listener;
 
@@ -48,8 +73,16 @@ public class ContextlessMorphologicParser implements MorphologicParser {
     private final PredefinedPaths predefinedPaths;
     private final RootFinderChain rootFinderChain;
     private final SuffixApplier suffixApplier;
+    private final TraversalStrategy traversalStrategy;
 
     public ContextlessMorphologicParser(final SuffixFormGraph suffixFormGraph, final PredefinedPaths predefinedPaths, final RootFinderChain rootFinderChain, final SuffixApplier suffixApplier) {
+        this(suffixFormGraph, predefinedPaths, rootFinderChain, suffixApplier, TraversalStrategy.BREADTH_FIRST);
+    }
+
+    public ContextlessMorphologicParser(final SuffixFormGraph suffixFormGraph, final PredefinedPaths predefinedPaths, final RootFinderChain rootFinderChain, final SuffixApplier suffixApplier,
+                                        final TraversalStrategy traversalStrategy) {
+        Validate.notNull(traversalStrategy);
+        this.traversalStrategy = traversalStrategy;
         this.suffixFormGraph = suffixFormGraph;
         this.predefinedPaths = predefinedPaths;
         this.rootFinderChain = rootFinderChain;
@@ -105,6 +138,11 @@ public class ContextlessMorphologicParser implements MorphologicParser {
         final List<MorphemeContainer> candidateMorphemeContainersWithMandatoryTransitions = mandatoryTransitionApplier.applyMandatoryTransitionsToMorphemeContainers(candidateMorphemeContainers, input);
 
         final LinkedList<MorphemeContainer> results = new LinkedList<MorphemeContainer>();
+        if (TraversalStrategy.DEPTH_FIRST.equals(this.traversalStrategy)) {
+            this.traverseCandidatesDepthFirst(candidateMorphemeContainersWithMandatoryTransitions, results, input);
+            return results;
+        }
+
         final LinkedList<MorphemeContainer> newCandidates = this.traverseCandidates(candidateMorphemeContainersWithMandatoryTransitions, results, input);
 
         if (CollectionUtils.isNotEmpty(newCandidates))
@@ -166,80 +204,164 @@ public class ContextlessMorphologicParser implements MorphologicParser {
         return newCandidates;
     }
 
-    private LinkedList<MorphemeContainer> traverseCandidate(final MorphemeContainer initialContainer, final TurkishSequence input) {
-        // * traverse one container --> try all possible suffix transitions for the container and find the new containers
-        //  >>> where the transitions are applied
+    private void traverseCandidatesDepthFirst(final List<MorphemeContainer> candidates, final List<MorphemeContainer> results, final TurkishSequence input) {
+        // * same as traverseCandidates, but goes deep first using a work stack instead of building a list for each level
+        // * stack is taken out of the thread local while in use; a nested parse in the same thread (e.g. from the listener)
+        //   gets its own stack
 
-        if (SuffixGraphStateType.TERMINAL.equals(initialContainer.getLastState().getType()))
-            return Lists.newLinkedList(Arrays.asList(initialContainer));
+        final MorphemeContainerStack stack = this.traversalStacks.get();
+        this.traversalStacks.remove();
+        try {
+            for (MorphemeContainer candidate : candidates) {
+                if (SuffixGraphStateType.TERMINAL.equals(candidate.getLastState().getType()))
+                    this.collectTerminal(candidate, results);
+                else
+                    this.expandCandidate(candidate, stack, results, input);
+            }
+
+            while (!stack.isEmpty()) {
+                final MorphemeContainer candidate = stack.pop();
+                this.expandCandidate(candidate, stack, results, input);
+                // same with the breadth first traversal : non-terminal containers created during traversal are invalidated
+                // once they are traversed
+                if (listener != null)
+                    this.listener.onMorphemeContainerInvalidated(candidate);
+            }
+        } finally {
+            stack.clear();
+            this.traversalStacks.set(stack);
+        }
+    }
+
+    private void expandCandidate(final MorphemeContainer candidate, final MorphemeContainerStack stack, final List<MorphemeContainer> results,
+                                 final TurkishSequence input) {
+        if (logger.isDebugEnabled())
+            logger.debug(" Traversing candidate: " + candidate);
+
+        final SuffixFormGraphNode currentNode = this.getNodeForMorphemeContainer(candidate);
 
-        final SuffixFormGraphNodeKey currentSuffixFormGraphNodeKey = new SuffixFormGraphNodeKey(initialContainer.getLastState(), initialContainer.getPhoneticAttributes());
-        final SuffixFormGraphNode currentNode = this.suffixFormGraph.getNode(currentSuffixFormGraphNodeKey);
-        if (currentNode == null) {
-            throw new IllegalStateException("Node not found for key : " + currentSuffixFormGraphNodeKey.getState() + " set: " + new PhoneticAttributeSets().getNumberForSet(currentSuffixFormGraphNodeKey.getPhonAttrSet()));
+        final SuffixFormGraphEdgeIndex edgeIndex = currentNode.getEdgeIndex();
+        final String remainingSurface = candidate.getRemainingSurface();
+
+        this.expandCandidateWithEdges(candidate, edgeIndex, 0, edgeIndex.getEmptyFormEdgeCount(), stack, results, input);
+        if (!remainingSurface.isEmpty()) {
+            final int firstCharIndex = edgeIndex.indexOfFirstChar(remainingSurface.charAt(0));
+            if (firstCharIndex >= 0)
+                this.expandCandidateWithEdges(candidate, edgeIndex, edgeIndex.getFirstCharStart(firstCharIndex), edgeIndex.getFirstCharEnd(firstCharIndex), stack, results, input);
         }
+    }
 
-        final LinkedList<MorphemeContainer> newCandidates = new LinkedList<MorphemeContainer>();
+    private void expandCandidateWithEdges(final MorphemeContainer candidate, final SuffixFormGraphEdgeIndex edgeIndex, final int start, final int end,
+                                          final MorphemeContainerStack stack, final List<MorphemeContainer> results, final TurkishSequence input) {
+        for (int i = start; i < end; i++) {
+            final MorphemeContainer newMorphemeContainer = this.tryEdge(candidate, edgeIndex, i, input);
+            if (newMorphemeContainer == null)
+                continue;
 
-        final Set<SuffixFormGraphSuffixEdge> edges = this.getApplicableSuffixesOfNodeForMorphemeContainer(currentNode, initialContainer);
-        if (logger.isDebugEnabled()) {
-            if (CollectionUtils.isEmpty(edges))
-                logger.debug(String.format("  No applicable transition edges found for morpheme_container from node %s", currentNode));
+            if (SuffixGraphStateType.TERMINAL.equals(newMorphemeContainer.getLastState().getType()))
+                this.collectTerminal(newMorphemeContainer, results);
             else
-                logger.debug(String.format("  Found applicable transition edges for morpheme_container from node %s: %s", currentNode, edges));
+                stack.push(newMorphemeContainer);
         }
+    }
 
+    /**
+     * Applies the edge at the given position of the index to the container.
+     *
+     * @return New container, or null if the edge is not applicable
+     */
+    private MorphemeContainer tryEdge(final MorphemeContainer candidate, final SuffixFormGraphEdgeIndex edgeIndex, final int position, final TurkishSequence input) {
+        final SuffixTransition suffixTransition = edgeIndex.getSuffixTransition(position);
+        if (!this.isTransitionApplicable(suffixTransition, candidate))
+            return null;
 
         if (logger.isDebugEnabled())
-            logger.debug(String.format("  Found applicable suffixes for morpheme_container from node %s: %s", currentNode, edges));
+            logger.debug(String.format("   Going to try suffixFormApplication : %s", suffixTransition.getSuffixFormApplication()));
 
-        for (SuffixFormGraphSuffixEdge transitionEdge : edges) {
-            final SuffixFormApplication suffixFormApplication = transitionEdge.getSuffixFormApplication();
+        final MorphemeContainer newMorphemeContainer = this.suffixApplier.trySuffixTransition(candidate, suffixTransition, edgeIndex.getPhoneticExpectations(position),
+                edgeIndex.getTargetNodeId(position), edgeIndex.getTargetPhonAttrMask(position), input);
 
-            if (logger.isDebugEnabled())
-                logger.debug(String.format("   Going to try suffixFormApplication : %s", suffixFormApplication));
+        if (logger.isDebugEnabled())
+            logger.debug(String.format("   Applied transition : %s . Applied morpheme container %s", suffixTransition, newMorphemeContainer));
 
-            final SuffixGraphState targetState = transitionEdge.getTargetSuffixFormGraphNode().getSuffixFormGraphNodeKey().getState();
-            final MorphemeContainer morphemeContainerForSuffixFormApplication = this.suffixApplier.trySuffixFormApplication(initialContainer, suffixFormApplication, targetState, transitionEdge.getPhoneticExpectations(), input);
-            if (morphemeContainerForSuffixFormApplication != null)
-                newCandidates.add(morphemeContainerForSuffixFormApplication);
+        return newMorphemeContainer;
+    }
+
+    private boolean isTransitionApplicable(final SuffixTransition suffixTransition, final MorphemeContainer morphemeContainer) {
+        // suffix form must be the beginning of the remaining surface and suffix must not be applied since last derivation
+        final SuffixFormApplication suffixFormApplication = suffixTransition.getSuffixFormApplication();
+        return morphemeContainer.getRemainingSurface().startsWith(suffixFormApplication.getActualSuffixForm()) &&
+                !morphemeContainer.hasSuffixSinceDerivationSuffix(suffixFormApplication.getSuffixForm().getSuffix());
+    }
 
+    private void collectTerminal(final MorphemeContainer morphemeContainer, final List<MorphemeContainer> results) {
+        if (StringUtils.isBlank(morphemeContainer.getRemainingSurface())) {
+            results.add(morphemeContainer);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Found a terminal result --------------------->");
+                logger.debug(morphemeContainer);
+                logger.debug(MorphemeContainerFormatter.formatMorphemeContainerWithForms(morphemeContainer));
+            }
+        } else {
             if (logger.isDebugEnabled())
-                logger.debug(String.format("   Applied edge : %s . Applied morpheme container %s", transitionEdge, morphemeContainerForSuffixFormApplication));
+                logger.debug("Found a terminal result, but there is still remaining to parse : " + morphemeContainer);
         }
+    }
 
-        return newCandidates;
+    private SuffixFormGraphNode getNodeForMorphemeContainer(final MorphemeContainer morphemeContainer) {
+        final int nodeId = morphemeContainer.getSuffixFormGraphNodeId();
+        if (nodeId != MorphemeContainer.UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID)
+            return this.suffixFormGraph.getNode(nodeId);
+
+        final SuffixGraphState state = morphemeContainer.getLastState();
+        final SuffixFormGraphNode node = this.suffixFormGraph.getNode(state, morphemeContainer.getPhoneticAttributesMask());
+        if (node == null) {
+            throw new IllegalStateException("Node not found for key : " + state + " set: " + morphemeContainer.getPhoneticAttributes() + " mask: " + morphemeContainer.getPhoneticAttributesMask());
+        }
+        return node;
     }
 
-    private Set<SuffixFormGraphSuffixEdge> getApplicableSuffixesOfNodeForMorphemeContainer(final SuffixFormGraphNode node, final MorphemeContainer morphemeContainer) {
+    private LinkedList<MorphemeContainer> traverseCandidate(final MorphemeContainer initialContainer, final TurkishSequence input) {
+        // * traverse one container --> try all possible suffix transitions for the container and find the new containers
+        //  >>> where the transitions are applied
+
+        if (SuffixGraphStateType.TERMINAL.equals(initialContainer.getLastState().getType()))
+            return Lists.newLinkedList(Arrays.asList(initialContainer));
+
+        final SuffixFormGraphNode currentNode = this.getNodeForMorphemeContainer(initialContainer);
+
         if (logger.isDebugEnabled()) {
-            logger.debug("  Finding applicable suffixes for morpheme_container from node " + node + " : " + morphemeContainer);
-            logger.debug("   Found outputs " + node.getEdges());
+            logger.debug("  Finding applicable suffixes for morpheme_container from node " + currentNode + " : " + initialContainer);
+            logger.debug("   Found outputs " + currentNode.getEdges());
         }
 
-        Set<SuffixFormGraphSuffixEdge> edges = node.getEdges();
+        final LinkedList<MorphemeContainer> newCandidates = new LinkedList<MorphemeContainer>();
 
-        edges = Sets.filter(edges, new Predicate<SuffixFormGraphSuffixEdge>() {
-            @Override
-            public boolean apply(SuffixFormGraphSuffixEdge input) {
-                final String appliedSuffixForm = input.getSuffixFormApplication().getActualSuffixForm();
-                return morphemeContainer.getRemainingSurface().startsWith(appliedSuffixForm);
-            }
-        });
-        if (logger.isDebugEnabled())
-            logger.debug("   Filtered out suffix forms which are not beginning of remaining surface " + morphemeContainer.getSuffixesSinceDerivationSuffix() + " : " + edges);
+        // only the edges with empty suffix forms and the edges starting with the first char of the remaining surface
+        // could be applicable. rest are not even checked
+        final SuffixFormGraphEdgeIndex edgeIndex = currentNode.getEdgeIndex();
+        final String remainingSurface = initialContainer.getRemainingSurface();
 
+        this.traverseCandidateWithEdges(initialContainer, edgeIndex, 0, edgeIndex.getEmptyFormEdgeCount(), newCandidates, input);
+        if (!remainingSurface.isEmpty()) {
+            final int firstCharIndex = edgeIndex.indexOfFirstChar(remainingSurface.charAt(0));
+            if (firstCharIndex >= 0)
+                this.traverseCandidateWithEdges(initialContainer, edgeIndex, edgeIndex.getFirstCharStart(firstCharIndex), edgeIndex.getFirstCharEnd(firstCharIndex), newCandidates, input);
+        }
 
-        edges = Sets.filter(edges, new Predicate<SuffixFormGraphSuffixEdge>() {
-            @Override
-            public boolean apply(SuffixFormGraphSuffixEdge input) {
-                return !morphemeContainer.getSuffixesSinceDerivationSuffix().contains(input.getSuffixFormApplication().getSuffixForm().getSuffix());
-            }
-        });
-        if (logger.isDebugEnabled())
-            logger.debug("   Filtered out the applied suffixes since last derivation " + morphemeContainer.getSuffixesSinceDerivationSuffix() + " : " + edges);
+        if (logger.isDebugEnabled() && newCandidates.isEmpty())
+            logger.debug(String.format("  No applicable transition edges found for morpheme_container from node %s", currentNode));
+
+        return newCandidates;
+    }
 
-        return edges;
+    private void traverseCandidateWithEdges(final MorphemeContainer initialContainer, final SuffixFormGraphEdgeIndex edgeIndex, final int start, final int end,
+                                            final List<MorphemeContainer> newCandidates, final TurkishSequence input) {
+        for (int i = start; i < end; i++) {
+            final MorphemeContainer morphemeContainerForSuffixFormApplication = this.tryEdge(initialContainer, edgeIndex, i, input);
+            if (morphemeContainerForSuffixFormApplication != null)
+                newCandidates.add(morphemeContainerForSuffixFormApplication);
+        }
     }
 
     private LinkedList<MorphemeContainer> findInitialMorphemeContainers(final TurkishSequence input) {
@@ -247,14 +369,13 @@ public class ContextlessMorphologicParser implements MorphologicParser {
 
         final LinkedList<MorphemeContainer> candidates = new LinkedList<MorphemeContainer>();
 
-        for (int i = 1; i < input.length() + 1; i++) {
-            final TurkishSequence partialInput = input.subsequence(0, i);
-
-            final List<Root> roots = this.rootFinderChain.findRootsForPartialInput(partialInput, input);
+        final List<List<Root>> rootsForPartialInputs = this.rootFinderChain.findRootsForAllPartialInputs(input);
 
+        for (int i = 1; i < input.length() + 1; i++) {
+            final List<Root> roots = rootsForPartialInputs.get(i - 1);
 
             if (logger.isDebugEnabled()) {
-                logger.debug(String.format("Found %d root candidates for partial input '%s':", roots.size(), partialInput));
+                logger.debug(String.format("Found %d root candidates for partial input '%s':", roots.size(), input.getUnderlyingString().substring(0, i)));
                 for (Root root : roots) {
                     logger.debug("\t " + root.toString());
                 }
@@ -307,4 +428,8 @@ public class ContextlessMorphologicParser implements MorphologicParser {
     public void setListener(ContextlessMorphologicParserListener listener) {
         this.listener = listener;
     }
+
+    public RootFinderChain getRootFinderChain() {
+        return rootFinderChain;
+    }
 }
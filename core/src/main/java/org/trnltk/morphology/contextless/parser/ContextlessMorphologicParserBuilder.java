@@ -1,38 +1,48 @@
 package org.trnltk.morphology.contextless.parser;
 
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
 import org.apache.commons.lang3.Validate;
 import org.trnltk.model.lexicon.Root;
 import org.trnltk.morphology.contextless.parser.cache.MorphologicParserCache;
+import org.trnltk.morphology.contextless.parser.cache.PersistedOfflineCache;
 import org.trnltk.morphology.contextless.parser.cache.SimpleOfflineCache;
 import org.trnltk.morphology.contextless.rootfinder.*;
-import org.trnltk.morphology.lexicon.RootMapFactory;
 import org.trnltk.morphology.morphotactics.*;
-import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
-import org.trnltk.morphology.phonetics.PhoneticsEngine;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * A helper class to build morphologic parsers.
+ * <p/>
+ * Parsers built with the bundled suffix graphs share the same {@link ParserRuntime}, thus the dictionary and the graphs
+ * are created only once per JVM. Builders only configure the per-parser options like root finders and caching.
  */
 @SuppressWarnings({"WeakerAccess", "UnusedDeclaration"})
 public class ContextlessMorphologicParserBuilder {
 
+    // set only for a custom suffix graph; bundled ones are created when the parser is built, if the shared runtime is not used
     private SuffixGraph suffixGraph;
     private RootFinderChain rootFinderChain;
     private MorphologicParserCache cache;
     private boolean useLocalCache;
+    private File persistedCacheFile;
+    private Collection<String> persistedCacheWords;
+    private File suffixFormGraphSnapshotFile;
+    private boolean lazySuffixFormGraph;
+    private ContextlessMorphologicParser.TraversalStrategy traversalStrategy = ContextlessMorphologicParser.TraversalStrategy.BREADTH_FIRST;
+    private ParserRuntime runtime;
 
-    private final HashMultimap<String, ? extends Root> _dictionaryRootMap;
-
-    private ContextlessMorphologicParserBuilder(boolean convertCircumflexes) {
-        this.rootFinderChain = new RootFinderChain(new RootValidator());
+    // null if a custom suffix graph is set
+    private List<ParserRuntime.BundledSuffixGraph> bundledSuffixGraphs = new ArrayList<ParserRuntime.BundledSuffixGraph>();
 
-        // create root entries from bundled dictionary
-        if (convertCircumflexes)
-            _dictionaryRootMap = RootMapFactory.createSimpleWithNumbersConvertCircumflexes();
-        else
-            _dictionaryRootMap = RootMapFactory.createSimpleWithNumbers();
+    private final boolean convertCircumflexes;
 
+    private ContextlessMorphologicParserBuilder(boolean convertCircumflexes) {
+        this.rootFinderChain = new RootFinderChain();
+        this.convertCircumflexes = convertCircumflexes;
     }
 
     /**
@@ -65,38 +75,40 @@ public class ContextlessMorphologicParserBuilder {
      */
     public MorphologicParser build(boolean defaults) {
         if (defaults) {
-            if (this.suffixGraph == null)
+            if (this.runtime == null && !this.hasSuffixGraph())
                 this.includeAllBundledSuffixGraphs();
             if (!this.rootFinderChain.hasRootFinders())
                 this.addAllBundledNoBruteForceRootFinders(true);
         } else {
-            Validate.notNull(suffixGraph, "No suffix graph included!");
+            Validate.isTrue(runtime != null || this.hasSuffixGraph(), "No suffix graph included!");
             Validate.notNull(rootFinderChain.hasRootFinders(), "No root finders added!");
         }
 
-
-        // create common phonetic and morphotactic parts
-        final PhoneticsAnalyzer phoneticsAnalyzer = new PhoneticsAnalyzer();
-        final PhoneticAttributeSets phoneticAttributeSets = new PhoneticAttributeSets();
-        final SuffixFormSequenceApplier suffixFormSequenceApplier = new SuffixFormSequenceApplier();
-        final PhoneticsEngine phoneticsEngine = new PhoneticsEngine(suffixFormSequenceApplier);
-        final SuffixApplier suffixApplier = new SuffixApplier(phoneticsEngine);
-
-        // following is to extract a form-based graph from a suffix-based graph
-        final SuffixFormGraphExtractor suffixFormGraphExtractor = new SuffixFormGraphExtractor(suffixFormSequenceApplier, phoneticsAnalyzer, phoneticAttributeSets);
-
-        // need to initialize suffix graph first
-        suffixGraph.initialize();
-
-        // extract the formBasedGraph
-        final SuffixFormGraph suffixFormGraph = suffixFormGraphExtractor.extract(suffixGraph);
-
-
-        // create predefined paths
-        final PredefinedPaths predefinedPaths = new PredefinedPaths(suffixGraph, _dictionaryRootMap, suffixApplier);
-        predefinedPaths.initialize();
-
-        final MorphologicParser parser = new ContextlessMorphologicParser(suffixFormGraph, predefinedPaths, rootFinderChain, suffixApplier);
+        final ParserRuntime parserRuntime;
+        if (this.runtime != null)
+            parserRuntime = this.runtime;
+        else if (this.lazySuffixFormGraph)
+            parserRuntime = ParserRuntime.createLazy(bundledSuffixGraphs != null ? ParserRuntime.createBundledSuffixGraph(bundledSuffixGraphs) : suffixGraph,
+                    this.getDictionaryRootMap());
+        else if (this.bundledSuffixGraphs != null)
+            parserRuntime = ParserRuntime.getShared(convertCircumflexes, bundledSuffixGraphs, suffixFormGraphSnapshotFile);
+        else
+            parserRuntime = ParserRuntime.create(suffixGraph, this.getDictionaryRootMap(), suffixFormGraphSnapshotFile);
+
+        final MorphologicParser parser = new ContextlessMorphologicParser(parserRuntime.getSuffixFormGraph(), parserRuntime.getPredefinedPaths(),
+                rootFinderChain, parserRuntime.getSuffixApplier(), traversalStrategy);
+
+        if (persistedCacheFile != null) {
+            // needs the initialized suffix graph, thus created here
+            final SuffixGraph initializedSuffixGraph = parserRuntime.getSuffixGraph();
+            final Multimap<String, ? extends Root> dictionaryRootMap = parserRuntime.getDictionaryRootMap();
+            // fingerprint of a custom dictionary is computed from its roots by the cache
+            final Long dictionaryFingerprint = ParserRuntime.getSharedDictionaryFingerprint(dictionaryRootMap);
+            if (persistedCacheWords == null)
+                cache = PersistedOfflineCache.forTop20kWords(persistedCacheFile, initializedSuffixGraph, dictionaryRootMap, dictionaryFingerprint);
+            else
+                cache = new PersistedOfflineCache(persistedCacheFile, persistedCacheWords, initializedSuffixGraph, dictionaryRootMap, dictionaryFingerprint);
+        }
 
         if (cache != null)
             return new CachingMorphologicParser(cache, parser, useLocalCache);
@@ -104,8 +116,25 @@ public class ContextlessMorphologicParserBuilder {
             return parser;
     }
 
+    /**
+     * Build the parser with already given criteria and wrap it with a {@link ParallelMorphologicParser}, so that batch
+     * parsing methods of the resulting parser split the inputs and parse them concurrently on the given number of
+     * worker threads.
+     * <p/>
+     * Every call creates a new worker pool. Caller owns the returned parser and must close it when it is no longer used.
+     *
+     * @param defaults    See {@link #build(boolean)}
+     * @param threadCount Number of worker threads
+     * @see ParallelMorphologicParser
+     */
+    public ParallelMorphologicParser buildParallel(boolean defaults, int threadCount) {
+        Validate.isTrue(threadCount > 0, "Thread count must be positive : " + threadCount);
+        return new ParallelMorphologicParser(this.build(defaults), threadCount);
+    }
+
     public ContextlessMorphologicParserBuilder addAllBundledNoBruteForceRootFinders(boolean includeProperNounRootFinders) {
-        final DictionaryRootFinder dictionaryRootFinder = new DictionaryRootFinder(_dictionaryRootMap);
+        // dictionary of a runtime is never modified
+        final DictionaryRootFinder dictionaryRootFinder = new DictionaryRootFinder(this.getDictionaryRootMap(), true);
         final RangeDigitsRootFinder rangeDigitsRootFinder = new RangeDigitsRootFinder();
         final OrdinalDigitsRootFinder ordinalDigitsRootFinder = new OrdinalDigitsRootFinder();
         final CardinalDigitsRootFinder cardinalDigitsRootFinder = new CardinalDigitsRootFinder();
@@ -166,34 +195,96 @@ public class ContextlessMorphologicParserBuilder {
     }
 
     /**
-     * Set {@link SuffixGraph} to use manually.
+     * Roots found by the root finders will be validated. Useful for finding the bugs in custom root finders; validation
+     * is not necessary for the bundled root finders.
+     *
+     * @see RootFinderChain#validateRoots(org.trnltk.morphology.contextless.rootfinder.RootValidator)
+     */
+    public ContextlessMorphologicParserBuilder validateRoots() {
+        this.rootFinderChain.validateRoots(new RootValidator());
+        return this;
+    }
+
+    /**
+     * Root finder chain of the parser will collect statistics of the root finders. They are available through
+     * {@link ContextlessMorphologicParser#getRootFinderChain()}.
+     *
+     * @see RootFinderChain#getStatistics()
+     */
+    public ContextlessMorphologicParserBuilder collectRootFinderStatistics() {
+        this.rootFinderChain.collectStatistics();
+        return this;
+    }
+
+    /**
+     * Set {@link SuffixGraph} to use manually. Parser will not share the runtime with other parsers.
      */
     public ContextlessMorphologicParserBuilder suffixGraph(SuffixGraph suffixGraph) {
+        Validate.isTrue(this.runtime == null, "Suffix graph cannot be set when a runtime is set!");
         this.suffixGraph = suffixGraph;
+        this.bundledSuffixGraphs = null;
         return this;
     }
 
     public ContextlessMorphologicParserBuilder includeBundledBasicSuffixGraph() {
-        Validate.isTrue(this.suffixGraph == null, "Basic suffix graph must be included as the first suffix graph!");
-        this.suffixGraph = new BasicSuffixGraph();
-        return this;
+        Validate.isTrue(!this.hasSuffixGraph(), "Basic suffix graph must be included as the first suffix graph!");
+        return this.includeBundledSuffixGraph(ParserRuntime.BundledSuffixGraph.BASIC);
     }
 
     public ContextlessMorphologicParserBuilder includeBundledNumeralSuffixGraph() {
-        this.suffixGraph = new NumeralSuffixGraph(this.suffixGraph);
-        return this;
+        if (this.bundledSuffixGraphs == null)
+            this.suffixGraph = new NumeralSuffixGraph(this.suffixGraph);
+        return this.includeBundledSuffixGraph(ParserRuntime.BundledSuffixGraph.NUMERAL);
     }
 
     public ContextlessMorphologicParserBuilder includeBundledProperNounSuffixGraph() {
-        this.suffixGraph = new ProperNounSuffixGraph(this.suffixGraph);
-        return this;
+        if (this.bundledSuffixGraphs == null)
+            this.suffixGraph = new ProperNounSuffixGraph(this.suffixGraph);
+        return this.includeBundledSuffixGraph(ParserRuntime.BundledSuffixGraph.PROPER_NOUN);
     }
 
     public ContextlessMorphologicParserBuilder includeBundledCopulaSuffixGraph() {
-        this.suffixGraph = new CopulaSuffixGraph(this.suffixGraph);
+        if (this.bundledSuffixGraphs == null)
+            this.suffixGraph = new CopulaSuffixGraph(this.suffixGraph);
+        return this.includeBundledSuffixGraph(ParserRuntime.BundledSuffixGraph.COPULA);
+    }
+
+    // only records the bundled suffix graph, unless it decorates a custom suffix graph
+    private ContextlessMorphologicParserBuilder includeBundledSuffixGraph(ParserRuntime.BundledSuffixGraph bundledSuffixGraph) {
+        Validate.isTrue(this.runtime == null, "Suffix graph cannot be set when a runtime is set!");
+        if (this.bundledSuffixGraphs != null) {
+            Validate.isTrue(bundledSuffixGraph == ParserRuntime.BundledSuffixGraph.BASIC || !this.bundledSuffixGraphs.isEmpty(),
+                    "Basic suffix graph must be included as the first suffix graph!");
+            this.bundledSuffixGraphs.add(bundledSuffixGraph);
+        }
         return this;
     }
 
+    private boolean hasSuffixGraph() {
+        return this.suffixGraph != null || (this.bundledSuffixGraphs != null && !this.bundledSuffixGraphs.isEmpty());
+    }
+
+    /**
+     * Set the {@link ParserRuntime} to use manually, instead of the one for the included suffix graphs.
+     * <p/>
+     * Must be set before adding the root finders, since the bundled dictionary root finder uses the dictionary
+     * of the runtime.
+     */
+    public ContextlessMorphologicParserBuilder runtime(ParserRuntime runtime) {
+        Validate.notNull(runtime);
+        Validate.isTrue(!this.hasSuffixGraph(), "Runtime cannot be set when a suffix graph is included!");
+        Validate.isTrue(!this.rootFinderChain.hasRootFinders(), "Runtime must be set before adding the root finders!");
+        this.runtime = runtime;
+        return this;
+    }
+
+    private Multimap<String, ? extends Root> getDictionaryRootMap() {
+        if (this.runtime != null)
+            return this.runtime.getDictionaryRootMap();
+        else
+            return ParserRuntime.getSharedDictionary(convertCircumflexes);
+    }
+
     public ContextlessMorphologicParserBuilder includeAllBundledSuffixGraphs() {
         return this.includeBundledBasicSuffixGraph().includeBundledNumeralSuffixGraph().includeBundledProperNounSuffixGraph().includeBundledCopulaSuffixGraph();
     }
@@ -210,13 +301,77 @@ public class ContextlessMorphologicParserBuilder {
     }
 
     /**
-     * Manually set a cache to use.
+     * Resulting parser will use a {@link PersistedOfflineCache} with most frequent Turkish words, which is loaded
+     * from the given file. File is written when the parser is built, if it doesn't exist or is stale.
+     * Parser will also use local caching.
+     *
+     * @param file Cache file
+     * @see PersistedOfflineCache
+     */
+    public ContextlessMorphologicParserBuilder persistedOfflineCache(File file) {
+        return this.persistedOfflineCache(file, null);
+    }
+
+    /**
+     * Resulting parser will use a {@link PersistedOfflineCache} with given words, which is loaded from the given file.
+     * File is written when the parser is built, if it doesn't exist or is stale.
+     * Parser will also use local caching.
+     * <p/>
+     * Cannot be used together with a manually set cache.
+     *
+     * @param file  Cache file
+     * @param words Words to cache; if null, bundled most frequent Turkish words are used
+     * @see PersistedOfflineCache
+     */
+    public ContextlessMorphologicParserBuilder persistedOfflineCache(File file, Collection<String> words) {
+        Validate.notNull(file);
+        Validate.isTrue(this.cache == null, "Persisted offline cache cannot be used when a cache is set!");
+        this.persistedCacheFile = file;
+        this.persistedCacheWords = words;
+        this.useLocalCache = true;
+        return this;
+    }
+
+    /**
+     * Suffix form graph will be read from the given snapshot file, instead of extracting it from the suffix graph.
+     * File is written when the parser is built, if it doesn't exist or is stale.
+     * <p/>
+     * Has no effect if a runtime is set. If the shared runtime of the included bundled suffix graphs is created before
+     * with another snapshot file or without one, this file is not used and a warning is logged.
+     *
+     * @param file Snapshot file
+     * @see SuffixFormGraphSnapshot
+     */
+    public ContextlessMorphologicParserBuilder suffixFormGraphSnapshot(File file) {
+        Validate.notNull(file);
+        Validate.isTrue(!this.lazySuffixFormGraph, "Snapshot cannot be used with a lazy suffix form graph!");
+        this.suffixFormGraphSnapshotFile = file;
+        return this;
+    }
+
+    /**
+     * Resulting parser will use a {@link LazySuffixFormGraph}, which is extracted as it is used. Building the parser
+     * is faster, but the parser will not share the runtime with other parsers.
+     * <p/>
+     * Has no effect if a runtime is set.
+     *
+     * @see LazySuffixFormGraph
+     */
+    public ContextlessMorphologicParserBuilder lazySuffixFormGraph() {
+        Validate.isTrue(this.suffixFormGraphSnapshotFile == null, "Snapshot cannot be used with a lazy suffix form graph!");
+        this.lazySuffixFormGraph = true;
+        return this;
+    }
+
+    /**
+     * Manually set a cache to use. Cannot be used together with a persisted offline cache.
      *
      * @param cache         Cache to use
      * @param useLocalCache If true, parser will also use local caching. That means, it will use the locality of the inputs.
      * @see MorphologicParserCache
      */
     public ContextlessMorphologicParserBuilder cache(MorphologicParserCache cache, boolean useLocalCache) {
+        Validate.isTrue(this.persistedCacheFile == null, "Cache cannot be set when a persisted offline cache is used!");
         this.cache = cache;
         this.useLocalCache = useLocalCache;
         return this;
@@ -233,6 +388,17 @@ public class ContextlessMorphologicParserBuilder {
         return this.cache(cache, true);
     }
 
+    /**
+     * Set how the parser traverses the suffix form graph. Default is {@link ContextlessMorphologicParser.TraversalStrategy#BREADTH_FIRST}.
+     *
+     * @see ContextlessMorphologicParser.TraversalStrategy
+     */
+    public ContextlessMorphologicParserBuilder traversalStrategy(ContextlessMorphologicParser.TraversalStrategy traversalStrategy) {
+        Validate.notNull(traversalStrategy);
+        this.traversalStrategy = traversalStrategy;
+        return this;
+    }
+
     /**
      * Creates a morphologic parser with simplest suffix graph and numeral suffix graph, roots from bundled dictionary.
      */
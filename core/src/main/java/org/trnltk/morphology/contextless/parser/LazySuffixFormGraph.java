@@ -0,0 +1,232 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixGraphState;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link SuffixFormGraph} which is extracted on demand.
+ * <p/>
+ * Graph has no nodes when it is created. When a node is accessed first, it is created if necessary and its edges
+ * are extracted. Target nodes of the edges are created, but they are not explored until they're accessed. Thus,
+ * creation is instant and the graph only has the nodes that are used (and their neighbours).
+ * <p/>
+ * Accessed nodes are recorded in access order. They can be written to a file with
+ * {@link LazySuffixFormGraph#writeHotNodes(java.io.File)} and explored in advance next time with
+ * {@link LazySuffixFormGraph#warmUp(java.io.File)}.
+ * <p/>
+ * Exploration is serialized, finding an already explored node is lock free. Thus the graph is safe to be used by
+ * multiple parsers concurrently.
+ */
+public class LazySuffixFormGraph extends SuffixFormGraph {
+
+    private final SuffixFormGraphExtractor suffixFormGraphExtractor;
+
+    // only explored nodes are published; edges of an explored node don't change
+    private final ConcurrentMap<SuffixFormGraphNodeKey, SuffixFormGraphNode> exploredNodes = new ConcurrentHashMap<SuffixFormGraphNodeKey, SuffixFormGraphNode>();
+    private volatile AtomicReferenceArray<SuffixFormGraphNode> exploredNodesById = new AtomicReferenceArray<SuffixFormGraphNode>(0);
+
+    // guarded by this
+    private final List<SuffixFormGraphNode> createdNodes = new ArrayList<SuffixFormGraphNode>();
+    private final List<SuffixFormGraphNodeKey> hotNodeKeys = new ArrayList<SuffixFormGraphNodeKey>();
+
+    /**
+     * @param suffixGraph An initialized suffix graph
+     * @see SuffixFormGraphExtractor#extractLazily(org.trnltk.morphology.morphotactics.SuffixGraph)
+     */
+    LazySuffixFormGraph(SuffixGraph suffixGraph, SuffixFormGraphExtractor suffixFormGraphExtractor) {
+        super(suffixGraph);
+        this.suffixFormGraphExtractor = suffixFormGraphExtractor;
+    }
+
+    @Override
+    public void addNode(SuffixFormGraphNodeKey suffixFormGraphNodeKey, SuffixFormGraphNode suffixFormGraphNode) {
+        Validate.isTrue(Thread.holdsLock(this), "Nodes are added by the graph itself");
+        super.addNode(suffixFormGraphNodeKey, suffixFormGraphNode);
+        this.createdNodes.add(suffixFormGraphNode);
+    }
+
+    @Override
+    public void compile() {
+        // nothing to compile, nodes are published as they're explored
+    }
+
+    @Override
+    public SuffixFormGraphNode getNode(SuffixFormGraphNodeKey suffixFormGraphNodeKey) {
+        final SuffixFormGraphNode node = this.exploredNodes.get(suffixFormGraphNodeKey);
+        if (node != null)
+            return node;
+
+        return this.explore(suffixFormGraphNodeKey);
+    }
+
+    /**
+     * @return Node with the given id, which is explored if not explored before
+     * @throws IllegalArgumentException if no node is created with the id
+     */
+    @Override
+    public SuffixFormGraphNode getNode(int nodeId) {
+        final AtomicReferenceArray<SuffixFormGraphNode> nodes = this.exploredNodesById;
+        if (nodeId < nodes.length()) {
+            final SuffixFormGraphNode node = nodes.get(nodeId);
+            if (node != null)
+                return node;
+        }
+
+        return this.explore(nodeId);
+    }
+
+    /**
+     * Finds a created node by id without exploring it.
+     */
+    @Override
+    synchronized SuffixFormGraphNode findNode(int nodeId) {
+        return this.createdNodes.get(nodeId);
+    }
+
+    /**
+     * @return Node for the state and phonetic attributes, which is created and explored if necessary. Never null
+     */
+    @Override
+    public SuffixFormGraphNode getNode(SuffixGraphState state, long phonAttrMask) {
+        return this.getNode(new SuffixFormGraphNodeKey(state, PhoneticAttributeMasks.toImmutableSet(phonAttrMask)));
+    }
+
+    /**
+     * @return Number of nodes created so far, including the ones which are not explored yet
+     */
+    @Override
+    public synchronized int getNodeCount() {
+        return this.createdNodes.size();
+    }
+
+    /**
+     * @return Number of nodes explored so far
+     */
+    public int getExploredNodeCount() {
+        return this.exploredNodes.size();
+    }
+
+    /**
+     * @return Keys of the explored nodes, in the order of exploration
+     */
+    public synchronized List<SuffixFormGraphNodeKey> getHotNodeKeys() {
+        return ImmutableList.copyOf(this.hotNodeKeys);
+    }
+
+    private synchronized SuffixFormGraphNode explore(SuffixFormGraphNodeKey suffixFormGraphNodeKey) {
+        SuffixFormGraphNode node = this.findNode(suffixFormGraphNodeKey);
+        if (node == null) {
+            final SuffixGraphState state = suffixFormGraphNodeKey.getState();
+            node = new SuffixFormGraphNode(suffixFormGraphNodeKey, state.getType(), suffixFormGraphNodeKey.getPhonAttrSet());
+            this.addNode(suffixFormGraphNodeKey, node);
+        }
+        this.explore(node);
+        return node;
+    }
+
+    private synchronized SuffixFormGraphNode explore(int nodeId) {
+        Validate.validIndex(this.createdNodes, nodeId, "No node with id " + nodeId);
+        final SuffixFormGraphNode node = this.createdNodes.get(nodeId);
+        this.explore(node);
+        return node;
+    }
+
+    // guarded by this
+    private void explore(SuffixFormGraphNode node) {
+        if (this.exploredNodes.containsKey(node.getSuffixFormGraphNodeKey()))
+            return;
+
+        this.suffixFormGraphExtractor.exploreNode(this, node);
+        node.buildEdgeIndex();
+
+        // readers see the edges of the node once they see the node, since both structures publish safely
+        this.exploredNodes.put(node.getSuffixFormGraphNodeKey(), node);
+        this.hotNodeKeys.add(node.getSuffixFormGraphNodeKey());
+
+        AtomicReferenceArray<SuffixFormGraphNode> nodes = this.exploredNodesById;
+        if (nodes.length() <= node.getId()) {
+            // readers of the old array fall back to the synchronized path
+            final AtomicReferenceArray<SuffixFormGraphNode> grownNodes = new AtomicReferenceArray<SuffixFormGraphNode>(Math.max(this.createdNodes.size(), nodes.length() * 2));
+            for (int i = 0; i < nodes.length(); i++) {
+                grownNodes.set(i, nodes.get(i));
+            }
+            nodes = grownNodes;
+        }
+        nodes.set(node.getId(), node);
+        this.exploredNodesById = nodes;
+    }
+
+    /**
+     * Writes the keys of the explored nodes to the file, one per line as state name and phonetic attribute mask.
+     *
+     * @see LazySuffixFormGraph#warmUp(java.io.File)
+     */
+    public void writeHotNodes(File file) throws IOException {
+        final PrintWriter writer = new PrintWriter(Files.newWriter(file, Charsets.UTF_8));
+        try {
+            for (SuffixFormGraphNodeKey nodeKey : this.getHotNodeKeys()) {
+                writer.println(nodeKey.getState().getName() + " " + nodeKey.getPhonAttrMask());
+            }
+        } finally {
+            writer.close();
+        }
+        if (writer.checkError())
+            throw new IOException("Unable to write hot nodes to " + file);
+    }
+
+    /**
+     * Explores the nodes written with {@link LazySuffixFormGraph#writeHotNodes(java.io.File)}. Nodes with states that
+     * don't exist in the suffix graph anymore are skipped.
+     *
+     * @return Number of nodes explored
+     */
+    public int warmUp(File file) throws IOException {
+        int count = 0;
+        for (String line : Files.readLines(file, Charsets.UTF_8)) {
+            if (StringUtils.isBlank(line))
+                continue;
+
+            final String[] parts = StringUtils.split(line, ' ');
+            Validate.isTrue(parts.length == 2, "Invalid hot node line : " + line);
+            final SuffixGraphState state = this.getSuffixGraph().getSuffixGraphState(parts[0]);
+            if (state == null)
+                continue;
+
+            this.getNode(state, Long.parseLong(parts[1]));
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import org.trnltk.model.morpheme.MorphemeContainer;
+
+import java.util.Arrays;
+
+/**
+ * A growable array-backed LIFO work stack of {@link MorphemeContainer}s, meant to be reused between parses.
+ * <p/>
+ * Not thread safe.
+ */
+class MorphemeContainerStack {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private MorphemeContainer[] elements = new MorphemeContainer[INITIAL_CAPACITY];
+    private int size = 0;
+
+    void push(MorphemeContainer morphemeContainer) {
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = morphemeContainer;
+    }
+
+    MorphemeContainer pop() {
+        final MorphemeContainer morphemeContainer = elements[--size];
+        // release the reference, stack outlives the parse
+        elements[size] = null;
+        return morphemeContainer;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+}
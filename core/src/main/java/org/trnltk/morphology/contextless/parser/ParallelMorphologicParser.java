@@ -0,0 +1,210 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.Validate;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.morpheme.MorphemeContainer;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Splits batch parse requests into chunks and parses the chunks concurrently on a bounded worker pool.
+ * <p/>
+ * Single input parsing methods are delegated directly in the caller's thread. Batch results are in inputs' order.
+ * <p/>
+ * The delegate must be safe for concurrent use; {@link ContextlessMorphologicParser} is, and so is a
+ * {@link CachingMorphologicParser} with a
+ * {@link org.trnltk.morphology.contextless.parser.cache.ConcurrentTwoLevelMorphologicParserCache} or a
+ * {@link org.trnltk.morphology.contextless.parser.cache.TinyLfuMorphologicParserCache}.
+ * <p/>
+ * Every instance owns a worker pool. The caller owns the parser and must {@link #close()} it when it is no longer
+ * used; otherwise the worker threads are kept until the JVM exits.
+ */
+public class ParallelMorphologicParser implements MorphologicParser, Closeable {
+
+    // more chunks than workers, so that a slow chunk doesn't leave the other workers idle
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final MorphologicParser delegate;
+    private final ExecutorService executorService;
+    private final int threadCount;
+
+    private final AtomicLong parsedInputCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong batchNanos = new AtomicLong();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+
+    /**
+     * Creates a new parallel parser with a fixed pool of daemon worker threads.
+     *
+     * @param delegate    Thread-safe morphologic parser to do the actual parsing
+     * @param threadCount Number of worker threads
+     */
+    public ParallelMorphologicParser(MorphologicParser delegate, int threadCount) {
+        Validate.notNull(delegate);
+        Validate.isTrue(threadCount > 0, "Thread count must be positive : " + threadCount);
+        this.delegate = delegate;
+        this.threadCount = threadCount;
+        this.executorService = Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("trnltk-parser-%d").build());
+    }
+
+    @Override
+    public List<MorphemeContainer> parseStr(String input) {
+        final long start = System.nanoTime();
+        final List<MorphemeContainer> result = this.delegate.parseStr(input);
+        this.record(1, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public List<MorphemeContainer> parse(TurkishSequence input) {
+        final long start = System.nanoTime();
+        final List<MorphemeContainer> result = this.delegate.parse(input);
+        this.record(1, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public List<List<MorphemeContainer>> parseAllStr(List<String> inputs) {
+        final List<Callable<List<List<MorphemeContainer>>>> tasks = new ArrayList<Callable<List<List<MorphemeContainer>>>>();
+        for (final List<String> chunk : Lists.partition(inputs, this.getChunkSize(inputs.size()))) {
+            tasks.add(new Callable<List<List<MorphemeContainer>>>() {
+                @Override
+                public List<List<MorphemeContainer>> call() throws Exception {
+                    return delegate.parseAllStr(chunk);
+                }
+            });
+        }
+        return this.runAll(tasks, inputs.size());
+    }
+
+    @Override
+    public List<List<MorphemeContainer>> parseAll(List<TurkishSequence> inputs) {
+        final List<Callable<List<List<MorphemeContainer>>>> tasks = new ArrayList<Callable<List<List<MorphemeContainer>>>>();
+        for (final List<TurkishSequence> chunk : Lists.partition(inputs, this.getChunkSize(inputs.size()))) {
+            tasks.add(new Callable<List<List<MorphemeContainer>>>() {
+                @Override
+                public List<List<MorphemeContainer>> call() throws Exception {
+                    return delegate.parseAll(chunk);
+                }
+            });
+        }
+        return this.runAll(tasks, inputs.size());
+    }
+
+    private int getChunkSize(int inputCount) {
+        final int chunkCount = this.threadCount * CHUNKS_PER_THREAD;
+        return Math.max(1, (inputCount + chunkCount - 1) / chunkCount);
+    }
+
+    private List<List<MorphemeContainer>> runAll(List<Callable<List<List<MorphemeContainer>>>> tasks, int inputCount) {
+        final long start = System.nanoTime();
+        final List<List<MorphemeContainer>> results = new ArrayList<List<MorphemeContainer>>(inputCount);
+        try {
+            // futures are in tasks' order, thus results are in inputs' order
+            final List<Future<List<List<MorphemeContainer>>>> futures = this.executorService.invokeAll(tasks);
+            for (Future<List<List<MorphemeContainer>>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch parse results", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException("Batch parse failed", e.getCause());
+        }
+        this.record(inputCount, System.nanoTime() - start);
+        return results;
+    }
+
+    private void record(long inputCount, long nanos) {
+        this.parsedInputCount.addAndGet(inputCount);
+        this.batchCount.incrementAndGet();
+        this.batchNanos.addAndGet(nanos);
+
+        long currentMax = this.maxBatchNanos.get();
+        while (nanos > currentMax && !this.maxBatchNanos.compareAndSet(currentMax, nanos)) {
+            currentMax = this.maxBatchNanos.get();
+        }
+    }
+
+    /**
+     * Stops the worker threads. Parser cannot be used for batch parsing afterwards.
+     */
+    public void shutdown() {
+        this.executorService.shutdown();
+    }
+
+    /**
+     * Same as {@link #shutdown()}.
+     */
+    @Override
+    public void close() {
+        this.shutdown();
+    }
+
+    /**
+     * @return Number of inputs parsed so far, including the single input calls
+     */
+    public long getParsedInputCount() {
+        return parsedInputCount.get();
+    }
+
+    /**
+     * @return Number of calls made so far, a single input call counts as a batch of one
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return Total wall clock time spent in the calls so far, in nanoseconds
+     */
+    public long getBatchNanos() {
+        return batchNanos.get();
+    }
+
+    /**
+     * @return Wall clock time of the slowest call so far, in nanoseconds
+     */
+    public long getMaxBatchNanos() {
+        return maxBatchNanos.get();
+    }
+
+    /**
+     * @return Inputs parsed per second of wall clock time spent in the calls; 0 if nothing is parsed yet
+     */
+    public double getThroughput() {
+        final long nanos = batchNanos.get();
+        return nanos == 0 ? 0 : parsedInputCount.get() * 1e9 / nanos;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+}
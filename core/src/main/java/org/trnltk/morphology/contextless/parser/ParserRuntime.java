@@ -0,0 +1,260 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import org.apache.commons.lang3.Validate;
+import org.apache.log4j.Logger;
+import org.trnltk.model.lexicon.Root;
+import org.trnltk.morphology.lexicon.RootMapFactory;
+import org.trnltk.morphology.morphotactics.*;
+import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
+import org.trnltk.morphology.phonetics.PhoneticsEngine;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parts of a {@link ContextlessMorphologicParser} which are expensive to create and which don't change after creation:
+ * dictionary roots, initialized suffix graph, extracted suffix form graph, predefined paths and the suffix applier.
+ * <p/>
+ * A runtime is safe to share between parsers and threads. Runtimes of bundled dictionaries and suffix graphs are
+ * created once per JVM, see {@link ParserRuntime#getShared(boolean, java.util.List)}.
+ */
+public final class ParserRuntime {
+    private static final Logger logger = Logger.getLogger(ParserRuntime.class);
+
+    /**
+     * Bundled suffix graphs, which are included in the given order; first one must be {@link BundledSuffixGraph#BASIC}.
+     */
+    public enum BundledSuffixGraph {
+        BASIC,
+        NUMERAL,
+        PROPER_NOUN,
+        COPULA
+    }
+
+    // guarded by ParserRuntime.class
+    private static final Map<Boolean, Multimap<String, ? extends Root>> sharedDictionaries = new HashMap<Boolean, Multimap<String, ? extends Root>>();
+    private static final Map<Boolean, Long> sharedDictionaryFingerprints = new HashMap<Boolean, Long>();
+    private static final Map<String, ParserRuntime> sharedRuntimes = new HashMap<String, ParserRuntime>();
+    // snapshot files the shared runtimes are created with, null values if created without a snapshot
+    private static final Map<String, File> sharedRuntimeSnapshotFiles = new HashMap<String, File>();
+
+    private final Multimap<String, ? extends Root> dictionaryRootMap;
+    private final SuffixGraph suffixGraph;
+    private final SuffixFormGraph suffixFormGraph;
+    private final PredefinedPaths predefinedPaths;
+    private final SuffixApplier suffixApplier;
+
+    private ParserRuntime(SuffixGraph suffixGraph, Multimap<String, ? extends Root> dictionaryRootMap, File suffixFormGraphSnapshotFile, boolean lazySuffixFormGraph) {
+        this.dictionaryRootMap = dictionaryRootMap;
+        this.suffixGraph = suffixGraph;
+
+        // create common phonetic and morphotactic parts
+        final PhoneticsAnalyzer phoneticsAnalyzer = new PhoneticsAnalyzer();
+        final PhoneticAttributeSets phoneticAttributeSets = new PhoneticAttributeSets();
+        final SuffixFormSequenceApplier suffixFormSequenceApplier = new SuffixFormSequenceApplier();
+        final PhoneticsEngine phoneticsEngine = new PhoneticsEngine(suffixFormSequenceApplier);
+        this.suffixApplier = new SuffixApplier(phoneticsEngine);
+
+        // following is to extract a form-based graph from a suffix-based graph
+        final SuffixFormGraphExtractor suffixFormGraphExtractor = new SuffixFormGraphExtractor(suffixFormSequenceApplier, phoneticsAnalyzer, phoneticAttributeSets);
+
+        // need to initialize suffix graph first
+        suffixGraph.initialize();
+
+        // extract the formBasedGraph, or read it from the snapshot if it is up to date
+        if (lazySuffixFormGraph)
+            this.suffixFormGraph = suffixFormGraphExtractor.extractLazily(suffixGraph);
+        else if (suffixFormGraphSnapshotFile != null)
+            this.suffixFormGraph = SuffixFormGraphSnapshot.loadOrExtract(suffixFormGraphSnapshotFile, suffixGraph, suffixFormGraphExtractor);
+        else
+            this.suffixFormGraph = suffixFormGraphExtractor.extract(suffixGraph);
+
+        // create predefined paths
+        this.predefinedPaths = new PredefinedPaths(suffixGraph, dictionaryRootMap, suffixApplier);
+        this.predefinedPaths.initialize();
+    }
+
+    /**
+     * Creates a new runtime, which is not shared.
+     *
+     * @param suffixGraph       Suffix graph which is not initialized yet. It is initialized and must not be changed afterwards.
+     * @param dictionaryRootMap Dictionary roots. Must not be changed afterwards.
+     */
+    public static ParserRuntime create(SuffixGraph suffixGraph, Multimap<String, ? extends Root> dictionaryRootMap) {
+        return create(suffixGraph, dictionaryRootMap, null);
+    }
+
+    /**
+     * Creates a new runtime, which is not shared. Suffix form graph is read from the snapshot file if the file is up to
+     * date, otherwise it is extracted and written to the file.
+     *
+     * @param suffixGraph                 Suffix graph which is not initialized yet. It is initialized and must not be changed afterwards.
+     * @param dictionaryRootMap           Dictionary roots. Must not be changed afterwards.
+     * @param suffixFormGraphSnapshotFile Snapshot of the suffix form graph, see {@link SuffixFormGraphSnapshot}. Can be null.
+     */
+    public static ParserRuntime create(SuffixGraph suffixGraph, Multimap<String, ? extends Root> dictionaryRootMap, File suffixFormGraphSnapshotFile) {
+        Validate.notNull(suffixGraph);
+        Validate.notNull(dictionaryRootMap);
+        return new ParserRuntime(suffixGraph, dictionaryRootMap, suffixFormGraphSnapshotFile, false);
+    }
+
+    /**
+     * Creates a new runtime, which is not shared, with a {@link LazySuffixFormGraph}. Creation doesn't extract the
+     * suffix form graph; nodes are extracted as parsers use them.
+     *
+     * @param suffixGraph       Suffix graph which is not initialized yet. It is initialized and must not be changed afterwards.
+     * @param dictionaryRootMap Dictionary roots. Must not be changed afterwards.
+     */
+    public static ParserRuntime createLazy(SuffixGraph suffixGraph, Multimap<String, ? extends Root> dictionaryRootMap) {
+        Validate.notNull(suffixGraph);
+        Validate.notNull(dictionaryRootMap);
+        return new ParserRuntime(suffixGraph, dictionaryRootMap, null, true);
+    }
+
+    /**
+     * Returns the runtime with the bundled dictionaries and the given bundled suffix graphs. It is created on first
+     * call and the same instance is returned afterwards.
+     *
+     * @param convertCircumflexes If true, circumflexed items in the dictionaries are converted to no circumflexed ones
+     * @param suffixGraphs        Bundled suffix graphs to include, in order
+     */
+    public static ParserRuntime getShared(boolean convertCircumflexes, List<BundledSuffixGraph> suffixGraphs) {
+        return getShared(convertCircumflexes, suffixGraphs, null);
+    }
+
+    /**
+     * Same as {@link ParserRuntime#getShared(boolean, java.util.List)}, but the suffix form graph is read from the
+     * snapshot file when the runtime is created. Snapshot file is not used if the runtime is created before; a warning
+     * is logged if it is not the snapshot file the runtime is created with.
+     *
+     * @param suffixFormGraphSnapshotFile Snapshot of the suffix form graph, see {@link SuffixFormGraphSnapshot}. Can be null.
+     */
+    public static synchronized ParserRuntime getShared(boolean convertCircumflexes, List<BundledSuffixGraph> suffixGraphs, File suffixFormGraphSnapshotFile) {
+        Validate.notEmpty(suffixGraphs, "No suffix graph included!");
+        Validate.isTrue(BundledSuffixGraph.BASIC.equals(suffixGraphs.get(0)), "Basic suffix graph must be included as the first suffix graph!");
+
+        final String key = convertCircumflexes + ":" + suffixGraphs;
+        ParserRuntime runtime = sharedRuntimes.get(key);
+        if (runtime == null) {
+            runtime = new ParserRuntime(createBundledSuffixGraph(suffixGraphs), getSharedDictionary(convertCircumflexes), suffixFormGraphSnapshotFile, false);
+            sharedRuntimes.put(key, runtime);
+            sharedRuntimeSnapshotFiles.put(key, suffixFormGraphSnapshotFile);
+        } else if (suffixFormGraphSnapshotFile != null && !suffixFormGraphSnapshotFile.equals(sharedRuntimeSnapshotFiles.get(key))) {
+            logger.warn("Shared runtime " + key + " is already created with suffix form graph snapshot " + sharedRuntimeSnapshotFiles.get(key) +
+                    ", ignoring snapshot " + suffixFormGraphSnapshotFile);
+        }
+        return runtime;
+    }
+
+    /**
+     * Returns the roots of the bundled master dictionary and numeral dictionary. Roots are loaded on first call and
+     * the same map is returned afterwards. Returned map cannot be modified.
+     * <p/>
+     * Roots are read from the prebuilt lexicon on the classpath when it is built from the current dictionaries;
+     * otherwise the dictionaries are parsed. See {@link RootMapFactory#createCompactSimpleWithNumbers()}.
+     *
+     * @param convertCircumflexes If true, circumflexed items in the dictionaries are converted to no circumflexed ones
+     */
+    public static synchronized Multimap<String, ? extends Root> getSharedDictionary(boolean convertCircumflexes) {
+        Multimap<String, ? extends Root> dictionary = sharedDictionaries.get(convertCircumflexes);
+        if (dictionary == null) {
+            if (convertCircumflexes)
+                dictionary = RootMapFactory.createCompactSimpleWithNumbersConvertCircumflexes();
+            else
+                dictionary = RootMapFactory.createCompactSimpleWithNumbers();
+            sharedDictionaries.put(convertCircumflexes, dictionary);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Returns the fingerprint of the sources of the given dictionary, if it is one of the shared dictionaries. Fingerprint
+     * is computed once per dictionary.
+     *
+     * @return null if the dictionary is not a shared dictionary
+     * @see RootMapFactory#dictionaryFingerprint(boolean)
+     */
+    public static synchronized Long getSharedDictionaryFingerprint(Multimap<String, ? extends Root> dictionaryRootMap) {
+        for (Map.Entry<Boolean, Multimap<String, ? extends Root>> entry : sharedDictionaries.entrySet()) {
+            // same instance; a shared dictionary is never modified
+            if (entry.getValue() == dictionaryRootMap) {
+                final Boolean convertCircumflexes = entry.getKey();
+                Long fingerprint = sharedDictionaryFingerprints.get(convertCircumflexes);
+                if (fingerprint == null) {
+                    fingerprint = RootMapFactory.dictionaryFingerprint(convertCircumflexes);
+                    sharedDictionaryFingerprints.put(convertCircumflexes, fingerprint);
+                }
+                return fingerprint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a new suffix graph which is not initialized, including the bundled suffix graphs in order.
+     */
+    public static SuffixGraph createBundledSuffixGraph(List<BundledSuffixGraph> suffixGraphs) {
+        SuffixGraph suffixGraph = null;
+        for (BundledSuffixGraph bundledSuffixGraph : ImmutableList.copyOf(suffixGraphs)) {
+            switch (bundledSuffixGraph) {
+                case BASIC:
+                    Validate.isTrue(suffixGraph == null, "Basic suffix graph must be included as the first suffix graph!");
+                    suffixGraph = new BasicSuffixGraph();
+                    break;
+                case NUMERAL:
+                    suffixGraph = new NumeralSuffixGraph(suffixGraph);
+                    break;
+                case PROPER_NOUN:
+                    suffixGraph = new ProperNounSuffixGraph(suffixGraph);
+                    break;
+                case COPULA:
+                    suffixGraph = new CopulaSuffixGraph(suffixGraph);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown bundled suffix graph " + bundledSuffixGraph);
+            }
+        }
+        return suffixGraph;
+    }
+
+    public Multimap<String, ? extends Root> getDictionaryRootMap() {
+        return dictionaryRootMap;
+    }
+
+    public SuffixGraph getSuffixGraph() {
+        return suffixGraph;
+    }
+
+    public SuffixFormGraph getSuffixFormGraph() {
+        return suffixFormGraph;
+    }
+
+    public PredefinedPaths getPredefinedPaths() {
+        return predefinedPaths;
+    }
+
+    public SuffixApplier getSuffixApplier() {
+        return suffixApplier;
+    }
+}
@@ -18,11 +18,14 @@ package org.trnltk.morphology.contextless.parser;
 
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
 import org.trnltk.model.lexicon.PhoneticAttributeMetadata;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -43,25 +46,68 @@ import java.util.Set;
  * Quality of the metadata rules are regularly checked in the build system.
  * That means, valid {@link PhoneticAttribute} combinations are checked against found natural combinations from a big
  * corpus. There must be no possible combination found with the metadata which does not exist in the corpus.
+ * <p/>
+ * Valid sets are a function of the {@link PhoneticAttribute} enum only, thus they're computed once per JVM and creating
+ * an instance is cheap.
+ * <p/>
+ * Valid sets have dense indices, in the order of {@link PhoneticAttributeSets#getValidPhoneticAttributeSets()}. An index
+ * can be mapped to the mask of the set (see {@link PhoneticAttributeMasks}) and back without creating any objects.
  */
 public class PhoneticAttributeSets {
 
     private final ImmutableMap<Long, Set<PhoneticAttribute>> validPhoneticAttributeSetsMap;
     private final ImmutableCollection<Set<PhoneticAttribute>> validPhoneticAttributeSets;
 
+    // index -> mask and mask -> index
+    private final long[] masks;
+    private final long[] sortedMasks;
+    private final int[] indicesOfSortedMasks;
+    private final ImmutableSet<PhoneticAttribute>[] immutableSets;
+
     public PhoneticAttributeSets() {
         this.validPhoneticAttributeSetsMap = this.findValidSets();
         this.validPhoneticAttributeSets = validPhoneticAttributeSetsMap.values();
+
+        final int count = validPhoneticAttributeSets.size();
+        this.masks = new long[count];
+        this.immutableSets = newImmutableSetArray(count);
+        int index = 0;
+        for (Set<PhoneticAttribute> validPhoneticAttributeSet : validPhoneticAttributeSets) {
+            this.masks[index] = PhoneticAttributeMasks.toMask(validPhoneticAttributeSet);
+            this.immutableSets[index] = PhoneticAttributeMasks.toImmutableSet(this.masks[index]);
+            index++;
+        }
+
+        this.sortedMasks = this.masks.clone();
+        Arrays.sort(this.sortedMasks);
+        this.indicesOfSortedMasks = new int[count];
+        for (int i = 0; i < count; i++) {
+            this.indicesOfSortedMasks[Arrays.binarySearch(this.sortedMasks, this.masks[i])] = i;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ImmutableSet<PhoneticAttribute>[] newImmutableSetArray(int length) {
+        return (ImmutableSet<PhoneticAttribute>[]) new ImmutableSet<?>[length];
     }
 
+    /**
+     * Finds the valid sets, keyed by their masks (see {@link PhoneticAttributeSets#getNumberForSet(java.util.Set)}).
+     * Default implementation returns the sets which are computed once per JVM.
+     */
     protected ImmutableMap<Long, Set<PhoneticAttribute>> findValidSets() {
+        return DefaultValidSets.VALID_SETS;
+    }
+
+    private static ImmutableMap<Long, Set<PhoneticAttribute>> computeValidSets() {
 
         final Set<Set<PhoneticAttribute>> phoneticAttributePowerSets = Sets.powerSet(new HashSet<PhoneticAttribute>(Lists.newArrayList(PhoneticAttribute.values())));
 
         final ImmutableMap.Builder<Long, Set<PhoneticAttribute>> validPhoneticAttributeSetsMapBuilder = new ImmutableMap.Builder<Long, Set<PhoneticAttribute>>();
         for (Set<PhoneticAttribute> set : phoneticAttributePowerSets) {
             if (PhoneticAttributeMetadata.isValid(set)) {
-                validPhoneticAttributeSetsMapBuilder.put(getNumberForSet(set), set);
+                final long mask = PhoneticAttributeMasks.toMask(set);
+                validPhoneticAttributeSetsMapBuilder.put(mask, PhoneticAttributeMasks.toImmutableSet(mask));
             }
         }
 
@@ -76,17 +122,53 @@ public class PhoneticAttributeSets {
         return validPhoneticAttributeSets;
     }
 
-    public long getNumberForSet(Set<PhoneticAttribute> set) {
-        long number = 0L;
-        for (PhoneticAttribute phoneticAttribute : PhoneticAttribute.values()) {
-            if (set.contains(phoneticAttribute))
-                number = number | 0x1L;
+    /**
+     * @return Number of valid sets, which is also the upper bound of the indices
+     */
+    public int getValidSetCount() {
+        return masks.length;
+    }
 
-            number = number << 1;
-        }
+    /**
+     * @param mask Mask of the phonetic attributes, see {@link PhoneticAttributeMasks}
+     * @return Dense index of the valid set with the mask, -1 if the set is not valid
+     */
+    public int getIndex(long mask) {
+        final int position = Arrays.binarySearch(sortedMasks, mask);
+        return position < 0 ? -1 : indicesOfSortedMasks[position];
+    }
 
-        number = number >> 1;
+    /**
+     * @return true if the set with the mask is a valid combination
+     */
+    public boolean isValid(long mask) {
+        return Arrays.binarySearch(sortedMasks, mask) >= 0;
+    }
+
+    /**
+     * @return Mask of the valid set with the given index
+     */
+    public long getMask(int index) {
+        return masks[index];
+    }
+
+    /**
+     * @return Valid set with the given index
+     */
+    public ImmutableSet<PhoneticAttribute> getSet(int index) {
+        return immutableSets[index];
+    }
+
+    /**
+     * @return Mask of the set, see {@link PhoneticAttributeMasks#toMask(java.util.Set)}. Valid sets are keyed
+     *         by their masks in {@link PhoneticAttributeSets#getValidPhoneticAttributeSetsMap()}.
+     */
+    public long getNumberForSet(Set<PhoneticAttribute> set) {
+        return PhoneticAttributeMasks.toMask(set);
+    }
 
-        return number;
+    // initialized on first use
+    private static class DefaultValidSets {
+        private static final ImmutableMap<Long, Set<PhoneticAttribute>> VALID_SETS = computeValidSets();
     }
 }
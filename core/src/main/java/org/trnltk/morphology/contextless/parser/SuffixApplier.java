@@ -67,7 +67,7 @@ public class SuffixApplier {
      */
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public boolean transitionAllowedForSuffix(MorphemeContainer morphemeContainer, Suffix suffix) {
-        if (suffix.getSuffixGroup() != null && morphemeContainer.getSuffixGroupsSinceLastDerivationSuffix().contains(suffix.getSuffixGroup())) {
+        if (suffix.getSuffixGroup() != null && morphemeContainer.hasSuffixGroupSinceLastDerivationSuffix(suffix.getSuffixGroup())) {
             if (logger.isDebugEnabled()) {
                 logger.debug(String.format("    Another suffix is already added on the same group(%s) since last derivation, skipping suffix.", suffix.getSuffixGroup()));
                 logger.debug(String.format("    Groups since last derivation are : %s", morphemeContainer.getSuffixGroupsSinceLastDerivationSuffix()));
@@ -139,14 +139,12 @@ public class SuffixApplier {
                 // If the current state of the container is derivational, is the post derivation condition of the container satisfied with suffix form?
                 if (SuffixGraphStateType.DERIVATIONAL.equals(stateBeforeSuffixFormApplication.getType())) {
                     logger.debug("      Suffix is derivative, checking the post derivation conditions of suffixes from previous derivation.");
-                    for (SuffixTransition suffixTransition : morphemeContainer.getTransitionsFromDerivationSuffix()) {
-                        final SuffixForm applicationSuffixForm = suffixTransition.getSuffixFormApplication().getSuffixForm();
-                        final Specification<MorphemeContainer> postDerivativeCondition = applicationSuffixForm.getPostDerivativeCondition();
-                        if (postDerivativeCondition != null && !postDerivativeCondition.isSatisfiedBy(cloneMorphemeContainer)) {
-                            if (logger.isDebugEnabled())
-                                logger.debug(String.format("      Post derivation condition '%s' of suffix '%s' is not satisfied, skipping.", applicationSuffixForm.getPostDerivativeCondition(), applicationSuffixForm.getSuffix()));
-                            return null;
-                        }
+                    final SuffixTransition notSatisfiedTransition = morphemeContainer.findTransitionFromDerivationSuffixNotSatisfiedBy(cloneMorphemeContainer);
+                    if (notSatisfiedTransition != null) {
+                        final SuffixForm applicationSuffixForm = notSatisfiedTransition.getSuffixFormApplication().getSuffixForm();
+                        if (logger.isDebugEnabled())
+                            logger.debug(String.format("      Post derivation condition '%s' of suffix '%s' is not satisfied, skipping.", applicationSuffixForm.getPostDerivativeCondition(), applicationSuffixForm.getSuffix()));
+                        return null;
                     }
                 }
             }
@@ -178,6 +176,31 @@ public class SuffixApplier {
      * @see SuffixApplier#transitionAllowedForSuffixForm(org.trnltk.model.morpheme.MorphemeContainer, org.trnltk.model.suffix.SuffixForm)
      */
     public MorphemeContainer trySuffixFormApplication(MorphemeContainer morphemeContainer, SuffixFormApplication suffixFormApplication, SuffixGraphState targetState, ImmutableSet<PhoneticExpectation> phoneticExpectations, TurkishSequence input) {
+        final SuffixTransition suffixTransition = new SuffixTransition(morphemeContainer.getLastState(), suffixFormApplication, targetState);
+        return this.trySuffixTransition(morphemeContainer, suffixTransition, phoneticExpectations, input);
+    }
+
+    /**
+     * Same as {@link SuffixApplier#trySuffixFormApplication(org.trnltk.model.morpheme.MorphemeContainer, org.trnltk.model.suffix.SuffixFormApplication, org.trnltk.morphology.morphotactics.SuffixGraphState, com.google.common.collect.ImmutableSet, org.trnltk.model.letter.TurkishSequence)},
+     * but the given transition instance is added to the container as is. Source state of the transition must be the last state of the container.
+     * <p/>
+     * Used with the transitions of {@link SuffixFormGraph} edges, which are interned and shared by all containers.
+     *
+     * @return Morpheme container where the given transition is applied. Passed container is immutable thus untouched.
+     */
+    public MorphemeContainer trySuffixTransition(MorphemeContainer morphemeContainer, SuffixTransition suffixTransition, ImmutableSet<PhoneticExpectation> phoneticExpectations, TurkishSequence input) {
+        return this.trySuffixTransition(morphemeContainer, suffixTransition, phoneticExpectations, MorphemeContainer.UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID, 0L, input);
+    }
+
+    /**
+     * Same as {@link SuffixApplier#trySuffixTransition(org.trnltk.model.morpheme.MorphemeContainer, org.trnltk.model.suffix.SuffixTransition, com.google.common.collect.ImmutableSet, org.trnltk.model.letter.TurkishSequence)},
+     * but the id of the target {@link SuffixFormGraph} node of the edge is kept on the created container.
+     *
+     * @see MorphemeContainer#addTransition(org.trnltk.model.suffix.SuffixTransition, int, long)
+     */
+    public MorphemeContainer trySuffixTransition(MorphemeContainer morphemeContainer, SuffixTransition suffixTransition, ImmutableSet<PhoneticExpectation> phoneticExpectations,
+                                                 int targetNodeId, long targetNodePhonAttrMask, TurkishSequence input) {
+        final SuffixFormApplication suffixFormApplication = suffixTransition.getSuffixFormApplication();
         final SuffixForm suffixForm = suffixFormApplication.getSuffixForm();
         final Suffix suffix = suffixForm.getSuffix();
 
@@ -197,16 +220,17 @@ public class SuffixApplier {
         final TurkishSequence soFar = morphemeContainer.getSurfaceSoFar();
 
         final String actualSuffixForm = suffixFormApplication.getActualSuffixForm();
-        final String fittingSuffixForm = suffixFormApplication.getFittingSuffixForm();
-        final String appliedStr = soFar.getUnderlyingString() + actualSuffixForm;
 
         // Does given suffix form application match the remaining part of the surface?
-        if (phoneticsEngine.applicationMatches(input, appliedStr, false)) {
+        // suffix forms in the surface so far are already taken from the input, so only the root and the suffix form
+        // at the current offset are checked
+        if (phoneticsEngine.applicationMatches(input, 0, morphemeContainer.getRoot().getSequence().getUnderlyingString())
+                && phoneticsEngine.applicationMatches(input, soFar.length(), actualSuffixForm)) {
             if (logger.isDebugEnabled())
-                logger.debug(String.format("      Word '%s' starts with applied str '%s' (%s), adding to current morpheme container", input, appliedStr, actualSuffixForm));
+                logger.debug(String.format("      Word '%s' starts with applied str '%s' (%s), adding to current morpheme container", input, soFar.getUnderlyingString() + actualSuffixForm, actualSuffixForm));
 
             final MorphemeContainer cloneMorphemeContainer = new MorphemeContainer(morphemeContainer);
-            cloneMorphemeContainer.addTransition(new SuffixFormApplication(suffixForm, actualSuffixForm, fittingSuffixForm), targetState);
+            cloneMorphemeContainer.addTransition(suffixTransition, targetNodeId, targetNodePhonAttrMask);
 
             // Are the post conditions of the suffix forms in the last inflection group satisfied when suffix form application is applied?
             if (morphemeContainer.hasTransitions()) {
@@ -226,14 +250,12 @@ public class SuffixApplier {
                 // If the current state of the container is derivational, is the post derivation condition of the container satisfied with suffix form application?
                 if (SuffixGraphStateType.DERIVATIONAL.equals(stateBeforeSuffixFormApplication.getType())) {
                     logger.debug("      Suffix is derivative, checking the post derivation conditions of suffixes from previous derivation.");
-                    for (SuffixTransition suffixTransition : morphemeContainer.getTransitionsFromDerivationSuffix()) {
-                        final SuffixForm applicationSuffixForm = suffixTransition.getSuffixFormApplication().getSuffixForm();
-                        final Specification<MorphemeContainer> postDerivativeCondition = applicationSuffixForm.getPostDerivativeCondition();
-                        if (postDerivativeCondition != null && !postDerivativeCondition.isSatisfiedBy(cloneMorphemeContainer)) {
-                            if (logger.isDebugEnabled())
-                                logger.debug(String.format("      Post derivation condition '%s' of suffix '%s' is not satisfied, skipping.", applicationSuffixForm.getPostDerivativeCondition(), applicationSuffixForm.getSuffix()));
-                            return null;
-                        }
+                    final SuffixTransition notSatisfiedTransition = morphemeContainer.findTransitionFromDerivationSuffixNotSatisfiedBy(cloneMorphemeContainer);
+                    if (notSatisfiedTransition != null) {
+                        final SuffixForm applicationSuffixForm = notSatisfiedTransition.getSuffixFormApplication().getSuffixForm();
+                        if (logger.isDebugEnabled())
+                            logger.debug(String.format("      Post derivation condition '%s' of suffix '%s' is not satisfied, skipping.", applicationSuffixForm.getPostDerivativeCondition(), applicationSuffixForm.getSuffix()));
+                        return null;
                     }
                 }
             }
@@ -247,7 +269,7 @@ public class SuffixApplier {
 
         } else {
             if (logger.isDebugEnabled())
-                logger.debug(String.format("      Word '%s' does not start with applied str '%s', skipping", input, appliedStr));
+                logger.debug(String.format("      Word '%s' does not start with applied str '%s', skipping", input, soFar.getUnderlyingString() + actualSuffixForm));
             return null;
         }
     }
@@ -270,7 +292,7 @@ public class SuffixApplier {
         }
 
         // Does computed suffix form application based on phonetic attributes match the remaining part of the surface?
-        if (!phoneticsEngine.isSuffixFormApplicable(morphemeContainer.getPhoneticAttributes(), suffixForm.getForm())) {
+        if (!phoneticsEngine.isSuffixFormApplicable(morphemeContainer.getPhoneticAttributesMask(), suffixForm.getForm())) {
             if (logger.isDebugEnabled())
                 logger.debug(String.format("      Suffix form '%s' is not phonetically applicable to '%s', skipping.", suffixForm.getForm(), morphemeContainer.getSurfaceSoFar()));
 
@@ -24,9 +24,7 @@ import org.trnltk.morphology.morphotactics.SuffixGraphState;
 import org.trnltk.morphology.morphotactics.SuffixGraphStateType;
 import org.trnltk.model.lexicon.PhoneticAttribute;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 /**
  * A graph where not only the suffixes but also the applicable forms of
@@ -36,11 +34,23 @@ import java.util.Set;
  * phonetic attribute combinations. Thus, applicable forms are not computed dynamically based on input,
  * phonetic attributes of the morpheme container and the surface; but are computed in advance for all possible distinct
  * scenarios.
+ * <p/>
+ * Each node gets a dense id when it is added. Once the graph is compiled (see {@link SuffixFormGraph#compile()}),
+ * nodes can be found by id with an array access or by state and phonetic attribute mask without creating a
+ * {@link SuffixFormGraphNodeKey}. Structures used while building the graph are released when it is compiled and
+ * no nodes can be added afterwards.
  */
 public class SuffixFormGraph {
 
-    private final Map<SuffixFormGraphNodeKey, SuffixFormGraphNode> nodeMap = new HashMap<SuffixFormGraphNodeKey, SuffixFormGraphNode>();
+    // only used while building, set to null when compiled
+    private Map<SuffixFormGraphNodeKey, SuffixFormGraphNode> nodeMap = new HashMap<SuffixFormGraphNodeKey, SuffixFormGraphNode>();
+    private List<SuffixFormGraphNode> nodeList = new ArrayList<SuffixFormGraphNode>();
     private final SuffixGraph suffixGraph;
+    private final SuffixTransitionInterner suffixTransitionInterner = new SuffixTransitionInterner();
+
+    // compiled form
+    private SuffixFormGraphNode[] nodes = new SuffixFormGraphNode[0];
+    private Map<SuffixGraphState, StateNodeTable> stateNodeTables = Collections.emptyMap();
 
     public SuffixFormGraph(SuffixGraph suffixGraph) {
         this.suffixGraph = suffixGraph;
@@ -48,19 +58,110 @@ public class SuffixFormGraph {
 
     public SuffixFormGraphNode addNode(SuffixFormGraphNodeKey suffixFormGraphNodeKey, SuffixGraphStateType suffixGraphStateType, Set<PhoneticAttribute> phonAttrSet) {
         final SuffixFormGraphNode suffixFormGraphNode = new SuffixFormGraphNode(suffixFormGraphNodeKey, suffixGraphStateType, Sets.immutableEnumSet(phonAttrSet));
-        final SuffixFormGraphNode existingSuffixFormGraphNode = this.nodeMap.put(suffixFormGraphNodeKey, suffixFormGraphNode);
-        Validate.isTrue(existingSuffixFormGraphNode == null);
+        this.addNode(suffixFormGraphNodeKey, suffixFormGraphNode);
 
         return suffixFormGraphNode;
     }
 
     public void addNode(SuffixFormGraphNodeKey suffixFormGraphNodeKey, SuffixFormGraphNode suffixFormGraphNode) {
+        Validate.validState(!this.isCompiled(), "Nodes can't be added to a compiled graph");
         final SuffixFormGraphNode existingNode = nodeMap.put(suffixFormGraphNodeKey, suffixFormGraphNode);
         Validate.isTrue(existingNode == null);
+
+        suffixFormGraphNode.setId(nodeList.size());
+        suffixFormGraphNode.setSuffixFormGraph(this);
+        nodeList.add(suffixFormGraphNode);
+    }
+
+    /**
+     * Builds the compiled form of the graph: dense node array, node tables per state and edge indices of all nodes.
+     * To be called once all nodes and edges are added; calling it again has no effect.
+     */
+    public void compile() {
+        if (this.isCompiled())
+            return;
+
+        this.nodes = nodeList.toArray(new SuffixFormGraphNode[nodeList.size()]);
+
+        final Map<SuffixGraphState, List<SuffixFormGraphNode>> nodesOfStates = new HashMap<SuffixGraphState, List<SuffixFormGraphNode>>();
+        for (SuffixFormGraphNode node : this.nodes) {
+            final SuffixGraphState state = node.getSuffixFormGraphNodeKey().getState();
+            List<SuffixFormGraphNode> nodesOfState = nodesOfStates.get(state);
+            if (nodesOfState == null) {
+                nodesOfState = new ArrayList<SuffixFormGraphNode>();
+                nodesOfStates.put(state, nodesOfState);
+            }
+            nodesOfState.add(node);
+
+            node.buildEdgeIndex();
+        }
+
+        final Map<SuffixGraphState, StateNodeTable> tables = new HashMap<SuffixGraphState, StateNodeTable>(nodesOfStates.size() * 2);
+        for (Map.Entry<SuffixGraphState, List<SuffixFormGraphNode>> entry : nodesOfStates.entrySet()) {
+            tables.put(entry.getKey(), new StateNodeTable(entry.getValue()));
+        }
+        this.stateNodeTables = tables;
+
+        // nodes are found with the compiled form from now on
+        this.nodeMap = null;
+        this.nodeList = null;
+    }
+
+    private boolean isCompiled() {
+        return this.nodeList == null;
     }
 
     public SuffixFormGraphNode getNode(SuffixFormGraphNodeKey suffixFormGraphNodeKey) {
-        return nodeMap.get(suffixFormGraphNodeKey);
+        return this.findNode(suffixFormGraphNodeKey);
+    }
+
+    /**
+     * Finds the node without any side effects, to be used while the graph is being built.
+     *
+     * @return null if not found
+     */
+    SuffixFormGraphNode findNode(SuffixFormGraphNodeKey suffixFormGraphNodeKey) {
+        if (this.isCompiled())
+            return this.getNode(suffixFormGraphNodeKey.getState(), suffixFormGraphNodeKey.getPhonAttrMask());
+        else
+            return this.nodeMap.get(suffixFormGraphNodeKey);
+    }
+
+    /**
+     * Finds the node by id without any side effects.
+     */
+    SuffixFormGraphNode findNode(int nodeId) {
+        return this.isCompiled() ? this.nodes[nodeId] : this.nodeList.get(nodeId);
+    }
+
+    /**
+     * @return Node with the given id
+     */
+    public SuffixFormGraphNode getNode(int nodeId) {
+        return this.findNode(nodeId);
+    }
+
+    /**
+     * Finds the node for the state and phonetic attributes. Graph must be compiled.
+     *
+     * @param phonAttrMask Mask of the phonetic attributes, see {@link org.trnltk.model.lexicon.PhoneticAttributeMasks}
+     * @return null if not found
+     */
+    public SuffixFormGraphNode getNode(SuffixGraphState state, long phonAttrMask) {
+        Validate.validState(this.isCompiled(), "Graph is not compiled");
+        final StateNodeTable stateNodeTable = this.stateNodeTables.get(state);
+        return stateNodeTable != null ? stateNodeTable.get(phonAttrMask) : null;
+    }
+
+    /**
+     * @return Number of nodes in the graph
+     */
+    public int getNodeCount() {
+        return this.isCompiled() ? this.nodes.length : this.nodeList.size();
+    }
+
+    SuffixTransitionInterner getSuffixTransitionInterner() {
+        return suffixTransitionInterner;
     }
 
     public SuffixGraphState getDefaultStateForRoot(Root root) {
@@ -75,8 +176,34 @@ public class SuffixFormGraph {
         return suffixGraph;
     }
 
-    // for tests
-    public Map<SuffixFormGraphNodeKey, SuffixFormGraphNode> getMap() {
-        return nodeMap;
+    /**
+     * Nodes of a state, sorted by their phonetic attribute masks.
+     * <p/>
+     * There are a few dozens of valid phonetic attribute combinations at most; thus a binary search is enough.
+     */
+    private static class StateNodeTable {
+        private final long[] masks;
+        private final SuffixFormGraphNode[] nodes;
+
+        private StateNodeTable(List<SuffixFormGraphNode> nodesOfState) {
+            final TreeMap<Long, SuffixFormGraphNode> sortedNodes = new TreeMap<Long, SuffixFormGraphNode>();
+            for (SuffixFormGraphNode node : nodesOfState) {
+                sortedNodes.put(node.getSuffixFormGraphNodeKey().getPhonAttrMask(), node);
+            }
+
+            this.masks = new long[sortedNodes.size()];
+            this.nodes = new SuffixFormGraphNode[sortedNodes.size()];
+            int i = 0;
+            for (Map.Entry<Long, SuffixFormGraphNode> entry : sortedNodes.entrySet()) {
+                this.masks[i] = entry.getKey();
+                this.nodes[i] = entry.getValue();
+                i++;
+            }
+        }
+
+        private SuffixFormGraphNode get(long mask) {
+            final int index = Arrays.binarySearch(masks, mask);
+            return index < 0 ? null : nodes[index];
+        }
     }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import com.google.common.collect.ImmutableSet;
+import org.trnltk.model.lexicon.PhoneticExpectation;
+import org.trnltk.model.suffix.SuffixTransition;
+
+import java.util.*;
+
+/**
+ * Immutable index of the edges of a {@link SuffixFormGraphNode}, grouped by the first character of the actual suffix form
+ * of the edges.
+ * <p/>
+ * Only edges with an empty suffix form and edges whose suffix form starts with the first character of the remaining
+ * surface can be applicable; thus rest of the edges doesn't need to be checked.
+ * <p/>
+ * Edges are kept in parallel arrays, edges with empty suffix forms first and then the edges grouped by the first
+ * character. Target nodes are referenced by their dense ids in the {@link SuffixFormGraph}.
+ */
+final class SuffixFormGraphEdgeIndex {
+    private final int[] targetNodeIds;
+    private final long[] targetPhonAttrMasks;
+    private final SuffixTransition[] suffixTransitions;
+    private final ImmutableSet<PhoneticExpectation>[] phoneticExpectations;
+
+    private final int emptyFormEdgeCount;
+    // sorted, for binary search
+    private final char[] firstChars;
+    // edges starting with firstChars[i] are between firstCharOffsets[i] and firstCharOffsets[i + 1]
+    private final int[] firstCharOffsets;
+
+    SuffixFormGraphEdgeIndex(Collection<SuffixFormGraphSuffixEdge> edges) {
+        final List<SuffixFormGraphSuffixEdge> emptyFormEdgeList = new ArrayList<SuffixFormGraphSuffixEdge>();
+        final SortedMap<Character, List<SuffixFormGraphSuffixEdge>> edgeListsByFirstChar = new TreeMap<Character, List<SuffixFormGraphSuffixEdge>>();
+
+        for (SuffixFormGraphSuffixEdge edge : edges) {
+            final String actualSuffixForm = edge.getSuffixFormApplication().getActualSuffixForm();
+            if (actualSuffixForm.isEmpty()) {
+                emptyFormEdgeList.add(edge);
+            } else {
+                final char firstChar = actualSuffixForm.charAt(0);
+                List<SuffixFormGraphSuffixEdge> edgeList = edgeListsByFirstChar.get(firstChar);
+                if (edgeList == null) {
+                    edgeList = new ArrayList<SuffixFormGraphSuffixEdge>();
+                    edgeListsByFirstChar.put(firstChar, edgeList);
+                }
+                edgeList.add(edge);
+            }
+        }
+
+        final int edgeCount = edges.size();
+        this.targetNodeIds = new int[edgeCount];
+        this.targetPhonAttrMasks = new long[edgeCount];
+        this.suffixTransitions = new SuffixTransition[edgeCount];
+        this.phoneticExpectations = newPhoneticExpectationsArray(edgeCount);
+
+        int edgeIndex = this.putEdges(emptyFormEdgeList, 0);
+        this.emptyFormEdgeCount = edgeIndex;
+
+        this.firstChars = new char[edgeListsByFirstChar.size()];
+        this.firstCharOffsets = new int[edgeListsByFirstChar.size() + 1];
+        int i = 0;
+        for (Map.Entry<Character, List<SuffixFormGraphSuffixEdge>> entry : edgeListsByFirstChar.entrySet()) {
+            this.firstChars[i] = entry.getKey();
+            this.firstCharOffsets[i] = edgeIndex;
+            edgeIndex = this.putEdges(entry.getValue(), edgeIndex);
+            i++;
+        }
+        this.firstCharOffsets[i] = edgeIndex;
+    }
+
+    private int putEdges(List<SuffixFormGraphSuffixEdge> edges, int offset) {
+        int edgeIndex = offset;
+        for (SuffixFormGraphSuffixEdge edge : edges) {
+            final SuffixFormGraphNode targetNode = edge.getTargetSuffixFormGraphNode();
+            this.targetNodeIds[edgeIndex] = targetNode.getId();
+            this.targetPhonAttrMasks[edgeIndex] = targetNode.getSuffixFormGraphNodeKey().getPhonAttrMask();
+            this.suffixTransitions[edgeIndex] = edge.getSuffixTransition();
+            this.phoneticExpectations[edgeIndex] = edge.getPhoneticExpectations();
+            edgeIndex++;
+        }
+        return edgeIndex;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ImmutableSet<PhoneticExpectation>[] newPhoneticExpectationsArray(int length) {
+        return (ImmutableSet<PhoneticExpectation>[]) new ImmutableSet<?>[length];
+    }
+
+    /**
+     * Creates the edges back, with the target nodes found in the given graph.
+     */
+    Set<SuffixFormGraphSuffixEdge> createEdges(SuffixFormGraph suffixFormGraph) {
+        final Set<SuffixFormGraphSuffixEdge> edges = new HashSet<SuffixFormGraphSuffixEdge>(this.targetNodeIds.length * 2);
+        for (int i = 0; i < this.targetNodeIds.length; i++) {
+            edges.add(new SuffixFormGraphSuffixEdge(suffixFormGraph.findNode(this.targetNodeIds[i]), this.suffixTransitions[i], this.phoneticExpectations[i]));
+        }
+        return edges;
+    }
+
+    /**
+     * @return Number of the edges. Edges are at positions from 0 to the count
+     */
+    int getEdgeCount() {
+        return targetNodeIds.length;
+    }
+
+    /**
+     * @return Number of the edges with empty actual suffix forms. These edges are at positions from 0 to the count
+     */
+    int getEmptyFormEdgeCount() {
+        return emptyFormEdgeCount;
+    }
+
+    /**
+     * @return Index of the given character in the first characters of the edges, or a negative value if there is no
+     *         edge starting with it
+     * @see SuffixFormGraphEdgeIndex#getFirstCharStart(int)
+     * @see SuffixFormGraphEdgeIndex#getFirstCharEnd(int)
+     */
+    int indexOfFirstChar(char firstChar) {
+        return Arrays.binarySearch(firstChars, firstChar);
+    }
+
+    /**
+     * @return Position of the first edge starting with the character at the given index
+     */
+    int getFirstCharStart(int firstCharIndex) {
+        return firstCharOffsets[firstCharIndex];
+    }
+
+    /**
+     * @return Position after the last edge starting with the character at the given index
+     */
+    int getFirstCharEnd(int firstCharIndex) {
+        return firstCharOffsets[firstCharIndex + 1];
+    }
+
+    int getTargetNodeId(int position) {
+        return targetNodeIds[position];
+    }
+
+    long getTargetPhonAttrMask(int position) {
+        return targetPhonAttrMasks[position];
+    }
+
+    SuffixTransition getSuffixTransition(int position) {
+        return suffixTransitions[position];
+    }
+
+    ImmutableSet<PhoneticExpectation> getPhoneticExpectations(int position) {
+        return phoneticExpectations[position];
+    }
+}
@@ -30,6 +30,7 @@ import org.trnltk.morphology.morphotactics.SuffixGraph;
 import org.trnltk.morphology.morphotactics.SuffixGraphState;
 import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
 import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
 import org.trnltk.model.lexicon.PhoneticExpectation;
 import org.trnltk.model.letter.TurkicLetter;
 
@@ -42,6 +43,8 @@ import java.util.Set;
  * <p/>
  * Computes all possible applicable suffix forms for combinations of suffixes, phonetic attribute combinations and
  * suffix graph states.
+ * <p/>
+ * Graph can also be extracted lazily, see {@link SuffixFormGraphExtractor#extractLazily(SuffixGraph)}.
  */
 public class SuffixFormGraphExtractor {
 
@@ -65,14 +68,46 @@ public class SuffixFormGraphExtractor {
             exploreStateBasedSuffixGraph(rootSuffixGraphState, suffixFormGraph);
         }
 
+        suffixFormGraph.compile();
+
         return suffixFormGraph;
     }
 
+    /**
+     * Creates a graph which has no nodes initially. Nodes and their edges are extracted when they're accessed first.
+     *
+     * @param suffixGraph An initialized suffix graph
+     * @see LazySuffixFormGraph
+     */
+    public LazySuffixFormGraph extractLazily(SuffixGraph suffixGraph) {
+        return new LazySuffixFormGraph(suffixGraph, this);
+    }
+
+    /**
+     * Adds the edges of a single node, creating the target nodes without exploring them.
+     * <p/>
+     * Like the eager extraction, edges are added only if the phonetic attributes of the node is a valid combination.
+     */
+    void exploreNode(SuffixFormGraph suffixFormGraph, SuffixFormGraphNode suffixFormGraphNode) {
+        if (suffixFormGraphNode.isExplored())
+            return;
+
+        suffixFormGraphNode.setExplored(true);
+
+        if (!this.phoneticAttributeSets.isValid(suffixFormGraphNode.getSuffixFormGraphNodeKey().getPhonAttrMask()))
+            return;
+
+        final SuffixGraphState suffixGraphState = suffixFormGraphNode.getSuffixFormGraphNodeKey().getState();
+        for (SuffixEdge outEdge : suffixGraphState.getOutEdges()) {
+            addTransitionNodes(suffixFormGraph, suffixFormGraphNode, outEdge.getSuffix(), outEdge.getTargetState());
+        }
+    }
+
     private void exploreStateBasedSuffixGraph(SuffixGraphState suffixGraphState, SuffixFormGraph suffixFormGraph) {
         for (Set<PhoneticAttribute> validPhonAttrSet : this.phoneticAttributeSets.getValidPhoneticAttributeSets()) {
             final SuffixFormGraphNodeKey suffixFormGraphNodeKey = new SuffixFormGraphNodeKey(suffixGraphState, validPhonAttrSet);
 
-            SuffixFormGraphNode suffixFormGraphNode = suffixFormGraph.getNode(suffixFormGraphNodeKey);
+            SuffixFormGraphNode suffixFormGraphNode = suffixFormGraph.findNode(suffixFormGraphNodeKey);
             if (suffixFormGraphNode == null) {
                 suffixFormGraphNode = suffixFormGraph.addNode(suffixFormGraphNodeKey, suffixGraphState.getType(), validPhonAttrSet);
             } else {
@@ -133,11 +168,12 @@ public class SuffixFormGraphExtractor {
         if (appliedSuffixFormIsEmpty) {
             newNodePhoneticAttributes = sourceCharSuffixGraphNode.getCurrentPhonAttrSet();
         } else {
-            newNodePhoneticAttributes = phoneticsAnalyzer.calculateNewPhoneticAttributes(sourceCharSuffixGraphNode.getCurrentPhonAttrSet(), appliedSuffixForm);
+            final long sourcePhoneticAttributesMask = sourceCharSuffixGraphNode.getSuffixFormGraphNodeKey().getPhonAttrMask();
+            newNodePhoneticAttributes = PhoneticAttributeMasks.toImmutableSet(phoneticsAnalyzer.calculateNewPhoneticAttributesMask(sourcePhoneticAttributesMask, appliedSuffixForm));
         }
 
         final SuffixFormGraphNodeKey newCharSuffixGraphNodeKey = new SuffixFormGraphNodeKey(targetState, newNodePhoneticAttributes);
-        SuffixFormGraphNode newCharSuffixGraphNode = charSuffixGraph.getNode(newCharSuffixGraphNodeKey);
+        SuffixFormGraphNode newCharSuffixGraphNode = charSuffixGraph.findNode(newCharSuffixGraphNodeKey);
         if (newCharSuffixGraphNode == null) {
             newCharSuffixGraphNode = new SuffixFormGraphNode(newCharSuffixGraphNodeKey, targetState.getType(), newNodePhoneticAttributes);
             charSuffixGraph.addNode(newCharSuffixGraphNodeKey, newCharSuffixGraphNode);
@@ -21,11 +21,14 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.trnltk.model.suffix.SuffixForm;
 import org.trnltk.model.suffix.SuffixFormApplication;
+import org.trnltk.model.suffix.SuffixTransition;
+import org.trnltk.morphology.morphotactics.SuffixGraphState;
 import org.trnltk.morphology.morphotactics.SuffixGraphStateType;
 import org.trnltk.model.lexicon.PhoneticAttribute;
 import org.trnltk.model.lexicon.PhoneticExpectation;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -35,11 +38,18 @@ import java.util.Set;
  */
 public class SuffixFormGraphNode {
     private final SuffixFormGraphNodeKey suffixFormGraphNodeKey;
-    private final Set<SuffixFormGraphSuffixEdge> edges = new HashSet<SuffixFormGraphSuffixEdge>();
+    // released once the edge index is built for a node of a graph, see buildEdgeIndex()
+    private Set<SuffixFormGraphSuffixEdge> edges = new HashSet<SuffixFormGraphSuffixEdge>();
     private final ImmutableSet<PhoneticAttribute> currentPhonAttrSet;
     private final SuffixGraphStateType suffixGraphStateType;
 
     private boolean explored;
+    private int id = -1;
+    // set when the node is added to a graph
+    private SuffixFormGraph suffixFormGraph;
+
+    // built after the edges are added; set to null when a new edge is added
+    private volatile SuffixFormGraphEdgeIndex edgeIndex;
 
     SuffixFormGraphNode(SuffixFormGraphNodeKey suffixFormGraphNodeKey, SuffixGraphStateType suffixGraphStateType, ImmutableSet<PhoneticAttribute> currentPhonAttrSet) {
         this.suffixFormGraphNodeKey = suffixFormGraphNodeKey;
@@ -75,14 +85,37 @@ public class SuffixFormGraphNode {
         return suffixFormGraphNodeKey;
     }
 
+    /**
+     * @return Dense id of the node in its {@link SuffixFormGraph}, -1 if it is not added to a graph
+     */
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    void setSuffixFormGraph(SuffixFormGraph suffixFormGraph) {
+        this.suffixFormGraph = suffixFormGraph;
+    }
+
     public ImmutableSet<PhoneticAttribute> getCurrentPhonAttrSet() {
         return currentPhonAttrSet;
     }
 
     public SuffixFormGraphSuffixEdge addSuffixFormEdge(SuffixFormGraphNode targetSuffixFormGraphNode, SuffixFormApplication suffixFormApplication, Collection<PhoneticExpectation> phoneticExpectations) {
-        final SuffixFormGraphSuffixEdge edge = new SuffixFormGraphSuffixEdge(targetSuffixFormGraphNode, suffixFormApplication,
+        final SuffixGraphState sourceState = this.suffixFormGraphNodeKey.getState();
+        final SuffixGraphState targetState = targetSuffixFormGraphNode.getSuffixFormGraphNodeKey().getState();
+        final SuffixTransition suffixTransition = this.suffixFormGraph != null
+                ? this.suffixFormGraph.getSuffixTransitionInterner().intern(sourceState, suffixFormApplication, targetState)
+                : new SuffixTransition(sourceState, suffixFormApplication, targetState);
+        final SuffixFormGraphSuffixEdge edge = new SuffixFormGraphSuffixEdge(targetSuffixFormGraphNode, suffixTransition,
                 CollectionUtils.isNotEmpty(phoneticExpectations) ? ImmutableSet.copyOf(phoneticExpectations) : ImmutableSet.<PhoneticExpectation>of());
+        if (this.edges == null)
+            this.edges = this.edgeIndex.createEdges(this.suffixFormGraph);
         this.edges.add(edge);
+        this.edgeIndex = null;
         return edge;
     }
 
@@ -94,8 +127,38 @@ public class SuffixFormGraphNode {
         );
     }
 
+    /**
+     * @return Edges of the node. Once the edge index is built, edges are created from the index; thus the returned set
+     *         is a copy and it is not cheap
+     */
     public Set<SuffixFormGraphSuffixEdge> getEdges() {
-        return edges;
+        final Set<SuffixFormGraphSuffixEdge> edgeSet = this.edges;
+        return edgeSet != null ? edgeSet : Collections.unmodifiableSet(this.edgeIndex.createEdges(this.suffixFormGraph));
+    }
+
+    /**
+     * Builds the index of the edges which is used for finding the edges that could be applicable for a surface.
+     * If the node is added to a graph, edge set is released since the index has all of the edges.
+     *
+     * @see SuffixFormGraphNode#getEdgeIndex()
+     */
+    void buildEdgeIndex() {
+        this.edgeIndex = new SuffixFormGraphEdgeIndex(this.edges);
+        if (this.suffixFormGraph != null)
+            this.edges = null;
+    }
+
+    /**
+     * @return Index of the edges. Built on demand if it is not built yet or if edges are modified after it is built
+     */
+    SuffixFormGraphEdgeIndex getEdgeIndex() {
+        SuffixFormGraphEdgeIndex index = this.edgeIndex;
+        if (index == null) {
+            // index is immutable, thus building it twice in a race is harmless
+            index = new SuffixFormGraphEdgeIndex(this.edges);
+            this.edgeIndex = index;
+        }
+        return index;
     }
 
     public SuffixGraphStateType getSuffixGraphStateType() {
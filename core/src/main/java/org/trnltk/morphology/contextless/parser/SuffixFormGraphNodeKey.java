@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.trnltk.morphology.morphotactics.SuffixGraphState;
 import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
 
 import java.util.Set;
 
@@ -31,11 +32,13 @@ import java.util.Set;
 public class SuffixFormGraphNodeKey {
 
     private final ImmutableSet<PhoneticAttribute> phonAttrSet;
+    private final long phonAttrMask;
     private final SuffixGraphState state;
 
     public SuffixFormGraphNodeKey(SuffixGraphState state, Set<PhoneticAttribute> phonAttrSet) {
         this.state = state;
         this.phonAttrSet = Sets.immutableEnumSet(phonAttrSet);
+        this.phonAttrMask = PhoneticAttributeMasks.toMask(phonAttrSet);
     }
 
     @Override
@@ -70,6 +73,13 @@ public class SuffixFormGraphNodeKey {
         return phonAttrSet;
     }
 
+    /**
+     * @return Phonetic attributes as a mask, see {@link PhoneticAttributeMasks}
+     */
+    public long getPhonAttrMask() {
+        return phonAttrMask;
+    }
+
     public SuffixGraphState getState() {
         return state;
     }
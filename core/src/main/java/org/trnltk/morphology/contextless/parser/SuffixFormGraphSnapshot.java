@@ -0,0 +1,239 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang3.Validate;
+import org.apache.log4j.Logger;
+import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
+import org.trnltk.model.lexicon.PhoneticExpectation;
+import org.trnltk.model.suffix.Suffix;
+import org.trnltk.model.suffix.SuffixForm;
+import org.trnltk.model.suffix.SuffixFormApplication;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixGraphFingerprint;
+import org.trnltk.morphology.morphotactics.SuffixGraphState;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Writes an extracted {@link SuffixFormGraph} to a file and reads it back, so that the graph is extracted only once,
+ * not on every start of the JVM.
+ * <p/>
+ * States, suffixes and suffix forms are stored with their names and indices and they are resolved from the suffix
+ * graph on reading. A fingerprint of the suffix graph is kept in the file; a file with a different fingerprint is
+ * considered stale. If the extraction logic changes, {@link SuffixFormGraphSnapshot#FORMAT_VERSION} must be
+ * increased.
+ * <p/>
+ * File format:
+ * <pre>
+ * header : magic, format version (ints), fingerprint (long), node count (int)
+ * nodes  : state name (UTF), phonetic attributes mask (long), explored (boolean), in node id order
+ * edges  : edge count of the node (int) and for each edge of the node; target node id (int), suffix name (UTF),
+ *          suffix form index (short), actual and fitting suffix form strings (UTF), phonetic expectations mask (byte)
+ * </pre>
+ */
+public class SuffixFormGraphSnapshot {
+    private static final Logger logger = Logger.getLogger(SuffixFormGraphSnapshot.class);
+
+    static final int MAGIC = 0x54524E47;
+    static final int FORMAT_VERSION = 1;
+
+    private static final PhoneticExpectation[] PHONETIC_EXPECTATIONS = PhoneticExpectation.values();
+
+    /**
+     * Reads the graph from the file if it is up to date, otherwise extracts it and (re)writes the file.
+     *
+     * @param suffixGraph An initialized suffix graph
+     */
+    public static SuffixFormGraph loadOrExtract(File file, SuffixGraph suffixGraph, SuffixFormGraphExtractor suffixFormGraphExtractor) {
+        try {
+            final SuffixFormGraph snapshot = read(file, suffixGraph);
+            if (snapshot != null)
+                return snapshot;
+
+            logger.info("Suffix form graph snapshot " + file + " doesn't exist or is stale, writing it");
+            final SuffixFormGraph suffixFormGraph = suffixFormGraphExtractor.extract(suffixGraph);
+            write(suffixFormGraph, file);
+            return suffixFormGraph;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load suffix form graph snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Writes the graph to the file. A temporary file in the same directory is written first and then it is moved
+     * atomically onto the file, so that readers never see a partially written file and concurrent writers don't
+     * overwrite each other's temporary files.
+     */
+    public static void write(SuffixFormGraph suffixFormGraph, File file) throws IOException {
+        final File temporaryFile = File.createTempFile(file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+        boolean moved = false;
+        try {
+            final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+            try {
+                write(suffixFormGraph, outputStream);
+            } finally {
+                outputStream.close();
+            }
+
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        } finally {
+            if (!moved && !temporaryFile.delete())
+                logger.warn("Cannot delete temporary file " + temporaryFile);
+        }
+    }
+
+    private static void write(SuffixFormGraph suffixFormGraph, DataOutputStream outputStream) throws IOException {
+        final int nodeCount = suffixFormGraph.getNodeCount();
+        outputStream.writeInt(MAGIC);
+        outputStream.writeInt(FORMAT_VERSION);
+        outputStream.writeLong(SuffixGraphFingerprint.of(suffixFormGraph.getSuffixGraph()));
+        outputStream.writeInt(nodeCount);
+
+        for (int i = 0; i < nodeCount; i++) {
+            final SuffixFormGraphNode node = suffixFormGraph.getNode(i);
+            outputStream.writeUTF(node.getSuffixFormGraphNodeKey().getState().getName());
+            outputStream.writeLong(node.getSuffixFormGraphNodeKey().getPhonAttrMask());
+            outputStream.writeBoolean(node.isExplored());
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            final Set<SuffixFormGraphSuffixEdge> edges = suffixFormGraph.getNode(i).getEdges();
+            outputStream.writeInt(edges.size());
+            for (SuffixFormGraphSuffixEdge edge : edges) {
+                final SuffixFormApplication suffixFormApplication = edge.getSuffixFormApplication();
+                final SuffixForm suffixForm = suffixFormApplication.getSuffixForm();
+                outputStream.writeInt(edge.getTargetSuffixFormGraphNode().getId());
+                outputStream.writeUTF(suffixForm.getSuffix().getName());
+                outputStream.writeShort(indexOf(suffixForm));
+                outputStream.writeUTF(suffixFormApplication.getActualSuffixForm());
+                outputStream.writeUTF(suffixFormApplication.getFittingSuffixForm());
+                outputStream.writeByte(phoneticExpectationsMask(edge.getPhoneticExpectations()));
+            }
+        }
+    }
+
+    /**
+     * Reads the graph from the file.
+     *
+     * @param suffixGraph An initialized suffix graph, which has the same definition with the one the file is written for
+     * @return Compiled graph, or null if the file doesn't exist or it is written for a different suffix graph definition
+     */
+    public static SuffixFormGraph read(File file, SuffixGraph suffixGraph) throws IOException {
+        if (!file.isFile())
+            return null;
+
+        final DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != FORMAT_VERSION || inputStream.readLong() != SuffixGraphFingerprint.of(suffixGraph))
+                return null;
+
+            final SuffixFormGraph suffixFormGraph = new SuffixFormGraph(suffixGraph);
+            final int nodeCount = inputStream.readInt();
+            // nodes cannot be found by their ids until the graph is compiled
+            final SuffixFormGraphNode[] nodes = new SuffixFormGraphNode[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                final SuffixGraphState state = getState(suffixGraph, inputStream.readUTF());
+                final ImmutableSet<PhoneticAttribute> phoneticAttributes = PhoneticAttributeMasks.toImmutableSet(inputStream.readLong());
+                final SuffixFormGraphNodeKey nodeKey = new SuffixFormGraphNodeKey(state, phoneticAttributes);
+                final SuffixFormGraphNode node = new SuffixFormGraphNode(nodeKey, state.getType(), phoneticAttributes);
+                node.setExplored(inputStream.readBoolean());
+                suffixFormGraph.addNode(nodeKey, node);
+                nodes[i] = node;
+            }
+
+            final Map<Suffix, SuffixForm[]> suffixFormsOfSuffixes = new HashMap<Suffix, SuffixForm[]>();
+            for (int i = 0; i < nodeCount; i++) {
+                final SuffixFormGraphNode node = nodes[i];
+                final int edgeCount = inputStream.readInt();
+                for (int j = 0; j < edgeCount; j++) {
+                    final SuffixFormGraphNode targetNode = nodes[inputStream.readInt()];
+                    final SuffixForm suffixForm = getSuffixForm(suffixGraph, suffixFormsOfSuffixes, inputStream.readUTF(), inputStream.readShort());
+                    final String actualSuffixForm = inputStream.readUTF();
+                    final String fittingSuffixForm = inputStream.readUTF();
+                    final Collection<PhoneticExpectation> phoneticExpectations = toPhoneticExpectations(inputStream.readByte());
+                    node.addSuffixFormEdge(targetNode, new SuffixFormApplication(suffixForm, actualSuffixForm, fittingSuffixForm), phoneticExpectations);
+                }
+            }
+
+            suffixFormGraph.compile();
+            return suffixFormGraph;
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static SuffixGraphState getState(SuffixGraph suffixGraph, String stateName) {
+        final SuffixGraphState state = suffixGraph.getSuffixGraphState(stateName);
+        if (state == null)
+            throw new IllegalStateException("Suffix graph state " + stateName + " is not found");
+        return state;
+    }
+
+    private static SuffixForm getSuffixForm(SuffixGraph suffixGraph, Map<Suffix, SuffixForm[]> suffixFormsOfSuffixes, String suffixName, int formIndex) {
+        final Suffix suffix = suffixGraph.getSuffix(suffixName);
+        if (suffix == null)
+            throw new IllegalStateException("Suffix " + suffixName + " is not found");
+
+        SuffixForm[] suffixForms = suffixFormsOfSuffixes.get(suffix);
+        if (suffixForms == null) {
+            suffixForms = suffix.getSuffixForms().toArray(new SuffixForm[suffix.getSuffixForms().size()]);
+            suffixFormsOfSuffixes.put(suffix, suffixForms);
+        }
+        Validate.validIndex(suffixForms, formIndex, "No suffix form with index " + formIndex + " for suffix " + suffixName);
+        return suffixForms[formIndex];
+    }
+
+    private static int indexOf(SuffixForm suffixForm) {
+        // suffix forms are kept in insertion order
+        int index = 0;
+        for (SuffixForm form : suffixForm.getSuffix().getSuffixForms()) {
+            if (form.equals(suffixForm))
+                return index;
+            index++;
+        }
+        throw new IllegalStateException("Suffix form " + suffixForm + " is not a form of its suffix");
+    }
+
+    private static int phoneticExpectationsMask(Set<PhoneticExpectation> phoneticExpectations) {
+        int mask = 0;
+        for (PhoneticExpectation phoneticExpectation : phoneticExpectations) {
+            mask |= 1 << phoneticExpectation.ordinal();
+        }
+        return mask;
+    }
+
+    private static Collection<PhoneticExpectation> toPhoneticExpectations(byte mask) {
+        if (mask == 0)
+            return null;
+
+        final EnumSet<PhoneticExpectation> phoneticExpectations = EnumSet.noneOf(PhoneticExpectation.class);
+        for (PhoneticExpectation phoneticExpectation : PHONETIC_EXPECTATIONS) {
+            if ((mask & (1 << phoneticExpectation.ordinal())) != 0)
+                phoneticExpectations.add(phoneticExpectation);
+        }
+        return Sets.immutableEnumSet(phoneticExpectations);
+    }
+}
@@ -19,6 +19,7 @@ package org.trnltk.morphology.contextless.parser;
 import com.google.common.collect.ImmutableSet;
 import org.trnltk.model.lexicon.PhoneticExpectation;
 import org.trnltk.model.suffix.SuffixFormApplication;
+import org.trnltk.model.suffix.SuffixTransition;
 
 /**
  * Defines a transition from a {@link SuffixFormGraphNode} to another one.
@@ -30,16 +31,21 @@ import org.trnltk.model.suffix.SuffixFormApplication;
  * phonetic attributes combination when the transition is applied.
  * <p/>
  * An edge and a suffix form application results in a transition in {@link SuffixFormGraph}.
+ * <p/>
+ * Suffix form applications and suffix transitions of the edges are interned, thus the morpheme containers reference
+ * the shared instances.
  */
 public class SuffixFormGraphSuffixEdge {
 
     private final SuffixFormGraphNode targetSuffixFormGraphNode;
     private final SuffixFormApplication suffixFormApplication;
+    private final SuffixTransition suffixTransition;
     private final ImmutableSet<PhoneticExpectation> phoneticExpectations;
 
-    public SuffixFormGraphSuffixEdge(SuffixFormGraphNode targetSuffixFormGraphNode, SuffixFormApplication suffixFormApplication, ImmutableSet<PhoneticExpectation> phoneticExpectations) {
+    public SuffixFormGraphSuffixEdge(SuffixFormGraphNode targetSuffixFormGraphNode, SuffixTransition suffixTransition, ImmutableSet<PhoneticExpectation> phoneticExpectations) {
         this.targetSuffixFormGraphNode = targetSuffixFormGraphNode;
-        this.suffixFormApplication = suffixFormApplication;
+        this.suffixFormApplication = suffixTransition.getSuffixFormApplication();
+        this.suffixTransition = suffixTransition;
         this.phoneticExpectations = phoneticExpectations;
     }
 
@@ -79,6 +85,13 @@ public class SuffixFormGraphSuffixEdge {
         return suffixFormApplication;
     }
 
+    /**
+     * @return Transition from the state of the source node to the state of the target node with the suffix form application
+     */
+    public SuffixTransition getSuffixTransition() {
+        return suffixTransition;
+    }
+
     public ImmutableSet<PhoneticExpectation> getPhoneticExpectations() {
         return phoneticExpectations;
     }
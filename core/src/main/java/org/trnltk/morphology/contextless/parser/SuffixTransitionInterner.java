@@ -0,0 +1,42 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.trnltk.model.suffix.SuffixFormApplication;
+import org.trnltk.model.suffix.SuffixTransition;
+import org.trnltk.morphology.morphotactics.SuffixGraphState;
+
+/**
+ * Interns the {@link SuffixFormApplication}s and {@link SuffixTransition}s of the edges of a {@link SuffixFormGraph}.
+ * <p/>
+ * Same applications and transitions are added from many nodes, e.g. nodes of a state with different phonetic
+ * attributes. Interning is done per graph, since suffix forms and states of different suffix graphs can be equal.
+ * <p/>
+ * Thread safe.
+ */
+final class SuffixTransitionInterner {
+    private final Interner<SuffixFormApplication> suffixFormApplications = Interners.newStrongInterner();
+    private final Interner<SuffixTransition> suffixTransitions = Interners.newStrongInterner();
+
+    SuffixTransition intern(SuffixGraphState sourceState, SuffixFormApplication suffixFormApplication, SuffixGraphState targetState) {
+        final SuffixFormApplication internedSuffixFormApplication = this.suffixFormApplications.intern(suffixFormApplication);
+        return this.suffixTransitions.intern(new SuffixTransition(sourceState, internedSuffixFormApplication, targetState));
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.commons.lang3.Validate;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.morphology.contextless.parser.MorphologicParser;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A two level cache which doesn't block the parser threads.
+ * <p/>
+ * L2 is a small LRU cache per thread, thus it is accessed without any synchronization. It helps with the locality of
+ * the inputs; ie. an input that is being parsed is likely to be parsed very soon again by the same thread.
+ * <p/>
+ * L1 is a size bounded concurrent cache shared by all threads. Entries are written through to L1 right away, thus
+ * an entry put by a thread is visible to other threads immediately and no entries are lost when L2 of a thread is full.
+ * Values found in L1 are promoted to L2 of the reading thread.
+ * <p/>
+ * L2 of a thread lives as long as the thread and the cache live. {@link #clear()} empties L1, removes L2 of the calling
+ * thread and makes L2 of other threads to be emptied on their next access. L2 hits are counted per thread and summed
+ * when the statistics are read.
+ * <p/>
+ * Use this instead of {@link TwoLevelMorphologicParserCache} when the cache is shared by many threads.
+ */
+public class ConcurrentTwoLevelMorphologicParserCache implements MorphologicParserCache {
+
+    private final int l2MaxSize;
+    private final Cache<String, List<MorphemeContainer>> l1Cache;
+    private final ThreadLocal<L2Cache> l2Caches;
+    // incremented with each clear; L2 caches of older generations are emptied on access
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // one per thread that used L2, thus hits are counted without contention
+    private final Queue<L2HitCounter> l2HitCounters = new ConcurrentLinkedQueue<L2HitCounter>();
+
+    /**
+     * See documentation of <code>ConcurrentTwoLevelMorphologicParserCache</code>
+     *
+     * @param l2MaxSize        Max size of the cache level 2 of each thread
+     * @param l1MaxSize        Max size of the shared cache level 1. Bound is approximate, eviction may start before it is reached
+     * @param concurrencyLevel Expected number of threads that access the cache
+     */
+    public ConcurrentTwoLevelMorphologicParserCache(final int l2MaxSize, long l1MaxSize, int concurrencyLevel) {
+        Validate.isTrue(l2MaxSize >= 0, "L2 max size cannot be negative : " + l2MaxSize);
+        Validate.isTrue(l1MaxSize > 0, "L1 max size must be positive : " + l1MaxSize);
+        Validate.isTrue(concurrencyLevel > 0, "Concurrency level must be positive : " + concurrencyLevel);
+
+        this.l2MaxSize = l2MaxSize;
+        this.l1Cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(concurrencyLevel)
+                .maximumSize(l1MaxSize)
+                .recordStats()
+                .build();
+        this.l2Caches = new ThreadLocal<L2Cache>() {
+            @Override
+            protected L2Cache initialValue() {
+                final L2HitCounter hitCounter = new L2HitCounter();
+                l2HitCounters.add(hitCounter);
+                return new L2Cache(l2MaxSize, hitCounter, generation.get());
+            }
+        };
+    }
+
+    private L2Cache getL2Cache() {
+        if (this.l2MaxSize == 0)
+            return null;
+
+        final L2Cache l2Cache = this.l2Caches.get();
+        final int currentGeneration = this.generation.get();
+        if (l2Cache.generation != currentGeneration) {
+            l2Cache.clear();
+            l2Cache.generation = currentGeneration;
+        }
+        return l2Cache;
+    }
+
+    @Override
+    public List<MorphemeContainer> get(String input) {
+        final L2Cache l2Cache = this.getL2Cache();
+        if (l2Cache != null) {
+            final List<MorphemeContainer> morphemeContainers = l2Cache.get(input);
+            if (morphemeContainers != null) {
+                l2Cache.hitCounter.increment();
+                return morphemeContainers;
+            }
+        }
+
+        final List<MorphemeContainer> morphemeContainers = this.l1Cache.getIfPresent(input);
+        if (morphemeContainers != null && l2Cache != null)
+            l2Cache.put(input, morphemeContainers);
+        return morphemeContainers;
+    }
+
+    @Override
+    public void put(String input, List<MorphemeContainer> morphemeContainers) {
+        final List<MorphemeContainer> value = morphemeContainers == null ? Collections.<MorphemeContainer>emptyList() : morphemeContainers;
+        this.l1Cache.put(input, value);
+        final L2Cache l2Cache = this.getL2Cache();
+        if (l2Cache != null)
+            l2Cache.put(input, value);
+    }
+
+    @Override
+    public void putAll(Map<String, List<MorphemeContainer>> map) {
+        for (Map.Entry<String, List<MorphemeContainer>> entry : map.entrySet()) {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void build(MorphologicParser parser) {
+        // do nothing since it is an online cache
+    }
+
+    @Override
+    public boolean isNotBuilt() {
+        // do nothing since it is an online cache
+        return false;
+    }
+
+    /**
+     * Removes all entries. L2 of the calling thread is removed; L2 of the other threads are emptied when they access
+     * the cache next time. Entries put concurrently with clearing might be kept.
+     */
+    public void clear() {
+        this.generation.incrementAndGet();
+        this.l1Cache.invalidateAll();
+        this.l2Caches.remove();
+    }
+
+    /**
+     * @return Snapshot of the statistics; L1 misses are counted as misses
+     */
+    public MorphologicParserCacheStats stats() {
+        final CacheStats l1Stats = this.l1Cache.stats();
+        long l2HitCount = 0;
+        for (L2HitCounter l2HitCounter : this.l2HitCounters) {
+            l2HitCount += l2HitCounter.count;
+        }
+        return new MorphologicParserCacheStats(l1Stats.hitCount(), l2HitCount, l1Stats.missCount(), l1Stats.evictionCount());
+    }
+
+    /**
+     * @return Approximate number of entries in L1
+     */
+    public long size() {
+        return this.l1Cache.size();
+    }
+
+    /**
+     * LRU cache of a thread.
+     */
+    private static class L2Cache extends LinkedHashMap<String, List<MorphemeContainer>> {
+        private final int maxSize;
+        private final L2HitCounter hitCounter;
+        private int generation;
+
+        private L2Cache(int maxSize, L2HitCounter hitCounter, int generation) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.hitCounter = hitCounter;
+            this.generation = generation;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<MorphemeContainer>> eldest) {
+            return this.size() > maxSize;
+        }
+    }
+
+    /**
+     * Hit counter of a thread. Counter is kept after the thread ends, so that its hits are still counted.
+     */
+    private static class L2HitCounter {
+        // written by a single thread, read by the others
+        private volatile long count;
+
+        private void increment() {
+            this.count++;
+        }
+    }
+}
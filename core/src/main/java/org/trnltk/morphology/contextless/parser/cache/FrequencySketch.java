@@ -0,0 +1,87 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+/**
+ * A count-min sketch of 4-bit counters, to estimate the access frequencies of the keys in a small amount of memory.
+ * <p/>
+ * Counters are halved after a number of increments, so that the frequencies of the keys which were popular long ago
+ * decay in time.
+ * <p/>
+ * Not thread safe.
+ */
+class FrequencySketch {
+    private static final int MAX_FREQUENCY = 15;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int incrementCount;
+
+    /**
+     * @param expectedEntryCount Expected number of entries in the cache
+     */
+    FrequencySketch(int expectedEntryCount) {
+        // each long keeps 16 counters
+        final int tableSize = Integer.highestOneBit(Math.max(expectedEntryCount, 16) - 1) << 1;
+        this.table = new long[tableSize];
+        this.tableMask = tableSize - 1;
+        this.sampleSize = 10 * Math.max(expectedEntryCount, 16);
+    }
+
+    int frequency(int hash) {
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < SEEDS.length; i++) {
+            final long h = rehash(hash, i);
+            final int index = (int) (h >>> 32) & tableMask;
+            final int offset = ((int) h & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xfL));
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        boolean incremented = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            final long h = rehash(hash, i);
+            final int index = (int) (h >>> 32) & tableMask;
+            final int offset = ((int) h & 15) << 2;
+            if (((table[index] >>> offset) & 0xfL) < MAX_FREQUENCY) {
+                table[index] += 1L << offset;
+                incremented = true;
+            }
+        }
+
+        if (incremented && ++incrementCount >= sampleSize)
+            this.reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        incrementCount /= 2;
+    }
+
+    private static long rehash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 29;
+        return h;
+    }
+}
@@ -70,16 +70,13 @@ public class LRUMorphologicParserCache implements MorphologicParserCache {
 
     @Override
     public void put(String input, List<MorphemeContainer> morphemeContainers) {
-        synchronized (this.cache) {
-            this.cache.put(input, morphemeContainers);
-        }
+        // Guava cache is already thread safe; no need to serialize the writers
+        this.cache.put(input, morphemeContainers);
     }
 
     @Override
     public void putAll(Map<String, List<MorphemeContainer>> map) {
-        synchronized (this.cache) {
-            this.cache.putAll(map);
-        }
+        this.cache.putAll(map);
     }
 
     @Override
@@ -0,0 +1,48 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+import com.google.common.cache.Weigher;
+import org.trnltk.model.morpheme.MorphemeContainer;
+
+import java.util.List;
+
+/**
+ * Estimates the retained heap size of a cache entry in bytes.
+ * <p/>
+ * Estimation is rough; it is based on the lengths of the surfaces and the number of suffix transitions of the
+ * containers, which dominate the size of a {@link MorphemeContainer}. Root, lexeme and suffix graph objects are shared,
+ * thus not counted.
+ */
+public class MorphemeContainerListWeigher implements Weigher<String, List<MorphemeContainer>> {
+    private static final int STRING_OVERHEAD = 40;
+    private static final int LIST_OVERHEAD = 40;
+    private static final int REFERENCE_SIZE = 8;
+    private static final int CONTAINER_OVERHEAD = 160;
+    private static final int TRANSITION_SIZE = 120;
+
+    @Override
+    public int weigh(String key, List<MorphemeContainer> morphemeContainers) {
+        int weight = STRING_OVERHEAD + 2 * key.length() + LIST_OVERHEAD;
+        for (MorphemeContainer morphemeContainer : morphemeContainers) {
+            weight += REFERENCE_SIZE + CONTAINER_OVERHEAD +
+                    2 * (morphemeContainer.getSurfaceSoFar().length() + morphemeContainer.getRemainingSurface().length()) +
+                    TRANSITION_SIZE * morphemeContainer.getSuffixTransitions().size();
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+/**
+ * Immutable snapshot of the statistics of a {@link MorphologicParserCache}.
+ * <p/>
+ * Counts are cumulative since the creation of the cache. For single level caches, all hits are counted as L1 hits.
+ */
+public class MorphologicParserCacheStats {
+    private final long l1HitCount;
+    private final long l2HitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public MorphologicParserCacheStats(long l1HitCount, long l2HitCount, long missCount, long evictionCount) {
+        this.l1HitCount = l1HitCount;
+        this.l2HitCount = l2HitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public long getL1HitCount() {
+        return l1HitCount;
+    }
+
+    public long getL2HitCount() {
+        return l2HitCount;
+    }
+
+    public long getHitCount() {
+        return l1HitCount + l2HitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return getHitCount() + missCount;
+    }
+
+    /**
+     * @return Ratio of the hits to the requests; 1.0 if there are no requests yet
+     */
+    public double getHitRate() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) getHitCount() / requestCount;
+    }
+
+    /**
+     * @return Number of entries evicted from the cache due to its size bound
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "MorphologicParserCacheStats{" +
+                "l1HitCount=" + l1HitCount +
+                ", l2HitCount=" + l2HitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+}
@@ -0,0 +1,583 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import org.apache.commons.lang3.Validate;
+import org.apache.log4j.Logger;
+import org.trnltk.model.lexicon.Lexeme;
+import org.trnltk.model.lexicon.PhoneticExpectation;
+import org.trnltk.model.lexicon.Root;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.model.suffix.Suffix;
+import org.trnltk.model.suffix.SuffixForm;
+import org.trnltk.model.suffix.SuffixFormApplication;
+import org.trnltk.model.suffix.SuffixTransition;
+import org.trnltk.morphology.contextless.parser.MorphologicParser;
+import org.trnltk.morphology.lexicon.RootMapFactory;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixGraphFingerprint;
+import org.trnltk.morphology.morphotactics.SuffixGraphState;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An offline cache which is persisted to a file, so that it is built only once, not on every start of the JVM.
+ * <p/>
+ * When built, the file is memory-mapped if it exists and is up to date. Otherwise, words are parsed and the file is
+ * (re)written first. Since the file is mapped, not read; loading is very fast and the file contents are shared by the
+ * processes on the same host through the page cache.
+ * <p/>
+ * Parse results are encoded with the names of the suffix graph states and suffixes, and with the roots in the
+ * dictionary; thus the file can only be used with the same suffix graph and dictionary. A fingerprint of those is
+ * kept in the file and a file with a different fingerprint is considered stale and rewritten. Fingerprint of the
+ * dictionary should be given when it is known, e.g. {@link RootMapFactory#dictionaryFingerprint(boolean)} for the
+ * bundled dictionaries; otherwise it is computed from all of the roots, which is slow for big dictionaries.
+ * <p/>
+ * Results containing roots which are not in the dictionary (e.g. numbers, proper nouns) can't be encoded; surfaces
+ * having such results are not persisted and will be cache misses.
+ * <p/>
+ * Results are decoded on first access and kept in memory afterwards.
+ */
+public class PersistedOfflineCache implements MorphologicParserCache {
+    private static final Logger logger = Logger.getLogger(PersistedOfflineCache.class);
+
+    private static final int MAGIC = 0x54524E43;     // "TRNC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+    private static final int INDEX_ENTRY_SIZE = 8;
+    private static final int FORCED_SUFFIX_FORM_INDEX = -1;
+
+    private final File file;
+    private final SuffixGraph suffixGraph;
+    private final Multimap<String, ? extends Root> rootMap;
+    private final Long dictionaryFingerprint;
+    private Collection<String> words;
+
+    private volatile MappedByteBuffer buffer;
+    private int entryCount;
+    private int valuesStart;
+    private int poolStart;
+    private final ConcurrentHashMap<String, List<MorphemeContainer>> decodedValues = new ConcurrentHashMap<String, List<MorphemeContainer>>();
+
+    /**
+     * Creates a cache whose dictionary fingerprint is computed from the roots.
+     *
+     * @param file        File to load the cache from, or to write the cache to if it doesn't exist or is stale
+     * @param words       Words to parse when the file is to be written
+     * @param suffixGraph Initialized suffix graph of the parser
+     * @param rootMap     Dictionary root map of the parser
+     */
+    public PersistedOfflineCache(File file, Collection<String> words, SuffixGraph suffixGraph, Multimap<String, ? extends Root> rootMap) {
+        this(file, words, suffixGraph, rootMap, null);
+    }
+
+    /**
+     * @param file                  File to load the cache from, or to write the cache to if it doesn't exist or is stale
+     * @param words                 Words to parse when the file is to be written
+     * @param suffixGraph           Initialized suffix graph of the parser
+     * @param rootMap               Dictionary root map of the parser
+     * @param dictionaryFingerprint Fingerprint of the sources of the dictionary; if null, it is computed from the roots
+     */
+    public PersistedOfflineCache(File file, Collection<String> words, SuffixGraph suffixGraph, Multimap<String, ? extends Root> rootMap, Long dictionaryFingerprint) {
+        Validate.notNull(file);
+        Validate.notEmpty(words, "Cache keys cannot be null or empty.");
+        Validate.notNull(suffixGraph);
+        Validate.notNull(rootMap);
+        this.file = file;
+        this.words = words;
+        this.suffixGraph = suffixGraph;
+        this.rootMap = rootMap;
+        this.dictionaryFingerprint = dictionaryFingerprint;
+    }
+
+    /**
+     * Creates a cache for the bundled list of most frequent 20K words in Turkish.
+     *
+     * @see PersistedOfflineCache#PersistedOfflineCache(java.io.File, java.util.Collection, org.trnltk.morphology.morphotactics.SuffixGraph, com.google.common.collect.Multimap)
+     */
+    public static PersistedOfflineCache forTop20kWords(File file, SuffixGraph suffixGraph, Multimap<String, ? extends Root> rootMap) {
+        return forTop20kWords(file, suffixGraph, rootMap, null);
+    }
+
+    /**
+     * Creates a cache for the bundled list of most frequent 20K words in Turkish.
+     *
+     * @see PersistedOfflineCache#PersistedOfflineCache(java.io.File, java.util.Collection, org.trnltk.morphology.morphotactics.SuffixGraph, com.google.common.collect.Multimap, Long)
+     */
+    public static PersistedOfflineCache forTop20kWords(File file, SuffixGraph suffixGraph, Multimap<String, ? extends Root> rootMap, Long dictionaryFingerprint) {
+        return new PersistedOfflineCache(file, SimpleOfflineCache.readWords(Resources.getResource("top20kwords.txt")), suffixGraph, rootMap, dictionaryFingerprint);
+    }
+
+    @Override
+    public synchronized void build(MorphologicParser parser) {
+        if (this.buffer != null)
+            return;
+
+        final long fingerprint = fingerprint(this.suffixGraph, this.dictionaryFingerprint != null ? this.dictionaryFingerprint : rootsFingerprint(this.rootMap));
+        try {
+            if (!this.isUpToDate(fingerprint)) {
+                logger.info("Persisted cache file " + this.file + " doesn't exist or is stale, writing it");
+                final Map<String, List<MorphemeContainer>> results = new HashMap<String, List<MorphemeContainer>>(this.words.size());
+                for (String word : this.words) {
+                    results.put(word, parser.parseStr(word));
+                }
+                this.write(results, fingerprint);
+            }
+            this.map(fingerprint);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot build persisted cache with file " + this.file, e);
+        }
+
+        //remove reference as we don't need it anymore. help GC
+        this.words = null;
+    }
+
+    @Override
+    public boolean isNotBuilt() {
+        return this.buffer == null;
+    }
+
+    @Override
+    public List<MorphemeContainer> get(String input) {
+        final List<MorphemeContainer> decodedValue = this.decodedValues.get(input);
+        if (decodedValue != null)
+            return decodedValue;
+
+        final int entryIndex = this.findEntry(input);
+        if (entryIndex < 0)
+            return null;
+
+        final List<MorphemeContainer> value = this.decode(input, this.buffer.getInt(HEADER_SIZE + entryIndex * INDEX_ENTRY_SIZE + 4));
+        final List<MorphemeContainer> existing = this.decodedValues.putIfAbsent(input, value);
+        return existing != null ? existing : value;
+    }
+
+    @Override
+    public void put(String input, List<MorphemeContainer> morphemeContainers) {
+        //do nothing as what to store is given in advance
+    }
+
+    @Override
+    public void putAll(Map<String, List<MorphemeContainer>> map) {
+        //do nothing as what to store is given in advance
+    }
+
+    /**
+     * @return Number of surfaces in the cache file
+     */
+    public int size() {
+        return this.entryCount;
+    }
+
+    // ---------------------------------------------------------------- fingerprint
+
+    /**
+     * Computes a fingerprint of the suffix graph and the dictionary. Encoding of the results depends on them; a
+     * file written with another fingerprint cannot be used.
+     */
+    static long fingerprint(SuffixGraph suffixGraph, long dictionaryFingerprint) {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putLong(SuffixGraphFingerprint.of(suffixGraph));
+
+        // ordinals and names of the enums are used in the encoding
+        hasher.putString(Arrays.toString(PhoneticExpectation.values()), Charsets.UTF_8);
+
+        hasher.putLong(dictionaryFingerprint);
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * Computes a fingerprint of the dictionary from all of its roots, for the dictionaries whose sources are not known.
+     */
+    static long rootsFingerprint(Multimap<String, ? extends Root> rootMap) {
+        // roots are combined order-independently, so that there is no need to sort the whole dictionary
+        long rootsHash = 0;
+        for (Map.Entry<String, ? extends Root> entry : rootMap.entries()) {
+            rootsHash += Hashing.murmur3_128().hashString(entry.getKey() + "|" + describe(entry.getValue()), Charsets.UTF_8).asLong();
+        }
+        return Hashing.murmur3_128().newHasher().putInt(rootMap.size()).putLong(rootsHash).hash().asLong();
+    }
+
+    private static String describe(Root root) {
+        final Lexeme lexeme = root.getLexeme();
+        final StringBuilder builder = new StringBuilder();
+        builder.append(lexeme.getLemma()).append('|')
+                .append(lexeme.getLemmaRoot()).append('|')
+                .append(lexeme.getPrimaryPos()).append('|')
+                .append(lexeme.getSecondaryPos()).append('|');
+        appendSorted(builder, lexeme.getAttributes());
+        builder.append('|');
+        appendSorted(builder, root.getPhoneticAttributes());
+        builder.append('|');
+        appendSorted(builder, root.getPhoneticExpectations());
+        return builder.toString();
+    }
+
+    private static void appendSorted(StringBuilder builder, Set<? extends Enum<?>> values) {
+        if (values == null)
+            return;
+        final List<String> names = new ArrayList<String>();
+        for (Enum<?> value : values) {
+            names.add(value.name());
+        }
+        Collections.sort(names);
+        builder.append(names);
+    }
+
+    // ---------------------------------------------------------------- writing
+
+    private boolean isUpToDate(long fingerprint) throws IOException {
+        if (!this.file.isFile() || this.file.length() < HEADER_SIZE)
+            return false;
+
+        final DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)));
+        try {
+            return inputStream.readInt() == MAGIC && inputStream.readInt() == FORMAT_VERSION && inputStream.readLong() == fingerprint;
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private void write(Map<String, List<MorphemeContainer>> results, long fingerprint) throws IOException {
+        final StringPool stringPool = new StringPool();
+        final ByteArrayOutputStream valuesBytes = new ByteArrayOutputStream();
+        final DataOutputStream values = new DataOutputStream(valuesBytes);
+
+        final List<String> keys = new ArrayList<String>(results.keySet());
+        Collections.sort(keys);
+
+        final List<int[]> index = new ArrayList<int[]>(keys.size());
+        for (String key : keys) {
+            final List<MorphemeContainer> morphemeContainers = results.get(key) == null ? Collections.<MorphemeContainer>emptyList() : results.get(key);
+            if (!this.isEncodable(morphemeContainers))
+                continue;
+
+            index.add(new int[]{stringPool.add(key), values.size()});
+            this.encode(morphemeContainers, values, stringPool);
+        }
+        values.flush();
+
+        final int valuesStart = HEADER_SIZE + index.size() * INDEX_ENTRY_SIZE;
+        final int poolStart = valuesStart + values.size();
+
+        // write to a uniquely named temp file and move it over the cache file atomically. processes rebuilding the cache
+        // concurrently don't write into the same file, and others see either the old file or the new one; never a
+        // partially written file or no file at all
+        final File tempFile = File.createTempFile(this.file.getName() + ".", ".tmp", this.file.getAbsoluteFile().getParentFile());
+        boolean moved = false;
+        try {
+            final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                outputStream.writeInt(MAGIC);
+                outputStream.writeInt(FORMAT_VERSION);
+                outputStream.writeLong(fingerprint);
+                outputStream.writeInt(index.size());
+                outputStream.writeInt(valuesStart);
+                outputStream.writeInt(poolStart);
+                for (int[] indexEntry : index) {
+                    outputStream.writeInt(indexEntry[0]);
+                    outputStream.writeInt(indexEntry[1]);
+                }
+                valuesBytes.writeTo(outputStream);
+                stringPool.writeTo(outputStream);
+            } finally {
+                outputStream.close();
+            }
+
+            Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        } finally {
+            if (!moved && !tempFile.delete())
+                logger.warn("Cannot delete temp file " + tempFile);
+        }
+    }
+
+    private boolean isEncodable(List<MorphemeContainer> morphemeContainers) {
+        for (MorphemeContainer morphemeContainer : morphemeContainers) {
+            // roots are decoded by their descriptions, thus the dictionary may have other instances of the same roots
+            final Root root = morphemeContainer.getRoot();
+            if (this.findRootOrNull(root.getSequence().getUnderlyingString(), describe(root)) == null)
+                return false;
+        }
+        return true;
+    }
+
+    private void encode(List<MorphemeContainer> morphemeContainers, DataOutputStream out, StringPool stringPool) throws IOException {
+        out.writeShort(morphemeContainers.size());
+        for (MorphemeContainer morphemeContainer : morphemeContainers) {
+            final Root root = morphemeContainer.getRoot();
+            out.writeInt(stringPool.add(root.getSequence().getUnderlyingString()));
+            out.writeInt(stringPool.add(describe(root)));
+            out.writeInt(stringPool.add(morphemeContainer.getRootState().getName()));
+            out.writeByte(toMask(morphemeContainer.getPhoneticExpectations()));
+
+            final List<SuffixTransition> suffixTransitions = morphemeContainer.getSuffixTransitions();
+            out.writeShort(suffixTransitions.size());
+            for (SuffixTransition suffixTransition : suffixTransitions) {
+                final SuffixFormApplication suffixFormApplication = suffixTransition.getSuffixFormApplication();
+                final SuffixForm suffixForm = suffixFormApplication.getSuffixForm();
+                out.writeInt(stringPool.add(suffixForm.getSuffix().getName()));
+                out.writeShort(indexOf(suffixForm));
+                out.writeInt(stringPool.add(suffixForm.getForm().getSuffixFormStr()));
+                out.writeInt(stringPool.add(suffixFormApplication.getActualSuffixForm()));
+                out.writeInt(stringPool.add(suffixFormApplication.getFittingSuffixForm()));
+                out.writeInt(stringPool.add(suffixTransition.getTargetState().getName()));
+            }
+        }
+    }
+
+    private static int indexOf(SuffixForm suffixForm) {
+        // forms are kept in insertion order
+        int index = 0;
+        for (SuffixForm form : suffixForm.getSuffix().getSuffixForms()) {
+            if (form.equals(suffixForm))
+                return index;
+            index++;
+        }
+        // forms of predefined paths are not forms of their suffixes
+        return FORCED_SUFFIX_FORM_INDEX;
+    }
+
+    private static int toMask(Set<PhoneticExpectation> phoneticExpectations) {
+        int mask = 0;
+        for (PhoneticExpectation phoneticExpectation : phoneticExpectations) {
+            mask |= 1 << phoneticExpectation.ordinal();
+        }
+        return mask;
+    }
+
+    private static class StringPool {
+        private final Map<String, Integer> offsets = new HashMap<String, Integer>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private int add(String str) throws IOException {
+            final Integer existingOffset = this.offsets.get(str);
+            if (existingOffset != null)
+                return existingOffset;
+
+            final int offset = this.out.size();
+            final byte[] utf8 = str.getBytes(Charsets.UTF_8);
+            this.out.writeShort(utf8.length);
+            this.out.write(utf8);
+            this.offsets.put(str, offset);
+            return offset;
+        }
+
+        private void writeTo(OutputStream outputStream) throws IOException {
+            this.out.flush();
+            this.bytes.writeTo(outputStream);
+        }
+    }
+
+    // ---------------------------------------------------------------- reading
+
+    private void map(long fingerprint) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "r");
+        final MappedByteBuffer mappedByteBuffer;
+        try {
+            mappedByteBuffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        } finally {
+            // mapping stays valid after the channel is closed
+            randomAccessFile.close();
+        }
+
+        if (mappedByteBuffer.getInt(0) != MAGIC || mappedByteBuffer.getInt(4) != FORMAT_VERSION || mappedByteBuffer.getLong(8) != fingerprint)
+            throw new IllegalStateException("Persisted cache file " + this.file + " is stale or not a cache file");
+
+        this.entryCount = mappedByteBuffer.getInt(16);
+        this.valuesStart = mappedByteBuffer.getInt(20);
+        this.poolStart = mappedByteBuffer.getInt(24);
+        this.buffer = mappedByteBuffer;
+
+        logger.info("Mapped persisted cache file " + this.file + " with " + this.entryCount + " entries");
+    }
+
+    private int findEntry(String input) {
+        final MappedByteBuffer buffer = this.buffer;
+        if (buffer == null)
+            return -1;
+
+        // keys are sorted
+        int low = 0;
+        int high = this.entryCount - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int comparison = this.compareString(buffer.getInt(HEADER_SIZE + middle * INDEX_ENTRY_SIZE), input);
+            if (comparison < 0)
+                low = middle + 1;
+            else if (comparison > 0)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the string in the pool with the given one, the same way with {@link String#compareTo(String)}. UTF-8
+     * bytes in the pool are decoded in place; nothing is allocated.
+     */
+    private int compareString(int poolOffset, String str) {
+        final MappedByteBuffer buffer = this.buffer;
+        int position = this.poolStart + poolOffset;
+        final int end = position + 2 + (buffer.getShort(position) & 0xFFFF);
+        position += 2;
+
+        int index = 0;
+        while (position < end) {
+            final int firstByte = buffer.get(position) & 0xFF;
+            final int codePoint;
+            if (firstByte < 0x80) {
+                codePoint = firstByte;
+                position += 1;
+            } else if (firstByte < 0xE0) {
+                codePoint = ((firstByte & 0x1F) << 6) | (buffer.get(position + 1) & 0x3F);
+                position += 2;
+            } else if (firstByte < 0xF0) {
+                codePoint = ((firstByte & 0x0F) << 12) | ((buffer.get(position + 1) & 0x3F) << 6) | (buffer.get(position + 2) & 0x3F);
+                position += 3;
+            } else {
+                codePoint = ((firstByte & 0x07) << 18) | ((buffer.get(position + 1) & 0x3F) << 12) | ((buffer.get(position + 2) & 0x3F) << 6)
+                        | (buffer.get(position + 3) & 0x3F);
+                position += 4;
+            }
+
+            int comparison;
+            if (Character.isBmpCodePoint(codePoint)) {
+                comparison = compareChar((char) codePoint, str, index++);
+            } else {
+                comparison = compareChar(Character.highSurrogate(codePoint), str, index++);
+                if (comparison == 0)
+                    comparison = compareChar(Character.lowSurrogate(codePoint), str, index++);
+            }
+            if (comparison != 0)
+                return comparison;
+        }
+
+        // all chars of the pool string are the same; shorter one is the smaller
+        return index == str.length() ? 0 : -1;
+    }
+
+    private static int compareChar(char c, String str, int index) {
+        // pool string is longer if there are no chars left in the given one
+        return index < str.length() ? c - str.charAt(index) : 1;
+    }
+
+    private String readString(int poolOffset) {
+        // absolute reads only; buffer's position is not touched, so it's safe to read concurrently
+        final int position = this.poolStart + poolOffset;
+        final int length = this.buffer.getShort(position) & 0xFFFF;
+        final byte[] utf8 = new byte[length];
+        for (int i = 0; i < length; i++) {
+            utf8[i] = this.buffer.get(position + 2 + i);
+        }
+        return new String(utf8, Charsets.UTF_8);
+    }
+
+    private List<MorphemeContainer> decode(String input, int valueOffset) {
+        int position = this.valuesStart + valueOffset;
+        final int containerCount = this.buffer.getShort(position);
+        position += 2;
+
+        final List<MorphemeContainer> morphemeContainers = new ArrayList<MorphemeContainer>(containerCount);
+        for (int i = 0; i < containerCount; i++) {
+            final String rootSequence = this.readString(this.buffer.getInt(position));
+            final Root root = this.findRoot(rootSequence, this.readString(this.buffer.getInt(position + 4)));
+            final SuffixGraphState rootState = this.getState(this.readString(this.buffer.getInt(position + 8)));
+            final int phoneticExpectationsMask = this.buffer.get(position + 12);
+            final int transitionCount = this.buffer.getShort(position + 13);
+            position += 15;
+
+            final String remainingSurface = input.length() > rootSequence.length() ? input.substring(rootSequence.length()) : "";
+            final MorphemeContainer morphemeContainer = new MorphemeContainer(root, rootState, remainingSurface);
+            for (int j = 0; j < transitionCount; j++) {
+                final SuffixForm suffixForm = this.getSuffixForm(this.readString(this.buffer.getInt(position)), this.buffer.getShort(position + 4),
+                        this.readString(this.buffer.getInt(position + 6)));
+                final String actualSuffixForm = this.readString(this.buffer.getInt(position + 10));
+                final String fittingSuffixForm = this.readString(this.buffer.getInt(position + 14));
+                final SuffixGraphState targetState = this.getState(this.readString(this.buffer.getInt(position + 18)));
+                position += 22;
+
+                morphemeContainer.addTransition(new SuffixFormApplication(suffixForm, actualSuffixForm, fittingSuffixForm), targetState);
+            }
+            morphemeContainer.overwritePhoneticExpectations(toPhoneticExpectations(phoneticExpectationsMask));
+
+            morphemeContainers.add(morphemeContainer);
+        }
+
+        return morphemeContainers;
+    }
+
+    private Root findRoot(String rootSequence, String rootDescription) {
+        final Root root = this.findRootOrNull(rootSequence, rootDescription);
+        if (root == null)
+            throw new IllegalStateException("Root " + rootSequence + " " + rootDescription + " is not found in the dictionary");
+        return root;
+    }
+
+    private Root findRootOrNull(String rootSequence, String rootDescription) {
+        for (Root root : this.rootMap.get(rootSequence)) {
+            if (describe(root).equals(rootDescription))
+                return root;
+        }
+        return null;
+    }
+
+    private SuffixGraphState getState(String stateName) {
+        final SuffixGraphState state = this.suffixGraph.getSuffixGraphState(stateName);
+        if (state == null)
+            throw new IllegalStateException("Suffix graph state " + stateName + " is not found");
+        return state;
+    }
+
+    private SuffixForm getSuffixForm(String suffixName, int formIndex, String suffixFormStr) {
+        final Suffix suffix = this.suffixGraph.getSuffix(suffixName);
+        if (suffix == null)
+            throw new IllegalStateException("Suffix " + suffixName + " is not found");
+        if (formIndex == FORCED_SUFFIX_FORM_INDEX)
+            return new SuffixForm(suffix, suffixFormStr, null, null, null);
+
+        final Iterator<SuffixForm> iterator = suffix.getSuffixForms().iterator();
+        for (int i = 0; i < formIndex; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    private static ImmutableSet<PhoneticExpectation> toPhoneticExpectations(int mask) {
+        final EnumSet<PhoneticExpectation> phoneticExpectations = EnumSet.noneOf(PhoneticExpectation.class);
+        for (PhoneticExpectation phoneticExpectation : PhoneticExpectation.values()) {
+            if ((mask & (1 << phoneticExpectation.ordinal())) != 0)
+                phoneticExpectations.add(phoneticExpectation);
+        }
+        return Sets.immutableEnumSet(phoneticExpectations);
+    }
+}
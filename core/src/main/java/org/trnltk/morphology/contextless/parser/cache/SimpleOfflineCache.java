@@ -49,6 +49,10 @@ public class SimpleOfflineCache implements MorphologicParserCache {
     }
 
     private static SimpleOfflineCache fromFile(URL resource) {
+        return new SimpleOfflineCache(readWords(resource));
+    }
+
+    static List<String> readWords(URL resource) {
         CharSource charSource = Resources.asCharSource(resource, Charset.forName("utf-8"));
         final List<String> lines;
         try {
@@ -57,8 +61,7 @@ public class SimpleOfflineCache implements MorphologicParserCache {
             throw new IllegalStateException("Cannot find bundled most frequent word list!", e);
         }
         // read eagerly
-        final List<String> cacheKeys = Lists.newArrayList(lines);
-        return new SimpleOfflineCache(cacheKeys);
+        return Lists.newArrayList(lines);
     }
 
     /**
@@ -0,0 +1,325 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Iterators;
+import org.apache.commons.lang3.Validate;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.morphology.contextless.parser.MorphologicParser;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An online cache which admits new entries based on their access frequencies, bounded by estimated size in bytes.
+ * <p/>
+ * Surface frequencies in Turkish text are very skewed; most of the words are seen once, while a few thousand words
+ * make up most of the text. A plain LRU cache lets the rare words evict the frequent ones. This cache implements the
+ * W-TinyLFU policy to prevent that:
+ * <ul>
+ * <li>New entries go into a small LRU window</li>
+ * <li>An entry evicted from the window is admitted to the main area only if it is accessed more frequently than the
+ * entry to be evicted from the main area. Frequencies are estimated with a {@link FrequencySketch}</li>
+ * <li>The main area is a segmented LRU: entries accessed again while they're in the probation segment are moved
+ * to the protected segment</li>
+ * </ul>
+ * <p/>
+ * Keys are distributed to shards, each having its own lock, policy and a share of the size bound. Thus, there is no
+ * global lock; threads working on different shards don't block each other.
+ */
+public class TinyLfuMorphologicParserCache implements MorphologicParserCache {
+
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final Weigher<String, List<MorphemeContainer>> weigher;
+    private final Shard[] shards;
+    private final int shardShift;
+
+    /**
+     * Creates a cache which estimates the sizes of entries with a {@link MorphemeContainerListWeigher}.
+     *
+     * @param maximumBytes       Maximum estimated size of all entries in bytes
+     * @param expectedEntryCount Expected number of entries when the cache is full, used to size frequency sketches
+     * @param shardCount         Number of shards; rounded up to a power of two. Ideally, at least the number of threads
+     *                           that access the cache
+     */
+    public TinyLfuMorphologicParserCache(long maximumBytes, int expectedEntryCount, int shardCount) {
+        this(maximumBytes, expectedEntryCount, shardCount, new MorphemeContainerListWeigher());
+    }
+
+    /**
+     * @param maximumBytes       Maximum estimated size of all entries in bytes
+     * @param expectedEntryCount Expected number of entries when the cache is full, used to size frequency sketches
+     * @param shardCount         Number of shards; rounded up to a power of two. Ideally, at least the number of threads
+     *                           that access the cache
+     * @param weigher            Estimates the size of an entry in bytes
+     */
+    public TinyLfuMorphologicParserCache(long maximumBytes, int expectedEntryCount, int shardCount, Weigher<String, List<MorphemeContainer>> weigher) {
+        Validate.isTrue(maximumBytes > 0, "Maximum bytes must be positive : " + maximumBytes);
+        Validate.isTrue(expectedEntryCount > 0, "Expected entry count must be positive : " + expectedEntryCount);
+        Validate.isTrue(shardCount > 0 && shardCount <= (1 << 16), "Shard count must be in [1, 65536] : " + shardCount);
+        Validate.notNull(weigher);
+
+        final int actualShardCount = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.weigher = weigher;
+        this.shardShift = Integer.SIZE - Integer.numberOfTrailingZeros(actualShardCount);
+        this.shards = new Shard[actualShardCount];
+        for (int i = 0; i < actualShardCount; i++) {
+            this.shards[i] = new Shard(maximumBytes / actualShardCount, Math.max(1, expectedEntryCount / actualShardCount));
+        }
+    }
+
+    private static int spread(int hashCode) {
+        final int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private Shard shardFor(int hash) {
+        // high bits select the shard
+        return this.shardShift == Integer.SIZE ? this.shards[0] : this.shards[hash >>> this.shardShift];
+    }
+
+    @Override
+    public List<MorphemeContainer> get(String input) {
+        final int hash = spread(input.hashCode());
+        return this.shardFor(hash).get(input, hash);
+    }
+
+    @Override
+    public void put(String input, List<MorphemeContainer> morphemeContainers) {
+        final List<MorphemeContainer> value = morphemeContainers == null ? Collections.<MorphemeContainer>emptyList() : morphemeContainers;
+        final int hash = spread(input.hashCode());
+        // weigh outside the lock
+        final int weight = this.weigher.weigh(input, value);
+        this.shardFor(hash).put(input, hash, value, weight);
+    }
+
+    @Override
+    public void putAll(Map<String, List<MorphemeContainer>> map) {
+        for (Map.Entry<String, List<MorphemeContainer>> entry : map.entrySet()) {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void build(MorphologicParser parser) {
+        // do nothing since it is an online cache
+    }
+
+    @Override
+    public boolean isNotBuilt() {
+        // do nothing since it is an online cache
+        return false;
+    }
+
+    /**
+     * @return Snapshot of the statistics. Entries rejected by the admission policy are counted as evictions
+     */
+    public MorphologicParserCacheStats stats() {
+        long hitCount = 0;
+        long missCount = 0;
+        long evictionCount = 0;
+        for (Shard shard : this.shards) {
+            synchronized (shard) {
+                hitCount += shard.hitCount;
+                missCount += shard.missCount;
+                evictionCount += shard.evictionCount;
+            }
+        }
+        return new MorphologicParserCacheStats(hitCount, 0, missCount, evictionCount);
+    }
+
+    /**
+     * @return Total estimated size of the entries in bytes
+     */
+    public long weightedSize() {
+        long weightedSize = 0;
+        for (Shard shard : this.shards) {
+            synchronized (shard) {
+                weightedSize += shard.windowBytes + shard.probationBytes + shard.protectedBytes;
+            }
+        }
+        return weightedSize;
+    }
+
+    /**
+     * @return Number of entries in the cache
+     */
+    public long size() {
+        long size = 0;
+        for (Shard shard : this.shards) {
+            synchronized (shard) {
+                size += shard.window.size() + shard.probation.size() + shard.protectedSegment.size();
+            }
+        }
+        return size;
+    }
+
+    private static class Entry {
+        private final int hash;
+        private List<MorphemeContainer> value;
+        private int weight;
+
+        private Entry(int hash, List<MorphemeContainer> value, int weight) {
+            this.hash = hash;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private static class Shard {
+        private final long maxWindowBytes;
+        private final long maxMainBytes;
+        private final long maxProtectedBytes;
+        private final FrequencySketch sketch;
+
+        // insertion ordered; an entry is moved to the end when it is accessed, so the first entry is the LRU one
+        private final LinkedHashMap<String, Entry> window = new LinkedHashMap<String, Entry>();
+        private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<String, Entry>();
+        private final LinkedHashMap<String, Entry> protectedSegment = new LinkedHashMap<String, Entry>();
+
+        private long windowBytes;
+        private long probationBytes;
+        private long protectedBytes;
+
+        private long hitCount;
+        private long missCount;
+        private long evictionCount;
+
+        private Shard(long maxBytes, int expectedEntryCount) {
+            this.maxWindowBytes = maxBytes * WINDOW_PERCENTAGE / 100;
+            this.maxMainBytes = maxBytes - this.maxWindowBytes;
+            this.maxProtectedBytes = this.maxMainBytes * PROTECTED_PERCENTAGE / 100;
+            this.sketch = new FrequencySketch(expectedEntryCount);
+        }
+
+        private synchronized List<MorphemeContainer> get(String key, int hash) {
+            this.sketch.increment(hash);
+
+            Entry entry = this.window.remove(key);
+            if (entry != null) {
+                this.window.put(key, entry);
+            } else if ((entry = this.protectedSegment.remove(key)) != null) {
+                this.protectedSegment.put(key, entry);
+            } else if ((entry = this.probation.remove(key)) != null) {
+                // accessed again while on probation : promote
+                this.probationBytes -= entry.weight;
+                this.protectedSegment.put(key, entry);
+                this.protectedBytes += entry.weight;
+                this.demoteProtectedOverflow();
+            }
+
+            if (entry == null) {
+                this.missCount++;
+                return null;
+            } else {
+                this.hitCount++;
+                return entry.value;
+            }
+        }
+
+        private synchronized void put(String key, int hash, List<MorphemeContainer> value, int weight) {
+            if (this.replaceIfPresent(key, value, weight))
+                return;
+
+            if (weight > this.maxMainBytes) {
+                // would evict everything else
+                this.evictionCount++;
+                return;
+            }
+
+            this.window.put(key, new Entry(hash, value, weight));
+            this.windowBytes += weight;
+
+            while (this.windowBytes > this.maxWindowBytes && !this.window.isEmpty()) {
+                final Iterator<Map.Entry<String, Entry>> iterator = this.window.entrySet().iterator();
+                final Map.Entry<String, Entry> candidate = iterator.next();
+                iterator.remove();
+                this.windowBytes -= candidate.getValue().weight;
+                this.admit(candidate.getKey(), candidate.getValue());
+            }
+        }
+
+        private boolean replaceIfPresent(String key, List<MorphemeContainer> value, int weight) {
+            Entry entry = this.window.get(key);
+            if (entry != null) {
+                this.windowBytes += weight - entry.weight;
+            } else if ((entry = this.probation.get(key)) != null) {
+                this.probationBytes += weight - entry.weight;
+            } else if ((entry = this.protectedSegment.get(key)) != null) {
+                this.protectedBytes += weight - entry.weight;
+            } else {
+                return false;
+            }
+
+            // bounds are checked with the next insertion; parse results of a surface don't change size anyway
+            entry.value = value;
+            entry.weight = weight;
+            return true;
+        }
+
+        private void admit(String candidateKey, Entry candidate) {
+            // decide first : candidate must be more frequent than all of the victims it would displace
+            final int candidateFrequency = this.sketch.frequency(candidate.hash);
+            final long bytesToFree = this.probationBytes + this.protectedBytes + candidate.weight - this.maxMainBytes;
+            int victimCount = 0;
+            long freedBytes = 0;
+            final Iterator<Entry> victims = Iterators.concat(this.probation.values().iterator(), this.protectedSegment.values().iterator());
+            while (freedBytes < bytesToFree) {
+                final Entry victim = victims.next();
+                if (candidateFrequency <= this.sketch.frequency(victim.hash)) {
+                    // candidate is rejected, nothing is evicted from the main area
+                    this.evictionCount++;
+                    return;
+                }
+                freedBytes += victim.weight;
+                victimCount++;
+            }
+
+            for (int i = 0; i < victimCount; i++) {
+                final LinkedHashMap<String, Entry> victimSegment = this.probation.isEmpty() ? this.protectedSegment : this.probation;
+                final Iterator<Map.Entry<String, Entry>> iterator = victimSegment.entrySet().iterator();
+                final Entry victim = iterator.next().getValue();
+                iterator.remove();
+                if (victimSegment == this.probation)
+                    this.probationBytes -= victim.weight;
+                else
+                    this.protectedBytes -= victim.weight;
+                this.evictionCount++;
+            }
+
+            this.probation.put(candidateKey, candidate);
+            this.probationBytes += candidate.weight;
+        }
+
+        private void demoteProtectedOverflow() {
+            while (this.protectedBytes > this.maxProtectedBytes) {
+                final Iterator<Map.Entry<String, Entry>> iterator = this.protectedSegment.entrySet().iterator();
+                final Map.Entry<String, Entry> demoted = iterator.next();
+                iterator.remove();
+                this.protectedBytes -= demoted.getValue().weight;
+                this.probation.put(demoted.getKey(), demoted.getValue());
+                this.probationBytes += demoted.getValue().weight;
+            }
+        }
+    }
+}
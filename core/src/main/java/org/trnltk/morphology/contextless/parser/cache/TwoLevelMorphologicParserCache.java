@@ -38,7 +38,11 @@ import java.util.Map;
  * Too large: L2 cache will get slower and blocking while putting the values in L1 takes too much time.
  * <p/>
  * Too small: L1 will be used unnecessarily and too much blocking while putting the values in L1.
+ *
+ * @deprecated L2 is shared and not properly synchronized; entries can be lost when used by multiple threads.
+ *             Use {@link ConcurrentTwoLevelMorphologicParserCache} instead.
  */
+@Deprecated
 public class TwoLevelMorphologicParserCache implements MorphologicParserCache {
 
     private boolean built = false;
@@ -54,7 +54,18 @@ import java.util.List;
  * Root : 'suboru', Lexeme:'soburusu'
  */
 public class BruteForceCompoundNounRootFinder implements RootFinder {
-    private final BruteForceNounRootFinder bruteForceNounRootFinder = new BruteForceNounRootFinder();
+    private final BruteForceNounRootFinder bruteForceNounRootFinder;
+
+    public BruteForceCompoundNounRootFinder() {
+        this(new BruteForceNounRootFinder());
+    }
+
+    /**
+     * @param bruteForceNounRootFinder Finder to generate the roots of the compound without the possessive suffix
+     */
+    public BruteForceCompoundNounRootFinder(BruteForceNounRootFinder bruteForceNounRootFinder) {
+        this.bruteForceNounRootFinder = bruteForceNounRootFinder;
+    }
 
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence wholeSurface) {
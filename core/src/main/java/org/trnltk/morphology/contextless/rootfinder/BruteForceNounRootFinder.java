@@ -35,10 +35,28 @@ import java.util.*;
  * Checks for the signs of the orthographic changes, and finds roots according to that.
  * Checks for possible inverse harmony, doubling, voicing (except nk->nG voicing) and explicit no voicing.
  * Doesn't check possible vowel drops.
+ * <p/>
+ * Generated roots only depend on the partial input, the first char after it and the frontalness of the first vowel
+ * after it. Thus, they are memoized with that key in a bounded cache, which helps both for the partial inputs of the
+ * same word (e.g. when called by {@link BruteForceCompoundNounRootFinder}) and for the words that share a prefix.
  */
 public class BruteForceNounRootFinder implements RootFinder {
 
+    public static final long DEFAULT_CACHE_SIZE = 10000;
+
     private final PhoneticsAnalyzer phoneticsAnalyzer = new PhoneticsAnalyzer();
+    private final RootCandidateCache rootCandidateCache;
+
+    public BruteForceNounRootFinder() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param maximumCacheSize Maximum number of memoized keys. 0 disables memoization.
+     */
+    public BruteForceNounRootFinder(long maximumCacheSize) {
+        this.rootCandidateCache = new RootCandidateCache(maximumCacheSize);
+    }
 
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence wholeSurface) {
@@ -62,8 +80,28 @@ public class BruteForceNounRootFinder implements RootFinder {
     }
 
     @Override
-    @SuppressWarnings({"UnnecessaryLocalVariable", "ConstantConditions"})
     public Collection<DynamicRoot> findRootsForPartialInput(TurkishSequence partialInput, TurkishSequence wholeSurface) {
+        final String cacheKey = this.getCacheKey(partialInput, wholeSurface);
+        final List<DynamicRoot> cachedRoots = this.rootCandidateCache.get(cacheKey);
+        if (cachedRoots != null)
+            return cachedRoots;
+
+        return this.rootCandidateCache.put(cacheKey, this.generateRoots(partialInput, wholeSurface));
+    }
+
+    private String getCacheKey(TurkishSequence partialInput, TurkishSequence wholeSurface) {
+        final String partialInputStr = partialInput.getUnderlyingString();
+        if (wholeSurface.equals(partialInput))
+            return partialInputStr;
+
+        final TurkishChar firstCharAfterPartialInput = wholeSurface.charAt(partialInput.length());
+        final TurkishChar firstVowelAfterPartialInput = wholeSurface.subsequence(partialInput.length() - 1).getFirstVowel();
+        final char harmony = firstVowelAfterPartialInput == null ? '-' : (firstVowelAfterPartialInput.getLetter().isFrontal() ? 'F' : 'B');
+        return partialInputStr + '\u0000' + firstCharAfterPartialInput.getCharValue() + harmony;
+    }
+
+    @SuppressWarnings({"UnnecessaryLocalVariable", "ConstantConditions"})
+    private Collection<DynamicRoot> generateRoots(TurkishSequence partialInput, TurkishSequence wholeSurface) {
         final TurkishSequence rootSeq = partialInput;
         final TurkishSequence lemmaSeq = rootSeq;
         final TurkishSequence lemmaRootSeq = lemmaSeq;
@@ -72,7 +110,9 @@ public class BruteForceNounRootFinder implements RootFinder {
         final EnumSet<LexemeAttribute> lexemeAttributes = EnumSet.noneOf(LexemeAttribute.class);
         final DynamicLexeme lexeme = new DynamicLexeme(lemmaSeq.getUnderlyingString(), lemmaRootSeq.getUnderlyingString(), primaryPos, secondaryPos, lexemeAttributes);
         final EnumSet<PhoneticExpectation> phoneticExpectations = EnumSet.noneOf(PhoneticExpectation.class);
-        final EnumSet<PhoneticAttribute> phoneticAttributes = phoneticsAnalyzer.calculatePhoneticAttributes(partialInput, lexemeAttributes);
+        // all generated roots share the partial input as the sequence; only the lexeme attributes differ
+        final long plainSequenceMask = phoneticsAnalyzer.calculatePhoneticAttributesMaskOfPlainSequence(partialInput);
+        final EnumSet<PhoneticAttribute> phoneticAttributes = PhoneticAttributeMasks.toSet(plainSequenceMask);
 
         final DynamicRoot noOrtographicRoot = new DynamicRoot(rootSeq, lexeme, phoneticAttributes, phoneticExpectations);
 
@@ -102,7 +142,8 @@ public class BruteForceNounRootFinder implements RootFinder {
         }
 
         for (DynamicRoot root : roots) {
-            final EnumSet<PhoneticAttribute> phoneticAttributesOfRoot = this.phoneticsAnalyzer.calculatePhoneticAttributes(root.getSequence(), root.getLexeme().getAttributes());
+            final long phoneticAttributesMaskOfRoot = this.phoneticsAnalyzer.applyLexemeAttributes(plainSequenceMask, root.getLexeme().getAttributes());
+            final EnumSet<PhoneticAttribute> phoneticAttributesOfRoot = PhoneticAttributeMasks.toSet(phoneticAttributesMaskOfRoot);
             root.setPhoneticAttributes(phoneticAttributesOfRoot);
         }
 
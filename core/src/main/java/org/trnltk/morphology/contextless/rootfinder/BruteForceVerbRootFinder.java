@@ -49,11 +49,29 @@ import java.util.*;
  * <p/>
  * In verbs voicing only occurs on roots ending with 't', so others (pçk) are ignored.
  * Ignores inverse harmony, since verbs don't have it.
+ * <p/>
+ * Generated roots only depend on the partial input and at most {@link #MAX_LOOKAHEAD} chars after it (e.g. -ınıl, -iyor).
+ * Thus, they are memoized with that key in a bounded cache.
  */
 public class BruteForceVerbRootFinder implements RootFinder {
+    public static final long DEFAULT_CACHE_SIZE = 10000;
+    private static final int MAX_LOOKAHEAD = 4;
+
     private final PhoneticsEngine phoneticsEngine = new PhoneticsEngine(new SuffixFormSequenceApplier());
     private final PhoneticsAnalyzer phoneticsAnalyzer = new PhoneticsAnalyzer();
     private static final SuffixFormSequence INFINITIVE_SUFFIX_FORM = new SuffixFormSequence("mAk");
+    private final RootCandidateCache rootCandidateCache;
+
+    public BruteForceVerbRootFinder() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param maximumCacheSize Maximum number of memoized keys. 0 disables memoization.
+     */
+    public BruteForceVerbRootFinder(long maximumCacheSize) {
+        this.rootCandidateCache = new RootCandidateCache(maximumCacheSize);
+    }
 
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence wholeSurface) {
@@ -83,8 +101,27 @@ public class BruteForceVerbRootFinder implements RootFinder {
     }
 
     @Override
-    @SuppressWarnings({"UnnecessaryLocalVariable", "ConstantConditions"})
     public Collection<DynamicRoot> findRootsForPartialInput(TurkishSequence partialInput, TurkishSequence wholeSurface) {
+        final String cacheKey = this.getCacheKey(partialInput, wholeSurface);
+        final List<DynamicRoot> cachedRoots = this.rootCandidateCache.get(cacheKey);
+        if (cachedRoots != null)
+            return cachedRoots;
+
+        return this.rootCandidateCache.put(cacheKey, this.generateRoots(partialInput, wholeSurface));
+    }
+
+    private String getCacheKey(TurkishSequence partialInput, TurkishSequence wholeSurface) {
+        final String partialInputStr = partialInput.getUnderlyingString();
+        final String wholeSurfaceStr = wholeSurface.getUnderlyingString();
+        if (wholeSurfaceStr.length() == partialInputStr.length())
+            return partialInputStr;
+
+        final int lookaheadEnd = Math.min(wholeSurfaceStr.length(), partialInputStr.length() + MAX_LOOKAHEAD);
+        return partialInputStr + '\u0000' + wholeSurfaceStr.substring(partialInputStr.length(), lookaheadEnd);
+    }
+
+    @SuppressWarnings({"UnnecessaryLocalVariable", "ConstantConditions"})
+    private Collection<DynamicRoot> generateRoots(TurkishSequence partialInput, TurkishSequence wholeSurface) {
         final TurkishChar lastVowel = partialInput.getLastVowel();
 
         final TurkishSequence rootSeq = partialInput;
@@ -95,11 +132,13 @@ public class BruteForceVerbRootFinder implements RootFinder {
         final EnumSet<LexemeAttribute> lexemeAttributes = EnumSet.noneOf(LexemeAttribute.class);
         final DynamicLexeme lexeme = new DynamicLexeme(lemmaSeq.getUnderlyingString(), lemmaRootSeq.getUnderlyingString(), primaryPos, secondaryPos, lexemeAttributes);
         final EnumSet<PhoneticExpectation> phoneticExpectations = EnumSet.noneOf(PhoneticExpectation.class);
-        final EnumSet<PhoneticAttribute> phoneticAttributes = phoneticsAnalyzer.calculatePhoneticAttributes(partialInput, lexemeAttributes);
+        // all generated roots share the partial input as the sequence; only the lexeme attributes differ
+        final long plainSequenceMask = phoneticsAnalyzer.calculatePhoneticAttributesMaskOfPlainSequence(partialInput);
+        final EnumSet<PhoneticAttribute> phoneticAttributes = PhoneticAttributeMasks.toSet(plainSequenceMask);
 
         final DynamicRoot noAttrRoot = new DynamicRoot(rootSeq, lexeme, phoneticAttributes, phoneticExpectations);
 
-        this.setLexemeAndPhoneticAttributes(Arrays.asList(noAttrRoot));
+        this.setLexemeAndPhoneticAttributes(Arrays.asList(noAttrRoot), plainSequenceMask);
         this.setLemma(Arrays.asList(noAttrRoot));
 
         final TurkishChar lastChar = partialInput.getLastChar();
@@ -142,8 +181,8 @@ public class BruteForceVerbRootFinder implements RootFinder {
                 ? this.getAorist_I_Roots(noAttrRoot)
                 : new HashSet<DynamicRoot>();
 
-        final Set<DynamicRoot> possibleCausativeRoots = this.getPossibleCausativeRoots(lastLetter, partialInput, wholeSurface, noAttrRoot);
-        final Set<DynamicRoot> possiblePassiveRoots = this.getPossiblePassiveRoots(lastLetter, partialInput, wholeSurface, noAttrRoot);
+        final Set<DynamicRoot> possibleCausativeRoots = this.getPossibleCausativeRoots(lastLetter, partialInput, wholeSurface, noAttrRoot, plainSequenceMask);
+        final Set<DynamicRoot> possiblePassiveRoots = this.getPossiblePassiveRoots(lastLetter, partialInput, wholeSurface, noAttrRoot, plainSequenceMask);
 
         if (voicingMightHaveHappened) {
             Function<DynamicRoot, DynamicRoot> voicingRootFunction = new Function<DynamicRoot, DynamicRoot>() {
@@ -182,7 +221,7 @@ public class BruteForceVerbRootFinder implements RootFinder {
         generatedRoots.addAll(possibleCausativeRoots);
         generatedRoots.addAll(possiblePassiveRoots);
 
-        this.setLexemeAndPhoneticAttributes(generatedRoots);
+        this.setLexemeAndPhoneticAttributes(generatedRoots, plainSequenceMask);
         this.setLemma(generatedRoots);
 
         return Collections2.filter(generatedRoots, new Predicate<DynamicRoot>() {
@@ -193,12 +232,12 @@ public class BruteForceVerbRootFinder implements RootFinder {
         });
     }
 
-    private void setLexemeAndPhoneticAttributes(Collection<DynamicRoot> generatedRoots) {
+    private void setLexemeAndPhoneticAttributes(Collection<DynamicRoot> generatedRoots, long plainSequenceMask) {
         for (DynamicRoot generatedRoot : generatedRoots) {
             final DynamicLexeme lexeme = generatedRoot.getLexeme();
             final TurkishSequence rootSeq = generatedRoot.getSequence();
             final String rootStr = rootSeq.getUnderlyingString();
-            generatedRoot.setPhoneticAttributes(this.phoneticsAnalyzer.calculatePhoneticAttributes(rootSeq, lexeme.getAttributes()));
+            generatedRoot.setPhoneticAttributes(PhoneticAttributeMasks.toSet(this.phoneticsAnalyzer.applyLexemeAttributes(plainSequenceMask, lexeme.getAttributes())));
             if (rootStr.endsWith("d") && lexeme.getLemmaRoot().endsWith("t")) {
                 lexeme.getAttributes().remove(LexemeAttribute.NoVoicing);
                 lexeme.getAttributes().add(LexemeAttribute.Voicing);
@@ -293,7 +332,7 @@ public class BruteForceVerbRootFinder implements RootFinder {
         return Sets.newHashSet(generatedRoot);
     }
 
-    private Set<DynamicRoot> getPossibleCausativeRoots(TurkicLetter lastLetter, TurkishSequence partialInput, TurkishSequence wholeSurface, DynamicRoot noAttrRoot) {
+    private Set<DynamicRoot> getPossibleCausativeRoots(TurkicLetter lastLetter, TurkishSequence partialInput, TurkishSequence wholeSurface, DynamicRoot noAttrRoot, long plainSequenceMask) {
         // no voicing can happen on causative_t
         final String wholeSurfaceStr = wholeSurface.getUnderlyingString();
         final String partialInputStr = partialInput.getUnderlyingString();
@@ -335,7 +374,7 @@ public class BruteForceVerbRootFinder implements RootFinder {
 
             generatedRoot.getLexeme().setAttributes(EnumSet.of(causativeAttr));
 
-            generatedRoot.setPhoneticAttributes(this.phoneticsAnalyzer.calculatePhoneticAttributes(partialInput, generatedRoot.getLexeme().getAttributes()));
+            generatedRoot.setPhoneticAttributes(PhoneticAttributeMasks.toSet(this.phoneticsAnalyzer.applyLexemeAttributes(plainSequenceMask, generatedRoot.getLexeme().getAttributes())));
 
             causativeRoots.add(generatedRoot);
 
@@ -344,7 +383,7 @@ public class BruteForceVerbRootFinder implements RootFinder {
         return causativeRoots;
     }
 
-    private Set<DynamicRoot> getPossiblePassiveRoots(TurkicLetter lastLetter, TurkishSequence partialInput, TurkishSequence wholeSurface, DynamicRoot noAttrRoot) {
+    private Set<DynamicRoot> getPossiblePassiveRoots(TurkicLetter lastLetter, TurkishSequence partialInput, TurkishSequence wholeSurface, DynamicRoot noAttrRoot, long plainSequenceMask) {
         final String wholeSurfaceStr = wholeSurface.getUnderlyingString();
         final String partialInputStr = partialInput.getUnderlyingString();
 
@@ -384,7 +423,7 @@ public class BruteForceVerbRootFinder implements RootFinder {
 
             generatedRoot.getLexeme().setAttributes(EnumSet.of(passiveAttr));
 
-            generatedRoot.setPhoneticAttributes(this.phoneticsAnalyzer.calculatePhoneticAttributes(partialInput, generatedRoot.getLexeme().getAttributes()));
+            generatedRoot.setPhoneticAttributes(PhoneticAttributeMasks.toSet(this.phoneticsAnalyzer.applyLexemeAttributes(plainSequenceMask, generatedRoot.getLexeme().getAttributes())));
 
             passiveRoots.add(generatedRoot);
 
@@ -28,19 +28,13 @@ import org.trnltk.model.lexicon.PhoneticAttribute;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
 
-public class CardinalDigitsRootFinder implements RootFinder {
+public class CardinalDigitsRootFinder implements SelectiveRootFinder {
 
     // TODO: how about marking "10." as Ordinal?
     // TODO: how about marking "10%" as Percentage?
     // TODO: how about marking "10-20" as Range?
     // TODO: how about others?
-    private static final List<Pattern> NUMBER_REGEXES = Arrays.asList(
-            Pattern.compile("^[-+]?\\d+(,\\d)?\\d*$"),
-            Pattern.compile("^[-+]?(\\d{1,3}\\.)+\\d{3}(,\\d)?\\d*$")
-    );
-
     private static final char APOSTROPHE = '\'';
     private static final char GROUPING_SEPARATOR = '.';
     private static final char FRACTION_SEPARATOR = ',';
@@ -53,6 +47,11 @@ public class CardinalDigitsRootFinder implements RootFinder {
         this.phoneticsAnalyzer = new PhoneticsAnalyzer();
     }
 
+    @Override
+    public boolean mayHandle(int inputClasses) {
+        return InputClasses.has(inputClasses, InputClasses.DIGITS);
+    }
+
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence input) {
         if (partialInput == null || partialInput.isBlank())
@@ -93,15 +92,7 @@ public class CardinalDigitsRootFinder implements RootFinder {
             }
         }
 
-        final String partialInputUnderlyingString = partialInput.getUnderlyingString();
-
-        for (Pattern pattern : NUMBER_REGEXES) {
-            if (pattern.matcher(partialInputUnderlyingString).matches()) {
-                return true;
-            }
-        }
-
-        return false;
+        return NumeralScan.of(partialInput, input).is(partialInput.length(), NumeralScan.CARDINAL);
     }
 
     @Override
@@ -16,6 +16,7 @@
 
 package org.trnltk.morphology.contextless.rootfinder;
 
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.Validate;
@@ -26,13 +27,39 @@ import org.trnltk.model.lexicon.Root;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
-public class DictionaryRootFinder implements RootFinder {
+/**
+ * Finds the roots in the dictionary.
+ * <p/>
+ * If the dictionary is immutable, roots for all partial inputs are found with a single walk on a trie of the
+ * dictionary keys, which is built once. Otherwise, roots are looked up for each partial input; thus the changes
+ * in the dictionary are always reflected.
+ */
+public class DictionaryRootFinder implements PrefixRootFinder {
     private final Multimap<String, ? extends Root> rootMap;
+    // null if the dictionary can change
+    private final DictionaryRootTrie trie;
 
+    /**
+     * Creates a root finder which uses a trie only if the given map is an {@link ImmutableMultimap}.
+     *
+     * @see DictionaryRootFinder#DictionaryRootFinder(com.google.common.collect.Multimap, boolean)
+     */
     public DictionaryRootFinder(Multimap<String, ? extends Root> rootMap) {
+        this(rootMap, rootMap instanceof ImmutableMultimap);
+    }
+
+    /**
+     * @param rootMap             Dictionary root map
+     * @param immutableDictionary true if the given map, including the maps it is a view of, is never modified; e.g.
+     *                            the shared dictionary of {@link org.trnltk.morphology.contextless.parser.ParserRuntime}.
+     *                            Changes in such a map are not reflected
+     */
+    public DictionaryRootFinder(Multimap<String, ? extends Root> rootMap, boolean immutableDictionary) {
         Validate.notNull(rootMap);
         this.rootMap = rootMap;
+        this.trie = immutableDictionary ? new DictionaryRootTrie(rootMap.keySet()) : null;
     }
 
     @Override
@@ -64,4 +91,69 @@ public class DictionaryRootFinder implements RootFinder {
         }
 
     }
+
+    @Override
+    public List<List<Root>> findRootsForAllPartialInputs(TurkishSequence input) {
+        final String surface = input.getUnderlyingString();
+        final List<List<Root>> rootsForPartialInputs = new ArrayList<List<Root>>(surface.length());
+        for (int i = 0; i < surface.length(); i++) {
+            rootsForPartialInputs.add(Collections.<Root>emptyList());
+        }
+        if (surface.isEmpty())
+            return rootsForPartialInputs;
+
+        final char firstChar = surface.charAt(0);
+        this.collectRoots(surface, firstChar, rootsForPartialInputs);
+        if (Character.isUpperCase(firstChar))
+            this.collectRoots(surface, TurkishAlphabet.uncapitalize(String.valueOf(firstChar)).charAt(0), rootsForPartialInputs);
+
+        return rootsForPartialInputs;
+    }
+
+    private void collectRoots(String surface, char firstChar, List<List<Root>> rootsForPartialInputs) {
+        if (this.trie != null)
+            this.collectRootsWithTrie(surface, firstChar, rootsForPartialInputs);
+        else
+            this.collectRootsWithLookups(surface, firstChar, rootsForPartialInputs);
+    }
+
+    private void collectRootsWithTrie(String surface, char firstChar, List<List<Root>> rootsForPartialInputs) {
+        DictionaryRootTrie.Node node = this.trie.getRoot();
+        // blank partial inputs are not handled
+        boolean blank = true;
+        for (int i = 0; i < surface.length() && node != null; i++) {
+            final char c = i == 0 ? firstChar : surface.charAt(i);
+            blank = blank && Character.isWhitespace(c);
+            node = node.getChild(c);
+            if (node == null || node.getKey() == null || blank)
+                continue;
+
+            addRoots(this.rootMap.get(node.getKey()), i, rootsForPartialInputs);
+        }
+    }
+
+    private void collectRootsWithLookups(String surface, char firstChar, List<List<Root>> rootsForPartialInputs) {
+        final String surfaceToLookUp = firstChar == surface.charAt(0) ? surface : firstChar + surface.substring(1);
+        // blank partial inputs are not handled
+        boolean blank = true;
+        for (int i = 0; i < surfaceToLookUp.length(); i++) {
+            blank = blank && Character.isWhitespace(surfaceToLookUp.charAt(i));
+            if (blank)
+                continue;
+
+            addRoots(this.rootMap.get(surfaceToLookUp.substring(0, i + 1)), i, rootsForPartialInputs);
+        }
+    }
+
+    private static void addRoots(Collection<? extends Root> roots, int index, List<List<Root>> rootsForPartialInputs) {
+        if (CollectionUtils.isEmpty(roots))
+            return;
+
+        List<Root> rootsForPartialInput = rootsForPartialInputs.get(index);
+        if (rootsForPartialInput.isEmpty()) {
+            rootsForPartialInput = new ArrayList<Root>(roots.size());
+            rootsForPartialInputs.set(index, rootsForPartialInput);
+        }
+        rootsForPartialInput.addAll(roots);
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable character trie of dictionary root keys, to find all keys which are beginnings of an input in a
+ * single left-to-right walk.
+ * <p/>
+ * Only the keys are stored; roots are looked up from the dictionary with the matched keys, which are the same
+ * instances on every walk.
+ */
+class DictionaryRootTrie {
+
+    private final Node root;
+
+    /**
+     * @param keys Keys of the dictionary
+     */
+    DictionaryRootTrie(Collection<String> keys) {
+        final BuilderNode builderRoot = new BuilderNode();
+        for (String key : keys) {
+            BuilderNode node = builderRoot;
+            for (int i = 0; i < key.length(); i++) {
+                final char c = key.charAt(i);
+                BuilderNode child = node.children.get(c);
+                if (child == null) {
+                    child = new BuilderNode();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.key = key;
+        }
+
+        this.root = builderRoot.build();
+    }
+
+    Node getRoot() {
+        return root;
+    }
+
+    static class Node {
+        // sorted, for binary search
+        private final char[] labels;
+        private final Node[] children;
+        private final String key;
+
+        private Node(char[] labels, Node[] children, String key) {
+            this.labels = labels;
+            this.children = children;
+            this.key = key;
+        }
+
+        /**
+         * @return Child node for the given char, null if there is no key continuing with the char
+         */
+        Node getChild(char c) {
+            final int index = Arrays.binarySearch(labels, c);
+            return index < 0 ? null : children[index];
+        }
+
+        /**
+         * @return Dictionary key which ends at this node, null if there is none
+         */
+        String getKey() {
+            return key;
+        }
+    }
+
+    private static class BuilderNode {
+        private final TreeMap<Character, BuilderNode> children = new TreeMap<Character, BuilderNode>();
+        private String key;
+
+        private Node build() {
+            final char[] labels = new char[children.size()];
+            final Node[] childNodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuilderNode> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                childNodes[i] = entry.getValue().build();
+                i++;
+            }
+            return new Node(labels, childNodes, key);
+        }
+    }
+}
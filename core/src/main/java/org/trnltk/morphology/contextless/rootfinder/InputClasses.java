@@ -0,0 +1,120 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+import org.trnltk.model.letter.TurkishSequence;
+
+/**
+ * Classes of a whole input, which are used for skipping the root finders that can never handle any partial input of
+ * the input. Classes are bits of an <code>int</code> mask; an input can have multiple classes.
+ *
+ * @see SelectiveRootFinder
+ */
+public final class InputClasses {
+    /**
+     * All chars are punctuation or symbols
+     */
+    public static final int PUNCTUATION = 1;
+    /**
+     * Starts with a digit, optionally after a sign
+     */
+    public static final int DIGITS = 1 << 1;
+    /**
+     * Has an apostrophe
+     */
+    public static final int APOSTROPHE = 1 << 2;
+    /**
+     * First char is upper case
+     */
+    public static final int CAPITALIZED = 1 << 3;
+    /**
+     * All chars are letters
+     */
+    public static final int PLAIN = 1 << 4;
+
+    private static final char APOSTROPHE_CHAR = '\'';
+
+    private InputClasses() {
+    }
+
+    /**
+     * @return Mask of the classes of the input
+     */
+    public static int of(TurkishSequence input) {
+        final String str = input.getUnderlyingString();
+        final int length = str.length();
+        if (length == 0)
+            return 0;
+
+        boolean allPunctuation = true;
+        boolean allLetters = true;
+        boolean apostrophe = false;
+        for (int i = 0; i < length; ) {
+            final int codePoint = str.codePointAt(i);
+            allPunctuation &= isPunctuation(codePoint);
+            allLetters &= Character.isLetter(codePoint);
+            apostrophe |= codePoint == APOSTROPHE_CHAR;
+            i += Character.charCount(codePoint);
+        }
+
+        final char firstChar = str.charAt(0);
+        final boolean digits = isDigit(firstChar) || ((firstChar == '-' || firstChar == '+') && length > 1 && isDigit(str.charAt(1)));
+
+        int classes = 0;
+        if (allPunctuation)
+            classes |= PUNCTUATION;
+        if (digits)
+            classes |= DIGITS;
+        if (apostrophe)
+            classes |= APOSTROPHE;
+        if (Character.isUpperCase(firstChar))
+            classes |= CAPITALIZED;
+        if (allLetters)
+            classes |= PLAIN;
+        return classes;
+    }
+
+    /**
+     * @return true if the mask has all of the given classes
+     */
+    public static boolean has(int classes, int expectedClasses) {
+        return (classes & expectedClasses) == expectedClasses;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // same categories with PuncRootFinder
+    private static boolean isPunctuation(int codePoint) {
+        switch (Character.getType(codePoint)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.MATH_SYMBOL:
+            case Character.OTHER_SYMBOL:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+import org.trnltk.model.letter.TurkishSequence;
+
+/**
+ * Classifies all prefixes of a surface as cardinal, ordinal and range digits with a single pass over the surface.
+ * <p/>
+ * Classification is the same as matching the prefixes with the following patterns, where <code>D</code> is
+ * <code>[0-9]</code>:
+ * <ul>
+ * <li>Cardinal : <code>[-+]?D+(,D)?D*</code> or <code>[-+]?(D{1,3}\.)+D{3}(,D)?D*</code>, e.g. "-12", "3,14", "1.000.000,5"</li>
+ * <li>Ordinal : <code>[-+]?D+\.</code> or <code>[-+]?(D{1,3}\.)+D{3}\.</code>, e.g. "3.", "1.000."</li>
+ * <li>Range : <code>N(-N)*-N</code> where <code>N</code> is <code>(D{1,3}\.)+D{3}</code> or <code>D+</code>, e.g. "3-5", "1.000-2.000"</li>
+ * </ul>
+ * <p/>
+ * Root finders are asked for every prefix of the same surface, thus the last scan is kept per thread and shared by
+ * the digits root finders.
+ */
+final class NumeralScan {
+    static final int CARDINAL = 1;
+    static final int ORDINAL = 2;
+    static final int RANGE = 4;
+
+    private static final ThreadLocal<NumeralScan> LAST_SCAN = new ThreadLocal<NumeralScan>();
+
+    private final CharSequence surface;
+    // classes of the prefix with length i
+    private final byte[] classes;
+
+    private NumeralScan(CharSequence surface) {
+        this.surface = surface;
+        this.classes = new byte[surface.length() + 1];
+        this.scan();
+    }
+
+    /**
+     * @return Scan of the input if partial input is a prefix of the input, scan of the partial input otherwise
+     */
+    static NumeralScan of(TurkishSequence partialInput, TurkishSequence input) {
+        final String inputString = input.getUnderlyingString();
+        final String partialInputString = partialInput.getUnderlyingString();
+        if (!inputString.startsWith(partialInputString))
+            return new NumeralScan(partialInputString);
+
+        NumeralScan scan = LAST_SCAN.get();
+        if (scan == null || scan.surface != inputString) {
+            scan = new NumeralScan(inputString);
+            LAST_SCAN.set(scan);
+        }
+        return scan;
+    }
+
+    /**
+     * @param numeralClass One of {@link NumeralScan#CARDINAL}, {@link NumeralScan#ORDINAL} and {@link NumeralScan#RANGE}
+     * @return true if the prefix of the surface with the given length is of the given class
+     */
+    boolean is(int prefixLength, int numeralClass) {
+        return (classes[prefixLength] & numeralClass) != 0;
+    }
+
+    private void scan() {
+        final int length = surface.length();
+        final boolean signed = length > 0 && (surface.charAt(0) == '-' || surface.charAt(0) == '+');
+
+        // state of the current number; a range has multiple numbers
+        int runLength = 0;              // length of the current digit run
+        int dotCount = 0;               // number of grouping separators in the number
+        boolean shortRuns = true;       // all runs before the grouping separators have 1 to 3 digits
+        boolean fraction = false;       // fraction separator is seen
+        int integerRunLength = 0;       // length of the last run before the fraction separator
+        int rangeNumberCount = 0;       // number of complete numbers before the current one in a range
+
+        for (int i = signed ? 1 : 0; i < length; i++) {
+            final char c = surface.charAt(i);
+            int prefixClasses = 0;
+
+            if (c >= '0' && c <= '9') {
+                runLength++;
+                if (rangeNumberCount == 0) {
+                    if (!fraction)
+                        // [-+]?D+ or [-+]?(D{1,3}\.)+D{3}D*
+                        prefixClasses |= dotCount == 0 || (shortRuns && runLength >= 3) ? CARDINAL : 0;
+                    else
+                        // [-+]?D+,D+ or [-+]?(D{1,3}\.)+D{3},D+
+                        prefixClasses |= dotCount == 0 || (shortRuns && integerRunLength == 3) ? CARDINAL : 0;
+                } else if (!fraction && isRangeNumber(runLength, dotCount, shortRuns)) {
+                    prefixClasses |= RANGE;
+                }
+            } else if (c == '.') {
+                if (fraction || runLength == 0)
+                    break;
+                if (rangeNumberCount == 0 && (dotCount == 0 || (shortRuns && runLength == 3)))
+                    prefixClasses |= ORDINAL;
+                shortRuns &= runLength <= 3;
+                dotCount++;
+                runLength = 0;
+            } else if (c == ',') {
+                if (fraction || runLength == 0 || rangeNumberCount > 0)
+                    break;
+                fraction = true;
+                integerRunLength = runLength;
+                runLength = 0;
+            } else if (c == '-') {
+                if (signed || fraction || !isRangeNumber(runLength, dotCount, shortRuns))
+                    break;
+                rangeNumberCount++;
+                runLength = 0;
+                dotCount = 0;
+                shortRuns = true;
+            } else {
+                break;
+            }
+
+            classes[i + 1] = (byte) prefixClasses;
+        }
+    }
+
+    // D+ or (D{1,3}\.)+D{3}
+    private static boolean isRangeNumber(int runLength, int dotCount, boolean shortRuns) {
+        return dotCount == 0 ? runLength > 0 : shortRuns && runLength == 3;
+    }
+}
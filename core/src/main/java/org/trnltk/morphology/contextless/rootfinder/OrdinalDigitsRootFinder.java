@@ -30,14 +30,8 @@ import org.trnltk.numeral.DigitsToTextConverter;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Pattern;
 
-public class OrdinalDigitsRootFinder implements RootFinder {
-
-    private static List<Pattern> NUMBER_REGEXES = Arrays.asList(
-            Pattern.compile("^[-+]?\\d+\\.$"),
-            Pattern.compile("^[-+]?(\\d{1,3}\\.)+\\d{3}\\.$")
-    );
+public class OrdinalDigitsRootFinder implements SelectiveRootFinder {
 
     private static final char ORDINAL_CHAR = '.';
     private static final char APOSTROPHE = '\'';
@@ -54,6 +48,11 @@ public class OrdinalDigitsRootFinder implements RootFinder {
         this.phoneticsEngine = new PhoneticsEngine(new SuffixFormSequenceApplier());
     }
 
+    @Override
+    public boolean mayHandle(int inputClasses) {
+        return InputClasses.has(inputClasses, InputClasses.DIGITS);
+    }
+
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence input) {
         if (partialInput == null || partialInput.isBlank())
@@ -76,15 +75,7 @@ public class OrdinalDigitsRootFinder implements RootFinder {
             }
         }
 
-        final String partialInputUnderlyingString = partialInput.getUnderlyingString();
-
-        for (Pattern pattern : NUMBER_REGEXES) {
-            if (pattern.matcher(partialInputUnderlyingString).matches()) {
-                return true;
-            }
-        }
-
-        return false;
+        return NumeralScan.of(partialInput, input).is(partialInput.length(), NumeralScan.ORDINAL);
     }
 
     @Override
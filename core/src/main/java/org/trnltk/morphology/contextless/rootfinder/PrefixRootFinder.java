@@ -0,0 +1,48 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.lexicon.Root;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link RootFinder} which can find the roots for all partial inputs of a surface in a single pass, without
+ * creating the partial inputs.
+ * <p/>
+ * {@link RootFinderChain} uses this contract instead of calling
+ * {@link RootFinder#findRootsForPartialInput(org.trnltk.model.letter.TurkishSequence, org.trnltk.model.letter.TurkishSequence)}
+ * for every partial input.
+ */
+public interface PrefixRootFinder extends RootFinder {
+
+    /**
+     * Returns the roots for all partial inputs of the given surface, which are the beginnings of the surface.
+     * <p/>
+     * Nothing must be returned for the partial inputs which are not handled by
+     * {@link RootFinder#handles(org.trnltk.model.letter.TurkishSequence, org.trnltk.model.letter.TurkishSequence)}.
+     * Returned roots must pass the check defined in {@link RootValidator}.
+     *
+     * @param wholeSurface Whole surface
+     * @return A list with the size of the surface, item at index <code>i</code> is the roots for the partial input
+     *         of length <code>i+1</code>. Items are never null.
+     */
+    public List<? extends Collection<? extends Root>> findRootsForAllPartialInputs(TurkishSequence wholeSurface);
+}
@@ -29,12 +29,17 @@ import org.trnltk.model.letter.TurkishChar;
 import java.util.Arrays;
 import java.util.List;
 
-public class ProperNounFromApostropheRootFinder implements RootFinder {
+public class ProperNounFromApostropheRootFinder implements SelectiveRootFinder {
     private static final char APOSTROPHE = '\'';
     private static final TurkishChar TURKISH_CHAR_E_UPPERCASE = TurkishAlphabet.getChar('E');
 
     private final PhoneticsAnalyzer phoneticsAnalyzer = new PhoneticsAnalyzer();
 
+    @Override
+    public boolean mayHandle(int inputClasses) {
+        return InputClasses.has(inputClasses, InputClasses.CAPITALIZED | InputClasses.APOSTROPHE);
+    }
+
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence input) {
         if (partialInput == null || partialInput.isBlank())
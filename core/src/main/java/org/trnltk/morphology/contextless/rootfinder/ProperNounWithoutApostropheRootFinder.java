@@ -28,12 +28,17 @@ import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
 import java.util.Arrays;
 import java.util.List;
 
-public class ProperNounWithoutApostropheRootFinder implements RootFinder {
+public class ProperNounWithoutApostropheRootFinder implements SelectiveRootFinder {
     private static final char APOSTROPHE = '\'';
     private static final TurkishChar TURKISH_CHAR_E_UPPERCASE = TurkishAlphabet.getChar('E');
 
     private final PhoneticsAnalyzer phoneticsAnalyzer = new PhoneticsAnalyzer();
 
+    @Override
+    public boolean mayHandle(int inputClasses) {
+        return InputClasses.has(inputClasses, InputClasses.CAPITALIZED) && !InputClasses.has(inputClasses, InputClasses.APOSTROPHE);
+    }
+
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence wholeSurface) {
         if (partialInput == null || partialInput.isBlank())
@@ -27,7 +27,7 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 
-public class PuncRootFinder implements RootFinder {
+public class PuncRootFinder implements SelectiveRootFinder {
 
     /**
      * You can check types defined in java.lang.Character class. such as START_PUNCTUATION
@@ -46,6 +46,11 @@ public class PuncRootFinder implements RootFinder {
      */
     private static final Pattern ALL_PUNC_PATTERN = Pattern.compile("^(\\p{Pc}|\\p{Pd}|\\p{Pe}|\\p{Pf}|\\p{Pi}|\\p{Po}|\\p{Ps}|\\p{Sm}|\\p{So})+$");
 
+    @Override
+    public boolean mayHandle(int inputClasses) {
+        return InputClasses.has(inputClasses, InputClasses.PUNCTUATION);
+    }
+
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence input) {
         if (partialInput == null || partialInput.isBlank())
@@ -28,14 +28,8 @@ import org.trnltk.numeral.DigitsToTextConverter;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
 
-public class RangeDigitsRootFinder implements RootFinder {
-
-    private static List<Pattern> NUMBER_REGEXES = Arrays.asList(
-            // ^(NormalNr or GroupedNr) ( RangeOp [NormalNr or GroupedNr] )* RangeOp (NormalNr or GroupedNr)$
-            Pattern.compile("^((\\d{1,3}\\.)+\\d{3}|\\d+)(-((\\d{1,3}\\.)+\\d{3}|\\d+))*-((\\d{1,3}\\.)+\\d{3}|\\d+)$")
-    );
+public class RangeDigitsRootFinder implements SelectiveRootFinder {
 
     private static final char RANGE_CHAR = '-';
     private static final char ORDINAL_CHAR = '.';
@@ -49,6 +43,11 @@ public class RangeDigitsRootFinder implements RootFinder {
         this.phoneticsAnalyzer = new PhoneticsAnalyzer();
     }
 
+    @Override
+    public boolean mayHandle(int inputClasses) {
+        return InputClasses.has(inputClasses, InputClasses.DIGITS);
+    }
+
     @Override
     public boolean handles(TurkishSequence partialInput, TurkishSequence input) {
         if (partialInput == null || partialInput.isBlank())
@@ -73,15 +72,7 @@ public class RangeDigitsRootFinder implements RootFinder {
             }
         }
 
-        final String partialInputUnderlyingString = partialInput.getUnderlyingString();
-
-        for (Pattern pattern : NUMBER_REGEXES) {
-            if (pattern.matcher(partialInputUnderlyingString).matches()) {
-                return true;
-            }
-        }
-
-        return false;
+        return NumeralScan.of(partialInput, input).is(partialInput.length(), NumeralScan.RANGE);
     }
 
     @Override
@@ -0,0 +1,88 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.Validate;
+import org.trnltk.model.lexicon.DynamicRoot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A bounded memo of the roots generated by a brute force root finder.
+ * <p/>
+ * Keys are built by the finder from the partial input and the part of the whole surface the finder looks at. Since
+ * callers are free to mutate the {@link DynamicRoot}s they get, only copies of the roots go in and out of the cache.
+ * Sequences of the cached roots are compacted, so that the cache doesn't keep the chars of the whole surfaces alive.
+ * <p/>
+ * A cache with maximum size 0 never stores anything.
+ */
+class RootCandidateCache {
+
+    private final Cache<String, List<DynamicRoot>> cache;
+
+    RootCandidateCache(long maximumSize) {
+        Validate.isTrue(maximumSize >= 0, "Maximum size cannot be negative");
+        this.cache = maximumSize > 0 ? CacheBuilder.newBuilder().maximumSize(maximumSize).<String, List<DynamicRoot>>build() : null;
+    }
+
+    /**
+     * @return Copies of the cached roots for the key, or null if there are none
+     */
+    List<DynamicRoot> get(String key) {
+        if (cache == null)
+            return null;
+
+        final List<DynamicRoot> cachedRoots = cache.getIfPresent(key);
+        return cachedRoots == null ? null : copyOf(cachedRoots);
+    }
+
+    /**
+     * Caches copies of the roots for the key.
+     *
+     * @return The given roots
+     */
+    Collection<DynamicRoot> put(String key, Collection<DynamicRoot> roots) {
+        if (cache != null)
+            cache.put(key, compactCopyOf(roots));
+        return roots;
+    }
+
+    long size() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    private static List<DynamicRoot> compactCopyOf(Collection<DynamicRoot> roots) {
+        final List<DynamicRoot> copies = copyOf(roots);
+        for (DynamicRoot copy : copies) {
+            copy.setSequence(copy.getSequence().compact());
+        }
+        return copies;
+    }
+
+    private static List<DynamicRoot> copyOf(Collection<DynamicRoot> roots) {
+        final List<DynamicRoot> copies = new ArrayList<DynamicRoot>(roots.size());
+        for (DynamicRoot root : roots) {
+            copies.add(new DynamicRoot(root));
+        }
+        return copies;
+    }
+}
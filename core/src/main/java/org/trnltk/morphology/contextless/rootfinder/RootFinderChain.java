@@ -21,19 +21,61 @@ import org.apache.commons.lang3.Validate;
 import org.trnltk.model.lexicon.Root;
 import org.trnltk.model.letter.TurkishSequence;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Asks the root finders in order for the roots of partial inputs.
+ * <p/>
+ * Root finders which implement {@link SelectiveRootFinder} are skipped for inputs they can never handle, based on the
+ * classes of the whole input (see {@link InputClasses}).
+ * <p/>
+ * Returned roots are validated with the {@link RootValidator} if one is given; that is meant for finding the bugs in
+ * root finders and it is not necessary in production. Statistics of the root finders can be collected to tune the
+ * order of the chain, see {@link RootFinderChain#collectStatistics()}.
+ */
 public class RootFinderChain {
 
     private RootValidator rootValidator;
     private LinkedList<RootFinderChainItem> rootFinderChainItems = new LinkedList<RootFinderChainItem>();
+    private volatile boolean collectStatistics;
+
+    /**
+     * Creates a chain which doesn't validate the roots.
+     */
+    public RootFinderChain() {
+        this(null);
+    }
 
+    /**
+     * Creates a chain which validates the roots found with the given validator.
+     *
+     * @param rootValidator Validator of the roots; null to skip validation
+     */
     public RootFinderChain(RootValidator rootValidator) {
         this.rootValidator = rootValidator;
     }
 
+    /**
+     * Roots found will be validated with the given validator.
+     *
+     * @param rootValidator Validator of the roots; null to skip validation
+     */
+    public RootFinderChain validateRoots(RootValidator rootValidator) {
+        this.rootValidator = rootValidator;
+        return this;
+    }
+
+    /**
+     * Starts collecting invocation counts and time spent for each root finder.
+     *
+     * @see RootFinderChain#getStatistics()
+     */
+    public RootFinderChain collectStatistics() {
+        this.collectStatistics = true;
+        return this;
+    }
+
     public RootFinderChain offer(RootFinder rootFinder, RootFinderPolicy rootFinderPolicy) {
         if (RootFinderPolicy.STOP_CHAIN_WHEN_INPUT_IS_HANDLED.equals(rootFinderPolicy)) {
             final RootFinderChainItem lastChainItem = rootFinderChainItems.peekLast();
@@ -56,12 +98,7 @@ public class RootFinderChain {
                 continue;
             final Collection<? extends Root> rootsForPartialInput = rootFinder.findRootsForPartialInput(partialInput, input);
             if (CollectionUtils.isNotEmpty(rootsForPartialInput)) {
-                //roots must be beginning of the partial input
-                for (Root rootForPartialInput : rootsForPartialInput) {
-                    final boolean isPartialInputValid = rootValidator.isValid(rootForPartialInput, partialInput);
-                    if (!isPartialInputValid)
-                        throw new IllegalArgumentException("Invalid root " + rootForPartialInput.toString() + " for partial input " + partialInput);
-                }
+                this.validate(rootsForPartialInput, partialInput);
                 roots.addAll(rootsForPartialInput);
             }
 
@@ -76,19 +113,219 @@ public class RootFinderChain {
         return roots;
     }
 
+    /**
+     * Finds the roots for all partial inputs of the input; the result is the same as calling
+     * {@link RootFinderChain#findRootsForPartialInput(org.trnltk.model.letter.TurkishSequence, org.trnltk.model.letter.TurkishSequence)}
+     * for each partial input.
+     * <p/>
+     * {@link PrefixRootFinder}s are asked only once for all partial inputs. Partial inputs are created only if there
+     * are other root finders which need them.
+     *
+     * @return A list with the size of the input, item at index <code>i</code> is the roots for the partial input
+     *         of length <code>i+1</code>
+     */
+    public List<List<Root>> findRootsForAllPartialInputs(TurkishSequence input) {
+        final int length = input.length();
+        final TurkishSequence[] partialInputs = new TurkishSequence[length];
+        final List<Root>[] roots = newRootListArray(length);
+        final boolean[] chainStopped = new boolean[length];
+        final int inputClasses = InputClasses.of(input);
+        final boolean collectStatistics = this.collectStatistics;
+
+        for (RootFinderChainItem rootFinderChainItem : rootFinderChainItems) {
+            final RootFinder rootFinder = rootFinderChainItem.getRootFinder();
+            final boolean stopChainWhenHandled = RootFinderPolicy.STOP_CHAIN_WHEN_INPUT_IS_HANDLED.equals(rootFinderChainItem.getRootFinderPolicy());
+
+            if (rootFinder instanceof SelectiveRootFinder && !((SelectiveRootFinder) rootFinder).mayHandle(inputClasses)) {
+                // cannot handle any partial input, thus cannot stop the chain either
+                if (collectStatistics)
+                    rootFinderChainItem.skippedInputCount.incrementAndGet();
+                continue;
+            }
+
+            final long start = collectStatistics ? System.nanoTime() : 0L;
+            int invocationCount = 0;
+            int handledCount = 0;
+            int rootCount = 0;
+
+            if (rootFinder instanceof PrefixRootFinder) {
+                final List<? extends Collection<? extends Root>> rootsForPartialInputs = ((PrefixRootFinder) rootFinder).findRootsForAllPartialInputs(input);
+                invocationCount++;
+                for (int i = 0; i < length; i++) {
+                    if (chainStopped[i])
+                        continue;
+                    // roots of a prefix root finder are found by walking on the input, thus they are not validated
+                    final Collection<? extends Root> rootsForPartialInput = rootsForPartialInputs.get(i);
+                    if (!rootsForPartialInput.isEmpty()) {
+                        roots[i].addAll(rootsForPartialInput);
+                        handledCount++;
+                        rootCount += rootsForPartialInput.size();
+                    }
+                    if (stopChainWhenHandled && rootFinder.handles(getPartialInput(partialInputs, input, i), input))
+                        chainStopped[i] = true;
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    if (chainStopped[i])
+                        continue;
+                    final TurkishSequence partialInput = getPartialInput(partialInputs, input, i);
+                    invocationCount++;
+                    if (!rootFinder.handles(partialInput, input))
+                        continue;
+                    handledCount++;
+                    final Collection<? extends Root> rootsForPartialInput = rootFinder.findRootsForPartialInput(partialInput, input);
+                    if (CollectionUtils.isNotEmpty(rootsForPartialInput)) {
+                        this.validate(rootsForPartialInput, partialInput);
+                        roots[i].addAll(rootsForPartialInput);
+                        rootCount += rootsForPartialInput.size();
+                    }
+                    if (stopChainWhenHandled)
+                        chainStopped[i] = true;
+                }
+            }
+
+            if (collectStatistics)
+                rootFinderChainItem.record(invocationCount, handledCount, rootCount, System.nanoTime() - start);
+        }
+
+        return Arrays.asList(roots);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Root>[] newRootListArray(int length) {
+        final List<Root>[] roots = (List<Root>[]) new List<?>[length];
+        for (int i = 0; i < length; i++) {
+            roots[i] = new ArrayList<Root>(2);
+        }
+        return roots;
+    }
+
+    private static TurkishSequence getPartialInput(TurkishSequence[] partialInputs, TurkishSequence input, int index) {
+        TurkishSequence partialInput = partialInputs[index];
+        if (partialInput == null) {
+            partialInput = input.subsequence(0, index + 1);
+            partialInputs[index] = partialInput;
+        }
+        return partialInput;
+    }
+
+    private void validate(Collection<? extends Root> rootsForPartialInput, TurkishSequence partialInput) {
+        if (rootValidator == null)
+            return;
+
+        //roots must be beginning of the partial input
+        for (Root rootForPartialInput : rootsForPartialInput) {
+            final boolean isPartialInputValid = rootValidator.isValid(rootForPartialInput, partialInput);
+            if (!isPartialInputValid)
+                throw new IllegalArgumentException("Invalid root " + rootForPartialInput.toString() + " for partial input " + partialInput);
+        }
+    }
+
     public boolean hasRootFinders() {
         return !rootFinderChainItems.isEmpty();
     }
 
+    /**
+     * Returns the statistics of the root finders in chain order, collected by
+     * {@link RootFinderChain#findRootsForAllPartialInputs(org.trnltk.model.letter.TurkishSequence)} since
+     * {@link RootFinderChain#collectStatistics()} is called.
+     */
+    public List<RootFinderStatistics> getStatistics() {
+        final List<RootFinderStatistics> statistics = new ArrayList<RootFinderStatistics>(rootFinderChainItems.size());
+        for (RootFinderChainItem rootFinderChainItem : rootFinderChainItems) {
+            statistics.add(new RootFinderStatistics(rootFinderChainItem.getRootFinder(), rootFinderChainItem.skippedInputCount.get(),
+                    rootFinderChainItem.invocationCount.get(), rootFinderChainItem.handledCount.get(),
+                    rootFinderChainItem.rootCount.get(), rootFinderChainItem.nanos.get()));
+        }
+        return statistics;
+    }
+
     public enum RootFinderPolicy {
         STOP_CHAIN_WHEN_INPUT_IS_HANDLED,
         CONTINUE_ON_CHAIN
     }
 
+    /**
+     * Statistics of a root finder in the chain.
+     */
+    public static class RootFinderStatistics {
+        private final RootFinder rootFinder;
+        private final long skippedInputCount;
+        private final long invocationCount;
+        private final long handledCount;
+        private final long rootCount;
+        private final long nanos;
+
+        private RootFinderStatistics(RootFinder rootFinder, long skippedInputCount, long invocationCount, long handledCount, long rootCount, long nanos) {
+            this.rootFinder = rootFinder;
+            this.skippedInputCount = skippedInputCount;
+            this.invocationCount = invocationCount;
+            this.handledCount = handledCount;
+            this.rootCount = rootCount;
+            this.nanos = nanos;
+        }
+
+        public RootFinder getRootFinder() {
+            return rootFinder;
+        }
+
+        /**
+         * @return Number of inputs the root finder is not asked for, because of the classes of the input
+         */
+        public long getSkippedInputCount() {
+            return skippedInputCount;
+        }
+
+        /**
+         * @return Number of calls to the root finder; a {@link PrefixRootFinder} is called once per input
+         */
+        public long getInvocationCount() {
+            return invocationCount;
+        }
+
+        /**
+         * @return Number of partial inputs the root finder handled
+         */
+        public long getHandledCount() {
+            return handledCount;
+        }
+
+        /**
+         * @return Number of roots found by the root finder
+         */
+        public long getRootCount() {
+            return rootCount;
+        }
+
+        /**
+         * @return Time spent in the root finder, in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return rootFinder.getClass().getSimpleName() +
+                    "{skipped=" + skippedInputCount +
+                    ", invocations=" + invocationCount +
+                    ", handled=" + handledCount +
+                    ", roots=" + rootCount +
+                    ", millis=" + nanos / 1000000 +
+                    '}';
+        }
+    }
+
     private static class RootFinderChainItem {
         private final RootFinder rootFinder;
         private final RootFinderPolicy rootFinderPolicy;
 
+        private final AtomicLong skippedInputCount = new AtomicLong();
+        private final AtomicLong invocationCount = new AtomicLong();
+        private final AtomicLong handledCount = new AtomicLong();
+        private final AtomicLong rootCount = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
         private RootFinderChainItem(RootFinder rootFinder, RootFinderPolicy rootFinderPolicy) {
             Validate.notNull(rootFinder);
             Validate.notNull(rootFinderPolicy);
@@ -104,5 +341,12 @@ public class RootFinderChain {
         public RootFinderPolicy getRootFinderPolicy() {
             return rootFinderPolicy;
         }
+
+        private void record(int invocationCount, int handledCount, int rootCount, long nanos) {
+            this.invocationCount.addAndGet(invocationCount);
+            this.handledCount.addAndGet(handledCount);
+            this.rootCount.addAndGet(rootCount);
+            this.nanos.addAndGet(nanos);
+        }
     }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+/**
+ * A {@link RootFinder} which can tell, by the classes of the whole input, that it cannot handle any partial input of
+ * the input.
+ * <p/>
+ * {@link RootFinderChain} doesn't ask such a root finder for any partial input of an input which it cannot handle.
+ */
+public interface SelectiveRootFinder extends RootFinder {
+
+    /**
+     * Must return false only if
+     * {@link RootFinder#handles(org.trnltk.model.letter.TurkishSequence, org.trnltk.model.letter.TurkishSequence)}
+     * returns false for all partial inputs of an input with the given classes.
+     *
+     * @param inputClasses Classes of the whole input, see {@link InputClasses}
+     */
+    boolean mayHandle(int inputClasses);
+}
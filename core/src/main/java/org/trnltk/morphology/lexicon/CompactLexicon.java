@@ -0,0 +1,609 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.lexicon;
+
+import com.google.common.collect.*;
+import com.google.common.io.ByteStreams;
+import org.apache.commons.lang3.Validate;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.lexicon.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A read-only lexicon which keeps the roots, their lexemes and all the strings packed in a single {@link ByteBuffer}
+ * outside the heap.
+ * <p/>
+ * Roots and lexemes are accessed with flyweight views. Root views are created on first access and kept, thus a root
+ * decodes its sequence only once. Two views are equal if they are for the same item of the same lexicon; a view is
+ * never equal to a {@link ImmutableRoot} or {@link ImmutableLexeme} with the same values.
+ * <p/>
+ * Binary format, big-endian:
+ * <pre>
+ * header  : magic, format version (ints), source fingerprint (long), lexeme count, root count, key count,
+ *           string pool size (ints)
+ * lexemes : lemma ref, lemma root ref (ints), primary pos, secondary pos + 1 (bytes), lexeme attributes mask (long)
+ * roots   : sequence ref, lexeme index (ints), phonetic attributes mask (long), phonetic expectations mask (int)
+ * keys    : sequence ref, index of the first root with the sequence (ints); sorted by the sequence
+ * strings : length (short) and UTF-16 chars of each distinct string
+ * </pre>
+ * Roots are sorted by their sequences, thus the roots of a key are between the first root of the key and the first
+ * root of the next key.
+ */
+public final class CompactLexicon {
+    static final int MAGIC = 0x54524E4C;
+    static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int LEXEME_SIZE = 18;
+    private static final int ROOT_SIZE = 20;
+    private static final int KEY_SIZE = 8;
+
+    private static final PrimaryPos[] PRIMARY_POS_VALUES = PrimaryPos.values();
+    private static final SecondaryPos[] SECONDARY_POS_VALUES = SecondaryPos.values();
+    private static final LexemeAttribute[] LEXEME_ATTRIBUTE_VALUES = LexemeAttribute.values();
+    private static final PhoneticExpectation[] PHONETIC_EXPECTATION_VALUES = PhoneticExpectation.values();
+
+    static {
+        Validate.isTrue(LEXEME_ATTRIBUTE_VALUES.length <= Long.SIZE, "Too many lexeme attributes to pack in a long");
+        Validate.isTrue(PHONETIC_EXPECTATION_VALUES.length <= Integer.SIZE, "Too many phonetic expectations to pack in an int");
+    }
+
+    private final ByteBuffer buffer;
+    private final long sourceFingerprint;
+    private final int lexemeCount;
+    private final int rootCount;
+    private final int keyCount;
+    private final int lexemesStart;
+    private final int rootsStart;
+    private final int keysStart;
+    private final int poolStart;
+
+    // there are only a few distinct combinations in a dictionary
+    private final ConcurrentMap<Long, ImmutableSet<LexemeAttribute>> lexemeAttributeSets = new ConcurrentHashMap<Long, ImmutableSet<LexemeAttribute>>();
+    private final ConcurrentMap<Integer, ImmutableSet<PhoneticExpectation>> phoneticExpectationSets = new ConcurrentHashMap<Integer, ImmutableSet<PhoneticExpectation>>();
+
+    // filled on first access of each root
+    private final AtomicReferenceArray<CompactRoot> rootViews;
+
+    private CompactLexicon(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IllegalStateException("Not a compact lexicon");
+        if (buffer.getInt(4) != FORMAT_VERSION)
+            throw new IllegalStateException("Unsupported compact lexicon format version " + buffer.getInt(4) + ", expected " + FORMAT_VERSION);
+
+        this.sourceFingerprint = buffer.getLong(8);
+        this.lexemeCount = buffer.getInt(16);
+        this.rootCount = buffer.getInt(20);
+        this.keyCount = buffer.getInt(24);
+        final int poolSize = buffer.getInt(28);
+
+        this.lexemesStart = HEADER_SIZE;
+        this.rootsStart = this.lexemesStart + this.lexemeCount * LEXEME_SIZE;
+        this.keysStart = this.rootsStart + this.rootCount * ROOT_SIZE;
+        this.poolStart = this.keysStart + this.keyCount * KEY_SIZE;
+
+        if (buffer.capacity() != this.poolStart + poolSize)
+            throw new IllegalStateException("Corrupt compact lexicon, expected size " + (this.poolStart + poolSize) + " but was " + buffer.capacity());
+
+        this.rootViews = new AtomicReferenceArray<CompactRoot>(this.rootCount);
+    }
+
+    /**
+     * Packs the given roots and their lexemes in a new lexicon.
+     */
+    public static CompactLexicon create(Collection<? extends Root> roots) {
+        return create(roots, 0L);
+    }
+
+    /**
+     * Packs the given roots and their lexemes in a new lexicon.
+     *
+     * @param sourceFingerprint Fingerprint of the source the roots are generated from, to detect stale lexicon files
+     */
+    public static CompactLexicon create(Collection<? extends Root> roots, long sourceFingerprint) {
+        final List<Root> sortedRoots = new ArrayList<Root>(roots);
+        Collections.sort(sortedRoots, new Comparator<Root>() {
+            @Override
+            public int compare(Root o1, Root o2) {
+                return o1.getSequence().getUnderlyingString().compareTo(o2.getSequence().getUnderlyingString());
+            }
+        });
+
+        final Map<String, Integer> stringRefs = new HashMap<String, Integer>();
+        final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        final Map<Lexeme, Integer> lexemeIndices = new LinkedHashMap<Lexeme, Integer>();
+        final List<Integer> keyFirstRoots = new ArrayList<Integer>();
+        final List<String> keys = new ArrayList<String>();
+
+        try {
+            final DataOutputStream pool = new DataOutputStream(poolBytes);
+            final ByteArrayOutputStream rootBytes = new ByteArrayOutputStream(sortedRoots.size() * ROOT_SIZE);
+            final DataOutputStream rootOut = new DataOutputStream(rootBytes);
+            for (int i = 0; i < sortedRoots.size(); i++) {
+                final Root root = sortedRoots.get(i);
+                final String sequence = root.getSequence().getUnderlyingString();
+                if (keys.isEmpty() || !keys.get(keys.size() - 1).equals(sequence)) {
+                    keys.add(sequence);
+                    keyFirstRoots.add(i);
+                }
+
+                Integer lexemeIndex = lexemeIndices.get(root.getLexeme());
+                if (lexemeIndex == null) {
+                    lexemeIndex = lexemeIndices.size();
+                    lexemeIndices.put(root.getLexeme(), lexemeIndex);
+                }
+
+                rootOut.writeInt(stringRef(sequence, stringRefs, pool));
+                rootOut.writeInt(lexemeIndex);
+                rootOut.writeLong(PhoneticAttributeMasks.toMask(root.getPhoneticAttributes()));
+                rootOut.writeInt(phoneticExpectationsMask(root.getPhoneticExpectations()));
+            }
+
+            final ByteArrayOutputStream lexemeBytes = new ByteArrayOutputStream(lexemeIndices.size() * LEXEME_SIZE);
+            final DataOutputStream lexemeOut = new DataOutputStream(lexemeBytes);
+            for (Lexeme lexeme : lexemeIndices.keySet()) {
+                lexemeOut.writeInt(stringRef(lexeme.getLemma(), stringRefs, pool));
+                lexemeOut.writeInt(stringRef(lexeme.getLemmaRoot(), stringRefs, pool));
+                lexemeOut.writeByte(lexeme.getPrimaryPos().ordinal());
+                lexemeOut.writeByte(lexeme.getSecondaryPos() == null ? 0 : lexeme.getSecondaryPos().ordinal() + 1);
+                lexemeOut.writeLong(lexemeAttributesMask(lexeme.getAttributes()));
+            }
+
+            final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream(keys.size() * KEY_SIZE);
+            final DataOutputStream keyOut = new DataOutputStream(keyBytes);
+            for (int i = 0; i < keys.size(); i++) {
+                keyOut.writeInt(stringRefs.get(keys.get(i)));
+                keyOut.writeInt(keyFirstRoots.get(i));
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE + lexemeBytes.size() + rootBytes.size() + keyBytes.size() + poolBytes.size());
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(sourceFingerprint).putInt(lexemeIndices.size()).putInt(sortedRoots.size()).putInt(keys.size()).putInt(poolBytes.size());
+            buffer.put(lexemeBytes.toByteArray()).put(rootBytes.toByteArray()).put(keyBytes.toByteArray()).put(poolBytes.toByteArray());
+            buffer.flip();
+            return new CompactLexicon(buffer);
+        } catch (IOException e) {
+            // not possible with in-memory streams
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Maps the lexicon file written by {@link CompactLexicon#writeTo(java.io.File)} to memory.
+     */
+    public static CompactLexicon map(File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CompactLexicon(mappedBuffer);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Reads a lexicon written by {@link CompactLexicon#writeTo(java.io.File)} from a stream, e.g. from a classpath
+     * resource. Stream is not closed.
+     */
+    public static CompactLexicon read(InputStream inputStream) throws IOException {
+        final byte[] bytes = ByteStreams.toByteArray(inputStream);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return new CompactLexicon(buffer);
+    }
+
+    public void writeTo(File file) throws IOException {
+        final FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            final FileChannel channel = outputStream.getChannel();
+            final ByteBuffer duplicate = this.buffer.duplicate();
+            duplicate.clear();
+            while (duplicate.hasRemaining()) {
+                channel.write(duplicate);
+            }
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * @return Fingerprint of the source of the roots, 0 if not given on creation
+     */
+    public long getSourceFingerprint() {
+        return sourceFingerprint;
+    }
+
+    public int getRootCount() {
+        return rootCount;
+    }
+
+    public int getLexemeCount() {
+        return lexemeCount;
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * @return Size of the packed lexicon in bytes
+     */
+    public int getSizeInBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return View of the root at the given index; roots are sorted by their sequences
+     */
+    public Root getRoot(int index) {
+        Validate.isTrue(index >= 0 && index < this.rootCount, "Invalid root index " + index);
+        return this.getRootView(index);
+    }
+
+    /**
+     * @return Views of the roots with the given sequence, empty list if there is none
+     */
+    public List<Root> getRoots(String sequence) {
+        final int keyIndex = this.findKey(sequence);
+        if (keyIndex < 0)
+            return Collections.emptyList();
+
+        final int firstRoot = this.getKeyFirstRoot(keyIndex);
+        final int end = keyIndex + 1 < this.keyCount ? this.getKeyFirstRoot(keyIndex + 1) : this.rootCount;
+        final Root[] roots = new Root[end - firstRoot];
+        for (int i = firstRoot; i < end; i++) {
+            roots[i - firstRoot] = this.getRootView(i);
+        }
+        return Arrays.asList(roots);
+    }
+
+    public boolean containsKey(String sequence) {
+        return this.findKey(sequence) >= 0;
+    }
+
+    /**
+     * @return Sorted sequences of the roots, created on every call
+     */
+    public List<String> getKeys() {
+        final String[] keys = new String[this.keyCount];
+        for (int i = 0; i < this.keyCount; i++) {
+            keys[i] = this.readString(this.buffer.getInt(this.keysStart + i * KEY_SIZE));
+        }
+        return Arrays.asList(keys);
+    }
+
+    /**
+     * Returns a read-only root map of the lexicon, keyed by the root sequences, to be used in place of the maps created
+     * by {@link RootMapFactory}.
+     * <p/>
+     * Lookups by key are done on the packed lexicon. Methods which need all the entries, like
+     * {@link com.google.common.collect.Multimap#entries()} or {@link com.google.common.collect.Multimap#asMap()},
+     * create a full copy on the heap on every call.
+     */
+    public Multimap<String, Root> asRootMap() {
+        return new RootMapView();
+    }
+
+    private CompactRoot getRootView(int index) {
+        CompactRoot root = this.rootViews.get(index);
+        if (root == null) {
+            // the view of a losing thread is equal to the kept one, no need to retry
+            root = new CompactRoot(index);
+            if (!this.rootViews.compareAndSet(index, null, root))
+                root = this.rootViews.get(index);
+        }
+        return root;
+    }
+
+    private int findKey(String sequence) {
+        int low = 0;
+        int high = this.keyCount - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int comparison = this.compareString(this.buffer.getInt(this.keysStart + mid * KEY_SIZE), sequence);
+            if (comparison < 0)
+                low = mid + 1;
+            else if (comparison > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    private int getKeyFirstRoot(int keyIndex) {
+        return this.buffer.getInt(this.keysStart + keyIndex * KEY_SIZE + 4);
+    }
+
+    // same order with String#compareTo, without creating a string
+    private int compareString(int ref, String str) {
+        final int position = this.poolStart + ref;
+        final int length = this.buffer.getShort(position) & 0xFFFF;
+        final int commonLength = Math.min(length, str.length());
+        for (int i = 0; i < commonLength; i++) {
+            final int difference = this.buffer.getChar(position + 2 + i * 2) - str.charAt(i);
+            if (difference != 0)
+                return difference;
+        }
+        return length - str.length();
+    }
+
+    private String readString(int ref) {
+        final int position = this.poolStart + ref;
+        final char[] chars = new char[this.buffer.getShort(position) & 0xFFFF];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = this.buffer.getChar(position + 2 + i * 2);
+        }
+        return new String(chars);
+    }
+
+    private static int stringRef(String str, Map<String, Integer> stringRefs, DataOutputStream pool) throws IOException {
+        Integer ref = stringRefs.get(str);
+        if (ref == null) {
+            Validate.isTrue(str.length() <= 0xFFFF, "String too long : " + str);
+            ref = pool.size();
+            stringRefs.put(str, ref);
+            pool.writeShort(str.length());
+            pool.writeChars(str);
+        }
+        return ref;
+    }
+
+    private static long lexemeAttributesMask(Set<LexemeAttribute> lexemeAttributes) {
+        long mask = 0L;
+        for (LexemeAttribute lexemeAttribute : lexemeAttributes) {
+            mask |= 1L << lexemeAttribute.ordinal();
+        }
+        return mask;
+    }
+
+    private static int phoneticExpectationsMask(Set<PhoneticExpectation> phoneticExpectations) {
+        int mask = 0;
+        for (PhoneticExpectation phoneticExpectation : phoneticExpectations) {
+            mask |= 1 << phoneticExpectation.ordinal();
+        }
+        return mask;
+    }
+
+    private ImmutableSet<LexemeAttribute> getLexemeAttributeSet(long mask) {
+        ImmutableSet<LexemeAttribute> set = this.lexemeAttributeSets.get(mask);
+        if (set == null) {
+            final EnumSet<LexemeAttribute> lexemeAttributes = EnumSet.noneOf(LexemeAttribute.class);
+            for (LexemeAttribute lexemeAttribute : LEXEME_ATTRIBUTE_VALUES) {
+                if ((mask & (1L << lexemeAttribute.ordinal())) != 0)
+                    lexemeAttributes.add(lexemeAttribute);
+            }
+            set = Sets.immutableEnumSet(lexemeAttributes);
+            this.lexemeAttributeSets.putIfAbsent(mask, set);
+        }
+        return set;
+    }
+
+    private ImmutableSet<PhoneticExpectation> getPhoneticExpectationSet(int mask) {
+        ImmutableSet<PhoneticExpectation> set = this.phoneticExpectationSets.get(mask);
+        if (set == null) {
+            final EnumSet<PhoneticExpectation> phoneticExpectations = EnumSet.noneOf(PhoneticExpectation.class);
+            for (PhoneticExpectation phoneticExpectation : PHONETIC_EXPECTATION_VALUES) {
+                if ((mask & (1 << phoneticExpectation.ordinal())) != 0)
+                    phoneticExpectations.add(phoneticExpectation);
+            }
+            set = Sets.immutableEnumSet(phoneticExpectations);
+            this.phoneticExpectationSets.putIfAbsent(mask, set);
+        }
+        return set;
+    }
+
+    /**
+     * Equality is by identity of the item in the lexicon, not by value: a view is never equal to an
+     * {@link ImmutableRoot} for the same root.
+     */
+    private final class CompactRoot implements Root {
+        private final int index;
+        // created lazily, racy but safe since they are immutable
+        private TurkishSequence sequence;
+        private CompactLexeme lexeme;
+
+        private CompactRoot(int index) {
+            this.index = index;
+        }
+
+        private int position() {
+            return rootsStart + this.index * ROOT_SIZE;
+        }
+
+        @Override
+        public TurkishSequence getSequence() {
+            TurkishSequence sequence = this.sequence;
+            if (sequence == null) {
+                sequence = new TurkishSequence(readString(buffer.getInt(this.position())));
+                this.sequence = sequence;
+            }
+            return sequence;
+        }
+
+        @Override
+        public Lexeme getLexeme() {
+            CompactLexeme lexeme = this.lexeme;
+            if (lexeme == null) {
+                lexeme = new CompactLexeme(buffer.getInt(this.position() + 4));
+                this.lexeme = lexeme;
+            }
+            return lexeme;
+        }
+
+        @Override
+        public ImmutableSet<PhoneticAttribute> getPhoneticAttributes() {
+            return PhoneticAttributeMasks.toImmutableSet(buffer.getLong(this.position() + 8));
+        }
+
+        @Override
+        public ImmutableSet<PhoneticExpectation> getPhoneticExpectations() {
+            return getPhoneticExpectationSet(buffer.getInt(this.position() + 16));
+        }
+
+        private CompactLexicon lexicon() {
+            return CompactLexicon.this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CompactRoot)) return false;
+
+            final CompactRoot that = (CompactRoot) o;
+            return this.index == that.index && this.lexicon() == that.lexicon();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.index;
+        }
+
+        @Override
+        public String toString() {
+            return "CompactRoot{" +
+                    "sequence=" + getSequence() +
+                    ", lexeme=" + getLexeme() +
+                    ", phoneticAttributes=" + getPhoneticAttributes() +
+                    ", phoneticExpectations=" + getPhoneticExpectations() +
+                    '}';
+        }
+    }
+
+    private final class CompactLexeme implements Lexeme {
+        private final int index;
+
+        private CompactLexeme(int index) {
+            this.index = index;
+        }
+
+        private int position() {
+            return lexemesStart + this.index * LEXEME_SIZE;
+        }
+
+        @Override
+        public String getLemma() {
+            return readString(buffer.getInt(this.position()));
+        }
+
+        @Override
+        public String getLemmaRoot() {
+            return readString(buffer.getInt(this.position() + 4));
+        }
+
+        @Override
+        public PrimaryPos getPrimaryPos() {
+            return PRIMARY_POS_VALUES[buffer.get(this.position() + 8)];
+        }
+
+        @Override
+        public SecondaryPos getSecondaryPos() {
+            final int secondaryPos = buffer.get(this.position() + 9);
+            return secondaryPos == 0 ? null : SECONDARY_POS_VALUES[secondaryPos - 1];
+        }
+
+        @Override
+        public ImmutableSet<LexemeAttribute> getAttributes() {
+            return getLexemeAttributeSet(buffer.getLong(this.position() + 10));
+        }
+
+        private CompactLexicon lexicon() {
+            return CompactLexicon.this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CompactLexeme)) return false;
+
+            final CompactLexeme that = (CompactLexeme) o;
+            return this.index == that.index && this.lexicon() == that.lexicon();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.index;
+        }
+
+        @Override
+        public String toString() {
+            return "CompactLexeme{" +
+                    "lemma='" + getLemma() + '\'' +
+                    ", lemmaRoot='" + getLemmaRoot() + '\'' +
+                    ", primaryPos=" + getPrimaryPos() +
+                    ", secondaryPos=" + getSecondaryPos() +
+                    ", lexemeAttributes=" + getAttributes() +
+                    '}';
+        }
+    }
+
+    private final class RootMapView extends ForwardingMultimap<String, Root> {
+
+        // a full copy, not kept
+        @Override
+        protected Multimap<String, Root> delegate() {
+            final ImmutableListMultimap.Builder<String, Root> builder = ImmutableListMultimap.builder();
+            for (int i = 0; i < rootCount; i++) {
+                final Root root = new CompactRoot(i);
+                builder.put(root.getSequence().getUnderlyingString(), root);
+            }
+            return builder.build();
+        }
+
+        @Override
+        public int size() {
+            return rootCount;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return rootCount == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && CompactLexicon.this.containsKey((String) key);
+        }
+
+        @Override
+        public boolean containsEntry(Object key, Object value) {
+            return key instanceof String && getRoots((String) key).contains(value);
+        }
+
+        @Override
+        public Collection<Root> get(String key) {
+            return getRoots(key);
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return ImmutableSet.copyOf(getKeys());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.lexicon;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compiles the bundled dictionaries into prebuilt {@link CompactLexicon} files, which are loaded by
+ * {@link RootMapFactory#loadPrebuiltCompactLexicon(boolean)} instead of parsing the dictionaries.
+ * <p/>
+ * Run by the Maven build at <code>process-classes</code> phase, which writes the files next to the compiled classes
+ * so that they are packaged with them. Usage: <code>CompactLexiconCompiler outputDirectory</code>
+ */
+public class CompactLexiconCompiler {
+    private static final Logger logger = Logger.getLogger(CompactLexiconCompiler.class);
+
+    public static void main(String[] args) throws IOException {
+        Validate.isTrue(args.length == 1, "Usage : CompactLexiconCompiler outputDirectory");
+
+        final File outputDirectory = new File(args[0]);
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs())
+            throw new IOException("Unable to create output directory " + outputDirectory);
+
+        compile(new File(outputDirectory, RootMapFactory.COMPACT_LEXICON_RESOURCE), false);
+        compile(new File(outputDirectory, RootMapFactory.COMPACT_LEXICON_CONVERT_CIRCUMFLEXES_RESOURCE), true);
+    }
+
+    private static void compile(File file, boolean convertCircumflexes) throws IOException {
+        final CompactLexicon lexicon = RootMapFactory.createCompactLexicon(convertCircumflexes);
+        lexicon.writeTo(file);
+        logger.info(String.format("Compiled %d roots of %d lexemes into %s, %d bytes", lexicon.getRootCount(), lexicon.getLexemeCount(), file, lexicon.getSizeInBytes()));
+    }
+}
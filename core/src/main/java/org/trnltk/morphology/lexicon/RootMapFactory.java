@@ -16,15 +16,33 @@
 
 package org.trnltk.morphology.lexicon;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.HashMultimap;
-import org.trnltk.model.lexicon.Lexeme;
-import org.trnltk.model.lexicon.Root;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import org.apache.log4j.Logger;
+import org.trnltk.model.lexicon.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 
 @SuppressWarnings({"WeakerAccess", "UnusedDeclaration"})
 public class RootMapFactory {
+    private static final Logger logger = Logger.getLogger(RootMapFactory.class);
+
+    static final String COMPACT_LEXICON_RESOURCE = "master-dictionary-with-numbers.lexicon";
+    static final String COMPACT_LEXICON_CONVERT_CIRCUMFLEXES_RESOURCE = "master-dictionary-with-numbers-circumflexes-converted.lexicon";
+
+    // increase when the root generation changes, so that the prebuilt lexicons are not used anymore
+    static final int ROOT_GENERATOR_VERSION = 1;
+
     public static HashMultimap<String, ? extends Root> createSimple() {
         final HashSet<Lexeme> lexemes = DictionaryLoader.loadDefaultMasterDictionary();
         return buildWithLexemes(lexemes);
@@ -65,4 +83,105 @@ public class RootMapFactory {
 
         return new RootMapGenerator().generate(roots);
     }
+
+    /**
+     * Same roots with {@link RootMapFactory#createSimpleWithNumbers()}, but in a read-only map backed by the prebuilt
+     * {@link CompactLexicon} on the classpath. If there is no up-to-date prebuilt lexicon, roots are generated with
+     * {@link RootMapFactory#createSimpleWithNumbers()} and an unmodifiable view of that map is returned.
+     *
+     * @see RootMapFactory#loadPrebuiltCompactLexicon(boolean)
+     */
+    public static Multimap<String, ? extends Root> createCompactSimpleWithNumbers() {
+        final CompactLexicon lexicon = loadPrebuiltCompactLexicon(false);
+        if (lexicon != null)
+            return lexicon.asRootMap();
+        return Multimaps.unmodifiableMultimap(createSimpleWithNumbers());
+    }
+
+    /**
+     * Same roots with {@link RootMapFactory#createSimpleWithNumbersConvertCircumflexes()}, but in a read-only map
+     * backed by the prebuilt {@link CompactLexicon} on the classpath. If there is no up-to-date prebuilt lexicon, roots
+     * are generated with {@link RootMapFactory#createSimpleWithNumbersConvertCircumflexes()} and an unmodifiable view
+     * of that map is returned.
+     *
+     * @see RootMapFactory#loadPrebuiltCompactLexicon(boolean)
+     */
+    public static Multimap<String, ? extends Root> createCompactSimpleWithNumbersConvertCircumflexes() {
+        final CompactLexicon lexicon = loadPrebuiltCompactLexicon(true);
+        if (lexicon != null)
+            return lexicon.asRootMap();
+        return Multimaps.unmodifiableMultimap(createSimpleWithNumbersConvertCircumflexes());
+    }
+
+    /**
+     * Loads the prebuilt lexicon of the bundled master dictionary and numeral dictionary, which is created by
+     * {@link CompactLexiconCompiler} at build time and put on the classpath.
+     *
+     * @return null if there is no prebuilt lexicon on the classpath, or it is not built from the current dictionaries
+     *         with the current lexicon format and root generation
+     */
+    public static CompactLexicon loadPrebuiltCompactLexicon(boolean convertCircumflexes) {
+        final String resourceName = convertCircumflexes ? COMPACT_LEXICON_CONVERT_CIRCUMFLEXES_RESOURCE : COMPACT_LEXICON_RESOURCE;
+
+        final URL resource = RootMapFactory.class.getClassLoader().getResource(resourceName);
+        if (resource == null) {
+            logger.warn("No prebuilt lexicon " + resourceName + " on the classpath, generating the roots");
+            return null;
+        }
+
+        try {
+            final InputStream inputStream = resource.openStream();
+            try {
+                final CompactLexicon lexicon = CompactLexicon.read(inputStream);
+                if (lexicon.getSourceFingerprint() == dictionaryFingerprint(convertCircumflexes))
+                    return lexicon;
+                logger.warn("Prebuilt lexicon " + resourceName + " is not built from the current dictionaries, generating the roots");
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read prebuilt lexicon " + resourceName + ", generating the roots", e);
+        } catch (IllegalStateException e) {
+            logger.warn("Unable to read prebuilt lexicon " + resourceName + ", generating the roots", e);
+        }
+        return null;
+    }
+
+    static CompactLexicon createCompactLexicon(boolean convertCircumflexes) {
+        final HashSet<Lexeme> lexemes = DictionaryLoader.loadDefaultMasterDictionary();
+        lexemes.addAll(DictionaryLoader.loadDefaultNumeralMasterDictionary());
+
+        final Collection<? extends Root> roots = convertCircumflexes ?
+                new CircumflexConvertingRootGenerator().generateAll(lexemes) :
+                new ImmutableRootGenerator().generateAll(lexemes);
+
+        return CompactLexicon.create(roots, dictionaryFingerprint(convertCircumflexes));
+    }
+
+    /**
+     * Computes a fingerprint of the sources of the bundled dictionaries: dictionary files, root generation and the
+     * enums stored with the roots. Files storing things derived from the bundled dictionaries can use it to detect
+     * that they are stale, without going through the roots.
+     *
+     * @param convertCircumflexes If true, fingerprint of the roots with circumflexes converted
+     */
+    public static long dictionaryFingerprint(boolean convertCircumflexes) {
+        try {
+            final Hasher hasher = Hashing.murmur3_128().newHasher();
+            hasher.putBytes(Resources.toByteArray(Resources.getResource("master-dictionary.dict")));
+            hasher.putBytes(Resources.toByteArray(Resources.getResource("master-numeral-dictionary.dict")));
+            hasher.putBoolean(convertCircumflexes);
+            hasher.putInt(CompactLexicon.FORMAT_VERSION);
+            hasher.putInt(ROOT_GENERATOR_VERSION);
+            // enums are stored with their ordinals
+            hasher.putString(Arrays.toString(PrimaryPos.values()), Charsets.UTF_8);
+            hasher.putString(Arrays.toString(SecondaryPos.values()), Charsets.UTF_8);
+            hasher.putString(Arrays.toString(LexemeAttribute.values()), Charsets.UTF_8);
+            hasher.putString(Arrays.toString(PhoneticAttribute.values()), Charsets.UTF_8);
+            hasher.putString(Arrays.toString(PhoneticExpectation.values()), Charsets.UTF_8);
+            return hasher.hash().asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read bundled dictionaries!", e);
+        }
+    }
 }
@@ -24,6 +24,7 @@ import org.trnltk.model.lexicon.Root;
 import org.trnltk.model.lexicon.SecondaryPos;
 import org.trnltk.model.suffix.*;
 import org.trnltk.model.lexicon.PrimaryPos;
+import org.trnltk.morphology.morphotactics.suffixformspecifications.CompiledSuffixFormSpecification;
 
 import java.util.*;
 
@@ -53,6 +54,16 @@ public abstract class BaseSuffixGraph implements SuffixGraph {
         this.stateMap = ImmutableMap.copyOf(stateMap);
         this.suffixMap = ImmutableMap.copyOf(suffixMap);
         this.validate();
+        this.compileSuffixFormConditions();
+    }
+
+    private void compileSuffixFormConditions() {
+        // conditions are checked for every applied edge; thus they're compiled into allocation free programs once
+        for (Suffix suffix : this.suffixMap.values()) {
+            for (SuffixForm suffixForm : suffix.getSuffixForms()) {
+                suffixForm.compileConditions(CompiledSuffixFormSpecification.COMPILER);
+            }
+        }
     }
 
     @Override
@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableList;
 import org.apache.commons.collections.CollectionUtils;
 import org.trnltk.model.suffix.SuffixFormSequence;
 import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
 
 import java.util.Set;
 
@@ -36,6 +37,10 @@ public class SuffixFormSequenceApplier {
     }
 
     public boolean isApplicable(final SuffixFormSequence suffixFormSequence, final Set<PhoneticAttribute> phoneticAttributesOfSurface) {
+        return this.isApplicable(suffixFormSequence, PhoneticAttributeMasks.toMask(phoneticAttributesOfSurface));
+    }
+
+    public boolean isApplicable(final SuffixFormSequence suffixFormSequence, final long phoneticAttributesMaskOfSurface) {
         final ImmutableList<SuffixFormSequence.SuffixFormSequenceRule> rules = suffixFormSequence.getRules();
         if (CollectionUtils.isEmpty(rules))
             return true;
@@ -43,7 +48,7 @@ public class SuffixFormSequenceApplier {
         // the only case where the suffix form is not applicable is, having two vowels together
         // following code (unfortunately) assumes, in the suffix form, there are no 2 vowels in a row!
 
-        final boolean lastSurfaceLetterIsVowel = phoneticAttributesOfSurface.contains(PhoneticAttribute.LastLetterVowel);
+        final boolean lastSurfaceLetterIsVowel = PhoneticAttributeMasks.contains(phoneticAttributesMaskOfSurface, PhoneticAttribute.LastLetterVowel);
 
         if (!lastSurfaceLetterIsVowel)
             return true;
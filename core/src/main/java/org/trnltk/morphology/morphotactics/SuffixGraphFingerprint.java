@@ -0,0 +1,80 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.morphotactics;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticExpectation;
+import org.trnltk.model.suffix.Suffix;
+import org.trnltk.model.suffix.SuffixForm;
+
+import java.util.*;
+
+/**
+ * Computes a fingerprint of the definition of a {@link SuffixGraph}: states, transitions, suffixes and suffix forms
+ * in their order, and the phonetic attributes and expectations in their declaration order.
+ * <p/>
+ * Used for detecting the stale files which store things derived from a suffix graph. Conditions of the suffix forms
+ * are not part of the fingerprint since they are code, not data.
+ */
+public class SuffixGraphFingerprint {
+
+    /**
+     * @param suffixGraph An initialized suffix graph
+     */
+    public static long of(SuffixGraph suffixGraph) {
+        final List<String> lines = new ArrayList<String>();
+
+        final Set<SuffixGraphState> visitedStates = new HashSet<SuffixGraphState>();
+        final Deque<SuffixGraphState> statesToVisit = new ArrayDeque<SuffixGraphState>(suffixGraph.getRootSuffixGraphStates());
+        while (!statesToVisit.isEmpty()) {
+            final SuffixGraphState state = statesToVisit.pop();
+            if (!visitedStates.add(state))
+                continue;
+            lines.add("S|" + state.getName() + "|" + state.getType() + "|" + state.getPrimaryPos() + "|" + state.getSecondaryPos());
+            for (SuffixEdge suffixEdge : state.getOutEdges()) {
+                lines.add("T|" + state.getName() + "|" + suffixEdge.getSuffix().getName() + "|" + suffixEdge.getTargetState().getName());
+                statesToVisit.push(suffixEdge.getTargetState());
+            }
+        }
+
+        for (Suffix suffix : suffixGraph.getAllSuffixes()) {
+            int formIndex = 0;
+            for (SuffixForm suffixForm : suffix.getSuffixForms()) {
+                lines.add("F|" + suffix.getName() + "|" + formIndex++ + "|" + suffixForm.getForm().getSuffixFormStr());
+            }
+        }
+
+        Collections.sort(lines);
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (String line : lines) {
+            hasher.putString(line, Charsets.UTF_8);
+        }
+
+        // masks of the phonetic attributes and expectations, which are stored in the derived files, use the ordinals
+        for (PhoneticAttribute phoneticAttribute : PhoneticAttribute.values()) {
+            hasher.putString(phoneticAttribute.name(), Charsets.UTF_8);
+        }
+        for (PhoneticExpectation phoneticExpectation : PhoneticExpectation.values()) {
+            hasher.putString(phoneticExpectation.name(), Charsets.UTF_8);
+        }
+        return hasher.hash().asLong();
+    }
+}
@@ -20,7 +20,7 @@ import org.apache.commons.lang3.Validate;
 import org.trnltk.common.specification.AbstractSpecification;
 import org.trnltk.model.morpheme.MorphemeContainer;
 
-public class AppliesToRoot extends AbstractSpecification<MorphemeContainer> {
+public class AppliesToRoot extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
     private final String rootStr;
 
     public AppliesToRoot(String rootStr) {
@@ -38,4 +38,9 @@ public class AppliesToRoot extends AbstractSpecification<MorphemeContainer> {
 
         return morphemeContainer.getRoot().getSequence().getUnderlyingString().equals(this.rootStr);
     }
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_APPLIES_TO_ROOT, this.rootStr);
+    }
 }
@@ -0,0 +1,380 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.morphotactics.suffixformspecifications;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.lang3.Validate;
+import org.trnltk.common.specification.AbstractSpecification;
+import org.trnltk.common.specification.AndSpecification;
+import org.trnltk.common.specification.FalseSpecification;
+import org.trnltk.common.specification.NotSpecification;
+import org.trnltk.common.specification.OrSpecification;
+import org.trnltk.common.specification.Specification;
+import org.trnltk.common.specification.TrueSpecification;
+import org.trnltk.model.lexicon.LexemeAttribute;
+import org.trnltk.model.lexicon.LexemeAttributeMasks;
+import org.trnltk.model.lexicon.Lexeme;
+import org.trnltk.model.lexicon.Root;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.model.suffix.SuffixForm;
+import org.trnltk.model.suffix.SuffixTransition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A suffix form specification which is compiled into a flat predicate program.
+ * <p/>
+ * A tree of {@link AndSpecification}s, {@link OrSpecification}s and {@link NotSpecification}s is flattened and
+ * constant folded (e.g. <code>TRUE OR x</code> is <code>TRUE</code>), then leaves are lowered into instructions over
+ * suffix indices, lexeme attribute masks and enum ordinals. Evaluation walks the program without creating any
+ * objects.
+ * <p/>
+ * Program is a <code>long</code> array of nodes in prefix order. Each node is <code>[opcode, end, ...]</code> where
+ * <code>end</code> is the index of the next sibling. Children of a composite follow its header; a leaf has the index
+ * of its string constant (or -1) and its operands.
+ * <p/>
+ * Specifications that are not known by the compiler are kept as they are and called from the program.
+ */
+public class CompiledSuffixFormSpecification extends AbstractSpecification<MorphemeContainer> {
+
+    /**
+     * Compiles the specifications of suffix forms, see {@link SuffixForm#compileConditions(com.google.common.base.Function)}.
+     */
+    public static final Function<Specification<MorphemeContainer>, Specification<MorphemeContainer>> COMPILER =
+            new Function<Specification<MorphemeContainer>, Specification<MorphemeContainer>>() {
+                @Override
+                public Specification<MorphemeContainer> apply(Specification<MorphemeContainer> input) {
+                    return compile(input);
+                }
+            };
+
+    static final int OP_TRUE = 0;
+    static final int OP_FALSE = 1;
+    static final int OP_AND = 2;
+    static final int OP_OR = 3;
+    static final int OP_NOT = 4;
+    static final int OP_FALLBACK = 5;
+    static final int OP_SUFFIX_SINCE_DERIVATION = 6;
+    static final int OP_SUFFIX_AS_LAST_DERIVATION = 7;
+    static final int OP_SUFFIX_AS_LAST_NON_BLANK_DERIVATION = 8;
+    static final int OP_APPLIES_TO_ROOT = 9;
+    static final int OP_HAS_LEXEME_ATTRIBUTES = 10;
+    static final int OP_DOESNT_HAVE_LEXEME_ATTRIBUTES = 11;
+    static final int OP_LAST_SUFFIX_GOES_TO_STATE_TYPE = 12;
+    static final int OP_ROOT_HAS_PRIMARY_POS = 13;
+    static final int OP_ROOT_HAS_SECONDARY_POS = 14;
+    static final int OP_ROOT_HAS_VOWEL_DROP = 15;
+
+    private static final long PROGRESSIVE_VOWEL_DROP_MASK = LexemeAttributeMasks.maskOf(LexemeAttribute.ProgressiveVowelDrop);
+
+    private final Specification<MorphemeContainer> original;
+    private final long[] program;
+    private final String[] strings;
+    private final ImmutableList<Specification<MorphemeContainer>> fallbacks;
+
+    private CompiledSuffixFormSpecification(Specification<MorphemeContainer> original, long[] program, String[] strings, ImmutableList<Specification<MorphemeContainer>> fallbacks) {
+        this.original = original;
+        this.program = program;
+        this.strings = strings;
+        this.fallbacks = fallbacks;
+    }
+
+    /**
+     * Compiles the specification.
+     *
+     * @param specification Specification to compile, can be null
+     * @return Compiled specification, or null if the specification is null
+     */
+    public static Specification<MorphemeContainer> compile(Specification<MorphemeContainer> specification) {
+        if (specification == null)
+            return null;
+        if (specification instanceof CompiledSuffixFormSpecification)
+            return specification;
+
+        final List<Specification<MorphemeContainer>> fallbacks = new ArrayList<Specification<MorphemeContainer>>();
+        final Node root = toNode(specification, fallbacks);
+
+        final ProgramWriter writer = new ProgramWriter();
+        writer.write(root);
+
+        return new CompiledSuffixFormSpecification(specification, writer.getProgram(), writer.getStrings(),
+                ImmutableList.copyOf(fallbacks));
+    }
+
+    @Override
+    public boolean isSatisfiedBy(MorphemeContainer morphemeContainer) {
+        Validate.notNull(morphemeContainer);
+        return this.evaluate(morphemeContainer, 0);
+    }
+
+    @Override
+    public String describe() {
+        return this.original.toString();
+    }
+
+    /**
+     * @return The specification which is compiled
+     */
+    public Specification<MorphemeContainer> getOriginal() {
+        return original;
+    }
+
+    int getProgramLength() {
+        return this.program.length;
+    }
+
+    private boolean evaluate(MorphemeContainer morphemeContainer, int pc) {
+        final long[] program = this.program;
+        switch ((int) program[pc]) {
+            case OP_TRUE:
+                return true;
+            case OP_FALSE:
+                return false;
+            case OP_AND: {
+                final int end = (int) program[pc + 1];
+                for (int child = pc + 2; child < end; child = (int) program[child + 1]) {
+                    if (!this.evaluate(morphemeContainer, child))
+                        return false;
+                }
+                return true;
+            }
+            case OP_OR: {
+                final int end = (int) program[pc + 1];
+                for (int child = pc + 2; child < end; child = (int) program[child + 1]) {
+                    if (this.evaluate(morphemeContainer, child))
+                        return true;
+                }
+                return false;
+            }
+            case OP_NOT:
+                return !this.evaluate(morphemeContainer, pc + 2);
+            case OP_FALLBACK:
+                return this.fallbacks.get((int) program[pc + 3]).isSatisfiedBy(morphemeContainer);
+            case OP_SUFFIX_SINCE_DERIVATION: {
+                final String suffixFormStr = this.stringAt(pc);
+                final int suffixIndex = (int) program[pc + 3];
+                return suffixFormStr == null
+                        ? morphemeContainer.hasSuffixSinceDerivationSuffix(suffixIndex)
+                        : morphemeContainer.hasSuffixFormSinceDerivationSuffix(suffixIndex, suffixFormStr);
+            }
+            case OP_SUFFIX_AS_LAST_DERIVATION:
+                return this.transitionMatches(morphemeContainer.getLastDerivationSuffixTransition(), (int) program[pc + 3], this.stringAt(pc));
+            case OP_SUFFIX_AS_LAST_NON_BLANK_DERIVATION:
+                return this.transitionMatches(morphemeContainer.getLastNonBlankDerivation(), (int) program[pc + 3], this.stringAt(pc));
+            case OP_APPLIES_TO_ROOT:
+                return morphemeContainer.getRoot().getSequence().getUnderlyingString().equals(this.stringAt(pc));
+            case OP_HAS_LEXEME_ATTRIBUTES: {
+                if (morphemeContainer.hasPhoneticsChangingTransition())
+                    return true;
+                final long rootMask = morphemeContainer.getRootLexemeAttributesMask();
+                final long mask = program[pc + 3];
+                return rootMask != LexemeAttributeMasks.EMPTY && (rootMask & mask) == mask;
+            }
+            case OP_DOESNT_HAVE_LEXEME_ATTRIBUTES: {
+                if (morphemeContainer.hasPhoneticsChangingTransition())
+                    return true;
+                final long rootMask = morphemeContainer.getRootLexemeAttributesMask();
+                return rootMask != LexemeAttributeMasks.EMPTY && (rootMask & program[pc + 3]) == 0;  // cannot have even one
+            }
+            case OP_LAST_SUFFIX_GOES_TO_STATE_TYPE: {
+                final SuffixTransition lastSuffixTransition = morphemeContainer.getLastSuffixTransition();
+                return lastSuffixTransition != null && lastSuffixTransition.getTargetState().getType().ordinal() == program[pc + 3];
+            }
+            case OP_ROOT_HAS_PRIMARY_POS: {
+                final Lexeme lexeme = morphemeContainer.getRoot().getLexeme();
+                return lexeme.getPrimaryPos() != null && lexeme.getPrimaryPos().ordinal() == program[pc + 3];
+            }
+            case OP_ROOT_HAS_SECONDARY_POS: {
+                final Lexeme lexeme = morphemeContainer.getRoot().getLexeme();
+                return lexeme.getSecondaryPos() != null && lexeme.getSecondaryPos().ordinal() == program[pc + 3];
+            }
+            case OP_ROOT_HAS_VOWEL_DROP: {
+                final Root root = morphemeContainer.getRoot();
+                return (morphemeContainer.getRootLexemeAttributesMask() & PROGRESSIVE_VOWEL_DROP_MASK) != 0 &&
+                        root.getSequence().length() == root.getLexeme().getLemmaRoot().length() - 1;
+            }
+            default:
+                throw new IllegalStateException("Unknown opcode " + program[pc] + " at " + pc);
+        }
+    }
+
+    private String stringAt(int pc) {
+        final int stringIndex = (int) this.program[pc + 2];
+        return stringIndex < 0 ? null : this.strings[stringIndex];
+    }
+
+    private boolean transitionMatches(SuffixTransition suffixTransition, int suffixIndex, String suffixFormStr) {
+        if (suffixTransition == null)
+            return false;
+
+        final SuffixForm suffixForm = suffixTransition.getSuffixFormApplication().getSuffixForm();
+        if (suffixForm.getSuffix().getIndex() != suffixIndex)
+            return false;
+
+        return suffixFormStr == null || suffixFormStr.equals(suffixForm.getForm().getSuffixFormStr());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node toNode(Specification<MorphemeContainer> specification, List<Specification<MorphemeContainer>> fallbacks) {
+        if (specification instanceof CompiledSuffixFormSpecification)
+            return toNode(((CompiledSuffixFormSpecification) specification).getOriginal(), fallbacks);
+        else if (specification instanceof TrueSpecification)
+            return Node.TRUE;
+        else if (specification instanceof FalseSpecification)
+            return Node.FALSE;
+        else if (specification instanceof AndSpecification) {
+            final AndSpecification<MorphemeContainer> and = (AndSpecification<MorphemeContainer>) specification;
+            return Node.and(toNode(and.getSpec1(), fallbacks), toNode(and.getSpec2(), fallbacks));
+        } else if (specification instanceof OrSpecification) {
+            final OrSpecification<MorphemeContainer> or = (OrSpecification<MorphemeContainer>) specification;
+            return Node.or(toNode(or.getSpec1(), fallbacks), toNode(or.getSpec2(), fallbacks));
+        } else if (specification instanceof NotSpecification) {
+            return Node.not(toNode(((NotSpecification<MorphemeContainer>) specification).getWrapped(), fallbacks));
+        } else if (specification instanceof CompilableSpecification) {
+            return ((CompilableSpecification) specification).toNode();
+        } else {
+            fallbacks.add(specification);
+            return Node.leaf(OP_FALLBACK, null, fallbacks.size() - 1);
+        }
+    }
+
+    /**
+     * Node of the program before it is written.
+     */
+    static final class Node {
+        private static final Node TRUE = new Node(OP_TRUE, null, new long[0], Collections.<Node>emptyList());
+        private static final Node FALSE = new Node(OP_FALSE, null, new long[0], Collections.<Node>emptyList());
+
+        private final int opcode;
+        private final String string;
+        private final long[] operands;
+        private final List<Node> children;
+
+        private Node(int opcode, String string, long[] operands, List<Node> children) {
+            this.opcode = opcode;
+            this.string = string;
+            this.operands = operands;
+            this.children = children;
+        }
+
+        static Node leaf(int opcode, String string, long... operands) {
+            return new Node(opcode, string, operands, Collections.<Node>emptyList());
+        }
+
+        private static Node and(Node first, Node second) {
+            final List<Node> children = new ArrayList<Node>();
+            for (Node node : Arrays.asList(first, second)) {
+                if (node.opcode == OP_FALSE)
+                    return FALSE;
+                else if (node.opcode == OP_AND)
+                    children.addAll(node.children);
+                else if (node.opcode != OP_TRUE)
+                    children.add(node);
+            }
+            return composite(OP_AND, children, TRUE);
+        }
+
+        private static Node or(Node first, Node second) {
+            final List<Node> children = new ArrayList<Node>();
+            for (Node node : Arrays.asList(first, second)) {
+                if (node.opcode == OP_TRUE)
+                    return TRUE;
+                else if (node.opcode == OP_OR)
+                    children.addAll(node.children);
+                else if (node.opcode != OP_FALSE)
+                    children.add(node);
+            }
+            return composite(OP_OR, children, FALSE);
+        }
+
+        private static Node not(Node node) {
+            if (node.opcode == OP_TRUE)
+                return FALSE;
+            else if (node.opcode == OP_FALSE)
+                return TRUE;
+            else if (node.opcode == OP_NOT)
+                return node.children.get(0);
+            else
+                return new Node(OP_NOT, null, new long[0], Collections.singletonList(node));
+        }
+
+        private static Node composite(int opcode, List<Node> children, Node identity) {
+            if (children.isEmpty())
+                return identity;
+            else if (children.size() == 1)
+                return children.get(0);
+            else
+                return new Node(opcode, null, new long[0], children);
+        }
+
+        private boolean isComposite() {
+            return this.opcode == OP_AND || this.opcode == OP_OR || this.opcode == OP_NOT;
+        }
+    }
+
+    private static final class ProgramWriter {
+        private final List<Long> program = new ArrayList<Long>();
+        private final List<String> strings = new ArrayList<String>();
+
+        private void write(Node node) {
+            final int start = this.program.size();
+            this.program.add((long) node.opcode);
+            this.program.add(-1L);       // end, set below
+
+            if (node.isComposite()) {
+                for (Node child : node.children) {
+                    this.write(child);
+                }
+            } else {
+                this.program.add((long) this.indexOf(node.string));
+                for (long operand : node.operands) {
+                    this.program.add(operand);
+                }
+            }
+
+            this.program.set(start + 1, (long) this.program.size());
+        }
+
+        private int indexOf(String string) {
+            if (string == null)
+                return -1;
+            int index = this.strings.indexOf(string);
+            if (index < 0) {
+                this.strings.add(string);
+                index = this.strings.size() - 1;
+            }
+            return index;
+        }
+
+        private long[] getProgram() {
+            final long[] result = new long[this.program.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = this.program.get(i);
+            }
+            return result;
+        }
+
+        private String[] getStrings() {
+            return this.strings.toArray(new String[this.strings.size()]);
+        }
+    }
+}
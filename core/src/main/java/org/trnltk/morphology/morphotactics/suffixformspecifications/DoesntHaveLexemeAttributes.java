@@ -23,6 +23,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.trnltk.model.lexicon.LexemeAttribute;
+import org.trnltk.model.lexicon.LexemeAttributeMasks;
 import org.trnltk.model.suffix.ConditionalFreeTransitionSuffix;
 import org.trnltk.model.suffix.FreeTransitionSuffix;
 import org.trnltk.model.morpheme.MorphemeContainer;
@@ -33,7 +34,7 @@ import org.trnltk.common.specification.AbstractSpecification;
 import java.util.Collection;
 import java.util.Set;
 
-public class DoesntHaveLexemeAttributes extends AbstractSpecification<MorphemeContainer> {
+public class DoesntHaveLexemeAttributes extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
     private final ImmutableSet<LexemeAttribute> lexemeAttributes;
 
     public DoesntHaveLexemeAttributes(ImmutableSet<LexemeAttribute> lexemeAttributes) {
@@ -72,4 +73,9 @@ public class DoesntHaveLexemeAttributes extends AbstractSpecification<MorphemeCo
 
         return !CollectionUtils.containsAny(morphemeContainerLexemeAttributes, this.lexemeAttributes);  // cannot have even one
     }
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_DOESNT_HAVE_LEXEME_ATTRIBUTES, null, LexemeAttributeMasks.toMask(this.lexemeAttributes));
+    }
 }
@@ -23,7 +23,7 @@ import org.trnltk.model.morpheme.MorphemeContainer;
 import org.trnltk.model.suffix.SuffixForm;
 import org.trnltk.model.suffix.SuffixTransition;
 
-public class HasLastNonBlankDerivation extends AbstractSpecification<MorphemeContainer> {
+public class HasLastNonBlankDerivation extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
     private final Suffix suffix;
     private final String suffixFormStr;
 
@@ -57,4 +57,9 @@ public class HasLastNonBlankDerivation extends AbstractSpecification<MorphemeCon
             return this.suffix.equals(lastNonBlankDerivationSuffixForm.getSuffix());
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_SUFFIX_AS_LAST_NON_BLANK_DERIVATION, this.suffixFormStr, this.suffix.getIndex());
+    }
+}
@@ -22,7 +22,7 @@ import org.trnltk.model.morpheme.MorphemeContainer;
 import org.trnltk.model.suffix.Suffix;
 import org.trnltk.model.suffix.SuffixTransition;
 
-public class HasSuffixFormAsLastDerivation extends AbstractSpecification<MorphemeContainer> {
+public class HasSuffixFormAsLastDerivation extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
     private final Suffix suffix;
     private final String suffixFormStr;
 
@@ -55,4 +55,9 @@ public class HasSuffixFormAsLastDerivation extends AbstractSpecification<Morphem
             return lastDerivationSuffixTransition.getSuffixFormApplication().getSuffixForm().getSuffix().equals(this.suffix);
         }
     }
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_SUFFIX_AS_LAST_DERIVATION, this.suffixFormStr, this.suffix.getIndex());
+    }
 }
@@ -16,19 +16,12 @@
 
 package org.trnltk.morphology.morphotactics.suffixformspecifications;
 
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.Validate;
 import org.trnltk.model.suffix.Suffix;
-import org.trnltk.model.suffix.SuffixTransition;
 import org.trnltk.common.specification.AbstractSpecification;
 import org.trnltk.model.morpheme.MorphemeContainer;
 
-import java.util.Collection;
-import java.util.Set;
-
-class HasSuffixFormSinceLastDerivation extends AbstractSpecification<MorphemeContainer> {
+class HasSuffixFormSinceLastDerivation extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
 
     private final Suffix suffix;
     private final String suffixFormStr;
@@ -50,21 +43,17 @@ class HasSuffixFormSinceLastDerivation extends AbstractSpecification<MorphemeCon
     public boolean isSatisfiedBy(MorphemeContainer morphemeContainer) {
         Validate.notNull(morphemeContainer);
 
-        final Collection<Suffix> suffixesSinceDerivationSuffix = morphemeContainer.getSuffixesSinceDerivationSuffix();
-        if (CollectionUtils.isEmpty(suffixesSinceDerivationSuffix))
+        if (!morphemeContainer.hasSuffixSinceDerivationSuffix(this.suffix))
             return false;
 
-        if (suffixFormStr != null) {    // can be blank
-            Set<SuffixTransition> transitionsSinceDerivationSuffix = morphemeContainer.getTransitionsSinceDerivationSuffix();
-            return Iterables.any(transitionsSinceDerivationSuffix, new Predicate<SuffixTransition>() {
-                @Override
-                public boolean apply(SuffixTransition suffixTransition) {
-                    return suffixTransition.getSuffixFormApplication().getSuffixForm().getSuffix().equals(suffix) &&
-                            suffixTransition.getSuffixFormApplication().getSuffixForm().getForm().getSuffixFormStr().equals(suffixFormStr);
-                }
-            });
-        } else {
-            return suffixesSinceDerivationSuffix.contains(this.suffix);
-        }
+        if (suffixFormStr != null)    // can be blank
+            return morphemeContainer.hasSuffixFormSinceDerivationSuffix(this.suffix.getIndex(), this.suffixFormStr);
+        else
+            return true;
+    }
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_SUFFIX_SINCE_DERIVATION, this.suffixFormStr, this.suffix.getIndex());
     }
 }
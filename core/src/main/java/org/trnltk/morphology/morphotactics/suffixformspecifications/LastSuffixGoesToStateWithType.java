@@ -22,7 +22,7 @@ import org.trnltk.common.specification.AbstractSpecification;
 import org.trnltk.model.morpheme.MorphemeContainer;
 import org.trnltk.morphology.morphotactics.SuffixGraphStateType;
 
-public class LastSuffixGoesToStateWithType extends AbstractSpecification<MorphemeContainer> {
+public class LastSuffixGoesToStateWithType extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
     private final SuffixGraphStateType suffixGraphStateType;
 
     public LastSuffixGoesToStateWithType(SuffixGraphStateType suffixGraphStateType) {
@@ -44,4 +44,9 @@ public class LastSuffixGoesToStateWithType extends AbstractSpecification<Morphem
 
         return lastSuffixTransition.getTargetState().getType().equals(this.suffixGraphStateType);
     }
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_LAST_SUFFIX_GOES_TO_STATE_TYPE, null, this.suffixGraphStateType.ordinal());
+    }
 }
@@ -21,7 +21,7 @@ import org.trnltk.common.specification.AbstractSpecification;
 import org.trnltk.model.morpheme.MorphemeContainer;
 import org.trnltk.model.lexicon.PrimaryPos;
 
-public class RootHasPrimaryPos extends AbstractSpecification<MorphemeContainer> {
+public class RootHasPrimaryPos extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
     private final PrimaryPos primaryPos;
 
     public RootHasPrimaryPos(PrimaryPos primaryPos) {
@@ -39,4 +39,9 @@ public class RootHasPrimaryPos extends AbstractSpecification<MorphemeContainer>
 
         return this.primaryPos.equals(morphemeContainer.getRoot().getLexeme().getPrimaryPos());
     }
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_ROOT_HAS_PRIMARY_POS, null, this.primaryPos.ordinal());
+    }
 }
@@ -22,7 +22,7 @@ import org.trnltk.model.lexicon.SecondaryPos;
 import org.trnltk.model.morpheme.MorphemeContainer;
 
 
-public class RootHasSecondaryPos extends AbstractSpecification<MorphemeContainer> {
+public class RootHasSecondaryPos extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
     private final SecondaryPos secondaryPos;
 
     public RootHasSecondaryPos(SecondaryPos secondaryPos) {
@@ -40,4 +40,9 @@ public class RootHasSecondaryPos extends AbstractSpecification<MorphemeContainer
 
         return this.secondaryPos.equals(morphemeContainer.getRoot().getLexeme().getSecondaryPos());
     }
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_ROOT_HAS_SECONDARY_POS, null, this.secondaryPos.ordinal());
+    }
 }
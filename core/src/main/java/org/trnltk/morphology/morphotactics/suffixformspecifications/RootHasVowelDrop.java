@@ -23,7 +23,7 @@ import org.trnltk.model.lexicon.Root;
 import org.trnltk.model.morpheme.MorphemeContainer;
 import org.trnltk.common.specification.AbstractSpecification;
 
-public class RootHasVowelDrop extends AbstractSpecification<MorphemeContainer> {
+public class RootHasVowelDrop extends AbstractSpecification<MorphemeContainer> implements CompilableSpecification {
 
     @Override
     public String describe() {
@@ -40,4 +40,9 @@ public class RootHasVowelDrop extends AbstractSpecification<MorphemeContainer> {
                 root.getSequence().length() == lexeme.getLemmaRoot().length() - 1;
 
     }
+
+    @Override
+    public CompiledSuffixFormSpecification.Node toNode() {
+        return CompiledSuffixFormSpecification.Node.leaf(CompiledSuffixFormSpecification.OP_ROOT_HAS_VOWEL_DROP, null);
+    }
 }
@@ -17,13 +17,13 @@
 package org.trnltk.morphology.phonetics;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.trnltk.model.lexicon.LexemeAttribute;
 import org.trnltk.model.letter.TurkishSequence;
 import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
 import org.trnltk.model.letter.TurkicLetter;
 import org.trnltk.model.letter.TurkishAlphabet;
 import org.trnltk.model.letter.TurkishChar;
@@ -32,137 +32,199 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Set;
 
+import static org.trnltk.model.lexicon.PhoneticAttributeMasks.maskOf;
+
+/**
+ * Calculates the phonetic attributes of surfaces.
+ * <p/>
+ * Attributes are calculated as <code>long</code> masks, see {@link PhoneticAttributeMasks}. Methods returning sets are
+ * adapters around the mask methods.
+ */
 public class PhoneticsAnalyzer {
 
+    private static final long LLV = maskOf(PhoneticAttribute.LastLetterVowel);
+    private static final long LLC = maskOf(PhoneticAttribute.LastLetterConsonant);
+    private static final long LVF = maskOf(PhoneticAttribute.LastVowelFrontal);
+    private static final long LVB = maskOf(PhoneticAttribute.LastVowelBack);
+    private static final long LVR = maskOf(PhoneticAttribute.LastVowelRounded);
+    private static final long LVU = maskOf(PhoneticAttribute.LastVowelUnrounded);
+    private static final long LL_VOICELESS = maskOf(PhoneticAttribute.LastLetterVoiceless);
+    private static final long LL_NOT_VOICELESS = maskOf(PhoneticAttribute.LastLetterNotVoiceless);
+    private static final long LL_VOICELESS_STOP = maskOf(PhoneticAttribute.LastLetterVoicelessStop);
+    private static final long FLV = maskOf(PhoneticAttribute.FirstLetterVowel);
+    private static final long FLC = maskOf(PhoneticAttribute.FirstLetterConsonant);
+    private static final long HAS_NO_VOWEL = maskOf(PhoneticAttribute.HasNoVowel);
+
+    // the effect of appending a letter only depends on the letter's class, not on the existing attributes except the
+    // ones the letter overrides. so the (mask x letter) transition table collapses to (mask & ~clear[class]) | set[class]
+    private static final int VOWEL_CLASS_FRONTAL = 1;
+    private static final int VOWEL_CLASS_ROUNDED = 2;
+    private static final int CONSONANT_CLASS_NOT_VOICELESS = 4;
+    private static final int CONSONANT_CLASS_VOICELESS_CONTINUANT = 5;
+    private static final int CONSONANT_CLASS_VOICELESS_STOP = 6;
+    private static final int LETTER_CLASS_COUNT = 7;
+
+    private static final long[] CLEAR_MASKS = new long[LETTER_CLASS_COUNT];
+    private static final long[] SET_MASKS = new long[LETTER_CLASS_COUNT];
+    // letter class of each packed letter properties value, see TurkicLetter#getProperties()
+    private static final int[] LETTER_CLASSES = new int[TurkicLetter.STOP << 1];
+
+    static {
+        final long vowelClearMask = LLC | LL_VOICELESS | LL_VOICELESS_STOP | HAS_NO_VOWEL | LVF | LVB | LVR | LVU;
+        for (int vowelClass = 0; vowelClass < CONSONANT_CLASS_NOT_VOICELESS; vowelClass++) {
+            CLEAR_MASKS[vowelClass] = vowelClearMask;
+            SET_MASKS[vowelClass] = LLV | LL_NOT_VOICELESS |
+                    ((vowelClass & VOWEL_CLASS_FRONTAL) != 0 ? LVF : LVB) |
+                    ((vowelClass & VOWEL_CLASS_ROUNDED) != 0 ? LVR : LVU);
+        }
+
+        final long consonantClearMask = LLV | LL_VOICELESS | LL_NOT_VOICELESS | LL_VOICELESS_STOP;
+        CLEAR_MASKS[CONSONANT_CLASS_NOT_VOICELESS] = consonantClearMask;
+        SET_MASKS[CONSONANT_CLASS_NOT_VOICELESS] = LLC | LL_NOT_VOICELESS;
+        CLEAR_MASKS[CONSONANT_CLASS_VOICELESS_CONTINUANT] = consonantClearMask;
+        SET_MASKS[CONSONANT_CLASS_VOICELESS_CONTINUANT] = LLC | LL_VOICELESS;
+        CLEAR_MASKS[CONSONANT_CLASS_VOICELESS_STOP] = consonantClearMask;
+        SET_MASKS[CONSONANT_CLASS_VOICELESS_STOP] = LLC | LL_VOICELESS | LL_VOICELESS_STOP;
+
+        for (int properties = 0; properties < LETTER_CLASSES.length; properties++) {
+            LETTER_CLASSES[properties] = getLetterClass(properties);
+        }
+    }
+
+    private static int getLetterClass(int letterProperties) {
+        if ((letterProperties & TurkicLetter.VOWEL) != 0)
+            return ((letterProperties & TurkicLetter.FRONTAL) != 0 ? VOWEL_CLASS_FRONTAL : 0) | ((letterProperties & TurkicLetter.ROUNDED) != 0 ? VOWEL_CLASS_ROUNDED : 0);
+        else if ((letterProperties & TurkicLetter.VOICELESS) == 0)
+            return CONSONANT_CLASS_NOT_VOICELESS;
+        else if ((letterProperties & TurkicLetter.CONTINUANT) != 0)
+            return CONSONANT_CLASS_VOICELESS_CONTINUANT;
+        else
+            return CONSONANT_CLASS_VOICELESS_STOP;
+    }
+
     public EnumSet<PhoneticAttribute> calculatePhoneticAttributes(final String surface, Collection<LexemeAttribute> lexemeAttributes) {
         return this.calculatePhoneticAttributes(new TurkishSequence(surface), lexemeAttributes);
     }
 
     public EnumSet<PhoneticAttribute> calculatePhoneticAttributes(final TurkishSequence surface, Collection<LexemeAttribute> lexemeAttributes) {
-        final EnumSet<PhoneticAttribute> phoneticAttributes = this.calculatePhoneticAttributesOfPlainSequence(surface);
+        return PhoneticAttributeMasks.toSet(this.calculatePhoneticAttributesMask(surface, lexemeAttributes));
+    }
+
+    /**
+     * Mask version of {@link #calculatePhoneticAttributes(org.trnltk.model.letter.TurkishSequence, java.util.Collection)}.
+     *
+     * @param surface          Surface to analyze
+     * @param lexemeAttributes Lexeme attributes, can be null
+     * @return Mask of the phonetic attributes
+     */
+    public long calculatePhoneticAttributesMask(final TurkishSequence surface, Collection<LexemeAttribute> lexemeAttributes) {
+        return this.applyLexemeAttributes(this.calculatePhoneticAttributesMaskOfPlainSequence(surface), lexemeAttributes);
+    }
+
+    /**
+     * Adjusts the phonetic attributes mask of a plain sequence with the lexeme attributes. Useful when the same
+     * sequence is analyzed with different lexeme attributes, since the plain mask can be calculated only once.
+     *
+     * @param plainSequenceMask Mask of the plain sequence, see {@link #calculatePhoneticAttributesMaskOfPlainSequence(org.trnltk.model.letter.TurkishSequence)}
+     * @param lexemeAttributes  Lexeme attributes, can be null
+     * @return Mask of the phonetic attributes
+     */
+    public long applyLexemeAttributes(long plainSequenceMask, Collection<LexemeAttribute> lexemeAttributes) {
+        long mask = plainSequenceMask;
         if (CollectionUtils.isEmpty(lexemeAttributes))
-            return phoneticAttributes;
+            return mask;
 
         if (lexemeAttributes.contains(LexemeAttribute.InverseHarmony)) {
-            if (phoneticAttributes.contains(PhoneticAttribute.LastVowelBack)) {
-                phoneticAttributes.remove(PhoneticAttribute.LastVowelBack);
-                phoneticAttributes.add(PhoneticAttribute.LastVowelFrontal);
-            } else if (phoneticAttributes.contains(PhoneticAttribute.LastVowelFrontal)) {
-                phoneticAttributes.remove(PhoneticAttribute.LastVowelFrontal);
-                phoneticAttributes.add(PhoneticAttribute.LastVowelBack);
-            }
+            if ((mask & LVB) != 0)
+                mask = (mask & ~LVB) | LVF;
+            else if ((mask & LVF) != 0)
+                mask = (mask & ~LVF) | LVB;
         }
 
         if (lexemeAttributes.contains(LexemeAttribute.EndsWithAyn)) {
-            Validate.isTrue(phoneticAttributes.contains(PhoneticAttribute.LastLetterVowel));
-            phoneticAttributes.remove(PhoneticAttribute.LastLetterVowel);
-            phoneticAttributes.add(PhoneticAttribute.LastLetterConsonant);
+            Validate.isTrue((mask & LLV) != 0);
+            mask = (mask & ~LLV) | LLC;
         }
 
-        return phoneticAttributes;
+        return mask;
     }
 
     EnumSet<PhoneticAttribute> calculatePhoneticAttributesOfPlainSequence(final TurkishSequence surface) {
-        final EnumSet<PhoneticAttribute> attributes = EnumSet.noneOf(PhoneticAttribute.class);
+        return PhoneticAttributeMasks.toSet(this.calculatePhoneticAttributesMaskOfPlainSequence(surface));
+    }
+
+    /**
+     * @param surface Surface to analyze
+     * @return Mask of the phonetic attributes of the surface, without considering any lexeme attributes
+     */
+    public long calculatePhoneticAttributesMaskOfPlainSequence(final TurkishSequence surface) {
+        long mask = PhoneticAttributeMasks.EMPTY;
         final TurkishChar lastVowelChar = surface.getLastVowel();
-        final TurkishChar firstChar = surface.charAt(0);
-        final TurkicLetter firstLetter = firstChar.getLetter();
-        final TurkishChar lastChar = surface.getLastChar();
-        final TurkicLetter lastLetter = lastChar.getLetter();
+        final TurkicLetter firstLetter = surface.charAt(0).getLetter();
+        final TurkicLetter lastLetter = surface.getLastChar().getLetter();
 
-        if (firstLetter.isVowel())
-            attributes.add(PhoneticAttribute.FirstLetterVowel);
-        else
-            attributes.add(PhoneticAttribute.FirstLetterConsonant);
+        mask |= firstLetter.isVowel() ? FLV : FLC;
 
         if (lastVowelChar != null) {
             final TurkicLetter lastVowelLetter = lastVowelChar.getLetter();
-            if (lastVowelLetter.isRounded())
-                attributes.add(PhoneticAttribute.LastVowelRounded);
-            else
-                attributes.add(PhoneticAttribute.LastVowelUnrounded);
-
-            if (lastVowelLetter.isFrontal())
-                attributes.add(PhoneticAttribute.LastVowelFrontal);
-            else
-                attributes.add(PhoneticAttribute.LastVowelBack);
+            mask |= lastVowelLetter.isRounded() ? LVR : LVU;
+            mask |= lastVowelLetter.isFrontal() ? LVF : LVB;
         } else {
-            attributes.add(PhoneticAttribute.HasNoVowel);
+            mask |= HAS_NO_VOWEL;
         }
 
-        if (lastLetter.isVowel())
-            attributes.add(PhoneticAttribute.LastLetterVowel);
-        else
-            attributes.add(PhoneticAttribute.LastLetterConsonant);
+        mask |= lastLetter.isVowel() ? LLV : LLC;
 
         if (lastLetter.isVoiceless()) {
-            attributes.add(PhoneticAttribute.LastLetterVoiceless);
+            mask |= LL_VOICELESS;
             if (lastLetter.isStopConsonant() && !lastLetter.isVowel())
-                attributes.add(PhoneticAttribute.LastLetterVoicelessStop);
+                mask |= LL_VOICELESS_STOP;
         } else {
-            attributes.add(PhoneticAttribute.LastLetterNotVoiceless);
+            mask |= LL_NOT_VOICELESS;
         }
 
-        return attributes;
+        return mask;
     }
 
     public ImmutableSet<PhoneticAttribute> calculateNewPhoneticAttributes(Set<PhoneticAttribute> phoneticAttributes, char charToApply) {
-        final TurkishChar turkishChar = TurkishAlphabet.getChar(charToApply);
-        final TurkicLetter letter = turkishChar.getLetter();
-
-        final EnumSet<PhoneticAttribute> newAttributes = EnumSet.copyOf(phoneticAttributes);
-        if (letter.isVowel()) {
-            newAttributes.remove(PhoneticAttribute.LastLetterConsonant);
-            newAttributes.remove(PhoneticAttribute.LastLetterVoiceless);
-            newAttributes.remove(PhoneticAttribute.LastLetterVoicelessStop);
-            newAttributes.remove(PhoneticAttribute.HasNoVowel);
-
-            newAttributes.remove(PhoneticAttribute.LastVowelFrontal);
-            newAttributes.remove(PhoneticAttribute.LastVowelBack);
-            newAttributes.remove(PhoneticAttribute.LastVowelRounded);
-            newAttributes.remove(PhoneticAttribute.LastVowelUnrounded);
-
-            newAttributes.add(PhoneticAttribute.LastLetterVowel);
-            newAttributes.add(PhoneticAttribute.LastLetterNotVoiceless);
-
-            if (letter.isFrontal())
-                newAttributes.add(PhoneticAttribute.LastVowelFrontal);
-            else
-                newAttributes.add(PhoneticAttribute.LastVowelBack);
-
-            if (letter.isRounded())
-                newAttributes.add(PhoneticAttribute.LastVowelRounded);
-            else
-                newAttributes.add(PhoneticAttribute.LastVowelUnrounded);
-        } else {
-            newAttributes.remove(PhoneticAttribute.LastLetterVowel);
-            newAttributes.remove(PhoneticAttribute.LastLetterVoiceless);
-            newAttributes.remove(PhoneticAttribute.LastLetterNotVoiceless);
-            newAttributes.remove(PhoneticAttribute.LastLetterVoicelessStop);
-
-            newAttributes.add(PhoneticAttribute.LastLetterConsonant);
-            if (letter.isVoiceless()) {
-                newAttributes.add(PhoneticAttribute.LastLetterVoiceless);
-
-                if (!letter.isContinuant())
-                    newAttributes.add(PhoneticAttribute.LastLetterVoicelessStop);
-            } else {
-                newAttributes.add(PhoneticAttribute.LastLetterNotVoiceless);
-            }
-        }
-
-        return Sets.immutableEnumSet(newAttributes);
+        return PhoneticAttributeMasks.toImmutableSet(this.calculateNewPhoneticAttributesMask(PhoneticAttributeMasks.toMask(phoneticAttributes), charToApply));
     }
 
     public ImmutableSet<PhoneticAttribute> calculateNewPhoneticAttributes(ImmutableSet<PhoneticAttribute> phoneticAttributes, String suffixForm) {
         if (StringUtils.isBlank(suffixForm))
             return phoneticAttributes;
 
-        ImmutableSet<PhoneticAttribute> currentPhoneticAttributes = phoneticAttributes;
-        for (char aChar : suffixForm.toCharArray()) {
-            currentPhoneticAttributes = this.calculateNewPhoneticAttributes(currentPhoneticAttributes, aChar);
+        return PhoneticAttributeMasks.toImmutableSet(this.calculateNewPhoneticAttributesMask(PhoneticAttributeMasks.toMask(phoneticAttributes), suffixForm));
+    }
+
+    /**
+     * Calculates the phonetic attributes of a surface when a char is appended to it.
+     *
+     * @param phoneticAttributesMask Mask of the phonetic attributes of the surface
+     * @param charToApply            Char to append
+     * @return Mask of the phonetic attributes of the new surface
+     */
+    public long calculateNewPhoneticAttributesMask(long phoneticAttributesMask, char charToApply) {
+        final int letterClass = LETTER_CLASSES[TurkishAlphabet.getProperties(charToApply)];
+        return (phoneticAttributesMask & ~CLEAR_MASKS[letterClass]) | SET_MASKS[letterClass];
+    }
+
+    /**
+     * Calculates the phonetic attributes of a surface when a suffix form is appended to it.
+     *
+     * @param phoneticAttributesMask Mask of the phonetic attributes of the surface
+     * @param suffixForm             Applied suffix form to append
+     * @return Mask of the phonetic attributes of the new surface
+     */
+    public long calculateNewPhoneticAttributesMask(long phoneticAttributesMask, String suffixForm) {
+        if (StringUtils.isBlank(suffixForm))
+            return phoneticAttributesMask;
+
+        long currentMask = phoneticAttributesMask;
+        for (int i = 0; i < suffixForm.length(); i++) {
+            currentMask = this.calculateNewPhoneticAttributesMask(currentMask, suffixForm.charAt(i));
         }
 
-        return currentPhoneticAttributes;
+        return currentMask;
     }
-}
\ No newline at end of file
+}
@@ -28,6 +28,7 @@ import org.trnltk.model.letter.TurkishChar;
 import org.trnltk.model.letter.TurkishSequence;
 import org.trnltk.model.lexicon.LexemeAttribute;
 import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
 import org.trnltk.model.lexicon.PhoneticExpectation;
 import org.trnltk.model.suffix.SuffixFormSequence;
 import org.trnltk.morphology.morphotactics.SuffixFormSequenceApplier;
@@ -58,8 +59,26 @@ public class PhoneticsEngine {
         return this.suffixFormSequenceApplier.isApplicable(suffixFormSequence, phoneticAttributes);
     }
 
+    /**
+     * Mask version of {@link #isSuffixFormApplicable(java.util.Set, org.trnltk.model.suffix.SuffixFormSequence)}.
+     *
+     * @param phoneticAttributesMask Mask of the phonetic attributes of the surface, see {@link PhoneticAttributeMasks}
+     * @param suffixFormSequence     Suffix form to check
+     * @return whether suffix form is applicable
+     */
+    public boolean isSuffixFormApplicable(final long phoneticAttributesMask, final SuffixFormSequence suffixFormSequence) {
+        if (!suffixFormSequence.isNotBlank())
+            return true;
+
+        if (phoneticAttributesMask == PhoneticAttributeMasks.EMPTY)
+            return false;
+
+        return this.suffixFormSequenceApplier.isApplicable(suffixFormSequence, phoneticAttributesMask);
+    }
+
     public Pair<TurkishSequence, String> apply(TurkishSequence surface, SuffixFormSequence form, Collection<LexemeAttribute> lexemeAttributes) {
-        return this.apply(surface, phoneticsAnalyzer.calculatePhoneticAttributes(surface, lexemeAttributes), form, lexemeAttributes);
+        final long phoneticAttributesMask = phoneticsAnalyzer.calculatePhoneticAttributesMask(surface, lexemeAttributes);
+        return this.apply(surface, PhoneticAttributeMasks.toImmutableSet(phoneticAttributesMask), form, lexemeAttributes);
     }
 
     public Pair<TurkishSequence, String> apply(final TurkishSequence surface, final Set<PhoneticAttribute> _phoneticAttributes, final SuffixFormSequence suffixFormSequence, final Collection<LexemeAttribute> _lexemeAttributes) {
@@ -160,4 +179,35 @@ public class PhoneticsEngine {
 
         return false;
     }
+
+    /**
+     * Region matching version of {@link #applicationMatches(org.trnltk.model.letter.TurkishSequence, String, boolean)}
+     * without voicing, for the case the surface before {@code offset} is already known to match the input.
+     * <p/>
+     * Compares the suffix form directly against the lower cased chars of the input at the offset; no strings are
+     * created.
+     * <p/>
+     * >>> applicationMatches(u'armudunu', 6, u'nu') ==> True
+     * <br/>
+     * >>> applicationMatches(u'armudunu', 6, u'na') ==> False
+     * <br/>
+     *
+     * @param input      The input
+     * @param offset     Length of the surface before the suffix form
+     * @param suffixForm Suffix form to check
+     * @return whether application matches
+     */
+    public boolean applicationMatches(final TurkishSequence input, final int offset, final String suffixForm) {
+        final int suffixFormLength = suffixForm.length();
+        if (offset + suffixFormLength == 0 || offset + suffixFormLength > input.length())
+            return false;
+
+        final char[] lowerCaseInput = input.getLowerCaseChars();
+        for (int i = 0; i < suffixFormLength; i++) {
+            if (lowerCaseInput[offset + i] != TurkishAlphabet.toLowerCase(suffixForm.charAt(i)))
+                return false;
+        }
+
+        return true;
+    }
 }
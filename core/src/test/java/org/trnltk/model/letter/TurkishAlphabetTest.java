@@ -21,6 +21,7 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multiset;
+import org.hamcrest.MatcherAssert;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -62,7 +63,42 @@ public class TurkishAlphabetTest {
                 }));
 
         for (Multiset.Entry<Character> characterEntry : lowerCaseChars.entrySet()) {
-            Assert.assertThat("For char " + characterEntry.getElement() + ", count must be null", characterEntry.getCount(), is(1));
+            MatcherAssert.assertThat("For char " + characterEntry.getElement() + ", count must be null", characterEntry.getCount(), is(1));
         }
     }
+
+    @Test
+    public void shouldLookUpCharsFromTable() {
+        Assert.assertSame(TurkishAlphabet.getChar('a'), TurkishAlphabet.getChar('a'));
+        Assert.assertSame(TurkishAlphabet.getChar(TurkishAlphabet.C_II), TurkishAlphabet.getChar(TurkishAlphabet.C_II));
+        Assert.assertEquals(TurkishAlphabet.L_i, TurkishAlphabet.getChar(TurkishAlphabet.C_II).getLetter());
+        Assert.assertEquals(TurkishAlphabet.L_ac, TurkishAlphabet.getChar(TurkishAlphabet.A_CIRC).getLetter());
+        Assert.assertEquals('€', TurkishAlphabet.getChar('€').getCharValue());
+        Assert.assertEquals(TurkishAlphabet.P_Euro, TurkishAlphabet.getChar('€').getLetter());
+        Assert.assertEquals('\u4e00', TurkishAlphabet.getChar('\u4e00').getCharValue());
+        Assert.assertEquals('\u4e00', TurkishAlphabet.getLetter('\u4e00').charValue());
+
+        Assert.assertEquals('ı', TurkishAlphabet.toLowerCase('I'));
+        Assert.assertEquals('i', TurkishAlphabet.toLowerCase(TurkishAlphabet.C_II));
+        Assert.assertEquals(TurkishAlphabet.C_ss, TurkishAlphabet.toLowerCase(TurkishAlphabet.C_SS));
+        Assert.assertEquals('\u0430', TurkishAlphabet.toLowerCase('\u0410'));
+    }
+
+    @Test
+    public void shouldPackLetterProperties() {
+        for (char c = 0; c < 0x250; c++) {
+            final TurkicLetter letter = TurkishAlphabet.getLetter(c);
+            final int properties = TurkishAlphabet.getProperties(c);
+            Assert.assertEquals(letter.getProperties(), properties);
+            Assert.assertEquals(letter.isVowel(), (properties & TurkicLetter.VOWEL) != 0);
+            Assert.assertEquals(letter.isFrontal(), (properties & TurkicLetter.FRONTAL) != 0);
+            Assert.assertEquals(letter.isRounded(), (properties & TurkicLetter.ROUNDED) != 0);
+            Assert.assertEquals(letter.isVoiceless(), (properties & TurkicLetter.VOICELESS) != 0);
+            Assert.assertEquals(letter.isContinuant(), (properties & TurkicLetter.CONTINUANT) != 0);
+            Assert.assertEquals(letter.isStopConsonant(), (properties & TurkicLetter.STOP) != 0);
+        }
+
+        Assert.assertEquals(TurkicLetter.VOWEL | TurkicLetter.FRONTAL | TurkicLetter.ROUNDED, TurkishAlphabet.getProperties(TurkishAlphabet.C_UU));
+        Assert.assertEquals(TurkicLetter.VOICELESS | TurkicLetter.STOP, TurkishAlphabet.getProperties('k'));
+    }
 }
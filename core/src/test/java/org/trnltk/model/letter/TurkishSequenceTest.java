@@ -0,0 +1,111 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.model.letter;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TurkishSequenceTest {
+
+    @Test
+    public void shouldCreateSubsequenceViews() {
+        final TurkishSequence sequence = new TurkishSequence("kitaplık");
+
+        final TurkishSequence subsequence = sequence.subsequence(2, 6);
+        assertThat(subsequence.getUnderlyingString(), equalTo("tapl"));
+        assertThat(subsequence.length(), equalTo(4));
+        assertThat(subsequence.charAt(0).getCharValue(), equalTo('t'));
+        assertThat(subsequence.getLastChar().getCharValue(), equalTo('l'));
+        assertThat(subsequence.getFirstVowel().getCharValue(), equalTo('a'));
+        assertThat(subsequence.getLastVowel().getCharValue(), equalTo('a'));
+        assertThat(subsequence.substring(1), equalTo("apl"));
+        assertThat(subsequence.getChars().length, equalTo(4));
+        assertThat(new String(subsequence.getLowerCaseChars()), equalTo("tapl"));
+
+        assertThat(sequence.subsequence(6).getFirstVowel().getCharValue(), equalTo('ı'));
+        assertThat(sequence.subsequence(0, 2).getLastVowel().getCharValue(), equalTo('i'));
+        assertThat(sequence.subsequence(2, 3).getFirstVowel(), nullValue());
+        assertThat(sequence.subsequence(0, 0).isBlank(), equalTo(true));
+        assertThat(sequence.subsequence(0, sequence.length()), sameInstance(sequence));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void shouldNotReadOutsideOfSubsequence() {
+        new TurkishSequence("kitaplık").subsequence(0, 3).charAt(3);
+    }
+
+    @Test
+    public void shouldNotOverwriteWhenAppendingToSameSequenceTwice() {
+        final TurkishSequence root = new TurkishSequence("ev");
+        final TurkishSequence first = root.append("ler");
+        final TurkishSequence second = root.append("de");
+        final TurkishSequence firstOfFirst = first.append("i");
+        final TurkishSequence secondOfFirst = first.append("e");
+        final TurkishSequence ofPrefix = first.subsequence(0, 3).append("z");
+
+        assertThat(root.getUnderlyingString(), equalTo("ev"));
+        assertThat(first.getUnderlyingString(), equalTo("evler"));
+        assertThat(second.getUnderlyingString(), equalTo("evde"));
+        assertThat(firstOfFirst.getUnderlyingString(), equalTo("evleri"));
+        assertThat(secondOfFirst.getUnderlyingString(), equalTo("evlere"));
+        assertThat(ofPrefix.getUnderlyingString(), equalTo("evlz"));
+        assertThat(first.getLastVowel().getCharValue(), equalTo('e'));
+        assertThat(firstOfFirst.getLastVowel().getCharValue(), equalTo('i'));
+    }
+
+    @Test
+    public void shouldCompareByChars() {
+        final TurkishSequence sequence = new TurkishSequence("kitaplık");
+        final TurkishSequence appended = new TurkishSequence("kit").append("ap");
+
+        assertThat(sequence.subsequence(0, 5), equalTo(appended));
+        assertThat(sequence.subsequence(0, 5).hashCode(), equalTo("kitap".hashCode()));
+        assertThat(appended.hashCode(), equalTo("kitap".hashCode()));
+        assertThat(sequence.subsequence(0, 4), not(equalTo(appended)));
+        assertThat(sequence.startsWith(appended), equalTo(true));
+        assertThat(appended.startsWith(sequence), equalTo(false));
+    }
+
+    @Test
+    public void shouldKeepHashCodeOnceCalculated() {
+        final TurkishSequence sequence = new TurkishSequence("kitaplık").subsequence(0, 5);
+
+        assertThat(sequence.hashCode(), equalTo("kitap".hashCode()));
+        assertThat(sequence.hashCode(), equalTo("kitap".hashCode()));
+        assertThat(new TurkishSequence(sequence).hashCode(), equalTo("kitap".hashCode()));
+    }
+
+    @Test
+    public void shouldCompactSubsequences() {
+        final TurkishSequence sequence = new TurkishSequence("kitaplık");
+        final TurkishSequence subsequence = sequence.subsequence(0, 5);
+
+        final TurkishSequence compacted = subsequence.compact();
+        assertThat(compacted, equalTo(subsequence));
+        assertThat(compacted.hashCode(), equalTo(subsequence.hashCode()));
+        assertThat(compacted.getUnderlyingString(), equalTo("kitap"));
+        assertThat(compacted.getLastVowel().getCharValue(), equalTo('a'));
+        assertThat(compacted.append("çı").getUnderlyingString(), equalTo("kitapçı"));
+        assertThat(sequence.getUnderlyingString(), equalTo("kitaplık"));
+
+        assertThat(sequence.compact(), sameInstance(sequence));
+        assertThat(compacted.compact(), sameInstance(compacted));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.model.morpheme;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+import org.trnltk.model.lexicon.*;
+import org.trnltk.model.suffix.Suffix;
+import org.trnltk.model.suffix.SuffixFormApplication;
+import org.trnltk.model.suffix.SuffixTransition;
+import org.trnltk.morphology.morphotactics.BasicSuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class MorphemeContainerTest {
+
+    private SuffixGraph suffixGraph;
+    private MorphemeContainer morphemeContainer;
+
+    @Before
+    public void setUp() throws Exception {
+        suffixGraph = new BasicSuffixGraph();
+        suffixGraph.initialize();
+
+        final Lexeme lexeme = new ImmutableLexeme("kitap", "kitap", PrimaryPos.Noun, null, ImmutableSet.<LexemeAttribute>of());
+        final ImmutableSet<PhoneticAttribute> phoneticAttributes = Sets.immutableEnumSet(new PhoneticsAnalyzer().calculatePhoneticAttributes("kitap", null));
+        final Root root = new ImmutableRoot("kitap", lexeme, phoneticAttributes, ImmutableSet.<PhoneticExpectation>of());
+
+        // kitap+A3sg+Pnon+Nom
+        morphemeContainer = new MorphemeContainer(root, suffixGraph.getSuffixGraphState("NOUN_ROOT"), "çık");
+        addTransition(morphemeContainer, "A3Sg_Noun", "", "", "NOUN_WITH_AGREEMENT");
+        addTransition(morphemeContainer, "Pnon_Noun", "", "", "NOUN_WITH_POSSESSION");
+        addTransition(morphemeContainer, "Nom_Noun", "", "", "NOUN_NOM_DERIV");
+    }
+
+    @Test
+    public void shouldKeepTrackOfSuffixesSinceDerivation() {
+        final Suffix a3sg = suffixGraph.getSuffix("A3Sg_Noun");
+
+        assertThat(morphemeContainer.getSuffixTransitions(), hasSize(3));
+        assertThat(morphemeContainer.hasSuffixSinceDerivationSuffix(a3sg), equalTo(true));
+        assertThat(morphemeContainer.hasSuffixSinceDerivationSuffix(suffixGraph.getSuffix("Dim")), equalTo(false));
+        assertThat(morphemeContainer.hasSuffixGroupSinceLastDerivationSuffix(a3sg.getSuffixGroup()), equalTo(true));
+        assertThat(morphemeContainer.getSuffixesSinceDerivationSuffix(),
+                contains(a3sg, suffixGraph.getSuffix("Pnon_Noun"), suffixGraph.getSuffix("Nom_Noun")));
+        assertThat(morphemeContainer.getSuffixGroupsSinceLastDerivationSuffix(), hasItem(a3sg.getSuffixGroup()));
+        assertThat(morphemeContainer.getTransitionsSinceDerivationSuffix(), hasSize(3));
+        assertThat(morphemeContainer.getTransitionsFromDerivationSuffix(), hasSize(3));
+        assertThat(morphemeContainer.getLastDerivationSuffix(), nullValue());
+        assertThat(morphemeContainer.getLastDerivationSuffixTransition(), nullValue());
+    }
+
+    @Test
+    public void shouldResetSinceDerivationStateWithDerivation() {
+        final MorphemeContainer copy = new MorphemeContainer(morphemeContainer);
+        addTransition(copy, "Dim", "cIk", "çık", "NOUN_ROOT");
+
+        final Suffix dim = suffixGraph.getSuffix("Dim");
+        assertThat(copy.getSuffixTransitions(), hasSize(4));
+        assertThat(copy.getLastDerivationSuffix(), equalTo(dim));
+        assertThat(copy.getLastDerivationSuffixTransition(), sameInstance(copy.getLastSuffixTransition()));
+        assertThat(copy.getSuffixesSinceDerivationSuffix(), empty());
+        assertThat(copy.getSuffixGroupsSinceLastDerivationSuffix(), empty());
+        assertThat(copy.hasSuffixSinceDerivationSuffix(suffixGraph.getSuffix("A3Sg_Noun")), equalTo(false));
+        assertThat(copy.getTransitionsSinceDerivationSuffix(), empty());
+        assertThat(copy.getTransitionsFromDerivationSuffix(), contains(copy.getLastSuffixTransition()));
+        assertThat(copy.getSurfaceSoFar().getUnderlyingString(), equalTo("kitapçık"));
+        assertThat(copy.getRemainingSurface(), equalTo(""));
+    }
+
+    @Test
+    public void shouldNotChangeOriginalWhenCopyIsExtended() {
+        final MorphemeContainer copy = new MorphemeContainer(morphemeContainer);
+        assertThat(copy, equalTo(morphemeContainer));
+        assertThat(copy.hashCode(), equalTo(morphemeContainer.hashCode()));
+
+        addTransition(copy, "Dim", "cIk", "çık", "NOUN_ROOT");
+
+        assertThat(copy, not(equalTo(morphemeContainer)));
+        assertThat(morphemeContainer.getSuffixTransitions(), hasSize(3));
+        assertThat(morphemeContainer.getLastSuffixTransition().getSuffixFormApplication().getSuffixForm().getSuffix(), equalTo(suffixGraph.getSuffix("Nom_Noun")));
+        assertThat(morphemeContainer.hasSuffixSinceDerivationSuffix(suffixGraph.getSuffix("A3Sg_Noun")), equalTo(true));
+        assertThat(morphemeContainer.getLastDerivationSuffix(), nullValue());
+        assertThat(morphemeContainer.getRemainingSurface(), equalTo("çık"));
+
+        // common part of the transitions is shared
+        for (int i = 0; i < 3; i++) {
+            assertThat(copy.getSuffixTransitions().get(i), sameInstance(morphemeContainer.getSuffixTransitions().get(i)));
+        }
+    }
+
+    @Test
+    public void shouldKeepSuffixFormGraphNodeIdOnlyIfPhoneticAttributesMatch() {
+        final SuffixFormApplication suffixFormApplication = new SuffixFormApplication(suffixGraph.getSuffixForm("Dim", "cIk"), "çık", "çık");
+        final SuffixTransition transition = new SuffixTransition(morphemeContainer.getLastState(), suffixFormApplication, suffixGraph.getSuffixGraphState("NOUN_ROOT"));
+        assertThat(morphemeContainer.getSuffixFormGraphNodeId(), equalTo(MorphemeContainer.UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID));
+
+        final MorphemeContainer withoutNode = new MorphemeContainer(morphemeContainer);
+        withoutNode.addTransition(transition);
+        assertThat(withoutNode.getSuffixFormGraphNodeId(), equalTo(MorphemeContainer.UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID));
+
+        final MorphemeContainer matching = new MorphemeContainer(morphemeContainer);
+        matching.addTransition(transition, 42, withoutNode.getPhoneticAttributesMask());
+        assertThat(matching.getSuffixFormGraphNodeId(), equalTo(42));
+        assertThat(new MorphemeContainer(matching).getSuffixFormGraphNodeId(), equalTo(42));
+
+        final MorphemeContainer notMatching = new MorphemeContainer(morphemeContainer);
+        notMatching.addTransition(transition, 42, ~withoutNode.getPhoneticAttributesMask());
+        assertThat(notMatching.getSuffixFormGraphNodeId(), equalTo(MorphemeContainer.UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID));
+
+        // id is not known after a transition without a node
+        addTransition(matching, "A3Sg_Noun", "", "", "NOUN_WITH_AGREEMENT");
+        assertThat(matching.getSuffixFormGraphNodeId(), equalTo(MorphemeContainer.UNKNOWN_SUFFIX_FORM_GRAPH_NODE_ID));
+    }
+
+    private void addTransition(MorphemeContainer container, String suffixName, String suffixFormStr, String actualSuffixForm, String targetStateName) {
+        final SuffixFormApplication suffixFormApplication = new SuffixFormApplication(suffixGraph.getSuffixForm(suffixName, suffixFormStr), actualSuffixForm, actualSuffixForm);
+        container.addTransition(suffixFormApplication, suffixGraph.getSuffixGraphState(targetStateName));
+    }
+}
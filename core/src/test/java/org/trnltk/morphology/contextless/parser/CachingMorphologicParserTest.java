@@ -0,0 +1,169 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.morphology.contextless.parser.cache.LRUMorphologicParserCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CachingMorphologicParserTest {
+
+    private MorphologicParser contextlessParser;
+    private CountingParser countingParser;
+    private CachingMorphologicParser cachingParser;
+
+    @Before
+    public void setUp() throws Exception {
+        contextlessParser = ContextlessMorphologicParserBuilder.createSimple();
+        countingParser = new CountingParser(contextlessParser);
+        cachingParser = new CachingMorphologicParser(new LRUMorphologicParserCache(4, 100, 1000), countingParser, true);
+    }
+
+    @Test
+    public void shouldParseConcurrentMissesOnlyOnce() throws Exception {
+        final int threadCount = 16;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        try {
+            final List<Future<List<MorphemeContainer>>> futures = new ArrayList<Future<List<MorphemeContainer>>>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executorService.submit(new Callable<List<MorphemeContainer>>() {
+                    @Override
+                    public List<MorphemeContainer> call() throws Exception {
+                        startLatch.await();
+                        return cachingParser.parseStr("kitabı");
+                    }
+                }));
+            }
+
+            countingParser.blockParses();
+            startLatch.countDown();
+            // let the other threads miss the cache while the first parse is blocked
+            Thread.sleep(200);
+            countingParser.unblockParses();
+
+            final List<MorphemeContainer> firstResult = futures.get(0).get();
+            assertThat(firstResult, not(empty()));
+            for (Future<List<MorphemeContainer>> future : futures) {
+                assertThat(future.get(), sameInstance(firstResult));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertThat(countingParser.parseCount.get(), equalTo(1));
+    }
+
+    @Test
+    public void shouldParseSequences() {
+        final List<TurkishSequence> inputs = Arrays.asList(new TurkishSequence("elma"), new TurkishSequence("kitabı"), new TurkishSequence("elma"), new TurkishSequence("xyzqw"));
+
+        final List<List<MorphemeContainer>> results = cachingParser.parseAll(inputs);
+
+        assertThat(results, hasSize(inputs.size()));
+        for (int i = 0; i < inputs.size(); i++) {
+            assertThat(results.get(i).toString(), equalTo(contextlessParser.parse(inputs.get(i)).toString()));
+        }
+        assertThat(results.get(3), empty());
+        assertThat(countingParser.parseCount.get(), equalTo(3));
+
+        // all from the cache now
+        cachingParser.parseAll(inputs);
+        assertThat(countingParser.parseCount.get(), equalTo(3));
+    }
+
+    @Test
+    public void shouldUseCacheForBatchesWithoutLocalCache() {
+        final CachingMorphologicParser parser = new CachingMorphologicParser(new LRUMorphologicParserCache(4, 100, 1000), countingParser, false);
+        final List<String> inputs = Arrays.asList("elma", "kitabı", "elma");
+
+        final List<List<MorphemeContainer>> results = parser.parseAllStr(inputs);
+
+        assertThat(results, hasSize(inputs.size()));
+        assertThat(results.get(2), sameInstance(results.get(0)));
+        assertThat(countingParser.parseCount.get(), equalTo(2));
+
+        // all from the cache now
+        parser.parseAllStr(inputs);
+        assertThat(countingParser.parseCount.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldParseSingleSequence() {
+        final List<MorphemeContainer> result = cachingParser.parse(new TurkishSequence("kitabı"));
+
+        assertThat(result.toString(), equalTo(contextlessParser.parseStr("kitabı").toString()));
+        assertThat(cachingParser.parseStr("kitabı"), sameInstance(result));
+        assertThat(countingParser.parseCount.get(), equalTo(1));
+    }
+
+    private static class CountingParser implements MorphologicParser {
+        private final MorphologicParser delegate;
+        private final AtomicInteger parseCount = new AtomicInteger();
+        private volatile CountDownLatch blocker = new CountDownLatch(0);
+
+        private CountingParser(MorphologicParser delegate) {
+            this.delegate = delegate;
+        }
+
+        private void blockParses() {
+            this.blocker = new CountDownLatch(1);
+        }
+
+        private void unblockParses() {
+            this.blocker.countDown();
+        }
+
+        @Override
+        public List<MorphemeContainer> parseStr(String input) {
+            parseCount.incrementAndGet();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return delegate.parseStr(input);
+        }
+
+        @Override
+        public List<MorphemeContainer> parse(TurkishSequence input) {
+            return this.parseStr(input.getUnderlyingString());
+        }
+
+        @Override
+        public List<List<MorphemeContainer>> parseAllStr(List<String> inputs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<List<MorphemeContainer>> parseAll(List<TurkishSequence> inputs) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
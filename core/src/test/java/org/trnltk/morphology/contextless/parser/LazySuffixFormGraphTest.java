@@ -0,0 +1,125 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.trnltk.morphology.morphotactics.BasicSuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixFormSequenceApplier;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
+import org.trnltk.util.MorphemeContainerFormatter;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class LazySuffixFormGraphTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SuffixGraph suffixGraph;
+    private SuffixFormGraphExtractor extractor;
+
+    @Before
+    public void setUp() throws Exception {
+        suffixGraph = new BasicSuffixGraph();
+        suffixGraph.initialize();
+        extractor = new SuffixFormGraphExtractor(new SuffixFormSequenceApplier(), new PhoneticsAnalyzer(), new PhoneticAttributeSets());
+    }
+
+    @Test
+    public void shouldExploreNodesOnlyWhenAccessed() {
+        final LazySuffixFormGraph lazyGraph = extractor.extractLazily(suffixGraph);
+        assertThat(lazyGraph.getNodeCount(), equalTo(0));
+
+        final SuffixFormGraph eagerGraph = extractor.extract(suffixGraph);
+        SuffixFormGraphNode eagerNode = null;
+        for (int i = 0; eagerNode == null; i++) {
+            if (eagerGraph.getNode(i).getEdges().size() > 1)
+                eagerNode = eagerGraph.getNode(i);
+        }
+        final SuffixFormGraphNodeKey key = eagerNode.getSuffixFormGraphNodeKey();
+
+        final SuffixFormGraphNode lazyNode = lazyGraph.getNode(key.getState(), key.getPhonAttrMask());
+        assertThat(lazyNode, equalTo(eagerNode));
+        assertThat(lazyNode.getEdges(), equalTo(eagerNode.getEdges()));
+        assertThat(lazyGraph.getExploredNodeCount(), equalTo(1));
+        assertThat(lazyGraph.getHotNodeKeys(), contains(key));
+
+        // targets are created, but not explored
+        assertThat(lazyGraph.getNodeCount(), greaterThan(1));
+        for (SuffixFormGraphSuffixEdge edge : lazyNode.getEdges()) {
+            final SuffixFormGraphNode target = edge.getTargetSuffixFormGraphNode();
+            if (!target.equals(lazyNode))
+                assertThat(target.getEdges(), empty());
+        }
+
+        // target is explored when it is accessed by its id
+        SuffixFormGraphNode target = null;
+        for (SuffixFormGraphSuffixEdge edge : lazyNode.getEdges()) {
+            if (!edge.getTargetSuffixFormGraphNode().equals(lazyNode))
+                target = edge.getTargetSuffixFormGraphNode();
+        }
+        assertThat(lazyGraph.getNode(target.getId()), sameInstance(target));
+        assertThat(target.getEdges(), equalTo(eagerGraph.getNode(target.getSuffixFormGraphNodeKey()).getEdges()));
+        assertThat(lazyGraph.getNode(key), sameInstance(lazyNode));
+    }
+
+    @Test
+    public void shouldParseTheSameWithLazyGraph() {
+        final MorphologicParser eagerParser = ContextlessMorphologicParserBuilder.newBuilderWithoutCircumflexConversion()
+                .includeBundledBasicSuffixGraph()
+                .addAllBundledNoBruteForceRootFinders(false)
+                .build(false);
+        final MorphologicParser lazyParser = ContextlessMorphologicParserBuilder.newBuilderWithoutCircumflexConversion()
+                .includeBundledBasicSuffixGraph()
+                .lazySuffixFormGraph()
+                .addAllBundledNoBruteForceRootFinders(false)
+                .build(false);
+
+        for (String word : Arrays.asList("kitabı", "kitaplarımızdan", "geldim", "gelemeyecekmişsiniz", "ağacın", "okudular")) {
+            final List<String> expected = MorphemeContainerFormatter.formatMorphemeContainers(eagerParser.parseStr(word));
+            assertThat(word, expected, not(empty()));
+            assertThat(word, MorphemeContainerFormatter.formatMorphemeContainers(lazyParser.parseStr(word)), containsInAnyOrder(expected.toArray()));
+        }
+    }
+
+    @Test
+    public void shouldWarmUpWithHotNodes() throws Exception {
+        final SuffixFormGraph eagerGraph = extractor.extract(suffixGraph);
+        final LazySuffixFormGraph lazyGraph = extractor.extractLazily(suffixGraph);
+        for (int i = 0; i < 20; i++) {
+            final SuffixFormGraphNodeKey key = eagerGraph.getNode(i).getSuffixFormGraphNodeKey();
+            lazyGraph.getNode(key.getState(), key.getPhonAttrMask());
+        }
+
+        final File file = temporaryFolder.newFile("hotNodes.txt");
+        lazyGraph.writeHotNodes(file);
+
+        final LazySuffixFormGraph warmedUpGraph = extractor.extractLazily(suffixGraph);
+        assertThat(warmedUpGraph.warmUp(file), equalTo(lazyGraph.getExploredNodeCount()));
+        assertThat(warmedUpGraph.getHotNodeKeys(), equalTo(lazyGraph.getHotNodeKeys()));
+    }
+}
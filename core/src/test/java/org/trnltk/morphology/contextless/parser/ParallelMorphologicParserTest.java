@@ -0,0 +1,170 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.morphology.contextless.parser.cache.LRUMorphologicParserCache;
+import org.trnltk.util.MorphemeContainerFormatter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ParallelMorphologicParserTest {
+
+    private static final List<String> WORDS = Arrays.asList("elma", "elmalar", "kitabı", "geldim", "okudum", "ev", "evde", "gidiyorum", "xyzqw", "kalem");
+
+    private MorphologicParser sequentialParser;
+    private ParallelMorphologicParser parallelParser;
+
+    @Before
+    public void setUp() throws Exception {
+        sequentialParser = ContextlessMorphologicParserBuilder.createSimple();
+        parallelParser = new ParallelMorphologicParser(sequentialParser, 4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        parallelParser.shutdown();
+    }
+
+    @Test
+    public void shouldReturnSameResultsInInputOrder() {
+        final List<String> inputs = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            inputs.addAll(WORDS);
+        }
+
+        final List<List<MorphemeContainer>> expected = sequentialParser.parseAllStr(inputs);
+        final List<List<MorphemeContainer>> retrieved = parallelParser.parseAllStr(inputs);
+
+        assertThat(retrieved, hasSize(inputs.size()));
+        for (int i = 0; i < inputs.size(); i++) {
+            assertThat(MorphemeContainerFormatter.formatMorphemeContainers(retrieved.get(i)),
+                    equalTo(MorphemeContainerFormatter.formatMorphemeContainers(expected.get(i))));
+        }
+    }
+
+    @Test
+    public void shouldParseSequencesInInputOrder() {
+        final List<TurkishSequence> inputs = new ArrayList<TurkishSequence>();
+        for (String word : WORDS) {
+            inputs.add(new TurkishSequence(word));
+        }
+
+        final List<List<MorphemeContainer>> retrieved = parallelParser.parseAll(inputs);
+
+        assertThat(retrieved, hasSize(WORDS.size()));
+        for (int i = 0; i < WORDS.size(); i++) {
+            assertThat(MorphemeContainerFormatter.formatMorphemeContainers(retrieved.get(i)),
+                    equalTo(MorphemeContainerFormatter.formatMorphemeContainers(sequentialParser.parseStr(WORDS.get(i)))));
+        }
+    }
+
+    @Test
+    public void shouldHandleEmptyInput() {
+        assertThat(parallelParser.parseAllStr(Collections.<String>emptyList()), hasSize(0));
+    }
+
+    @Test
+    public void shouldUpdateCounters() {
+        parallelParser.parseAllStr(WORDS);
+        parallelParser.parseStr("elma");
+
+        assertThat(parallelParser.getParsedInputCount(), equalTo((long) WORDS.size() + 1));
+        assertThat(parallelParser.getBatchCount(), equalTo(2L));
+        assertThat(parallelParser.getBatchNanos(), greaterThan(0L));
+        assertThat(parallelParser.getMaxBatchNanos(), lessThanOrEqualTo(parallelParser.getBatchNanos()));
+        assertThat(parallelParser.getThroughput(), greaterThan(0.0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldPropagateDelegateExceptions() {
+        final LRUMorphologicParserCache cache = new LRUMorphologicParserCache(2, 10, 10);
+        final MorphologicParser failingParser = new MorphologicParser() {
+            @Override
+            public List<MorphemeContainer> parseStr(String input) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<MorphemeContainer> parse(TurkishSequence input) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<List<MorphemeContainer>> parseAllStr(List<String> inputs) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<List<MorphemeContainer>> parseAll(List<TurkishSequence> inputs) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        final ParallelMorphologicParser cachingParallelParser = new ParallelMorphologicParser(new CachingMorphologicParser(cache, failingParser, true), 2);
+        try {
+            // cache misses are parsed by the failing parser
+            cachingParallelParser.parseAll(Arrays.asList(new TurkishSequence("elma")));
+        } finally {
+            cachingParallelParser.shutdown();
+        }
+    }
+
+    @Test(expected = ParseError.class)
+    public void shouldRethrowDelegateErrors() {
+        final MorphologicParser failingParser = new MorphologicParser() {
+            @Override
+            public List<MorphemeContainer> parseStr(String input) {
+                throw new ParseError();
+            }
+
+            @Override
+            public List<MorphemeContainer> parse(TurkishSequence input) {
+                throw new ParseError();
+            }
+
+            @Override
+            public List<List<MorphemeContainer>> parseAllStr(List<String> inputs) {
+                throw new ParseError();
+            }
+
+            @Override
+            public List<List<MorphemeContainer>> parseAll(List<TurkishSequence> inputs) {
+                throw new ParseError();
+            }
+        };
+        final ParallelMorphologicParser failingParallelParser = new ParallelMorphologicParser(failingParser, 2);
+        try {
+            failingParallelParser.parseAllStr(Arrays.asList("elma", "armut"));
+        } finally {
+            failingParallelParser.close();
+        }
+    }
+
+    private static class ParseError extends Error {
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import com.google.common.collect.Multimap;
+import org.junit.Test;
+import org.trnltk.model.lexicon.Root;
+import org.trnltk.morphology.lexicon.RootMapFactory;
+import org.trnltk.util.MorphemeContainerFormatter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.trnltk.morphology.contextless.parser.ParserRuntime.BundledSuffixGraph.*;
+
+public class ParserRuntimeTest {
+
+    @Test
+    public void shouldShareRuntimes() {
+        final ParserRuntime runtime = ParserRuntime.getShared(false, Arrays.asList(BASIC, NUMERAL));
+
+        assertThat(ParserRuntime.getShared(false, Arrays.asList(BASIC, NUMERAL)), sameInstance(runtime));
+        assertThat(ParserRuntime.getShared(true, Arrays.asList(BASIC, NUMERAL)), not(sameInstance(runtime)));
+        assertThat(ParserRuntime.getShared(false, Arrays.asList(BASIC)), not(sameInstance(runtime)));
+
+        // dictionary is shared by the runtimes with different suffix graphs
+        final Object dictionaryRootMap = runtime.getDictionaryRootMap();
+        assertThat(ParserRuntime.getShared(false, Arrays.asList(BASIC)).getDictionaryRootMap(), sameInstance(dictionaryRootMap));
+        assertThat(ParserRuntime.getSharedDictionary(false), sameInstance(dictionaryRootMap));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateRuntimeWithoutBasicSuffixGraph() {
+        ParserRuntime.getShared(false, Arrays.asList(NUMERAL, BASIC));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotModifySharedDictionary() {
+        ParserRuntime.getSharedDictionary(false).removeAll("kitap");
+    }
+
+    @Test
+    public void shouldShareAllDictionaryRoots() {
+        final Multimap<String, ? extends Root> parsedDictionary = RootMapFactory.createSimpleWithNumbersConvertCircumflexes();
+        final Multimap<String, ? extends Root> sharedDictionary = ParserRuntime.getSharedDictionary(true);
+
+        assertThat(sharedDictionary.size(), equalTo(parsedDictionary.size()));
+        assertThat(sharedDictionary.keySet(), equalTo(parsedDictionary.keySet()));
+        assertThat(sharedDictionary.get("kitap").iterator().next().getLexeme().getLemma(), equalTo("kitap"));
+    }
+
+    @Test
+    public void shouldBuildParsersWithGivenRuntime() {
+        final ParserRuntime runtime = ParserRuntime.getShared(false, Arrays.asList(BASIC, NUMERAL, PROPER_NOUN, COPULA));
+
+        final MorphologicParser parser = ContextlessMorphologicParserBuilder.newBuilderWithoutCircumflexConversion().build(true);
+        final MorphologicParser parserWithRuntime = ContextlessMorphologicParserBuilder.newBuilderWithoutCircumflexConversion()
+                .runtime(runtime)
+                .addAllBundledNoBruteForceRootFinders(true)
+                .build(false);
+
+        for (String word : Arrays.asList("kitabı", "Ahmet'e", "3'ü", "geldim", "evdeyiz")) {
+            final List<String> expected = MorphemeContainerFormatter.formatMorphemeContainers(parser.parseStr(word));
+            assertThat(word, MorphemeContainerFormatter.formatMorphemeContainers(parserWithRuntime.parseStr(word)), containsInAnyOrder(expected.toArray()));
+            assertThat(word, expected, not(empty()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotSetRuntimeAfterRootFinders() {
+        ContextlessMorphologicParserBuilder.newBuilder()
+                .addAllBundledNoBruteForceRootFinders(true)
+                .runtime(ParserRuntime.getShared(true, Arrays.asList(BASIC)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotIncludeBundledSuffixGraphsBeforeBasicSuffixGraph() {
+        ContextlessMorphologicParserBuilder.newBuilder().includeBundledNumeralSuffixGraph();
+    }
+}
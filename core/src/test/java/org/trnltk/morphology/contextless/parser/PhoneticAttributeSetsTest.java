@@ -0,0 +1,77 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import org.junit.Test;
+import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
+import org.trnltk.model.lexicon.PhoneticAttributeMetadata;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class PhoneticAttributeSetsTest {
+
+    @Test
+    public void shouldComputeValidSetsOnce() {
+        assertThat(new PhoneticAttributeSets().getValidPhoneticAttributeSetsMap(), sameInstance(new PhoneticAttributeSets().getValidPhoneticAttributeSetsMap()));
+    }
+
+    @Test
+    public void shouldMapIndicesToMasksAndSets() {
+        final PhoneticAttributeSets phoneticAttributeSets = new PhoneticAttributeSets();
+        assertThat(phoneticAttributeSets.getValidSetCount(), equalTo(phoneticAttributeSets.getValidPhoneticAttributeSets().size()));
+
+        int index = 0;
+        for (Set<PhoneticAttribute> validSet : phoneticAttributeSets.getValidPhoneticAttributeSets()) {
+            final long mask = PhoneticAttributeMasks.toMask(validSet);
+            assertThat(phoneticAttributeSets.getMask(index), equalTo(mask));
+            assertThat(phoneticAttributeSets.getIndex(mask), equalTo(index));
+            assertThat(phoneticAttributeSets.getSet(index), equalTo(validSet));
+            index++;
+        }
+    }
+
+    @Test
+    public void shouldKeyValidSetsWithMasks() {
+        final PhoneticAttributeSets phoneticAttributeSets = new PhoneticAttributeSets();
+        for (Map.Entry<Long, Set<PhoneticAttribute>> entry : phoneticAttributeSets.getValidPhoneticAttributeSetsMap().entrySet()) {
+            assertThat(entry.getKey(), equalTo(PhoneticAttributeMasks.toMask(entry.getValue())));
+            assertThat(phoneticAttributeSets.getNumberForSet(entry.getValue()), equalTo(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void shouldFindValidMasks() {
+        final PhoneticAttributeSets phoneticAttributeSets = new PhoneticAttributeSets();
+        final Set<Long> validMasks = new HashSet<Long>();
+        for (long mask = 0; mask < 1L << PhoneticAttribute.values().length; mask++) {
+            final boolean valid = PhoneticAttributeMetadata.isValid(PhoneticAttributeMasks.toSet(mask));
+            assertThat(String.valueOf(mask), phoneticAttributeSets.isValid(mask), equalTo(valid));
+            if (valid)
+                validMasks.add(mask);
+            else
+                assertThat(phoneticAttributeSets.getIndex(mask), equalTo(-1));
+        }
+        assertThat(validMasks, hasSize(phoneticAttributeSets.getValidSetCount()));
+    }
+}
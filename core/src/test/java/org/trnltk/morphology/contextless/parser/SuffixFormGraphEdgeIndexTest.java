@@ -0,0 +1,113 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.trnltk.morphology.morphotactics.BasicSuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixFormSequenceApplier;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SuffixFormGraphEdgeIndexTest {
+
+    private static final List<String> SURFACES = Arrays.asList("", "lar", "ları", "de", "dan", "ım", "ken", "yor", "ecek", "cık", "ğı", "'de", " ");
+
+    private static SuffixFormGraph suffixFormGraph;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        final SuffixGraph suffixGraph = new BasicSuffixGraph();
+        suffixGraph.initialize();
+
+        final SuffixFormGraphExtractor extractor = new SuffixFormGraphExtractor(new SuffixFormSequenceApplier(), new PhoneticsAnalyzer(), new PhoneticAttributeSets());
+        suffixFormGraph = extractor.extract(suffixGraph);
+    }
+
+    @Test
+    public void shouldIndexAllEdges() {
+        for (int i = 0; i < suffixFormGraph.getNodeCount(); i++) {
+            final SuffixFormGraphNode node = suffixFormGraph.getNode(i);
+            final SuffixFormGraphEdgeIndex edgeIndex = node.getEdgeIndex();
+
+            final Set<SuffixFormGraphSuffixEdge> indexedEdges = new HashSet<SuffixFormGraphSuffixEdge>();
+            for (int position = 0; position < edgeIndex.getEdgeCount(); position++) {
+                final SuffixFormGraphSuffixEdge edge = createEdge(edgeIndex, position);
+                final String actualSuffixForm = edge.getSuffixFormApplication().getActualSuffixForm();
+                if (position < edgeIndex.getEmptyFormEdgeCount()) {
+                    assertThat(actualSuffixForm, equalTo(""));
+                } else {
+                    final int firstCharIndex = edgeIndex.indexOfFirstChar(actualSuffixForm.charAt(0));
+                    assertThat(position, allOf(greaterThanOrEqualTo(edgeIndex.getFirstCharStart(firstCharIndex)), lessThan(edgeIndex.getFirstCharEnd(firstCharIndex))));
+                }
+                assertThat(edge.getSuffixTransition().getSourceState(), sameInstance(node.getSuffixFormGraphNodeKey().getState()));
+                indexedEdges.add(edge);
+            }
+
+            assertThat(indexedEdges, equalTo(node.getEdges()));
+        }
+    }
+
+    @Test
+    public void shouldFindSameEdgesWithFullScan() {
+        for (int i = 0; i < suffixFormGraph.getNodeCount(); i++) {
+            final SuffixFormGraphNode node = suffixFormGraph.getNode(i);
+            final SuffixFormGraphEdgeIndex edgeIndex = node.getEdgeIndex();
+            for (String surface : SURFACES) {
+                final Set<SuffixFormGraphSuffixEdge> expected = new HashSet<SuffixFormGraphSuffixEdge>();
+                for (SuffixFormGraphSuffixEdge edge : node.getEdges()) {
+                    if (surface.startsWith(edge.getSuffixFormApplication().getActualSuffixForm()))
+                        expected.add(edge);
+                }
+
+                final Set<SuffixFormGraphSuffixEdge> retrieved = new HashSet<SuffixFormGraphSuffixEdge>();
+                for (int position = 0; position < edgeIndex.getEmptyFormEdgeCount(); position++) {
+                    final SuffixFormGraphSuffixEdge edge = createEdge(edgeIndex, position);
+                    if (surface.startsWith(edge.getSuffixFormApplication().getActualSuffixForm()))
+                        retrieved.add(edge);
+                }
+                if (!surface.isEmpty()) {
+                    final int firstCharIndex = edgeIndex.indexOfFirstChar(surface.charAt(0));
+                    if (firstCharIndex >= 0) {
+                        for (int position = edgeIndex.getFirstCharStart(firstCharIndex); position < edgeIndex.getFirstCharEnd(firstCharIndex); position++) {
+                            final SuffixFormGraphSuffixEdge edge = createEdge(edgeIndex, position);
+                            if (surface.startsWith(edge.getSuffixFormApplication().getActualSuffixForm()))
+                                retrieved.add(edge);
+                        }
+                    }
+                }
+
+                assertThat(retrieved, equalTo(expected));
+            }
+        }
+    }
+
+    private static SuffixFormGraphSuffixEdge createEdge(SuffixFormGraphEdgeIndex edgeIndex, int position) {
+        final SuffixFormGraphNode targetNode = suffixFormGraph.getNode(edgeIndex.getTargetNodeId(position));
+        assertThat(targetNode.getSuffixFormGraphNodeKey().getPhonAttrMask(), equalTo(edgeIndex.getTargetPhonAttrMask(position)));
+        return new SuffixFormGraphSuffixEdge(targetNode, edgeIndex.getSuffixTransition(position), edgeIndex.getPhoneticExpectations(position));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.trnltk.morphology.morphotactics.BasicSuffixGraph;
+import org.trnltk.morphology.morphotactics.NumeralSuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixFormSequenceApplier;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SuffixFormGraphSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SuffixGraph suffixGraph;
+    private SuffixFormGraphExtractor extractor;
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        suffixGraph = new BasicSuffixGraph();
+        suffixGraph.initialize();
+        extractor = new SuffixFormGraphExtractor(new SuffixFormSequenceApplier(), new PhoneticsAnalyzer(), new PhoneticAttributeSets());
+        file = new File(temporaryFolder.getRoot(), "suffixFormGraph.snapshot");
+    }
+
+    @Test
+    public void shouldReadTheSameGraph() throws Exception {
+        final SuffixFormGraph extracted = extractor.extract(suffixGraph);
+        SuffixFormGraphSnapshot.write(extracted, file);
+
+        final SuffixFormGraph read = SuffixFormGraphSnapshot.read(file, suffixGraph);
+        assertThat(read, notNullValue());
+        assertThat(read.getNodeCount(), equalTo(extracted.getNodeCount()));
+
+        for (int i = 0; i < extracted.getNodeCount(); i++) {
+            final SuffixFormGraphNode extractedNode = extracted.getNode(i);
+            final SuffixFormGraphNode readNode = read.getNode(i);
+            assertThat(readNode, equalTo(extractedNode));
+            assertThat(readNode.getSuffixGraphStateType(), equalTo(extractedNode.getSuffixGraphStateType()));
+            assertThat(readNode.getCurrentPhonAttrSet(), equalTo(extractedNode.getCurrentPhonAttrSet()));
+            assertThat(readNode.isExplored(), equalTo(extractedNode.isExplored()));
+            assertThat(readNode.getEdges(), equalTo(extractedNode.getEdges()));
+            for (SuffixFormGraphSuffixEdge edge : readNode.getEdges()) {
+                // edges must point to the nodes of the read graph
+                assertThat(read.getNode(edge.getTargetSuffixFormGraphNode().getId()), sameInstance(edge.getTargetSuffixFormGraphNode()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotReadSnapshotOfAnotherSuffixGraph() throws Exception {
+        SuffixFormGraphSnapshot.write(extractor.extract(suffixGraph), file);
+
+        final SuffixGraph numeralSuffixGraph = new NumeralSuffixGraph(new BasicSuffixGraph());
+        numeralSuffixGraph.initialize();
+
+        assertThat(SuffixFormGraphSnapshot.read(file, numeralSuffixGraph), nullValue());
+        assertThat(SuffixFormGraphSnapshot.read(new File(temporaryFolder.getRoot(), "missing"), suffixGraph), nullValue());
+    }
+
+    @Test
+    public void shouldRewriteStaleSnapshot() throws Exception {
+        SuffixFormGraphSnapshot.write(extractor.extract(suffixGraph), file);
+
+        // corrupt the fingerprint
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(8);
+            final long fingerprint = randomAccessFile.readLong();
+            randomAccessFile.seek(8);
+            randomAccessFile.writeLong(fingerprint + 1);
+        } finally {
+            randomAccessFile.close();
+        }
+        assertThat(SuffixFormGraphSnapshot.read(file, suffixGraph), nullValue());
+
+        final SuffixFormGraph loaded = SuffixFormGraphSnapshot.loadOrExtract(file, suffixGraph, extractor);
+        assertThat(loaded.getNodeCount(), equalTo(extractor.extract(suffixGraph).getNodeCount()));
+        assertThat(SuffixFormGraphSnapshot.read(file, suffixGraph), notNullValue());
+        // temporary files are moved onto the snapshot, not left behind
+        assertThat(temporaryFolder.getRoot().list(), arrayContaining(file.getName()));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
+import org.trnltk.model.suffix.SuffixFormApplication;
+import org.trnltk.model.suffix.SuffixTransition;
+import org.trnltk.morphology.morphotactics.BasicSuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixFormSequenceApplier;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixGraphState;
+import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SuffixFormGraphTest {
+
+    private static SuffixGraph suffixGraph;
+    private static SuffixFormGraph suffixFormGraph;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        suffixGraph = new BasicSuffixGraph();
+        suffixGraph.initialize();
+
+        final SuffixFormGraphExtractor extractor = new SuffixFormGraphExtractor(new SuffixFormSequenceApplier(), new PhoneticsAnalyzer(), new PhoneticAttributeSets());
+        suffixFormGraph = extractor.extract(suffixGraph);
+    }
+
+    @Test
+    public void shouldAssignDenseNodeIds() {
+        final Set<Integer> ids = new HashSet<Integer>();
+        for (int i = 0; i < suffixFormGraph.getNodeCount(); i++) {
+            final SuffixFormGraphNode node = suffixFormGraph.getNode(i);
+            assertThat(node.getId(), equalTo(i));
+            assertThat(suffixFormGraph.getNode(node.getSuffixFormGraphNodeKey()), sameInstance(node));
+            ids.add(node.getId());
+        }
+
+        assertThat(ids, hasSize(suffixFormGraph.getNodeCount()));
+    }
+
+    @Test
+    public void shouldFindNodesByStateAndMask() {
+        for (int i = 0; i < suffixFormGraph.getNodeCount(); i++) {
+            final SuffixFormGraphNode node = suffixFormGraph.getNode(i);
+            final SuffixFormGraphNodeKey key = node.getSuffixFormGraphNodeKey();
+            assertThat(key.getPhonAttrMask(), equalTo(PhoneticAttributeMasks.toMask(key.getPhonAttrSet())));
+            assertThat(suffixFormGraph.getNode(key.getState(), key.getPhonAttrMask()), sameInstance(node));
+        }
+    }
+
+    @Test
+    public void shouldReturnNullForUnknownNodes() {
+        // no valid phonetic attribute set has all attributes
+        assertThat(suffixFormGraph.getNode(suffixGraph.getSuffixGraphState("NOUN_ROOT"), -1L), nullValue());
+    }
+
+    @Test
+    public void shouldFindNodesAddedBeforeCompiling() {
+        final SuffixFormGraph graph = new SuffixFormGraph(suffixGraph);
+        final SuffixGraphState state = suffixGraph.getSuffixGraphState("NOUN_ROOT");
+        final EnumSet<PhoneticAttribute> set = EnumSet.of(PhoneticAttribute.LastLetterVowel);
+        final SuffixFormGraphNodeKey key = new SuffixFormGraphNodeKey(state, set);
+
+        final SuffixFormGraphNode node = graph.addNode(key, state.getType(), set);
+        assertThat(graph.getNode(key), sameInstance(node));
+        assertThat(graph.getNode(node.getId()), sameInstance(node));
+
+        graph.compile();
+        assertThat(graph.getNodeCount(), equalTo(1));
+        assertThat(graph.getNode(key), sameInstance(node));
+        assertThat(graph.getNode(state, PhoneticAttributeMasks.toMask(set)), sameInstance(node));
+        assertThat(graph.getNode(node.getId()), sameInstance(node));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAddNodesAfterCompiling() {
+        final SuffixFormGraph graph = new SuffixFormGraph(suffixGraph);
+        final SuffixGraphState state = suffixGraph.getSuffixGraphState("NOUN_ROOT");
+        final EnumSet<PhoneticAttribute> set = EnumSet.of(PhoneticAttribute.LastLetterVowel);
+
+        graph.compile();
+        graph.addNode(new SuffixFormGraphNodeKey(state, set), state.getType(), set);
+    }
+
+    @Test
+    public void shouldShareSuffixTransitionsOfEdges() {
+        final Map<SuffixFormApplication, SuffixFormApplication> applications = new HashMap<SuffixFormApplication, SuffixFormApplication>();
+        final Map<SuffixTransition, SuffixTransition> transitions = new HashMap<SuffixTransition, SuffixTransition>();
+        int edgeCount = 0;
+        for (int i = 0; i < suffixFormGraph.getNodeCount(); i++) {
+            final SuffixFormGraphNode node = suffixFormGraph.getNode(i);
+            for (SuffixFormGraphSuffixEdge edge : node.getEdges()) {
+                final SuffixTransition transition = edge.getSuffixTransition();
+                assertThat(transition.getSourceState(), sameInstance(node.getSuffixFormGraphNodeKey().getState()));
+                assertThat(edge.getSuffixFormApplication(), sameInstance(transition.getSuffixFormApplication()));
+
+                if (applications.containsKey(transition.getSuffixFormApplication()))
+                    assertThat(transition.getSuffixFormApplication(), sameInstance(applications.get(transition.getSuffixFormApplication())));
+                else
+                    applications.put(transition.getSuffixFormApplication(), transition.getSuffixFormApplication());
+
+                if (transitions.containsKey(transition))
+                    assertThat(transition, sameInstance(transitions.get(transition)));
+                else
+                    transitions.put(transition, transition);
+
+                edgeCount++;
+            }
+        }
+
+        // same transitions are added from nodes of a state with different phonetic attributes
+        assertThat(transitions.size(), lessThan(edgeCount));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+import org.junit.Test;
+import org.trnltk.model.morpheme.MorphemeContainer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ConcurrentTwoLevelMorphologicParserCacheTest {
+
+    @Test
+    public void shouldReturnPutValuesAndCountHits() {
+        final ConcurrentTwoLevelMorphologicParserCache cache = new ConcurrentTwoLevelMorphologicParserCache(2, 100, 1);
+        final List<MorphemeContainer> elma = new ArrayList<MorphemeContainer>();
+        final List<MorphemeContainer> armut = new ArrayList<MorphemeContainer>();
+        final List<MorphemeContainer> kiraz = new ArrayList<MorphemeContainer>();
+
+        assertThat(cache.get("elma"), nullValue());
+
+        cache.put("elma", elma);
+        cache.put("armut", armut);
+        cache.put("kiraz", kiraz);      // elma is out of L2 now
+
+        assertThat(cache.get("kiraz"), sameInstance(kiraz));
+        assertThat(cache.get("elma"), sameInstance(elma));
+
+        final MorphologicParserCacheStats stats = cache.stats();
+        assertThat(stats.getL2HitCount(), equalTo(1L));
+        assertThat(stats.getL1HitCount(), equalTo(1L));
+        assertThat(stats.getMissCount(), equalTo(1L));
+        assertThat(stats.getRequestCount(), equalTo(3L));
+    }
+
+    @Test
+    public void shouldStoreEmptyListForNullValues() {
+        final ConcurrentTwoLevelMorphologicParserCache cache = new ConcurrentTwoLevelMorphologicParserCache(2, 100, 1);
+        cache.put("xyzqw", null);
+        assertThat(cache.get("xyzqw"), empty());
+    }
+
+    @Test
+    public void shouldBoundL1SizeAndCountEvictions() {
+        final ConcurrentTwoLevelMorphologicParserCache cache = new ConcurrentTwoLevelMorphologicParserCache(0, 10, 1);
+        final Map<String, List<MorphemeContainer>> map = new HashMap<String, List<MorphemeContainer>>();
+        for (int i = 0; i < 50; i++) {
+            map.put("word" + i, new ArrayList<MorphemeContainer>());
+        }
+        cache.putAll(map);
+
+        assertThat(cache.size(), lessThanOrEqualTo(10L));
+        assertThat(cache.stats().getEvictionCount(), equalTo(50L - cache.size()));
+    }
+
+    @Test
+    public void shouldClearBothLevels() throws Exception {
+        final ConcurrentTwoLevelMorphologicParserCache cache = new ConcurrentTwoLevelMorphologicParserCache(2, 100, 1);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Callable<List<MorphemeContainer>> getFromOtherThread = new Callable<List<MorphemeContainer>>() {
+                @Override
+                public List<MorphemeContainer> call() throws Exception {
+                    return cache.get("elma");
+                }
+            };
+
+            cache.put("elma", new ArrayList<MorphemeContainer>());
+            // other thread has elma in its L2 now
+            assertThat(executorService.submit(getFromOtherThread).get(), notNullValue());
+
+            cache.clear();
+
+            assertThat(cache.get("elma"), nullValue());
+            assertThat(executorService.submit(getFromOtherThread).get(), nullValue());
+            assertThat(cache.size(), equalTo(0L));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldSumL2HitsOfAllThreads() throws Exception {
+        final int threadCount = 4;
+        final int hitsPerThread = 100;
+        final ConcurrentTwoLevelMorphologicParserCache cache = new ConcurrentTwoLevelMorphologicParserCache(2, 100, threadCount);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < threadCount; t++) {
+                final String input = "word" + t;
+                futures.add(executorService.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        cache.put(input, new ArrayList<MorphemeContainer>());
+                        for (int i = 0; i < hitsPerThread; i++) {
+                            cache.get(input);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertThat(cache.stats().getL2HitCount(), equalTo((long) threadCount * hitsPerThread));
+    }
+
+    @Test
+    public void shouldMakeEntriesVisibleToOtherThreadsWithoutLosingAny() throws Exception {
+        final int threadCount = 16;
+        final int wordsPerThread = 500;
+        final ConcurrentTwoLevelMorphologicParserCache cache = new ConcurrentTwoLevelMorphologicParserCache(50, 4 * threadCount * wordsPerThread, threadCount);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < threadCount; t++) {
+                final int threadIndex = t;
+                futures.add(executorService.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        for (int i = 0; i < wordsPerThread; i++) {
+                            cache.put("word" + threadIndex + "_" + i, new ArrayList<MorphemeContainer>());
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        for (int t = 0; t < threadCount; t++) {
+            for (int i = 0; i < wordsPerThread; i++) {
+                assertThat(cache.get("word" + t + "_" + i), notNullValue());
+            }
+        }
+        assertThat(cache.stats().getEvictionCount(), equalTo(0L));
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+import com.google.common.collect.Multimap;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.lexicon.Root;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.morphology.contextless.parser.ContextlessMorphologicParserBuilder;
+import org.trnltk.morphology.contextless.parser.MorphologicParser;
+import org.trnltk.morphology.lexicon.RootMapFactory;
+import org.trnltk.morphology.morphotactics.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class PersistedOfflineCacheTest {
+
+    private static final List<String> DICTIONARY_WORDS = Arrays.asList("elma", "elmalar", "kitabı", "geldim", "okudum", "evde", "onu", "benim", "gidiyorum", "xyzqw");
+    private static final List<String> NOT_DICTIONARY_WORDS = Arrays.asList("3'ü", "Ahmet'e");
+
+    private static MorphologicParser parser;
+    private static SuffixGraph suffixGraph;
+    private static Multimap<String, ? extends Root> rootMap;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        parser = ContextlessMorphologicParserBuilder.newBuilderWithoutCircumflexConversion().build(true);
+
+        // same graph and dictionary with the parser; different instances
+        suffixGraph = new CopulaSuffixGraph(new ProperNounSuffixGraph(new NumeralSuffixGraph(new BasicSuffixGraph())));
+        suffixGraph.initialize();
+        rootMap = RootMapFactory.createCompactSimpleWithNumbers();
+    }
+
+    private static List<String> allWords() {
+        final List<String> words = new ArrayList<String>(DICTIONARY_WORDS);
+        words.addAll(NOT_DICTIONARY_WORDS);
+        return words;
+    }
+
+    private static List<String> format(List<MorphemeContainer> morphemeContainers) {
+        final List<String> formatted = new ArrayList<String>();
+        for (MorphemeContainer morphemeContainer : morphemeContainers) {
+            formatted.add(morphemeContainer.toString());
+        }
+        return formatted;
+    }
+
+    @Test
+    public void shouldWriteAndDecodeParseResults() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "cache.bin");
+        final PersistedOfflineCache cache = new PersistedOfflineCache(file, allWords(), suffixGraph, rootMap);
+        assertThat(cache.isNotBuilt(), equalTo(true));
+
+        cache.build(parser);
+
+        assertThat(cache.isNotBuilt(), equalTo(false));
+        assertThat(file.isFile(), equalTo(true));
+        assertThat(cache.size(), equalTo(DICTIONARY_WORDS.size()));
+        for (String word : DICTIONARY_WORDS) {
+            assertThat(word, format(cache.get(word)), equalTo(format(parser.parseStr(word))));
+        }
+        for (String word : NOT_DICTIONARY_WORDS) {
+            assertThat(cache.get(word), nullValue());
+        }
+        assertThat(cache.get("armut"), nullValue());
+    }
+
+    @Test
+    public void shouldLoadExistingFileWithoutParsing() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "cache.bin");
+        new PersistedOfflineCache(file, allWords(), suffixGraph, rootMap).build(parser);
+        final long lastModified = file.lastModified();
+
+        final PersistedOfflineCache cache = new PersistedOfflineCache(file, allWords(), suffixGraph, rootMap);
+        cache.build(new FailingParser());
+
+        assertThat(file.lastModified(), equalTo(lastModified));
+        assertThat(format(cache.get("kitabı")), equalTo(format(parser.parseStr("kitabı"))));
+    }
+
+    @Test
+    public void shouldRewriteStaleFile() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "cache.bin");
+        new PersistedOfflineCache(file, allWords(), suffixGraph, rootMap).build(parser);
+
+        // change the fingerprint
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(8);
+            final long fingerprint = randomAccessFile.readLong();
+            randomAccessFile.seek(8);
+            randomAccessFile.writeLong(fingerprint + 1);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        final CountingParser countingParser = new CountingParser();
+        final PersistedOfflineCache cache = new PersistedOfflineCache(file, allWords(), suffixGraph, rootMap);
+        cache.build(countingParser);
+
+        assertThat(countingParser.count, equalTo(allWords().size()));
+        assertThat(format(cache.get("elmalar")), equalTo(format(parser.parseStr("elmalar"))));
+        // file is replaced, no temp files are left behind
+        assertThat(temporaryFolder.getRoot().list(), arrayContaining("cache.bin"));
+    }
+
+    @Test
+    public void shouldFindKeysWithAnyCharacters() throws Exception {
+        // U+FFFF is after the surrogates in the string order, but before the supplementary characters in UTF-8
+        final List<String> keys = Arrays.asList("a", "ağaç", "çiçek", "ıslak", "öğrenci", "zz", "\uFFFF", "\uD83D\uDE00", "a\uD83D\uDE00", "\u00E7\uFFFF");
+        final File file = new File(temporaryFolder.getRoot(), "cache.bin");
+        final PersistedOfflineCache cache = new PersistedOfflineCache(file, keys, suffixGraph, rootMap, 42L);
+        cache.build(new EmptyParser());
+
+        assertThat(cache.size(), equalTo(keys.size()));
+        for (String key : keys) {
+            assertThat(key, cache.get(key), empty());
+        }
+        for (String key : Arrays.asList("", "ağ", "ağaçlar", "b", "z", "zzz", "\uFFFE", "\uD83D\uDE01", "a\uD83D", "\u00E7")) {
+            assertThat(key, cache.get(key), nullValue());
+        }
+    }
+
+    @Test
+    public void shouldUseGivenDictionaryFingerprint() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "cache.bin");
+        new PersistedOfflineCache(file, allWords(), suffixGraph, rootMap, 42L).build(parser);
+
+        new PersistedOfflineCache(file, allWords(), suffixGraph, rootMap, 42L).build(new FailingParser());
+
+        final CountingParser countingParser = new CountingParser();
+        new PersistedOfflineCache(file, allWords(), suffixGraph, rootMap, 43L).build(countingParser);
+        assertThat(countingParser.count, equalTo(allWords().size()));
+    }
+
+    @Test
+    public void shouldBeUsableFromBuilder() throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), "cache.bin");
+        final MorphologicParser cachingParser = ContextlessMorphologicParserBuilder.newBuilderWithoutCircumflexConversion()
+                .persistedOfflineCache(file, DICTIONARY_WORDS)
+                .build(true);
+
+        assertThat(file.isFile(), equalTo(true));
+        for (String word : allWords()) {
+            assertThat(word, format(cachingParser.parseStr(word)), equalTo(format(parser.parseStr(word))));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBeUsableWithAnotherCacheFromBuilder() throws Exception {
+        ContextlessMorphologicParserBuilder.newBuilderWithoutCircumflexConversion()
+                .bundledSimpleOfflineCache()
+                .persistedOfflineCache(new File(temporaryFolder.getRoot(), "cache.bin"));
+    }
+
+    private static class FailingParser implements MorphologicParser {
+        @Override
+        public List<List<MorphemeContainer>> parseAllStr(List<String> input) {
+            throw new AssertionError("Should not parse");
+        }
+
+        @Override
+        public List<List<MorphemeContainer>> parseAll(List<TurkishSequence> input) {
+            throw new AssertionError("Should not parse");
+        }
+
+        @Override
+        public List<MorphemeContainer> parseStr(String input) {
+            throw new AssertionError("Should not parse");
+        }
+
+        @Override
+        public List<MorphemeContainer> parse(TurkishSequence input) {
+            throw new AssertionError("Should not parse");
+        }
+    }
+
+    private static class EmptyParser extends FailingParser {
+        @Override
+        public List<MorphemeContainer> parseStr(String input) {
+            return new ArrayList<MorphemeContainer>();
+        }
+    }
+
+    private static class CountingParser extends FailingParser {
+        private int count;
+
+        @Override
+        public List<MorphemeContainer> parseStr(String input) {
+            count++;
+            return parser.parseStr(input);
+        }
+    }
+}
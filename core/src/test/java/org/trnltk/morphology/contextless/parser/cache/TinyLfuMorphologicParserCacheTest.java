@@ -0,0 +1,141 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.cache;
+
+import com.google.common.cache.Weigher;
+import org.junit.Test;
+import org.trnltk.model.morpheme.MorphemeContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TinyLfuMorphologicParserCacheTest {
+
+    private static final int ENTRY_WEIGHT = 100;
+
+    private static final Weigher<String, List<MorphemeContainer>> CONSTANT_WEIGHER = new Weigher<String, List<MorphemeContainer>>() {
+        @Override
+        public int weigh(String key, List<MorphemeContainer> value) {
+            return value.isEmpty() ? ENTRY_WEIGHT : ENTRY_WEIGHT * 1000;
+        }
+    };
+
+    private static List<MorphemeContainer> newValue() {
+        return new ArrayList<MorphemeContainer>();
+    }
+
+    @Test
+    public void shouldReturnPutValuesAndCountHits() {
+        final TinyLfuMorphologicParserCache cache = new TinyLfuMorphologicParserCache(100 * ENTRY_WEIGHT, 100, 4, CONSTANT_WEIGHER);
+        final List<MorphemeContainer> elma = newValue();
+
+        assertThat(cache.get("elma"), nullValue());
+        cache.put("elma", elma);
+        assertThat(cache.get("elma"), sameInstance(elma));
+        cache.put("xyzqw", null);
+        assertThat(cache.get("xyzqw"), empty());
+
+        final MorphologicParserCacheStats stats = cache.stats();
+        assertThat(stats.getHitCount(), equalTo(2L));
+        assertThat(stats.getMissCount(), equalTo(1L));
+        assertThat(cache.size(), equalTo(2L));
+        assertThat(cache.weightedSize(), equalTo(2L * ENTRY_WEIGHT));
+    }
+
+    @Test
+    public void shouldBoundEstimatedSize() {
+        final TinyLfuMorphologicParserCache cache = new TinyLfuMorphologicParserCache(100 * ENTRY_WEIGHT, 100, 1, CONSTANT_WEIGHER);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("word" + i, newValue());
+        }
+
+        assertThat(cache.weightedSize(), lessThanOrEqualTo(100L * ENTRY_WEIGHT));
+        assertThat(cache.stats().getEvictionCount(), equalTo(1000L - cache.size()));
+    }
+
+    @Test
+    public void shouldNotCacheEntriesLargerThanTheBound() {
+        final TinyLfuMorphologicParserCache cache = new TinyLfuMorphologicParserCache(100 * ENTRY_WEIGHT, 100, 1, CONSTANT_WEIGHER);
+        final List<MorphemeContainer> huge = newValue();
+        huge.add(null);
+        cache.put("huge", huge);
+
+        assertThat(cache.get("huge"), nullValue());
+        assertThat(cache.size(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldKeepFrequentEntriesWhenFloodedWithRareOnes() {
+        final TinyLfuMorphologicParserCache cache = new TinyLfuMorphologicParserCache(100 * ENTRY_WEIGHT, 100, 1, CONSTANT_WEIGHER);
+        for (int i = 0; i < 50; i++) {
+            cache.put("frequent" + i, newValue());
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertThat(cache.get("frequent" + i), notNullValue());
+            }
+        }
+
+        // skewed workload : frequent words keep being accessed between the words seen only once
+        for (int i = 0; i < 2000; i++) {
+            final String rare = "rare" + i;
+            if (cache.get(rare) == null)
+                cache.put(rare, newValue());
+            cache.get("frequent" + (i % 50));
+        }
+
+        int frequentEntriesInCache = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("frequent" + i) != null)
+                frequentEntriesInCache++;
+        }
+        assertThat(frequentEntriesInCache, equalTo(50));
+    }
+
+    @Test
+    public void shouldNotEvictAnythingWhenCandidateIsRejected() {
+        // c needs the room of both a and b in the main area
+        final Weigher<String, List<MorphemeContainer>> weigher = new Weigher<String, List<MorphemeContainer>>() {
+            @Override
+            public int weigh(String key, List<MorphemeContainer> value) {
+                return key.equals("c") ? 9000 : 4900;
+            }
+        };
+        final TinyLfuMorphologicParserCache cache = new TinyLfuMorphologicParserCache(10000, 100, 1, weigher);
+        cache.put("a", newValue());
+        cache.put("b", newValue());
+
+        // frequencies : a < c <= b
+        for (int i = 0; i < 2; i++) {
+            assertThat(cache.get("c"), nullValue());
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThat(cache.get("b"), notNullValue());
+        }
+
+        cache.put("c", newValue());
+
+        assertThat(cache.size(), equalTo(2L));
+        assertThat(cache.get("a"), notNullValue());
+        assertThat(cache.get("b"), notNullValue());
+        assertThat(cache.get("c"), nullValue());
+        assertThat(cache.stats().getEvictionCount(), equalTo(1L));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.trnltk.morphology.contextless.parser.parsing;
+
+
+import com.google.common.collect.HashMultimap;
+import org.junit.Before;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.lexicon.Root;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.morphology.contextless.parser.*;
+import org.trnltk.morphology.contextless.parser.parsing.base.BaseContextlessMorphologicParserBasicSuffixGraphTest;
+import org.trnltk.morphology.contextless.rootfinder.DictionaryRootFinder;
+import org.trnltk.morphology.contextless.rootfinder.RootFinderChain;
+import org.trnltk.morphology.contextless.rootfinder.RootValidator;
+import org.trnltk.morphology.lexicon.RootMapFactory;
+import org.trnltk.morphology.morphotactics.BasicSuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixFormSequenceApplier;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
+import org.trnltk.morphology.phonetics.PhoneticsEngine;
+
+import java.util.List;
+
+public class ContextlessMorphologicParserDepthFirstBasicSuffixGraphTest extends BaseContextlessMorphologicParserBasicSuffixGraphTest {
+
+    private ContextlessMorphologicParser parser;
+    private HashMultimap<String, ? extends Root> originalRootMap;
+
+    public ContextlessMorphologicParserDepthFirstBasicSuffixGraphTest() {
+        this.originalRootMap = RootMapFactory.createSimpleConvertCircumflexes();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @Override
+    protected HashMultimap<String, Root> createRootMap() {
+        return HashMultimap.create(this.originalRootMap);
+    }
+
+    @Override
+    protected void buildParser(HashMultimap<String, Root> clonedRootMap) {
+        final SuffixGraph suffixGraph = new BasicSuffixGraph();
+        suffixGraph.initialize();
+
+        final PhoneticAttributeSets phoneticAttributeSets = new PhoneticAttributeSets();
+        final SuffixFormSequenceApplier suffixFormSequenceApplier = new SuffixFormSequenceApplier();
+
+        final SuffixFormGraphExtractor charSuffixGraphExtractor = new SuffixFormGraphExtractor(suffixFormSequenceApplier, new PhoneticsAnalyzer(), phoneticAttributeSets);
+        final SuffixFormGraph charSuffixGraph = charSuffixGraphExtractor.extract(suffixGraph);
+
+        final RootFinderChain rootFinderChain = new RootFinderChain(new RootValidator());
+        rootFinderChain.offer(new DictionaryRootFinder(clonedRootMap), RootFinderChain.RootFinderPolicy.CONTINUE_ON_CHAIN);
+
+        final PredefinedPaths predefinedPaths = new PredefinedPaths(suffixGraph, clonedRootMap, new SuffixApplier(new PhoneticsEngine(suffixFormSequenceApplier)));
+        predefinedPaths.initialize();
+
+        this.parser = new ContextlessMorphologicParser(charSuffixGraph, predefinedPaths, rootFinderChain, new SuffixApplier(new PhoneticsEngine(suffixFormSequenceApplier)),
+                ContextlessMorphologicParser.TraversalStrategy.DEPTH_FIRST);
+    }
+
+    @Override
+    protected List<MorphemeContainer> parse(String surfaceToParse) {
+        return this.parser.parse(new TurkishSequence(surfaceToParse));
+    }
+}
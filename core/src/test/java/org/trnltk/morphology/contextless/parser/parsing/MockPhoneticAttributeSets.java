@@ -31,23 +31,23 @@ import java.util.Set;
 public class MockPhoneticAttributeSets extends PhoneticAttributeSets {
 
     private static final List<Long> SETS_TO_INCLUDE = Arrays.asList(
-            1618L,
+            1190L,
             // [LastVowelFrontal, FirstLetterConsonant, LastLetterNotVoiceless, LastVowelUnrounded, LastLetterConsonant]
             // gazel, gazelciğ, keleğ
 
-            1682L,
+            1174L,
             // [LastVowelFrontal, LastVowelRounded, LastLetterConsonant, FirstLetterConsonant, LastLetterNotVoiceless]
             // tedavül
 
-            2642L,
+            1189L,
             // [LastLetterVowel, LastVowelFrontal, LastVowelUnrounded, LastLetterNotVoiceless, FirstLetterConsonant]
             // gazeli
 
-            1642L,
+            1382L,
             // [LastLetterConsonant, LastVowelFrontal, LastVowelUnrounded, LastLetterVoiceless, LastLetterVoicelessStop, FirstLetterConsonant]
             // gazelcik
 
-            1426L
+            1178L
             // [LastLetterConsonant, LastVowelFrontal, LastVowelRounded, LastLetterNotVoiceless, FirstLetterConsonant]
             // geliyor
 
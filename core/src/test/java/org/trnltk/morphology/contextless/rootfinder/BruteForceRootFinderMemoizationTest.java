@@ -0,0 +1,94 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.lexicon.DynamicRoot;
+import org.trnltk.model.lexicon.LexemeAttribute;
+import org.trnltk.model.lexicon.Root;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class BruteForceRootFinderMemoizationTest {
+
+    private static final List<String> WORDS = ImmutableList.of(
+            "kitabı", "kitapçı", "hakkı", "hakları", "saati", "saatte", "kalbi", "kalpler", "yurdu",
+            "gidiyor", "gitti", "başlıyor", "elliyor", "yapar", "gelir", "yaptır", "kazıttı", "edildi", "ediniliyor",
+            "görünüyor", "okundu", "suborusu", "keçiboynuzu", "Ali", "ankara'da", "3'te");
+
+    @Test
+    public void shouldReturnSameNounRootsWithAndWithoutMemoization() {
+        assertSameRoots(new BruteForceNounRootFinder(), new BruteForceNounRootFinder(0));
+    }
+
+    @Test
+    public void shouldReturnSameVerbRootsWithAndWithoutMemoization() {
+        assertSameRoots(new BruteForceVerbRootFinder(), new BruteForceVerbRootFinder(0));
+    }
+
+    @Test
+    public void shouldReturnSameCompoundNounRootsWithAndWithoutMemoization() {
+        assertSameRoots(new BruteForceCompoundNounRootFinder(), new BruteForceCompoundNounRootFinder(new BruteForceNounRootFinder(0)));
+    }
+
+    @Test
+    public void shouldNotLeakMutationsOfReturnedRootsIntoTheMemo() {
+        final BruteForceNounRootFinder finder = new BruteForceNounRootFinder();
+        final TurkishSequence partialInput = new TurkishSequence("kitab");
+        final TurkishSequence wholeSurface = new TurkishSequence("kitabı");
+
+        final Collection<DynamicRoot> firstRoots = finder.findRootsForPartialInput(partialInput, wholeSurface);
+        final Collection<DynamicRoot> expectedRoots = finder.findRootsForPartialInput(partialInput, wholeSurface);
+        for (DynamicRoot root : firstRoots) {
+            root.getLexeme().getAttributes().add(LexemeAttribute.EndsWithAyn);
+            root.getLexeme().setLemmaRoot("mutated");
+        }
+
+        final Collection<DynamicRoot> secondRoots = finder.findRootsForPartialInput(partialInput, wholeSurface);
+        assertThat(Sets.newHashSet(secondRoots), equalTo(Sets.newHashSet(expectedRoots)));
+        assertThat(Sets.newHashSet(secondRoots), not(equalTo(Sets.newHashSet(firstRoots))));
+    }
+
+    private void assertSameRoots(RootFinder memoizingFinder, RootFinder plainFinder) {
+        // twice, so that the second pass is served from the memo
+        for (int pass = 0; pass < 2; pass++) {
+            for (String word : WORDS) {
+                final TurkishSequence wholeSurface = new TurkishSequence(word);
+                for (int i = 1; i <= word.length(); i++) {
+                    final TurkishSequence partialInput = wholeSurface.subsequence(0, i);
+                    if (!plainFinder.handles(partialInput, wholeSurface))
+                        continue;
+
+                    final Set<Root> expected = new HashSet<Root>(plainFinder.findRootsForPartialInput(partialInput, wholeSurface));
+                    final Set<Root> actual = new HashSet<Root>(memoizingFinder.findRootsForPartialInput(partialInput, wholeSurface));
+                    assertThat(word + " " + partialInput, actual, equalTo(expected));
+                }
+            }
+        }
+    }
+}
@@ -16,8 +16,8 @@
 
 package org.trnltk.morphology.contextless.rootfinder;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMultimap;
-import org.hamcrest.Matcher;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -29,10 +29,10 @@ import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.hasItem;
-import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DictionaryRootFinderTest {
@@ -48,12 +48,18 @@ public class DictionaryRootFinderTest {
     Root root2_1;
     @Mock
     Root root2_2;
+    @Mock
+    Root root3;
+    @Mock
+    Root root4;
 
     @Before
     public void setUp() throws Exception {
         final ImmutableMultimap<String, Root> map = new ImmutableMultimap.Builder<String, Root>()
                 .putAll("root1", Arrays.asList(root1_1, root1_2))
                 .putAll("root2", Arrays.asList(root2_1, root2_2))
+                .put("roo", root3)
+                .put("ırmak", root4)
                 .build();
 
         finder = new DictionaryRootFinder(map);
@@ -64,9 +70,7 @@ public class DictionaryRootFinderTest {
     public void shouldFindRoots() {
         final String rootStr = "root1";
         final Collection<? extends Root> roots = finder.findRootsForPartialInput(new TurkishSequence(rootStr), null);
-        assertThat(roots, hasSize(2));
-        assertThat(roots, (Matcher) hasItem(root1_1));
-        assertThat(roots, (Matcher) hasItem(root1_2));
+        assertThat(roots, containsInAnyOrder(root1_1, root1_2));
     }
 
     @Test
@@ -75,4 +79,69 @@ public class DictionaryRootFinderTest {
         final Collection<? extends Root> roots = finder.findRootsForPartialInput(new TurkishSequence(rootStr), null);
         assertThat(roots, hasSize(0));
     }
+
+    @Test
+    public void shouldFindRootsForAllPartialInputs() {
+        final List<List<Root>> roots = finder.findRootsForAllPartialInputs(new TurkishSequence("root1ler"));
+        assertThat(roots, hasSize(8));
+        assertThat(roots.get(2), contains(root3));
+        assertThat(roots.get(4), containsInAnyOrder(root1_1, root1_2));
+        for (int i : new int[]{0, 1, 3, 5, 6, 7}) {
+            assertThat(roots.get(i), empty());
+        }
+    }
+
+    @Test
+    public void shouldFindUncapitalizedRootsForAllPartialInputs() {
+        final List<List<Root>> roots = finder.findRootsForAllPartialInputs(new TurkishSequence("Irmakta"));
+        assertThat(roots.get(4), contains(root4));
+        assertThat(finder.findRootsForAllPartialInputs(new TurkishSequence("UNKNOWN")).get(3), empty());
+    }
+
+    @Test
+    public void shouldReflectDictionaryChanges() {
+        final HashMultimap<String, Root> map = HashMultimap.create();
+        map.put("root1", root1_1);
+        map.put("root2", root2_1);
+        final DictionaryRootFinder changingFinder = new DictionaryRootFinder(map);
+
+        map.removeAll("root1");
+        map.put("roo", root3);
+        map.put("ırmak", root4);
+
+        final List<List<Root>> roots = changingFinder.findRootsForAllPartialInputs(new TurkishSequence("root1"));
+        assertThat(roots.get(2), contains(root3));
+        assertThat(roots.get(4), empty());
+    }
+
+    @Test
+    public void shouldReflectDictionaryChangesWhichKeepTheSize() {
+        final HashMultimap<String, Root> map = HashMultimap.create();
+        map.put("root1", root1_1);
+        final DictionaryRootFinder changingFinder = new DictionaryRootFinder(map);
+        assertThat(changingFinder.findRootsForAllPartialInputs(new TurkishSequence("root1")).get(4), contains(root1_1));
+
+        map.removeAll("root1");
+        map.put("roo", root3);
+
+        final List<List<Root>> roots = changingFinder.findRootsForAllPartialInputs(new TurkishSequence("root1"));
+        assertThat(roots.get(2), contains(root3));
+        assertThat(roots.get(4), empty());
+        assertThat(changingFinder.findRootsForAllPartialInputs(new TurkishSequence("Roo")).get(2), contains(root3));
+    }
+
+    @Test
+    public void shouldFindSameRootsWithAndWithoutTrie() {
+        final HashMultimap<String, Root> map = HashMultimap.create();
+        map.putAll("root1", Arrays.asList(root1_1, root1_2));
+        map.put("roo", root3);
+        map.put("ırmak", root4);
+        final DictionaryRootFinder trieFinder = new DictionaryRootFinder(map, true);
+        final DictionaryRootFinder lookupFinder = new DictionaryRootFinder(map, false);
+
+        for (String surface : Arrays.asList("root1ler", "Irmakta", "Root1", " roo", "UNKNOWN")) {
+            final TurkishSequence input = new TurkishSequence(surface);
+            assertThat(surface, trieFinder.findRootsForAllPartialInputs(input), equalTo(lookupFinder.findRootsForAllPartialInputs(input)));
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+import org.junit.Test;
+import org.trnltk.model.letter.TurkishSequence;
+
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class NumeralScanTest {
+
+    // patterns used by the digits root finders before the scanner
+    private static final Pattern[] CARDINAL_REGEXES = {
+            Pattern.compile("^[-+]?\\d+(,\\d)?\\d*$"),
+            Pattern.compile("^[-+]?(\\d{1,3}\\.)+\\d{3}(,\\d)?\\d*$")
+    };
+    private static final Pattern[] ORDINAL_REGEXES = {
+            Pattern.compile("^[-+]?\\d+\\.$"),
+            Pattern.compile("^[-+]?(\\d{1,3}\\.)+\\d{3}\\.$")
+    };
+    private static final Pattern[] RANGE_REGEXES = {
+            Pattern.compile("^((\\d{1,3}\\.)+\\d{3}|\\d+)(-((\\d{1,3}\\.)+\\d{3}|\\d+))*-((\\d{1,3}\\.)+\\d{3}|\\d+)$")
+    };
+
+    private static final char[] ALPHABET = {'1', '2', '.', ',', '-', '+', '\'', 'a'};
+
+    @Test
+    public void shouldClassifyLikeThePatterns() {
+        for (String surface : new String[]{"-12,5'ten", "1.000.000,25", "1.2345", "1.2345,6", "12.345.", "1.23.", "3-5'e",
+                "1.000-2.000.", "1-2-3", "+1-2", "3,14-5", "1..2", "1234.567", "00.000,0", "1.000,"}) {
+            assertScanMatchesPatterns(surface);
+        }
+    }
+
+    @Test
+    public void shouldClassifyAllShortSurfacesLikeThePatterns() {
+        // all surfaces with up to 6 chars of the alphabet
+        final int maxLength = 6;
+        final char[] chars = new char[maxLength];
+        long count = 1;
+        for (int i = 0; i < maxLength; i++)
+            count *= ALPHABET.length;
+
+        for (long n = 0; n < count; n++) {
+            long rest = n;
+            for (int i = 0; i < maxLength; i++) {
+                chars[i] = ALPHABET[(int) (rest % ALPHABET.length)];
+                rest /= ALPHABET.length;
+            }
+            assertScanMatchesPatterns(new String(chars));
+        }
+    }
+
+    private static void assertScanMatchesPatterns(String surface) {
+        final TurkishSequence input = new TurkishSequence(surface);
+        for (int i = 1; i <= surface.length(); i++) {
+            final TurkishSequence partialInput = new TurkishSequence(surface.substring(0, i));
+            final NumeralScan scan = NumeralScan.of(partialInput, input);
+            final String prefix = partialInput.getUnderlyingString();
+            assertThat(prefix, scan.is(i, NumeralScan.CARDINAL), equalTo(matchesAny(CARDINAL_REGEXES, prefix)));
+            assertThat(prefix, scan.is(i, NumeralScan.ORDINAL), equalTo(matchesAny(ORDINAL_REGEXES, prefix)));
+            assertThat(prefix, scan.is(i, NumeralScan.RANGE), equalTo(matchesAny(RANGE_REGEXES, prefix)));
+        }
+    }
+
+    private static boolean matchesAny(Pattern[] patterns, String str) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(str).matches())
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.contextless.rootfinder;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.lexicon.ImmutableLexeme;
+import org.trnltk.model.lexicon.ImmutableRoot;
+import org.trnltk.model.lexicon.PrimaryPos;
+import org.trnltk.model.lexicon.Root;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.trnltk.morphology.contextless.rootfinder.InputClasses.*;
+
+public class RootFinderChainTest {
+
+    private RootFinderChain chain;
+
+    @Before
+    public void setUp() {
+        chain = new RootFinderChain()
+                .offer(new PuncRootFinder(), RootFinderChain.RootFinderPolicy.STOP_CHAIN_WHEN_INPUT_IS_HANDLED)
+                .offer(new RangeDigitsRootFinder(), RootFinderChain.RootFinderPolicy.STOP_CHAIN_WHEN_INPUT_IS_HANDLED)
+                .offer(new OrdinalDigitsRootFinder(), RootFinderChain.RootFinderPolicy.STOP_CHAIN_WHEN_INPUT_IS_HANDLED)
+                .offer(new CardinalDigitsRootFinder(), RootFinderChain.RootFinderPolicy.STOP_CHAIN_WHEN_INPUT_IS_HANDLED)
+                .offer(new ProperNounFromApostropheRootFinder(), RootFinderChain.RootFinderPolicy.STOP_CHAIN_WHEN_INPUT_IS_HANDLED)
+                .offer(new ProperNounWithoutApostropheRootFinder(), RootFinderChain.RootFinderPolicy.CONTINUE_ON_CHAIN)
+                .offer(new BruteForceNounRootFinder(), RootFinderChain.RootFinderPolicy.CONTINUE_ON_CHAIN)
+                .collectStatistics();
+    }
+
+    @Test
+    public void shouldClassifyInputs() {
+        assertThat(InputClasses.of(new TurkishSequence("kitap")), equalTo(PLAIN));
+        assertThat(InputClasses.of(new TurkishSequence("Ali")), equalTo(PLAIN | CAPITALIZED));
+        assertThat(InputClasses.of(new TurkishSequence("Ali'ye")), equalTo(CAPITALIZED | APOSTROPHE));
+        assertThat(InputClasses.of(new TurkishSequence("-12,5'ten")), equalTo(DIGITS | APOSTROPHE));
+        assertThat(InputClasses.of(new TurkishSequence("3.")), equalTo(DIGITS));
+        assertThat(InputClasses.of(new TurkishSequence("...")), equalTo(PUNCTUATION));
+        assertThat(InputClasses.of(new TurkishSequence("'")), equalTo(PUNCTUATION | APOSTROPHE));
+        assertThat(InputClasses.of(new TurkishSequence("-")), equalTo(PUNCTUATION));
+    }
+
+    @Test
+    public void shouldFindTheSameRootsWithSkippingRootFinders() {
+        for (String surface : Arrays.asList("kitap", "Ali", "Ali'ye", "-12,5'ten", "3.", "1-2'ye", "...", "'", "ab3", "İstanbul'da")) {
+            final TurkishSequence input = new TurkishSequence(surface);
+            final List<List<Root>> rootsForAllPartialInputs = chain.findRootsForAllPartialInputs(input);
+            for (int i = 0; i < input.length(); i++) {
+                final List<Root> expected = chain.findRootsForPartialInput(input.subsequence(0, i + 1), input);
+                assertThat(surface + " " + i, rootsForAllPartialInputs.get(i), equalTo(expected));
+            }
+        }
+    }
+
+    @Test
+    public void shouldCollectStatistics() {
+        chain.findRootsForAllPartialInputs(new TurkishSequence("kitap"));
+        chain.findRootsForAllPartialInputs(new TurkishSequence("12'ye"));
+
+        final List<RootFinderChain.RootFinderStatistics> statistics = chain.getStatistics();
+        assertThat(statistics, hasSize(7));
+
+        // punc root finder is skipped for both, cardinal finder only for "kitap"
+        assertThat(statistics.get(0).getSkippedInputCount(), equalTo(2L));
+        assertThat(statistics.get(0).getInvocationCount(), equalTo(0L));
+        final RootFinderChain.RootFinderStatistics cardinal = statistics.get(3);
+        assertThat(cardinal.getSkippedInputCount(), equalTo(1L));
+        assertThat(cardinal.getInvocationCount(), equalTo(5L));
+        assertThat(cardinal.getHandledCount(), equalTo(1L));
+        assertThat(cardinal.getRootCount(), equalTo(1L));
+
+        // "kitap" has roots of length 2 to 5, "12'ye" is handled by the cardinal finder for "12"
+        final RootFinderChain.RootFinderStatistics bruteForce = statistics.get(6);
+        assertThat(bruteForce.getSkippedInputCount(), equalTo(0L));
+        assertThat(bruteForce.getInvocationCount(), equalTo(9L));
+        assertThat(bruteForce.getRootCount(), greaterThan(0L));
+    }
+
+    @Test
+    public void shouldValidateRootsOnlyWhenValidatorIsGiven() {
+        final RootFinder invalidRootFinder = new RootFinder() {
+            @Override
+            public Collection<? extends Root> findRootsForPartialInput(TurkishSequence partialInput, TurkishSequence input) {
+                final ImmutableLexeme lexeme = new ImmutableLexeme("xyz", "xyz", PrimaryPos.Noun, null, null);
+                return Arrays.asList(new ImmutableRoot("xyz", lexeme, null, null));
+            }
+
+            @Override
+            public boolean handles(TurkishSequence partialInput, TurkishSequence input) {
+                return true;
+            }
+        };
+
+        final RootFinderChain notValidatingChain = new RootFinderChain().offer(invalidRootFinder, RootFinderChain.RootFinderPolicy.CONTINUE_ON_CHAIN);
+        assertThat(notValidatingChain.findRootsForAllPartialInputs(new TurkishSequence("ab")).get(0), hasSize(1));
+
+        notValidatingChain.validateRoots(new RootValidator());
+        try {
+            notValidatingChain.findRootsForAllPartialInputs(new TurkishSequence("ab"));
+            throw new AssertionError("Invalid root is not detected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.lexicon;
+
+import com.google.common.collect.Multimap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.trnltk.model.lexicon.Root;
+
+import java.io.File;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class CompactLexiconCompilerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldCompileBundledDictionaries() throws Exception {
+        final File outputDirectory = new File(temporaryFolder.getRoot(), "lexicons");
+        CompactLexiconCompiler.main(new String[]{outputDirectory.getPath()});
+
+        final CompactLexicon lexicon = CompactLexicon.map(new File(outputDirectory, RootMapFactory.COMPACT_LEXICON_RESOURCE));
+        assertThat(lexicon.getSourceFingerprint(), equalTo(RootMapFactory.dictionaryFingerprint(false)));
+        assertThat(lexicon.getRootCount(), equalTo(RootMapFactory.createSimpleWithNumbers().size()));
+
+        final CompactLexicon convertedLexicon = CompactLexicon.map(new File(outputDirectory, RootMapFactory.COMPACT_LEXICON_CONVERT_CIRCUMFLEXES_RESOURCE));
+        assertThat(convertedLexicon.getSourceFingerprint(), equalTo(RootMapFactory.dictionaryFingerprint(true)));
+        assertThat(convertedLexicon.getRootCount(), equalTo(RootMapFactory.createSimpleWithNumbersConvertCircumflexes().size()));
+    }
+
+    @Test
+    public void shouldCreateSameRootsWithOrWithoutPrebuiltLexicon() {
+        // prebuilt lexicon is on the classpath only if the build compiled it
+        final Multimap<String, ? extends Root> rootMap = RootMapFactory.createCompactSimpleWithNumbers();
+        assertThat(rootMap.size(), equalTo(RootMapFactory.createSimpleWithNumbers().size()));
+        assertThat(rootMap.containsKey("kitab"), equalTo(true));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotModifyCreatedRootMap() {
+        final Multimap<String, ? extends Root> rootMap = RootMapFactory.createCompactSimpleWithNumbers();
+        rootMap.removeAll("kitab");
+    }
+}
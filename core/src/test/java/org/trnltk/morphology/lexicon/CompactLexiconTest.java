@@ -0,0 +1,159 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.lexicon;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.trnltk.model.letter.TurkishSequence;
+import org.trnltk.model.lexicon.Root;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.morphology.contextless.parser.*;
+import org.trnltk.morphology.contextless.rootfinder.DictionaryRootFinder;
+import org.trnltk.morphology.contextless.rootfinder.RootFinderChain;
+import org.trnltk.morphology.contextless.rootfinder.RootValidator;
+import org.trnltk.morphology.morphotactics.BasicSuffixGraph;
+import org.trnltk.morphology.morphotactics.NumeralSuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixFormSequenceApplier;
+import org.trnltk.morphology.phonetics.PhoneticsAnalyzer;
+import org.trnltk.morphology.phonetics.PhoneticsEngine;
+import org.trnltk.util.MorphemeContainerFormatter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CompactLexiconTest {
+
+    private static HashMultimap<String, ? extends Root> rootMap;
+    private static CompactLexicon lexicon;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        rootMap = RootMapFactory.createSimpleWithNumbers();
+        lexicon = CompactLexicon.create(rootMap.values());
+    }
+
+    @Test
+    public void shouldKeepAllRoots() {
+        assertThat(lexicon.getRootCount(), equalTo(rootMap.size()));
+        assertThat(lexicon.getKeyCount(), equalTo(rootMap.keySet().size()));
+        assertThat(new HashSet<String>(lexicon.getKeys()), equalTo(rootMap.keySet()));
+        assertSameRoots(lexicon);
+    }
+
+    @Test
+    public void shouldWriteAndLoad() throws Exception {
+        final File file = temporaryFolder.newFile("lexicon.bin");
+        lexicon.writeTo(file);
+        assertThat(file.length(), equalTo((long) lexicon.getSizeInBytes()));
+
+        assertSameRoots(CompactLexicon.map(file));
+
+        final FileInputStream inputStream = new FileInputStream(file);
+        try {
+            assertSameRoots(CompactLexicon.read(inputStream));
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotLoadOtherFiles() throws Exception {
+        final File file = temporaryFolder.newFile("other.bin");
+        com.google.common.io.Files.write("not a lexicon, but long enough".getBytes("UTF-8"), file);
+        CompactLexicon.map(file);
+    }
+
+    @Test
+    public void shouldUseViewsAsRootMap() {
+        final Multimap<String, Root> compactRootMap = lexicon.asRootMap();
+        assertThat(compactRootMap.size(), equalTo(rootMap.size()));
+        assertThat(compactRootMap.containsKey("kitab"), equalTo(true));
+        assertThat(compactRootMap.containsKey("kitabx"), equalTo(false));
+        assertThat(compactRootMap.get("kitabx"), empty());
+        // views of same root are equal
+        assertThat(compactRootMap.get("kitap"), equalTo(compactRootMap.get("kitap")));
+
+        final List<String> words = Arrays.asList("kitabı", "elmalar", "geldim", "okudum", "evde", "gidiyorum", "xyzqw", "yüzdük", "ağacı", "tarihe");
+        final MorphologicParser parser = createParser(rootMap);
+        final MorphologicParser compactParser = createParser(compactRootMap);
+        for (String word : words) {
+            final List<String> expected = MorphemeContainerFormatter.formatMorphemeContainers(parser.parseStr(word));
+            final List<String> actual = MorphemeContainerFormatter.formatMorphemeContainers(compactParser.parseStr(word));
+            assertThat(word, new HashSet<String>(actual), equalTo(new HashSet<String>(expected)));
+        }
+    }
+
+    @Test
+    public void shouldReuseRootViews() {
+        final List<Root> roots = lexicon.getRoots("kitap");
+        assertThat(roots, not(empty()));
+        final List<Root> rootsAgain = lexicon.getRoots("kitap");
+        for (int i = 0; i < roots.size(); i++) {
+            assertThat(rootsAgain.get(i), sameInstance(roots.get(i)));
+            assertThat(rootsAgain.get(i).getSequence(), sameInstance(roots.get(i).getSequence()));
+        }
+    }
+
+    private static void assertSameRoots(CompactLexicon compactLexicon) {
+        for (String key : rootMap.keySet()) {
+            final List<String> expected = new ArrayList<String>();
+            for (Root root : rootMap.get(key)) {
+                expected.add(describe(root));
+            }
+            final List<String> actual = new ArrayList<String>();
+            for (Root root : compactLexicon.getRoots(key)) {
+                actual.add(describe(root));
+            }
+            assertThat(key, actual, containsInAnyOrder(expected.toArray()));
+        }
+    }
+
+    private static String describe(Root root) {
+        return root.getSequence() + "|" + root.getLexeme().getLemma() + "|" + root.getLexeme().getLemmaRoot() + "|" +
+                root.getLexeme().getPrimaryPos() + "|" + root.getLexeme().getSecondaryPos() + "|" + root.getLexeme().getAttributes() + "|" +
+                root.getPhoneticAttributes() + "|" + root.getPhoneticExpectations();
+    }
+
+    private static MorphologicParser createParser(Multimap<String, ? extends Root> rootMap) {
+        final NumeralSuffixGraph suffixGraph = new NumeralSuffixGraph(new BasicSuffixGraph());
+        suffixGraph.initialize();
+
+        final SuffixFormSequenceApplier suffixFormSequenceApplier = new SuffixFormSequenceApplier();
+        final SuffixApplier suffixApplier = new SuffixApplier(new PhoneticsEngine(suffixFormSequenceApplier));
+        final SuffixFormGraph suffixFormGraph = new SuffixFormGraphExtractor(suffixFormSequenceApplier, new PhoneticsAnalyzer(), new PhoneticAttributeSets()).extract(suffixGraph);
+
+        final RootFinderChain rootFinderChain = new RootFinderChain(new RootValidator());
+        rootFinderChain.offer(new DictionaryRootFinder(rootMap), RootFinderChain.RootFinderPolicy.CONTINUE_ON_CHAIN);
+
+        final PredefinedPaths predefinedPaths = new PredefinedPaths(suffixGraph, rootMap, suffixApplier);
+        predefinedPaths.initialize();
+
+        return new ContextlessMorphologicParser(suffixFormGraph, predefinedPaths, rootFinderChain, suffixApplier);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright  2013  Ali Ok (aliokATapacheDOTorg)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.trnltk.morphology.morphotactics.suffixformspecifications;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.trnltk.common.specification.Specification;
+import org.trnltk.common.specification.Specifications;
+import org.trnltk.model.lexicon.LexemeAttribute;
+import org.trnltk.model.lexicon.PrimaryPos;
+import org.trnltk.model.morpheme.MorphemeContainer;
+import org.trnltk.model.suffix.Suffix;
+import org.trnltk.model.suffix.SuffixForm;
+import org.trnltk.model.suffix.SuffixTransition;
+import org.trnltk.morphology.contextless.parser.ContextlessMorphologicParserBuilder;
+import org.trnltk.morphology.contextless.parser.MorphologicParser;
+import org.trnltk.morphology.morphotactics.BasicSuffixGraph;
+import org.trnltk.morphology.morphotactics.SuffixGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.trnltk.morphology.morphotactics.suffixformspecifications.SuffixFormSpecifications.*;
+
+public class CompiledSuffixFormSpecificationTest {
+
+    private SuffixGraph suffixGraph;
+
+    @Before
+    public void setUp() {
+        suffixGraph = new BasicSuffixGraph();
+        suffixGraph.initialize();
+    }
+
+    @Test
+    public void shouldCompileConditionsOfSuffixGraph() {
+        for (Suffix suffix : suffixGraph.getAllSuffixes()) {
+            for (SuffixForm suffixForm : suffix.getSuffixForms()) {
+                for (Specification<MorphemeContainer> condition : conditionsOf(suffixForm)) {
+                    assertThat(condition, instanceOf(CompiledSuffixFormSpecification.class));
+                    // describes the same
+                    assertThat(condition.toString(), equalTo(((CompiledSuffixFormSpecification) condition).getOriginal().toString()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldFoldConstants() {
+        final Suffix suffix = suffixGraph.getSuffix("A3Sg_Noun");
+        final Specification<MorphemeContainer> leaf = comesAfter(suffix);
+
+        assertThat(programLength(Specifications.or(leaf, leaf.not().not())), equalTo(2 + 2 * 4));
+        assertThat(programLength(and(Collections.singletonList(leaf))), equalTo(4));
+        assertThat(programLength(Specifications.or(leaf, and(Collections.<Specification<MorphemeContainer>>emptyList()))), equalTo(3));
+        assertThat(programLength(Specifications.and(Specifications.and(leaf, rootHasPrimaryPos(PrimaryPos.Noun)), hasLexemeAttributes(LexemeAttribute.Voicing))),
+                equalTo(2 + 3 * 4));
+    }
+
+    @Test
+    public void shouldEvaluateTheSameAsOriginalConditions() {
+        final MorphologicParser parser = ContextlessMorphologicParserBuilder.newBuilderWithoutCircumflexConversion()
+                .includeBundledBasicSuffixGraph()
+                .addAllBundledNoBruteForceRootFinders(false)
+                .build(false);
+
+        final List<MorphemeContainer> morphemeContainers = new ArrayList<MorphemeContainer>();
+        for (String word : Arrays.asList("kitabı", "kitaplarımızdan", "geldim", "gelemeyecekmişsiniz", "ağacın", "okudular",
+                "yapılmış", "gidiyorlar", "kitapçığı", "evdekiler", "güzelleşti", "bilmiyordum", "söyleyecekler", "kalbi")) {
+            for (MorphemeContainer result : parser.parseStr(word)) {
+                morphemeContainers.addAll(replay(result));
+            }
+        }
+        assertThat(morphemeContainers, not(empty()));
+
+        int checkCount = 0;
+        for (Suffix suffix : suffixGraph.getAllSuffixes()) {
+            for (SuffixForm suffixForm : suffix.getSuffixForms()) {
+                for (Specification<MorphemeContainer> condition : conditionsOf(suffixForm)) {
+                    final Specification<MorphemeContainer> original = ((CompiledSuffixFormSpecification) condition).getOriginal();
+                    for (MorphemeContainer morphemeContainer : morphemeContainers) {
+                        assertThat(condition + " " + morphemeContainer, condition.isSatisfiedBy(morphemeContainer), equalTo(original.isSatisfiedBy(morphemeContainer)));
+                        checkCount++;
+                    }
+                }
+            }
+        }
+        assertThat(checkCount, greaterThan(0));
+    }
+
+    // Specifications.and with a single or no argument, without an unchecked generic array creation for the varargs
+    @SuppressWarnings("unchecked")
+    private static Specification<MorphemeContainer> and(List<Specification<MorphemeContainer>> specifications) {
+        return Specifications.and(specifications.toArray((Specification<MorphemeContainer>[]) new Specification<?>[specifications.size()]));
+    }
+
+    private static int programLength(Specification<MorphemeContainer> specification) {
+        return ((CompiledSuffixFormSpecification) CompiledSuffixFormSpecification.compile(specification)).getProgramLength();
+    }
+
+    private static List<Specification<MorphemeContainer>> conditionsOf(SuffixForm suffixForm) {
+        final List<Specification<MorphemeContainer>> conditions = new ArrayList<Specification<MorphemeContainer>>();
+        for (Specification<MorphemeContainer> condition : Arrays.asList(suffixForm.getPrecondition(), suffixForm.getPostCondition(), suffixForm.getPostDerivativeCondition())) {
+            if (condition != null)
+                conditions.add(condition);
+        }
+        return conditions;
+    }
+
+    private static List<MorphemeContainer> replay(MorphemeContainer result) {
+        // all intermediate containers of the result, from the root
+        final List<MorphemeContainer> morphemeContainers = new ArrayList<MorphemeContainer>();
+        MorphemeContainer morphemeContainer = new MorphemeContainer(result.getRoot(), result.getRootState(), "");
+        morphemeContainers.add(morphemeContainer);
+        for (SuffixTransition suffixTransition : result.getSuffixTransitions()) {
+            morphemeContainer = new MorphemeContainer(morphemeContainer);
+            morphemeContainer.addTransition(suffixTransition.getSuffixFormApplication(), suffixTransition.getTargetState());
+            morphemeContainers.add(morphemeContainer);
+        }
+        return morphemeContainers;
+    }
+}
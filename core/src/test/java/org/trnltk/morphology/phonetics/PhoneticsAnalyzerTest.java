@@ -21,6 +21,7 @@ import org.junit.Test;
 import org.trnltk.model.lexicon.LexemeAttribute;
 import org.trnltk.model.letter.TurkishSequence;
 import org.trnltk.model.lexicon.PhoneticAttribute;
+import org.trnltk.model.lexicon.PhoneticAttributeMasks;
 
 import java.util.EnumSet;
 import java.util.Set;
@@ -119,4 +120,21 @@ public class PhoneticsAnalyzerTest {
             assertThat(phoneticAttributes, equalTo(newAttrs));
         }
     }
+
+    @Test
+    public void shouldCalculateSameAttributesWithMasks() {
+        for (String word : new String[]{"elma", "kapak", "schwyz", "gözlükçülük", "üzümsü", "armut", "a", "ğ"}) {
+            final TurkishSequence sequence = new TurkishSequence(word);
+            final long mask = phoneticsAnalyzer.calculatePhoneticAttributesMask(sequence, null);
+            assertThat(PhoneticAttributeMasks.toSet(mask), equalTo(phoneticsAnalyzer.calculatePhoneticAttributesOfPlainSequence(sequence)));
+
+            // appending letter by letter should end up with the same attributes with the whole word
+            final long firstLetterMask = phoneticsAnalyzer.calculatePhoneticAttributesMask(new TurkishSequence(word.substring(0, 1)), null);
+            assertThat(phoneticsAnalyzer.calculateNewPhoneticAttributesMask(firstLetterMask, word.substring(1)), equalTo(mask));
+        }
+
+        final EnumSet<LexemeAttribute> lexemeAttributes = EnumSet.of(LexemeAttribute.EndsWithAyn, LexemeAttribute.InverseHarmony);
+        final TurkishSequence cami = new TurkishSequence("cami");
+        assertThat(PhoneticAttributeMasks.toSet(phoneticsAnalyzer.calculatePhoneticAttributesMask(cami, lexemeAttributes)), equalTo(EnumSet.of(FLC, LLC, LVU, LVB, LLNotVless)));
+    }
 }
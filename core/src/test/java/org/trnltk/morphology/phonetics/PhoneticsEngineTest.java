@@ -229,6 +229,22 @@ public class PhoneticsEngineTest {
         assertThat(engine.applicationMatches(new TurkishSequence("armudunu"), "armut", false), equalTo(false));
     }
 
+    @Test
+    public void shouldMatchSuffixFormAtOffset() {
+        assertThat(engine.applicationMatches(new TurkishSequence("armudunu"), 6, "nu"), equalTo(true));
+        assertThat(engine.applicationMatches(new TurkishSequence("armudunu"), 5, "u"), equalTo(true));
+        assertThat(engine.applicationMatches(new TurkishSequence("armudunu"), 5, ""), equalTo(true));
+        assertThat(engine.applicationMatches(new TurkishSequence("armudunu"), 8, ""), equalTo(true));
+        assertThat(engine.applicationMatches(new TurkishSequence("ELMALARI"), 4, "ları"), equalTo(true));
+        assertThat(engine.applicationMatches(new TurkishSequence("elmaları"), 4, "LARI"), equalTo(true));
+        assertThat(engine.applicationMatches(new TurkishSequence("elmalİ"), 4, "li"), equalTo(true));
+
+        assertThat(engine.applicationMatches(new TurkishSequence("armudunu"), 6, "na"), equalTo(false));
+        assertThat(engine.applicationMatches(new TurkishSequence("armudunu"), 6, "nun"), equalTo(false));
+        assertThat(engine.applicationMatches(new TurkishSequence("armudunu"), 0, ""), equalTo(false));
+        assertThat(engine.applicationMatches(new TurkishSequence("elmaları"), 4, "lari"), equalTo(false));
+    }
+
     @Test
     public void shouldApplySuffixes() {
         assertThat(engine.apply(new TurkishSequence("elma"), null, null), equalToAppliedStr("elma"));